@@ -1,6 +1,7 @@
 # Purpose: This script serves as a full setup pipeline for the database.
 # It sequentially creates all necessary tables, assigns IDs, formats columns,
-# creates the query history table, and loads data from CSV files.
+# creates the query history table, loads data from CSV files, and builds the
+# star schema the analysis queries run on.
 # This script is designed to be run in two parts to fully initialize the system.
 
 -- START OF tableCreation.sql --
@@ -187,4 +188,203 @@ CREATE TABLE query_history (
   run_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
--- END OF historyTableCreation.sql --
\ No newline at end of file
+-- END OF historyTableCreation.sql --
+
+-- START OF starSchema.sql --
+# The raw tables repeat the full item name and attribute text on every row, so every
+# join and filter of the analysis queries compared VARCHAR(255) strings row by row.
+# This script normalizes them into a small star schema: item, attribute and period
+# dimensions with integer surrogate keys, and fact tables that only hold those keys
+# and the numeric values. The analysis queries in tableQueries.sql join on the integer
+# keys and filter on the (tiny) dimension tables instead of the strings of every row.
+#
+# Run it after the data is loaded and the columns are formatted. It drops and rebuilds
+# every table it creates, so it can be run again whenever the CSV files are reloaded.
+# The raw tables are kept: Show Full Data, the exports and the query pages read them as they are.
+
+# ----------------- DROP PREVIOUS STAR SCHEMA -----------------
+DROP TABLE IF EXISTS fact_current_forecast;
+DROP TABLE IF EXISTS fact_forecast;
+DROP TABLE IF EXISTS fact_actual;
+DROP TABLE IF EXISTS dim_period;
+DROP TABLE IF EXISTS dim_attribute;
+DROP TABLE IF EXISTS dim_item;
+
+# ----------------- DIMENSION TABLES -----------------
+# One row per CPI or PPI item. CPI forecast items also keep their place in the
+# five-level category tree; itemName is the deepest level that is filled in.
+CREATE TABLE dim_item (
+    item_id INT AUTO_INCREMENT PRIMARY KEY,
+    indexType CHAR(3) NOT NULL,
+    itemName VARCHAR(255) NOT NULL,
+    topLevel VARCHAR(255),
+    aggregate VARCHAR(255),
+    midLevel VARCHAR(255),
+    lowLevel VARCHAR(255),
+    disaggregate VARCHAR(255),
+    UNIQUE KEY uq_dim_item (indexType, itemName)
+);
+
+# One row per attribute and unit. The bound type is classified once here with the
+# same rules as BoundType.classify, so queries filter on boundType instead of
+# matching '%mid%', 'lower' or 'upper' in the attribute text. intervalYear is the
+# year of a prediction interval such as "Lower bound of prediction interval 2025".
+CREATE TABLE dim_attribute (
+    attribute_id INT AUTO_INCREMENT PRIMARY KEY,
+    attribute VARCHAR(255) NOT NULL,
+    unit VARCHAR(255) NOT NULL,
+    boundType ENUM('LOWER', 'MID', 'UPPER', 'OTHER') NOT NULL,
+    intervalYear SMALLINT,
+    UNIQUE KEY uq_dim_attribute (attribute, unit),
+    KEY idx_dim_attribute_bound (boundType, intervalYear)
+);
+
+# One row per month a forecast was published in.
+CREATE TABLE dim_period (
+    period_id INT AUTO_INCREMENT PRIMARY KEY,
+    year SMALLINT NOT NULL,
+    month TINYINT NOT NULL,
+    UNIQUE KEY uq_dim_period (year, month)
+);
+
+# ----------------- FACT TABLES -----------------
+# Actual percent change of an item in a year (historicalcpi and historicalppi).
+CREATE TABLE fact_actual (
+    actual_id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    year SMALLINT NOT NULL,
+    percentChange DECIMAL(10, 2),
+    KEY idx_fact_actual_item_year (item_id, year),
+    FOREIGN KEY (item_id) REFERENCES dim_item (item_id)
+);
+
+# Every forecast of an item for a target year, by publication month and bound.
+# methodology is OLD for the archived tables and NEW for the historical forecast tables.
+# Non-numeric values (archived ranges such as "to 3.5") are stored as NULL.
+CREATE TABLE fact_forecast (
+    forecast_id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    attribute_id INT NOT NULL,
+    period_id INT NOT NULL,
+    yearBeingForecast SMALLINT NOT NULL,
+    methodology ENUM('OLD', 'NEW') NOT NULL,
+    forecastPercentChange DECIMAL(10, 2),
+    KEY idx_fact_forecast_item_year (item_id, yearBeingForecast, period_id),
+    KEY idx_fact_forecast_attribute (attribute_id),
+    FOREIGN KEY (item_id) REFERENCES dim_item (item_id),
+    FOREIGN KEY (attribute_id) REFERENCES dim_attribute (attribute_id),
+    FOREIGN KEY (period_id) REFERENCES dim_period (period_id)
+);
+
+# The current forecast values of CPIForecast and PPIForecast.
+CREATE TABLE fact_current_forecast (
+    currentforecast_id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    attribute_id INT NOT NULL,
+    value DECIMAL(10, 2),
+    KEY idx_fact_current_forecast_attribute (attribute_id),
+    FOREIGN KEY (item_id) REFERENCES dim_item (item_id),
+    FOREIGN KEY (attribute_id) REFERENCES dim_attribute (attribute_id)
+);
+
+# ----------------- FILL THE DIMENSIONS -----------------
+# CPI forecast items first, so they keep their category tree.
+INSERT INTO dim_item (indexType, itemName, topLevel, aggregate, midLevel, lowLevel, disaggregate)
+SELECT DISTINCT 'CPI',
+       COALESCE(NULLIF(disaggregate, ''), NULLIF(lowLevel, ''), NULLIF(midLevel, ''), NULLIF(aggregate, ''), topLevel),
+       topLevel, aggregate, midLevel, lowLevel, disaggregate
+FROM cpiforecast;
+
+# Items that only appear in the other tables. IGNORE skips the ones already added above.
+INSERT IGNORE INTO dim_item (indexType, itemName)
+SELECT 'CPI', consumerPriceIndexItem FROM historicalcpi
+UNION SELECT 'CPI', consumerPriceIndexItem FROM cpiforecastarchived
+UNION SELECT 'CPI', consumerPriceIndexItem FROM cpihistoricalforecast
+UNION SELECT 'PPI', producerPriceIndexItem FROM ppiforecast
+UNION SELECT 'PPI', producerPriceIndexItem FROM historicalppi
+UNION SELECT 'PPI', producerPriceIndexItem FROM ppiforecastarchived
+UNION SELECT 'PPI', producerPriceIndexItem FROM ppihistoricalforecast;
+
+# Forecast tables without a unit column are all in percent change.
+INSERT INTO dim_attribute (attribute, unit, boundType, intervalYear)
+SELECT attribute, unit,
+       CASE
+           WHEN LOWER(attribute) LIKE 'lower bound%' THEN 'LOWER'
+           WHEN LOWER(attribute) LIKE 'mid point%' THEN 'MID'
+           WHEN LOWER(attribute) LIKE 'upper bound%' THEN 'UPPER'
+           ELSE 'OTHER'
+       END,
+       CASE WHEN attribute REGEXP 'interval [0-9]{4}$' THEN CAST(RIGHT(attribute, 4) AS UNSIGNED) END
+FROM (
+    SELECT attribute, unit FROM cpiforecast
+    UNION SELECT attribute, unit FROM ppiforecast
+    UNION SELECT attribute, 'Percent change' FROM cpiforecastarchived
+    UNION SELECT attribute, 'Percent change' FROM cpihistoricalforecast
+    UNION SELECT attribute, 'Percent change' FROM ppiforecastarchived
+    UNION SELECT attribute, 'Percent change' FROM ppihistoricalforecast
+) attributes;
+
+INSERT INTO dim_period (year, month)
+SELECT CAST(yearOfForecast AS UNSIGNED), CAST(monthOfForecast AS UNSIGNED) FROM cpiforecastarchived
+UNION SELECT CAST(yearOfForecast AS UNSIGNED), CAST(monthOfForecast AS UNSIGNED) FROM cpihistoricalforecast
+UNION SELECT CAST(yearOfForecast AS UNSIGNED), CAST(monthOfForecast AS UNSIGNED) FROM ppiforecastarchived
+UNION SELECT CAST(yearOfForecast AS UNSIGNED), CAST(monthOfForecast AS UNSIGNED) FROM ppihistoricalforecast;
+
+# ----------------- FILL THE FACT TABLES -----------------
+# These are the only joins on item names and attribute text; they run once, at load time.
+INSERT INTO fact_actual (item_id, year, percentChange)
+SELECT i.item_id, CAST(h.year AS UNSIGNED), CAST(h.percentChange AS DECIMAL(10, 2))
+FROM historicalcpi h
+JOIN dim_item i ON i.indexType = 'CPI' AND i.itemName = h.consumerPriceIndexItem;
+
+INSERT INTO fact_actual (item_id, year, percentChange)
+SELECT i.item_id, CAST(h.year AS UNSIGNED), CAST(h.percentChange AS DECIMAL(10, 2))
+FROM historicalppi h
+JOIN dim_item i ON i.indexType = 'PPI' AND i.itemName = h.producerPriceIndexItem;
+
+INSERT INTO fact_forecast (item_id, attribute_id, period_id, yearBeingForecast, methodology, forecastPercentChange)
+SELECT i.item_id, a.attribute_id, p.period_id, CAST(f.yearBeingForecast AS UNSIGNED), 'OLD',
+       CASE WHEN f.forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$' THEN CAST(f.forecastPercentChange AS DECIMAL(10, 2)) END
+FROM cpiforecastarchived f
+JOIN dim_item i ON i.indexType = 'CPI' AND i.itemName = f.consumerPriceIndexItem
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = 'Percent change'
+JOIN dim_period p ON p.year = CAST(f.yearOfForecast AS UNSIGNED) AND p.month = CAST(f.monthOfForecast AS UNSIGNED);
+
+INSERT INTO fact_forecast (item_id, attribute_id, period_id, yearBeingForecast, methodology, forecastPercentChange)
+SELECT i.item_id, a.attribute_id, p.period_id, CAST(f.yearBeingForecast AS UNSIGNED), 'NEW',
+       CASE WHEN f.forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$' THEN CAST(f.forecastPercentChange AS DECIMAL(10, 2)) END
+FROM cpihistoricalforecast f
+JOIN dim_item i ON i.indexType = 'CPI' AND i.itemName = f.consumerPriceIndexItem
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = 'Percent change'
+JOIN dim_period p ON p.year = CAST(f.yearOfForecast AS UNSIGNED) AND p.month = CAST(f.monthOfForecast AS UNSIGNED);
+
+INSERT INTO fact_forecast (item_id, attribute_id, period_id, yearBeingForecast, methodology, forecastPercentChange)
+SELECT i.item_id, a.attribute_id, p.period_id, CAST(f.yearBeingForecast AS UNSIGNED), 'OLD',
+       CASE WHEN f.forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$' THEN CAST(f.forecastPercentChange AS DECIMAL(10, 2)) END
+FROM ppiforecastarchived f
+JOIN dim_item i ON i.indexType = 'PPI' AND i.itemName = f.producerPriceIndexItem
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = 'Percent change'
+JOIN dim_period p ON p.year = CAST(f.yearOfForecast AS UNSIGNED) AND p.month = CAST(f.monthOfForecast AS UNSIGNED);
+
+INSERT INTO fact_forecast (item_id, attribute_id, period_id, yearBeingForecast, methodology, forecastPercentChange)
+SELECT i.item_id, a.attribute_id, p.period_id, CAST(f.yearBeingForecast AS UNSIGNED), 'NEW',
+       CASE WHEN f.forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$' THEN CAST(f.forecastPercentChange AS DECIMAL(10, 2)) END
+FROM ppihistoricalforecast f
+JOIN dim_item i ON i.indexType = 'PPI' AND i.itemName = f.producerPriceIndexItem
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = 'Percent change'
+JOIN dim_period p ON p.year = CAST(f.yearOfForecast AS UNSIGNED) AND p.month = CAST(f.monthOfForecast AS UNSIGNED);
+
+INSERT INTO fact_current_forecast (item_id, attribute_id, value)
+SELECT i.item_id, a.attribute_id, CAST(f.value AS DECIMAL(10, 2))
+FROM cpiforecast f
+JOIN dim_item i ON i.indexType = 'CPI'
+ AND i.itemName = COALESCE(NULLIF(f.disaggregate, ''), NULLIF(f.lowLevel, ''), NULLIF(f.midLevel, ''), NULLIF(f.aggregate, ''), f.topLevel)
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = f.unit;
+
+INSERT INTO fact_current_forecast (item_id, attribute_id, value)
+SELECT i.item_id, a.attribute_id, CAST(f.value AS DECIMAL(10, 2))
+FROM ppiforecast f
+JOIN dim_item i ON i.indexType = 'PPI' AND i.itemName = f.producerPriceIndexItem
+JOIN dim_attribute a ON a.attribute = f.attribute AND a.unit = f.unit;
+
+-- END OF starSchema.sql --
\ No newline at end of file
@@ -4,14 +4,17 @@
 
 # Retrieves CPI forecast bounds (lower and upper) for the year 2025 across all categories.
 # Focuses on "Percent change" unit and filters only for prediction interval attributes.
+# The filters run on the small attribute dimension (starSchema.sql), and the facts are joined to it
+# and to the item dimension on their integer keys. boundType tells the chart which bound each row is.
 -- full_data_CPIForecast_for_2025_bounds
-SELECT cpiforecast_id, aggregate, midLevel, disaggregate, attribute, unit, value
-FROM CPIForecast
-WHERE unit = 'Percent change'
-  AND (
-    attribute LIKE 'Lower bound of prediction interval 2025%' OR
-    attribute LIKE 'Upper bound of prediction interval 2025%'
-  );
+SELECT f.currentforecast_id, i.aggregate, i.midLevel, i.disaggregate, a.attribute, a.boundType, a.unit, f.value
+FROM fact_current_forecast f
+JOIN dim_attribute a ON a.attribute_id = f.attribute_id
+JOIN dim_item i ON i.item_id = f.item_id
+WHERE i.indexType = 'CPI'
+  AND a.unit = 'Percent change'
+  AND a.boundType IN ('LOWER', 'UPPER')
+  AND a.intervalYear = 2025;
 
 # Returns the full CPI historical forecast dataset.
 # This includes forecasts from the new methodology used since September 2023.
@@ -27,15 +30,16 @@ SELECT * FROM historicalcpi;
 SELECT * FROM cpiforecastarchived;
 
 # Retrieves PPI forecast bounds (lower and upper) for 2025 across all categories.
-# Filters for "Percent change" unit and 2025 forecast intervals only.
+# Filters for "Percent change" unit and 2025 forecast intervals only, on the attribute dimension.
 -- full_data_PPIForecast_for_2025_bounds
-SELECT ppiforecast_id, producerPriceIndexItem, attribute, unit, value
-FROM PPIForecast
-WHERE unit = 'Percent change'
-  AND (
-    attribute LIKE '%Lower bound of prediction interval 2025%' OR
-    attribute LIKE '%Upper bound of prediction interval 2025%'
-  );
+SELECT f.currentforecast_id, i.itemName AS producerPriceIndexItem, a.attribute, a.boundType, a.unit, f.value
+FROM fact_current_forecast f
+JOIN dim_attribute a ON a.attribute_id = f.attribute_id
+JOIN dim_item i ON i.item_id = f.item_id
+WHERE i.indexType = 'PPI'
+  AND a.unit = 'Percent change'
+  AND a.boundType IN ('LOWER', 'UPPER')
+  AND a.intervalYear = 2025;
 
 # Returns the full PPI historical forecast dataset.
 -- full_data_PPIHistoricalForecast
@@ -49,78 +53,206 @@ SELECT * FROM historicalppi;
 -- full_data_ppiforecastarchived
 SELECT * FROM ppiforecastarchived;
 
+# ----------------- FULL DATA CHART PROJECTIONS -----------------
+# The "Show Full Data" chart only plots one midpoint value per item and month, so these
+# queries return just the four columns it needs and drop every other row on the server.
+# Each projection uses the same column names (item, year, month, value) so one reader handles all tables.
+
+# Returns the midpoint forecasts of the CPI historical forecast (new methodology) for the chart.
+# Non-numeric values are excluded so the client never has to parse and skip them.
+-- chart_data_CPIHistoricalForecast
+SELECT consumerPriceIndexItem AS item, yearBeingForecast AS year, monthOfForecast AS month, forecastPercentChange AS value
+FROM CPIHistoricalForecast
+WHERE LOWER(attribute) LIKE '%mid%'
+  AND forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$';
+
+# Returns the midpoint forecasts of the archived CPI forecast (old methodology) for the chart.
+# Archived values include ranges such as "to 3.5", so only plain numbers are returned.
+-- chart_data_cpiforecastarchived
+SELECT consumerPriceIndexItem AS item, yearBeingForecast AS year, monthOfForecast AS month, forecastPercentChange AS value
+FROM cpiforecastarchived
+WHERE LOWER(attribute) LIKE '%mid%'
+  AND forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$';
+
+# Returns the midpoint forecasts of the PPI historical forecast (new methodology) for the chart.
+# Non-numeric values are excluded so the client never has to parse and skip them.
+-- chart_data_PPIHistoricalForecast
+SELECT producerPriceIndexItem AS item, yearBeingForecast AS year, monthOfForecast AS month, forecastPercentChange AS value
+FROM PPIHistoricalForecast
+WHERE LOWER(attribute) LIKE '%mid%'
+  AND forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$';
+
+# Returns the midpoint forecasts of the archived PPI forecast (old methodology) for the chart.
+# Archived values include ranges such as "to 3.5", so only plain numbers are returned.
+-- chart_data_ppiforecastarchived
+SELECT producerPriceIndexItem AS item, yearBeingForecast AS year, monthOfForecast AS month, forecastPercentChange AS value
+FROM ppiforecastarchived
+WHERE LOWER(attribute) LIKE '%mid%'
+  AND forecastPercentChange REGEXP '^-?[0-9]*[.]?[0-9]+$';
+
+# Returns the actual CPI percent change per item and year for the chart, plotted in January of each year.
+-- chart_data_historicalcpi
+SELECT consumerPriceIndexItem AS item, year, 1 AS month, percentChange AS value
+FROM historicalcpi;
+
+# Returns the actual PPI percent change per item and year for the chart, plotted in January of each year.
+-- chart_data_historicalppi
+SELECT producerPriceIndexItem AS item, year, 1 AS month, percentChange AS value
+FROM historicalppi;
+
+# ----------------- FULL DATA TABLE PAGES -----------------
+# The raw rows of "Show Full Data" are shown one page at a time. Each page continues after the
+# last id of the previous page (keyset paging), so every page is a short range scan on the primary key
+# no matter how deep the user pages. Parameters: the last id of the previous page (0 for the first page)
+# and the number of rows to return.
+
+-- page_data_CPIHistoricalForecast
+SELECT * FROM CPIHistoricalForecast
+WHERE cpihistoricalforecast_id > ?
+ORDER BY cpihistoricalforecast_id
+LIMIT ?;
+
+-- page_data_historicalcpi
+SELECT * FROM historicalcpi
+WHERE historicalcpi_id > ?
+ORDER BY historicalcpi_id
+LIMIT ?;
+
+-- page_data_cpiforecastarchived
+SELECT * FROM cpiforecastarchived
+WHERE cpiforecastarchived_id > ?
+ORDER BY cpiforecastarchived_id
+LIMIT ?;
+
+-- page_data_PPIHistoricalForecast
+SELECT * FROM PPIHistoricalForecast
+WHERE ppihistoricalforecast_id > ?
+ORDER BY ppihistoricalforecast_id
+LIMIT ?;
+
+-- page_data_historicalppi
+SELECT * FROM historicalppi
+WHERE historicalppi_id > ?
+ORDER BY historicalppi_id
+LIMIT ?;
+
+-- page_data_ppiforecastarchived
+SELECT * FROM ppiforecastarchived
+WHERE ppiforecastarchived_id > ?
+ORDER BY ppiforecastarchived_id
+LIMIT ?;
+
+# Returns the current lower, mid point and upper forecast and the relative importance (as WEIGHT)
+# of every CPIForecast category together with its five category levels, for the category tree. The tree is built once from these rows,
+# so expanding a category never queries again. Filters on the attribute dimension and joins on int keys.
+-- category_tree_cpi
+SELECT i.topLevel, i.aggregate, i.midLevel, i.lowLevel, i.disaggregate,
+       CASE WHEN a.attribute = 'Relative importance' THEN 'WEIGHT' ELSE a.boundType END AS boundType,
+       f.value
+FROM fact_current_forecast f
+JOIN dim_attribute a ON a.attribute_id = f.attribute_id
+JOIN dim_item i ON i.item_id = f.item_id
+WHERE i.indexType = 'CPI'
+  AND ((a.unit = 'Percent change' AND a.boundType IN ('LOWER', 'MID', 'UPPER'))
+       OR a.attribute = 'Relative importance');
+
 # Calculates the forecast accuracy for each CPI item and year using Mean Absolute Error (MAE).
-# Joins historical CPI forecasts (new method) to actuals on item and year.
+# Joins historical CPI forecasts (new method) to actuals on the integer item key and year.
 # Filters to only include mid-point forecasts for meaningful accuracy evaluation.
 -- forecast_accuracy_cpi
 SELECT 
-    f.consumerPriceIndexItem AS item,
+    i.itemName AS item,
     f.yearBeingForecast AS year,
     AVG(ABS(f.forecastPercentChange - h.percentChange)) AS mean_absolute_error
-FROM CPIHistoricalForecast f
-JOIN historicalcpi h 
-  ON f.consumerPriceIndexItem = h.consumerPriceIndexItem 
- AND f.yearBeingForecast = h.year
-WHERE LOWER(f.attribute) LIKE '%mid%'
-GROUP BY f.consumerPriceIndexItem, f.yearBeingForecast
-ORDER BY f.consumerPriceIndexItem, f.yearBeingForecast;
+FROM fact_forecast f
+JOIN dim_attribute a ON a.attribute_id = f.attribute_id
+JOIN fact_actual h
+  ON h.item_id = f.item_id
+ AND h.year = f.yearBeingForecast
+JOIN dim_item i ON i.item_id = f.item_id
+WHERE i.indexType = 'CPI'
+  AND f.methodology = 'NEW'
+  AND a.boundType = 'MID'
+GROUP BY i.item_id, i.itemName, f.yearBeingForecast
+ORDER BY item, year;
 
 # Calculates the forecast accuracy for each PPI item and year using Mean Absolute Error (MAE).
-# Joins historical PPI forecasts (new method) to actuals on item and year.
+# Joins historical PPI forecasts (new method) to actuals on the integer item key and year.
 # Filters for mid-point forecasts to ensure consistency in error evaluation.
 -- forecast_accuracy_ppi
 SELECT 
-    f.producerPriceIndexItem AS item,
+    i.itemName AS item,
     f.yearBeingForecast AS year,
     AVG(ABS(f.forecastPercentChange - h.percentChange)) AS mean_absolute_error
-FROM PPIHistoricalForecast f
-JOIN historicalppi h
-  ON f.producerPriceIndexItem = h.producerPriceIndexItem 
- AND f.yearBeingForecast = h.year
-WHERE LOWER(f.attribute) LIKE '%mid%'
-GROUP BY f.producerPriceIndexItem, f.yearBeingForecast
-ORDER BY f.producerPriceIndexItem, f.yearBeingForecast;
+FROM fact_forecast f
+JOIN dim_attribute a ON a.attribute_id = f.attribute_id
+JOIN fact_actual h
+  ON h.item_id = f.item_id
+ AND h.year = f.yearBeingForecast
+JOIN dim_item i ON i.item_id = f.item_id
+WHERE i.indexType = 'PPI'
+  AND f.methodology = 'NEW'
+  AND a.boundType = 'MID'
+GROUP BY i.item_id, i.itemName, f.yearBeingForecast
+ORDER BY item, year;
 
 # Compares CPI forecasts from the old (archived) and new (historical) methodology.
-# Joins on item, year, and forecast month. Filters for valid mid-point numeric forecasts.
+# Joins on the integer item key, year, and forecast month. Filters for valid mid-point numeric forecasts;
+# non-numeric forecasts were stored as NULL in the fact table and are skipped.
 # Helps evaluate how forecast predictions changed between methodologies.
-# Regex documentation found at https://www.geeksforgeeks.org/mysql-regular-expressions-regexp/
 -- old_vs_new_methodology_cpi
 SELECT 
-    a.consumerPriceIndexItem AS item,
-    a.yearBeingForecast AS year,
-    a.monthOfForecast AS month,
-    CAST(a.forecastPercentChange AS DECIMAL(5,2)) AS old_forecast,
-    CAST(h.forecastPercentChange AS DECIMAL(5,2)) AS new_forecast
-FROM cpiforecastarchived a
-JOIN CPIHistoricalForecast h 
-  ON a.consumerPriceIndexItem = h.consumerPriceIndexItem
-  AND a.yearBeingForecast = h.yearBeingForecast
-  AND a.monthOfForecast = h.monthOfForecast
-WHERE LOWER(a.attribute) LIKE '%mid%'
-  AND LOWER(h.attribute) LIKE '%mid%'
-  AND a.forecastPercentChange REGEXP '^-?[0-9]+(\\.[0-9]+)?$'
-  AND h.forecastPercentChange REGEXP '^-?[0-9]+(\\.[0-9]+)?$'
+    i.itemName AS item,
+    o.yearBeingForecast AS year,
+    p.month AS month,
+    o.forecastPercentChange AS old_forecast,
+    n.forecastPercentChange AS new_forecast
+FROM fact_forecast o
+JOIN dim_attribute a ON a.attribute_id = o.attribute_id
+JOIN dim_period p ON p.period_id = o.period_id
+JOIN fact_forecast n
+  ON n.item_id = o.item_id
+  AND n.yearBeingForecast = o.yearBeingForecast
+JOIN dim_attribute na ON na.attribute_id = n.attribute_id
+JOIN dim_period np
+  ON np.period_id = n.period_id
+  AND np.month = p.month
+JOIN dim_item i ON i.item_id = o.item_id
+WHERE i.indexType = 'CPI'
+  AND a.boundType = 'MID'
+  AND na.boundType = 'MID'
+  AND o.methodology = 'OLD'
+  AND n.methodology = 'NEW'
+  AND o.forecastPercentChange IS NOT NULL
+  AND n.forecastPercentChange IS NOT NULL
 ORDER BY item, year, month;
 
 # Compares PPI forecasts from the old (archived) and new (historical) methodology.
-# Joins on item, year, and forecast month. Focuses on valid mid-point numeric forecasts.
+# Joins on the integer item key, year, and forecast month. Focuses on valid mid-point numeric forecasts.
 # Enables analysis of shifts in prediction strategies or forecast accuracy post-revision.
-# Regex documentation found at https://www.geeksforgeeks.org/mysql-regular-expressions-regexp/.
 -- old_vs_new_methodology_ppi
 SELECT 
-    a.producerPriceIndexItem AS item,
-    a.yearBeingForecast AS year,
-    a.monthOfForecast AS month,
-    CAST(a.forecastPercentChange AS DECIMAL(5,2)) AS old_forecast,
-    CAST(h.forecastPercentChange AS DECIMAL(5,2)) AS new_forecast
-FROM ppiforecastarchived a
-JOIN PPIHistoricalForecast h 
-  ON a.producerPriceIndexItem = h.producerPriceIndexItem
-  AND a.yearBeingForecast = h.yearBeingForecast
-  AND a.monthOfForecast = h.monthOfForecast
-WHERE LOWER(a.attribute) LIKE '%mid%'
-  AND LOWER(h.attribute) LIKE '%mid%'
-  AND a.forecastPercentChange REGEXP '^-?[0-9]+(\\.[0-9]+)?$'
-  AND h.forecastPercentChange REGEXP '^-?[0-9]+(\\.[0-9]+)?$'
-ORDER BY item, year, month;
\ No newline at end of file
+    i.itemName AS item,
+    o.yearBeingForecast AS year,
+    p.month AS month,
+    o.forecastPercentChange AS old_forecast,
+    n.forecastPercentChange AS new_forecast
+FROM fact_forecast o
+JOIN dim_attribute a ON a.attribute_id = o.attribute_id
+JOIN dim_period p ON p.period_id = o.period_id
+JOIN fact_forecast n
+  ON n.item_id = o.item_id
+  AND n.yearBeingForecast = o.yearBeingForecast
+JOIN dim_attribute na ON na.attribute_id = n.attribute_id
+JOIN dim_period np
+  ON np.period_id = n.period_id
+  AND np.month = p.month
+JOIN dim_item i ON i.item_id = o.item_id
+WHERE i.indexType = 'PPI'
+  AND a.boundType = 'MID'
+  AND na.boundType = 'MID'
+  AND o.methodology = 'OLD'
+  AND n.methodology = 'NEW'
+  AND o.forecastPercentChange IS NOT NULL
+  AND n.forecastPercentChange IS NOT NULL
+ORDER BY item, year, month;
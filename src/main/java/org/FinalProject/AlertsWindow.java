@@ -0,0 +1,300 @@
+/**
+ * AlertsWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * AlertsWindow runs AnomalyScan over every table and lists the alerts in a
+ * sortable table, most unusual first. Selecting an alert charts the series
+ * it was found in, with the flagged year or forecast marked:
+ * <ul>
+ *   <li>spikes and regime changes: the item's annual percent changes</li>
+ *   <li>forecast misses and revisions: the revision trajectory of the target
+ *       year, as in RevisionTrajectoryWindow</li>
+ *   <li>outlook alerts: the 2025 interval next to the 20-year average</li>
+ * </ul>
+ * The scan and the charts are built off the EDT.
+ */
+public class AlertsWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+    private static final String ALL = "All";
+
+    private final AlertTableModel alertModel = new AlertTableModel();
+    private final JTable alertTable = new JTable(alertModel);
+    private final TableRowSorter<AlertTableModel> sorter = new TableRowSorter<>(alertModel);
+    private final JComboBox<Object> kindFilter = new JComboBox<>();
+    private final JComboBox<Object> tableFilter = new JComboBox<>();
+    private final JButton scanButton = new JButton("Rescan");
+    private final JPanel chartPanel = new JPanel(new BorderLayout());
+    private final JLabel statusLabel = new JLabel("Scanning...");
+    private SwingWorker<JFreeChart, Void> chartWorker;
+
+    /**
+     * Opens the window and starts the first scan.
+     */
+    public AlertsWindow() {
+        super("Alerts");
+        setSize(1200, 800);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        kindFilter.addItem(ALL);
+        for (AnomalyScan.Kind kind : AnomalyScan.Kind.values()) kindFilter.addItem(kind);
+        tableFilter.addItem(ALL);
+        for (DatasetTable table : DatasetTable.values()) tableFilter.addItem(table);
+        tableFilter.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                Object label = value instanceof DatasetTable table ? table.tableName() : value;
+                return super.getListCellRendererComponent(list, label, index, isSelected, cellHasFocus);
+            }
+        });
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Kind:"));
+        controls.add(kindFilter);
+        controls.add(new JLabel("Table:"));
+        controls.add(tableFilter);
+        controls.add(scanButton);
+
+        // Sortable by any column, most unusual first to start with
+        alertTable.setRowSorter(sorter);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(0, SortOrder.DESCENDING)));
+        alertTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        alertTable.getColumnModel().getColumn(AlertTableModel.DETAIL_COLUMN).setPreferredWidth(500);
+        alertTable.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting() || alertTable.getSelectedRow() < 0) return;
+            showChart(alertModel.alert(alertTable.convertRowIndexToModel(alertTable.getSelectedRow())));
+        });
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(alertTable), chartPanel);
+        split.setResizeWeight(0.5);
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        add(controls, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        kindFilter.addActionListener(e -> applyFilter());
+        tableFilter.addActionListener(e -> applyFilter());
+        scanButton.addActionListener(e -> scan());
+
+        setVisible(true);
+        scan();
+    }
+
+    /**
+     * Scans every table in the background and shows the alerts.
+     */
+    private void scan() {
+        scanButton.setEnabled(false);
+        statusLabel.setText("Scanning...");
+        new SwingWorker<AnomalyScan.Result, Void>() {
+            @Override
+            protected AnomalyScan.Result doInBackground() {
+                return AnomalyScan.scanAll();
+            }
+
+            @Override
+            protected void done() {
+                scanButton.setEnabled(true);
+                try {
+                    AnomalyScan.Result result = get();
+                    alertModel.setAlerts(result.alerts());
+                    statusLabel.setText(String.format("%,d alerts in %,d rows, scanned in %.0f ms",
+                            result.alerts().size(), result.rows(), result.elapsedMillis()));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Failed");
+                    PriceDataVisualizer.showError(AlertsWindow.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows only the alerts of the chosen kind and table.
+     */
+    private void applyFilter() {
+        Object kind = kindFilter.getSelectedItem();
+        Object table = tableFilter.getSelectedItem();
+        sorter.setRowFilter(new RowFilter<>() {
+            @Override
+            public boolean include(Entry<? extends AlertTableModel, ? extends Integer> entry) {
+                AnomalyScan.Alert alert = entry.getModel().alert(entry.getIdentifier());
+                return (ALL.equals(kind) || alert.kind() == kind) && (ALL.equals(table) || alert.table() == table);
+            }
+        });
+    }
+
+    /**
+     * Charts the series an alert was found in. A newer selection cancels a
+     * chart that is still being built.
+     */
+    private void showChart(AnomalyScan.Alert alert) {
+        if (chartWorker != null) chartWorker.cancel(false);
+        chartWorker = new SwingWorker<>() {
+            @Override
+            protected JFreeChart doInBackground() {
+                return switch (alert.kind()) {
+                    case SPIKE, REGIME_CHANGE -> historyChart(alert);
+                    case FORECAST_MISS, REVISION -> forecastChart(alert);
+                    case OUTLOOK -> outlookChart(alert);
+                };
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    JFreeChart chart = get();
+                    chartPanel.removeAll();
+                    chartPanel.add(PriceDataVisualizer.createChartPanel(chart), BorderLayout.CENTER);
+                    chartPanel.revalidate();
+                    chartPanel.repaint();
+                } catch (InterruptedException | ExecutionException e) {
+                    PriceDataVisualizer.showError(AlertsWindow.this, e);
+                }
+            }
+        };
+        chartWorker.execute();
+    }
+
+    /**
+     * Charts an item's annual percent changes with the flagged year marked.
+     */
+    private static JFreeChart historyChart(AnomalyScan.Alert alert) {
+        AnnualSeries series = AnnualSeries.from(Datasets.get(alert.table()));
+        int item = series.indexOf(alert.item());
+        TimeSeriesBuilder builder = new TimeSeriesBuilder();
+        for (int year = series.firstYear(); year <= series.lastYear(); year++) {
+            double value = series.value(item, year);
+            if (!Double.isNaN(value)) builder.add(alert.item(), year, 1, value);
+        }
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        dataset.addSeries(builder.build(alert.item(), alert.item()));
+
+        JFreeChart chart = PriceDataVisualizer.createTimeSeriesChart(alert.table().tableName(), dataset);
+        chart.setTitle(alert.item() + ": " + alert.kind() + " in " + alert.year());
+        markMonth(chart.getXYPlot(), alert.year(), 1);
+        return chart;
+    }
+
+    /**
+     * Charts the revision trajectory of the alert's item and target year,
+     * with the flagged forecast marked.
+     */
+    private static JFreeChart forecastChart(AnomalyScan.Alert alert) {
+        ForecastVintages.Trajectory trajectory = ForecastVintages.from(Datasets.get(alert.table()))
+                .trajectory(alert.item(), alert.year());
+        JFreeChart chart = RevisionTrajectoryWindow.createChart(alert.table(), trajectory,
+                RevisionTrajectoryWindow.actual(alert.table(), alert.item(), alert.year()));
+        // A revision alert's value is the revised mid point; a miss keeps the mid point of its worst forecast
+        double flaggedPoint = alert.kind() == AnomalyScan.Kind.REVISION ? alert.value() : alert.expected();
+        int flagged = -1;
+        for (int v = 0; v < trajectory.size() && flagged < 0; v++) {
+            if (trajectory.month(v) == alert.month() && trajectory.point(v) == flaggedPoint) flagged = v;
+        }
+        if (flagged >= 0) {
+            for (Object subplot : ((CombinedDomainXYPlot) chart.getPlot()).getSubplots()) {
+                markMonth((XYPlot) subplot, trajectory.year(flagged), trajectory.month(flagged));
+            }
+        }
+        return chart;
+    }
+
+    /**
+     * Charts a current forecast interval next to the 20-year average.
+     */
+    private static JFreeChart outlookChart(AnomalyScan.Alert alert) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        dataset.addValue(alert.value(), "Mid Point " + alert.year(), alert.item());
+        dataset.addValue(alert.expected(), "20-year Average", alert.item());
+        JFreeChart chart = PriceDataVisualizer.createBarChart(alert.table().tableName(), dataset);
+        chart.setTitle(alert.item() + ": " + alert.detail());
+        return chart;
+    }
+
+    private static void markMonth(XYPlot plot, int year, int month) {
+        ValueMarker marker = new ValueMarker(TimeSeriesBuilder.month(year, month).getFirstMillisecond(),
+                Color.RED, new BasicStroke(1.5f));
+        plot.addDomainMarker(marker);
+    }
+
+    /**
+     * Table model over the alert list; numeric columns keep their types so
+     * they sort as numbers.
+     */
+    private static final class AlertTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        static final int DETAIL_COLUMN = 7;
+        private static final String[] COLUMNS = {"Score", "Kind", "Table", "Item", "Year", "Month", "Value", "Detail"};
+        private List<AnomalyScan.Alert> alerts = new ArrayList<>();
+
+        void setAlerts(List<AnomalyScan.Alert> alerts) {
+            this.alerts = alerts;
+            fireTableDataChanged();
+        }
+
+        AnomalyScan.Alert alert(int row) {
+            return alerts.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return alerts.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 0, 6 -> Double.class;
+                case 4, 5 -> Integer.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            AnomalyScan.Alert alert = alerts.get(row);
+            return switch (column) {
+                case 0 -> Math.round(alert.score() * 100) / 100.0;
+                case 1 -> alert.kind().toString();
+                case 2 -> alert.table().tableName();
+                case 3 -> alert.item();
+                case 4 -> alert.year();
+                case 5 -> alert.month() == 0 ? null : alert.month();
+                case 6 -> Math.round(alert.value() * 10) / 10.0;
+                default -> alert.detail();
+            };
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * AnalysisSession.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * AnalysisSession is one analysis tab: its own chart, data table, pager and
+ * category filter, plus the state behind them (the running chart stream and
+ * what Export All Items and Export Data would write).
+ *
+ * Every tab loads in the background, so analyses in different tabs read
+ * from the connection pool at the same time without touching each other's
+ * state, and a tab keeps its results while another one is on screen.
+ * Results are handed to the EDT once they are read; if the tab has started
+ * a newer analysis in the meantime, the older results are dropped.
+ */
+public class AnalysisSession extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final JPanel chartPanel = new JPanel(new BorderLayout());
+    private final CategorySelector categorySelector = new CategorySelector();
+    private final JTable dataTable = new JTable();
+    private final TablePager tablePager = new TablePager(dataTable);
+
+    private String title = "New Analysis";
+    private Consumer<String> titleListener = t -> { };
+    private ChartStream chartStream;
+    private BatchExporter.Source exportSource;
+    private String exportViewName;
+    private String exportViewSql;
+    private Runnable lastAnalysis;
+    private boolean readsSnapshots;
+    private int generation;
+
+    /**
+     * Creates an empty analysis tab.
+     */
+    public AnalysisSession() {
+        super(new BorderLayout());
+        chartPanel.setPreferredSize(new Dimension(700, 400));
+        add(chartPanel, BorderLayout.CENTER);
+
+        // The data table with its paging controls below it
+        JScrollPane dataScrollPane = new JScrollPane(dataTable);
+        dataScrollPane.setPreferredSize(new Dimension(700, 200));
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.add(dataScrollPane, BorderLayout.CENTER);
+        tablePanel.add(tablePager, BorderLayout.SOUTH);
+        add(tablePanel, BorderLayout.SOUTH);
+
+        categorySelector.setPreferredSize(new Dimension(200, 400));
+        categorySelector.setMinimumSize(new Dimension(200, 400));
+        add(categorySelector, BorderLayout.WEST);
+    }
+
+    /**
+     * Returns the panel the chart is shown in.
+     * @return the chart panel
+     */
+    public JPanel chartPanel() {
+        return chartPanel;
+    }
+
+    /**
+     * Returns the category filter of this tab.
+     * @return the category selector
+     */
+    public CategorySelector categorySelector() {
+        return categorySelector;
+    }
+
+    /**
+     * Returns the data table of this tab.
+     * @return the data table
+     */
+    public JTable dataTable() {
+        return dataTable;
+    }
+
+    /**
+     * Returns the pager of the full data view.
+     * @return the table pager
+     */
+    public TablePager tablePager() {
+        return tablePager;
+    }
+
+    /**
+     * Returns the title shown on the tab.
+     * @return the title
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Sets the title shown on the tab.
+     * @param title the new title
+     */
+    public void setTitle(String title) {
+        this.title = title;
+        titleListener.accept(title);
+    }
+
+    /**
+     * Sets the listener told when the title changes, normally the tab.
+     * @param listener receives the new title on the EDT
+     */
+    public void setTitleListener(Consumer<String> listener) {
+        this.titleListener = listener;
+        listener.accept(title);
+    }
+
+    /**
+     * Remembers the analysis on screen so it can be run again when the
+     * dataset snapshots it reads are reloaded.
+     * @param analysis runs the analysis into this tab
+     * @param readsSnapshots true if the analysis is computed from the snapshots
+     */
+    public void setLastAnalysis(Runnable analysis, boolean readsSnapshots) {
+        this.lastAnalysis = analysis;
+        this.readsSnapshots = readsSnapshots;
+    }
+
+    /**
+     * Runs the analysis on screen again if it reads the dataset snapshots.
+     */
+    public void rerunIfReadsSnapshots() {
+        if (lastAnalysis != null && readsSnapshots && chartPanel.getComponentCount() > 0) lastAnalysis.run();
+    }
+
+    /**
+     * Returns the items Export All Items writes.
+     * @return the per-item source, or null if the view has none
+     */
+    public BatchExporter.Source exportSource() {
+        return exportSource;
+    }
+
+    /**
+     * Sets the items Export All Items writes for the view on screen.
+     * @param source the per-item source, or null
+     */
+    public void setExportSource(BatchExporter.Source source) {
+        this.exportSource = source;
+    }
+
+    /**
+     * Returns the name of the query behind the view.
+     * @return the name, or null
+     */
+    public String exportViewName() {
+        return exportViewName;
+    }
+
+    /**
+     * Returns the query behind the view.
+     * @return the query, or null
+     */
+    public String exportViewSql() {
+        return exportViewSql;
+    }
+
+    /**
+     * Remembers the query behind the view on screen so Export Data can
+     * write its full result.
+     * @param name the name of the view, or null when the view has no query
+     * @param sql the query, or null
+     */
+    public void setExportView(String name, String sql) {
+        exportViewName = sql == null ? null : name;
+        exportViewSql = sql;
+    }
+
+    /**
+     * Starts streaming chart rows into this tab, stopping any earlier stream.
+     * @param stream the stream to start
+     */
+    public void startChartStream(ChartStream stream) {
+        stopChartStream();
+        chartStream = stream;
+        stream.start();
+    }
+
+    /**
+     * Forgets the chart stream once it has finished. A cancelled stream
+     * never finishes, so this is always the stream of the view on screen.
+     */
+    public void chartStreamFinished() {
+        chartStream = null;
+    }
+
+    /**
+     * Stops the chart stream of the full data view, if one is still running,
+     * so it cannot draw into a view the user has left.
+     */
+    public void stopChartStream() {
+        if (chartStream != null) {
+            chartStream.cancel();
+            chartStream = null;
+        }
+    }
+
+    /**
+     * Clears what the previous view left behind and renames the tab, before
+     * a new view is shown. Results of earlier loads that are still running
+     * are dropped when they arrive.
+     * @param title the title of the new view
+     * @return the number identifying this view
+     */
+    public int begin(String title) {
+        stopChartStream();
+        tablePager.reset();
+        exportSource = null;
+        setExportView(null, null);
+        setTitle(title);
+        return ++generation;
+    }
+
+    /**
+     * Returns whether a view started with begin() is still the one in this
+     * tab, for results that arrive after the view was shown.
+     * @param view the number begin() returned
+     * @return true if no other view has been started since
+     */
+    public boolean isShowing(int view) {
+        return view == generation;
+    }
+
+    /**
+     * Loads a view in the background. The task reads its data off the EDT
+     * and returns the step that shows it, which is run on the EDT unless the
+     * tab has moved on to another view by then.
+     * @param title the title of the view
+     * @param task reads the data and returns the step that shows it
+     */
+    public void load(String title, Callable<Runnable> task) {
+        int view = begin(title + " (loading)");
+        new SwingWorker<Runnable, Void>() {
+            @Override
+            protected Runnable doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                if (view != generation) return;
+                setTitle(title);
+                try {
+                    get().run();
+                    revalidate();
+                    repaint();
+                } catch (InterruptedException | ExecutionException | RuntimeException e) {
+                    // A failing result callback is reported like a failed load
+                    PriceDataVisualizer.showError(AnalysisSession.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Stops any work still running for this tab when it is closed.
+     */
+    public void close() {
+        generation++;
+        stopChartStream();
+        tablePager.reset();
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * AnnualSeries.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AnnualSeries holds the historical percent changes of every item in a
+ * historicalcpi / historicalppi table as year-aligned primitive arrays.
+ * values[item][year - firstYear] is the percent change for that item and
+ * year, or NaN when the year is missing.
+ *
+ * Series are cached per snapshot, so the analyses that read the same
+ * historical table share one copy instead of each rebuilding it.
+ */
+public final class AnnualSeries {
+    private static final Map<DatasetSnapshot, AnnualSeries> cache = new ConcurrentHashMap<>();
+
+    private final String[] items;
+    private final int firstYear;
+    private final double[][] values;
+
+    private AnnualSeries(String[] items, int firstYear, double[][] values) {
+        this.items = items;
+        this.firstYear = firstYear;
+        this.values = values;
+    }
+
+    /**
+     * Returns the year-aligned arrays of a historical table snapshot,
+     * building them on first use and serving them from the cache afterwards.
+     * @param snapshot a historicalcpi or historicalppi snapshot
+     * @return the annual series of every item, in alphabetical order
+     */
+    public static AnnualSeries from(DatasetSnapshot snapshot) {
+        return cache.computeIfAbsent(snapshot, AnnualSeries::build);
+    }
+
+    /**
+     * Builds the year-aligned arrays from rows of (item, year, value), such
+     * as PriceDataStore.volatility returns. The result is not cached.
+     * @param rs rows with the item, year and percent change in the first three columns
+     * @return the annual series of every item, in alphabetical order
+     * @throws SQLException if reading fails
+     */
+    public static AnnualSeries read(ResultSet rs) throws SQLException {
+        // The rows are few (one per item and year), so they are grouped in maps first
+        TreeMap<String, Map<Integer, Double>> byItem = new TreeMap<>();
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        while (rs.next()) {
+            String item = rs.getString(1);
+            int year = rs.getInt(2);
+            if (item == null || rs.wasNull()) continue;
+            double value = rs.getDouble(3);
+            if (rs.wasNull()) value = Double.NaN;
+            byItem.computeIfAbsent(item, k -> new HashMap<>()).put(year, value);
+            minYear = Math.min(minYear, year);
+            maxYear = Math.max(maxYear, year);
+        }
+        if (byItem.isEmpty()) return new AnnualSeries(new String[0], 0, new double[0][]);
+
+        String[] items = byItem.keySet().toArray(new String[0]);
+        double[][] values = new double[items.length][maxYear - minYear + 1];
+        int i = 0;
+        for (Map<Integer, Double> years : byItem.values()) {
+            Arrays.fill(values[i], Double.NaN);
+            for (Map.Entry<Integer, Double> e : years.entrySet()) values[i][e.getKey() - minYear] = e.getValue();
+            i++;
+        }
+        return new AnnualSeries(items, minYear, values);
+    }
+
+    /**
+     * Drops every cached series, for example after the datasets are reloaded.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    private static AnnualSeries build(DatasetSnapshot snapshot) {
+        int itemCol = 0;
+        int yearCol = snapshot.columnIndex("year");
+        int valueCol = snapshot.columnIndex("percentChange");
+        int rows = snapshot.rowCount();
+
+        // First pass finds the year range and the distinct items
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        TreeMap<String, Integer> itemIds = new TreeMap<>();
+        for (int r = 0; r < rows; r++) {
+            int year = snapshot.getInt(r, yearCol);
+            if (year == DatasetSnapshot.NULL_INT) continue;
+            minYear = Math.min(minYear, year);
+            maxYear = Math.max(maxYear, year);
+            itemIds.putIfAbsent(snapshot.getString(r, itemCol), 0);
+        }
+        if (itemIds.isEmpty()) return new AnnualSeries(new String[0], 0, new double[0][]);
+
+        String[] items = itemIds.keySet().toArray(new String[0]);
+        for (int i = 0; i < items.length; i++) itemIds.put(items[i], i);
+
+        // Second pass fills the arrays
+        double[][] values = new double[items.length][maxYear - minYear + 1];
+        for (double[] v : values) Arrays.fill(v, Double.NaN);
+        for (int r = 0; r < rows; r++) {
+            int year = snapshot.getInt(r, yearCol);
+            if (year == DatasetSnapshot.NULL_INT) continue;
+            values[itemIds.get(snapshot.getString(r, itemCol))][year - minYear] = snapshot.getDouble(r, valueCol);
+        }
+        return new AnnualSeries(items, minYear, values);
+    }
+
+    /**
+     * Returns the item names in index order.
+     * @return the item names
+     */
+    public String[] items() {
+        return items.clone();
+    }
+
+    /**
+     * Returns the number of items.
+     * @return the item count
+     */
+    public int itemCount() {
+        return items.length;
+    }
+
+    /**
+     * Returns the name of an item.
+     * @param item the item index
+     * @return the item name
+     */
+    public String item(int item) {
+        return items[item];
+    }
+
+    /**
+     * Returns the index of an item by name.
+     * @param name the item name
+     * @return the item index, or -1 if there is no such item
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first year covered by the arrays.
+     * @return the first year
+     */
+    public int firstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Returns the last year covered by the arrays.
+     * @return the last year
+     */
+    public int lastYear() {
+        return firstYear + yearCount() - 1;
+    }
+
+    /**
+     * Returns the number of years covered by the arrays.
+     * @return the year count
+     */
+    public int yearCount() {
+        return values.length == 0 ? 0 : values[0].length;
+    }
+
+    /**
+     * Returns the percent change of an item in a year.
+     * @param item the item index
+     * @param year the calendar year
+     * @return the percent change, or NaN when missing or out of range
+     */
+    public double value(int item, int year) {
+        int idx = year - firstYear;
+        return idx < 0 || idx >= yearCount() ? Double.NaN : values[item][idx];
+    }
+
+    /**
+     * Returns the backing array of an item. The array is shared and must
+     * not be modified.
+     * @param item the item index
+     * @return the year-aligned values of the item
+     */
+    double[] values(int item) {
+        return values[item];
+    }
+}
@@ -0,0 +1,369 @@
+/**
+ * AnomalyScan.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * AnomalyScan looks through every item of all eight dataset tables for
+ * moves worth a second look:
+ * <ul>
+ *   <li>historicalcpi/historicalppi: spikes, where a year is far from the
+ *       rolling mean of the years before it, and regime changes, where a
+ *       CUSUM of those deviations shows the level has shifted</li>
+ *   <li>historical and archived forecasts: target years whose actual fell
+ *       outside the prediction interval, and unusually large revisions of
+ *       the mid point from one monthly forecast to the next</li>
+ *   <li>CPIForecast/PPIForecast: 2025 prediction intervals that exclude
+ *       the item's 20-year historical average</li>
+ * </ul>
+ * Scores are multiples of the threshold each kind is flagged at, so an
+ * alert scored 1 is just over its threshold whatever its kind, and alerts
+ * of all kinds can be ranked in one list.
+ *
+ * Each series is read once, in time order, keeping only running sums; only
+ * the revisions of each item are sorted, for their median. The tables are
+ * scanned in parallel.
+ */
+public final class AnomalyScan {
+    /** Years of history the rolling mean and spread are taken over. */
+    public static final int WINDOW_YEARS = 10;
+    /** Deviations of at least this many standard deviations are spikes. */
+    public static final double SPIKE_Z = 3.0;
+    /** CUSUM threshold, in standard deviations, for a regime change. */
+    public static final double CUSUM_LIMIT = 5.0;
+    /** Revisions at least this many robust standard deviations from the item's usual revision are flagged. */
+    public static final double REVISION_Z = 4.0;
+    /** Misses closer than this many standard deviations of the item's annual changes are not flagged. */
+    public static final double MISS_SD = 1.0;
+
+    // Deviations smaller than this many standard deviations don't add to the CUSUM
+    private static final double CUSUM_SLACK = 0.5;
+    // Years needed in the window before deviations are scored
+    private static final int MIN_WINDOW = 5;
+    // Nonzero revisions of an item needed before its revisions are scored
+    private static final int MIN_REVISIONS = 10;
+    // Scales a median absolute deviation to a standard deviation for normal data
+    private static final double MAD_TO_SD = 1.4826;
+
+    /**
+     * Kind of unusual move.
+     */
+    public enum Kind {
+        SPIKE("Spike"),
+        REGIME_CHANGE("Regime change"),
+        FORECAST_MISS("Forecast miss"),
+        REVISION("Large revision"),
+        OUTLOOK("Outlook vs history");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name shown to the user.
+         * @return the label
+         */
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * One flagged move.
+     * @param kind what kind of move it is
+     * @param table the table it was found in
+     * @param item the item name
+     * @param year the year of the move; for forecasts, the year being forecast
+     * @param month the month of the forecast for revisions, otherwise 0
+     * @param value the value that was flagged
+     * @param expected what the value was compared against
+     * @param score how unusual the move is, in multiples of its kind's threshold
+     * @param detail a short explanation
+     */
+    public record Alert(Kind kind, DatasetTable table, String item, int year, int month,
+                        double value, double expected, double score, String detail) { }
+
+    /**
+     * Outcome of a scan.
+     * @param alerts every alert, most unusual first
+     * @param rows the number of rows read
+     * @param elapsedMillis how long the scan took
+     */
+    public record Result(List<Alert> alerts, long rows, double elapsedMillis) { }
+
+    private AnomalyScan() { }
+
+    /**
+     * Scans every table.
+     * @return the alerts of all tables
+     */
+    public static Result scanAll() {
+        long start = System.nanoTime();
+        List<DatasetTable> tables = List.of(DatasetTable.values());
+        List<List<Alert>> perTable = tables.parallelStream().map(AnomalyScan::scan).collect(Collectors.toList());
+
+        List<Alert> alerts = new ArrayList<>();
+        perTable.forEach(alerts::addAll);
+        alerts.sort(Comparator.comparingDouble(Alert::score).reversed());
+        long rows = 0;
+        for (DatasetTable table : tables) rows += Datasets.get(table).rowCount();
+        return new Result(alerts, rows, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Scans one table.
+     * @param table the table to scan
+     * @return its alerts, in no particular order
+     */
+    public static List<Alert> scan(DatasetTable table) {
+        return switch (table) {
+            case HISTORICAL_CPI, HISTORICAL_PPI -> scanHistory(table);
+            case CPI_FORECAST, PPI_FORECAST -> scanOutlook(table);
+            default -> scanForecasts(table);
+        };
+    }
+
+    /**
+     * Walks each item's annual series once, keeping a rolling window of the
+     * last WINDOW_YEARS values as running sums. Each year is scored against
+     * the window before it is added.
+     */
+    private static List<Alert> scanHistory(DatasetTable table) {
+        AnnualSeries series = AnnualSeries.from(Datasets.get(table));
+        List<Alert> alerts = new ArrayList<>();
+        double[] window = new double[WINDOW_YEARS];
+        for (int i = 0; i < series.itemCount(); i++) {
+            double[] values = series.values(i);
+            int size = 0;
+            int next = 0;
+            double sum = 0;
+            double sumSquares = 0;
+            double upper = 0;
+            double lower = 0;
+            int upperStart = 0;
+            int lowerStart = 0;
+
+            for (int t = 0; t < values.length; t++) {
+                double x = values[t];
+                if (Double.isNaN(x)) continue;
+                int year = series.firstYear() + t;
+
+                if (size >= MIN_WINDOW) {
+                    double mean = sum / size;
+                    double sd = Math.sqrt(Math.max(0, (sumSquares - sum * mean) / (size - 1)));
+                    if (sd > 0) {
+                        double z = (x - mean) / sd;
+                        if (Math.abs(z) >= SPIKE_Z) {
+                            alerts.add(new Alert(Kind.SPIKE, table, series.item(i), year, 0, x, mean, Math.abs(z) / SPIKE_Z,
+                                    String.format("%.1f%% vs %.1f%% average of the previous %d years (z = %.1f)",
+                                            x, mean, size, z)));
+                        }
+
+                        // Spikes are capped so one extreme year alone can't signal a regime change
+                        double capped = Math.max(-SPIKE_Z, Math.min(SPIKE_Z, z));
+                        // A shift is dated from when its sum last left zero
+                        if (upper == 0) upperStart = year;
+                        if (lower == 0) lowerStart = year;
+                        upper = Math.max(0, upper + capped - CUSUM_SLACK);
+                        lower = Math.max(0, lower - capped - CUSUM_SLACK);
+                        if (upper > CUSUM_LIMIT || lower > CUSUM_LIMIT) {
+                            boolean up = upper > CUSUM_LIMIT;
+                            alerts.add(new Alert(Kind.REGIME_CHANGE, table, series.item(i), year, 0, x, mean,
+                                    Math.max(upper, lower) / CUSUM_LIMIT,
+                                    String.format("Sustained %s shift since %d from a %.1f%% average",
+                                            up ? "upward" : "downward", up ? upperStart : lowerStart, mean)));
+                            // Start over so the new level becomes the baseline
+                            upper = 0;
+                            lower = 0;
+                            size = 0;
+                            sum = 0;
+                            sumSquares = 0;
+                        }
+                    }
+                }
+
+                // Slide the window
+                if (size == WINDOW_YEARS) {
+                    double old = window[next];
+                    sum -= old;
+                    sumSquares -= old * old;
+                } else {
+                    size++;
+                }
+                window[next] = x;
+                next = (next + 1) % WINDOW_YEARS;
+                sum += x;
+                sumSquares += x * x;
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Walks each item's forecast vintages from the ForecastVintages index,
+     * which holds them sorted by target year and forecast date. Each vintage
+     * is checked against the actual and its mid point against the previous
+     * vintage of the same target year.
+     *
+     * A target year is a miss only when most of its vintages, or its last
+     * one, excluded the actual, so one early miss that was later revised
+     * away is not flagged. Revisions are scored against the median and
+     * median absolute deviation of the item's nonzero revisions: most
+     * months leave the forecast unchanged, and those zeros would otherwise
+     * shrink the spread until every change looked unusual.
+     */
+    private static List<Alert> scanForecasts(DatasetTable table) {
+        ForecastVintages vintages = ForecastVintages.from(Datasets.get(table));
+        AnnualSeries actuals = AnnualSeries.from(Datasets.get(table.isCpi()
+                ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI));
+
+        List<Alert> alerts = new ArrayList<>();
+        List<Revision> revisions = new ArrayList<>();
+        for (String item : vintages.items()) {
+            int actualItem = actuals.indexOf(item);
+            // Misses are measured in the item's own year-to-year spread, so
+            // they rank alongside spikes whatever the width of the interval
+            double spread = actualItem < 0 ? Double.NaN : standardDeviation(actuals.values(actualItem));
+            revisions.clear();
+
+            for (int target : vintages.targetYears(item)) {
+                ForecastVintages.Trajectory trajectory = vintages.trajectory(item, target);
+                double actual = actualItem < 0 || !(spread > 0) ? Double.NaN : actuals.value(actualItem, target);
+                double previousMid = Double.NaN;
+                int scored = 0;
+                int misses = 0;
+                boolean lastMissed = false;
+                // The furthest miss of the target year
+                int worst = -1;
+                double worstScore = 0;
+
+                for (int v = 0; v < trajectory.size(); v++) {
+                    double lower = trajectory.lower()[v];
+                    double upper = trajectory.upper()[v];
+                    // Ranges without a mid point are scored at their middle, as in ForecastBacktest
+                    double mid = trajectory.point(v);
+
+                    if (!Double.isNaN(actual) && !Double.isNaN(lower) && !Double.isNaN(upper) && upper > lower) {
+                        scored++;
+                        lastMissed = actual < lower || actual > upper;
+                        if (lastMissed) {
+                            misses++;
+                            double outside = actual < lower ? lower - actual : actual - upper;
+                            double score = outside / spread / MISS_SD;
+                            if (misses == 1 || score > worstScore) {
+                                worstScore = score;
+                                worst = v;
+                            }
+                        }
+                    }
+
+                    if (!Double.isNaN(mid)) {
+                        if (!Double.isNaN(previousMid) && mid != previousMid) {
+                            revisions.add(new Revision(trajectory, v, mid - previousMid));
+                        }
+                        previousMid = mid;
+                    }
+                }
+
+                if ((misses * 2 > scored || lastMissed) && worstScore >= 1) {
+                    // Formatted once per target year rather than per missed forecast
+                    int month = trajectory.month(worst);
+                    alerts.add(new Alert(Kind.FORECAST_MISS, table, item, target, month, actual, trajectory.point(worst),
+                            worstScore, String.format("%d of %d forecasts missed; actual %.1f%% outside [%.1f%%, %.1f%%] forecast in %s %d",
+                                    misses, scored, actual, trajectory.lower()[worst], trajectory.upper()[worst],
+                                    ForecastVintages.monthName(month), trajectory.year(worst))));
+                }
+            }
+            scoreRevisions(table, item, revisions, alerts);
+        }
+        return alerts;
+    }
+
+    /**
+     * A nonzero change of the mid point from one vintage to the next.
+     */
+    private record Revision(ForecastVintages.Trajectory trajectory, int vintage, double change) { }
+
+    /**
+     * Flags the revisions of an item that are far from its median revision,
+     * measured in median absolute deviations scaled to standard deviations.
+     */
+    private static void scoreRevisions(DatasetTable table, String item, List<Revision> revisions, List<Alert> alerts) {
+        if (revisions.size() < MIN_REVISIONS) return;
+        double[] changes = new double[revisions.size()];
+        for (int i = 0; i < changes.length; i++) changes[i] = revisions.get(i).change();
+        double median = median(changes);
+        for (int i = 0; i < changes.length; i++) changes[i] = Math.abs(changes[i] - median);
+        double sd = median(changes) * MAD_TO_SD;
+        if (sd <= 0) return;
+
+        for (Revision revision : revisions) {
+            double z = (revision.change() - median) / sd;
+            if (Math.abs(z) < REVISION_Z) continue;
+            ForecastVintages.Trajectory trajectory = revision.trajectory();
+            int v = revision.vintage();
+            int month = trajectory.month(v);
+            double mid = trajectory.point(v);
+            alerts.add(new Alert(Kind.REVISION, table, item, trajectory.targetYear(), month, mid, mid - revision.change(),
+                    Math.abs(z) / REVISION_Z, String.format("%s %d forecast revised %+.1f points to %.1f%% (z = %.1f)",
+                    ForecastVintages.monthName(month), trajectory.year(v), revision.change(), mid, z)));
+        }
+    }
+
+    /**
+     * Reads each item's 20-year average and interval from the current
+     * forecast table and flags intervals that exclude the average. The
+     * average is scored by how many standard deviations it lies from the
+     * mid point, taking the bounds as 95% limits of a split normal as
+     * MonteCarloForecast does.
+     */
+    private static List<Alert> scanOutlook(DatasetTable table) {
+        List<Alert> alerts = new ArrayList<>();
+        ForecastInterval.read(table.isCpi()).forEach((item, interval) -> {
+            double average = interval.average(), lower = interval.lower(), upper = interval.upper();
+            if (Double.isNaN(average) || Double.isNaN(lower) || Double.isNaN(upper) || upper <= lower) return;
+            if (average >= lower && average <= upper) return;
+            double mid = Double.isNaN(interval.mid()) ? (lower + upper) / 2 : interval.mid();
+            double bound = average < lower ? lower : upper;
+            // The half of the interval on the average's side sets the spread
+            double sd = bound != mid ? ForecastInterval.spread(mid, bound) : ForecastInterval.spread(lower, upper) / 2;
+            double z = Math.abs(average - mid) / sd;
+            alerts.add(new Alert(Kind.OUTLOOK, table, item, interval.year(), 0, interval.mid(), average,
+                    z / ForecastInterval.Z_95, String.format("%d interval [%.1f%%, %.1f%%] excludes the %.1f%% 20-year average",
+                            interval.year(), lower, upper, average)));
+        });
+        return alerts;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    private static double standardDeviation(double[] values) {
+        int n = 0;
+        double mean = 0;
+        double m2 = 0;
+        for (double v : values) {
+            if (Double.isNaN(v)) continue;
+            n++;
+            double delta = v - mean;
+            mean += delta / n;
+            m2 += delta * (v - mean);
+        }
+        return n < 2 ? Double.NaN : Math.sqrt(m2 / (n - 1));
+    }
+}
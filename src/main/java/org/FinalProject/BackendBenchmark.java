@@ -0,0 +1,87 @@
+/**
+ * BackendBenchmark.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BackendBenchmark runs the same analysis suite on every available
+ * PriceDataStore and prints the time per query and the rows returned, so
+ * the MySQL and snapshot backends can be compared on the same data:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.BackendBenchmark [iterations]
+ * </pre>
+ * The MySQL backend is skipped when no database is reachable.
+ */
+public final class BackendBenchmark {
+
+    private BackendBenchmark() { }
+
+    private interface Query {
+        int run(PriceDataStore store) throws SQLException;
+    }
+
+    private record Case(String label, Query query) { }
+
+    /**
+     * Runs the benchmark.
+     * @param args optional iteration count (default 10)
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Map<String, String> queryMap = PriceDataVisualizer.loadQueriesFromFile("sql/tableQueries.sql");
+
+        List<PriceDataStore> stores = new ArrayList<>();
+        boolean pooled = false;
+        try {
+            PriceDataVisualizer.setupConnectionPool();
+            pooled = true;
+            stores.add(new MySqlDataStore(queryMap));
+        } catch (RuntimeException e) {
+            System.out.println("MySQL unavailable, skipping: " + e.getMessage());
+        }
+        stores.add(new SnapshotDataStore());
+
+        List<Case> cases = List.of(
+                new Case("forecast accuracy CPI", s -> s.forecastAccuracy(true, BackendBenchmark::rowCount)),
+                new Case("forecast accuracy PPI", s -> s.forecastAccuracy(false, BackendBenchmark::rowCount)),
+                new Case("methodology CPI", s -> s.methodologyComparison(true, BackendBenchmark::rowCount)),
+                new Case("methodology PPI", s -> s.methodologyComparison(false, BackendBenchmark::rowCount)),
+                new Case("volatility CPI 1974-2023", s -> s.volatility(true, 1974, 2023, BackendBenchmark::rowCount)),
+                new Case("volatility PPI 1974-2023", s -> s.volatility(false, 1974, 2023, BackendBenchmark::rowCount)));
+
+        try {
+            for (PriceDataStore store : stores) {
+                System.out.printf("%s backend, %d iterations%n", store.name(), iterations);
+                for (Case c : cases) {
+                    // Warm up before measuring
+                    for (int i = 0; i < 3; i++) c.query().run(store);
+                    long start = System.nanoTime();
+                    int rows = 0;
+                    for (int i = 0; i < iterations; i++) rows = c.query().run(store);
+                    double ms = (System.nanoTime() - start) / 1e6 / iterations;
+                    System.out.printf("  %-26s %9.2f ms/op  (%d rows)%n", c.label(), ms, rows);
+                }
+            }
+        } finally {
+            if (pooled) PriceDataVisualizer.closeConnectionPool();
+        }
+    }
+
+    private static int rowCount(ResultSet rs) throws SQLException {
+        int rows = 0;
+        while (rs.next()) rows++;
+        return rows;
+    }
+}
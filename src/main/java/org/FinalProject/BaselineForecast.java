@@ -0,0 +1,342 @@
+/**
+ * BaselineForecast.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.time.TimeSeries;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * BaselineForecast fits a simple statistical model to the annual percent
+ * changes of every item in historicalcpi/historicalppi, as our own baseline
+ * to set next to the USDA forecasts.
+ *
+ * Two models are fitted per item and the one with the smaller one-step-ahead
+ * squared error over the history is kept:
+ * <ul>
+ *   <li>Holt's linear exponential smoothing, with the smoothing weights
+ *       picked from a grid</li>
+ *   <li>an AR(1) model, y(t) = c + phi * y(t - 1), fitted by least squares</li>
+ * </ul>
+ * Each item gets a prediction for every year of its history (made from the
+ * years before it) and for the next {@link #HORIZON} years.
+ *
+ * Items are fitted in parallel and results are cached per snapshot, so a
+ * model is only refitted once its historical table has been reloaded. On
+ * the MySQL backend the actuals are read from the database instead, so the
+ * baselines match the tables the charts show, and cached until
+ * PriceDataStore.actualsVersion reports that the rows changed.
+ */
+public final class BaselineForecast {
+    /** Number of years forecast past the last year of history. */
+    public static final int HORIZON = 2;
+
+    private static final double[] SMOOTHING_GRID = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9};
+    // Every year, for reading the whole history through PriceDataStore.volatility
+    private static final int FIRST_YEAR = 0;
+    private static final int LAST_YEAR = 9999;
+    private static final Map<DatasetSnapshot, Result> cache = new ConcurrentHashMap<>();
+    // Results read through a database backend, by CPI or PPI and the version of its actuals
+    private static final Map<StoreKey, Result> storeCache = new ConcurrentHashMap<>();
+
+    private record StoreKey(boolean cpi, Object version) { }
+
+    /**
+     * Carries a backend failure out of a computeIfAbsent mapping function.
+     */
+    private static final class StoreFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StoreFailure(SQLException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * The model chosen for an item.
+     */
+    public enum Model {
+        HOLT("Holt smoothing"),
+        AR1("AR(1)"),
+        NONE("Too little history");
+
+        private final String label;
+
+        Model(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name shown to the user.
+         * @return the label
+         */
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Fitted baselines of one historical table.
+     * @param items the item names in alphabetical order
+     * @param firstYear the year of predictions[item][0]
+     * @param models the model chosen per item
+     * @param predictions per item, the prediction for each year from firstYear
+     *                    to the last year of history plus HORIZON, NaN when
+     *                    there is none
+     * @param fitMillis how long fitting every item took
+     */
+    public record Result(String[] items, int firstYear, Model[] models, double[][] predictions, double fitMillis) {
+        /**
+         * Returns the index of an item by name.
+         * @param item the item name
+         * @return the item index, or -1 if there is no such item
+         */
+        public int indexOf(String item) {
+            for (int i = 0; i < items.length; i++) {
+                if (items[i].equals(item)) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the baseline of an item as a time series with one point in
+         * January of each year, like the historical chart data.
+         * @param item the item name
+         * @param name the name given to the series
+         * @return the series, or null if the item has no baseline
+         */
+        public TimeSeries series(String item, String name) {
+            int i = indexOf(item);
+            if (i < 0 || models[i] == Model.NONE) return null;
+            TimeSeries series = new TimeSeries(name);
+            double[] p = predictions[i];
+            for (int y = 0; y < p.length; y++) {
+                if (!Double.isNaN(p[y])) series.add(TimeSeriesBuilder.month(firstYear + y, 1), p[y], false);
+            }
+            series.fireSeriesChanged();
+            return series;
+        }
+    }
+
+    private BaselineForecast() { }
+
+    /**
+     * Returns the baselines of a historical table, fitting them on first use
+     * and serving them from the cache afterwards.
+     * @param actuals a historicalcpi or historicalppi snapshot
+     * @return the fitted baselines
+     */
+    public static Result fit(DatasetSnapshot actuals) {
+        return cache.computeIfAbsent(actuals, s -> fit(AnnualSeries.from(s)));
+    }
+
+    /**
+     * Returns the baselines of the CPI or PPI actuals of a backend. The
+     * snapshot backend fits its mapped historical table; any other backend
+     * reads the actuals with PriceDataStore.volatility over every year.
+     * Results are cached either way, and each is fitted once even when
+     * several threads ask for it at the same time. Fitting reads the whole
+     * history, so this should not be called on the EDT.
+     * @param store the backend the charts read from
+     * @param cpi true for CPI, false for PPI
+     * @return the fitted baselines
+     * @throws SQLException if the backend fails
+     */
+    public static Result fit(PriceDataStore store, boolean cpi) throws SQLException {
+        if (store instanceof SnapshotDataStore) {
+            return fit(Datasets.get(cpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI));
+        }
+        StoreKey key = new StoreKey(cpi, store.actualsVersion(cpi));
+        // Results of older versions of the actuals are never asked for again
+        storeCache.keySet().removeIf(k -> k.cpi() == cpi && !k.equals(key));
+        try {
+            return storeCache.computeIfAbsent(key, k -> {
+                try {
+                    return fit(store.volatility(cpi, FIRST_YEAR, LAST_YEAR, AnnualSeries::read));
+                } catch (SQLException e) {
+                    throw new StoreFailure(e);
+                }
+            });
+        } catch (StoreFailure e) {
+            throw (SQLException) e.getCause();
+        }
+    }
+
+    /**
+     * Drops every cached result, for example after the datasets are reloaded.
+     */
+    public static void clearCache() {
+        cache.clear();
+        storeCache.clear();
+    }
+
+    /**
+     * Fits every item of the series without caching.
+     * @param series the annual series of a historical table
+     * @return the fitted baselines
+     */
+    static Result fit(AnnualSeries series) {
+        long start = System.nanoTime();
+        int items = series.itemCount();
+        Model[] models = new Model[items];
+        double[][] predictions = new double[items][];
+
+        // Each item is independent, so they are fitted on all cores
+        IntStream.range(0, items).parallel().forEach(i -> {
+            double[] y = series.values(i);
+            double[] holt = new double[y.length + HORIZON];
+            double[] ar = new double[y.length + HORIZON];
+            double holtError = holt(y, holt);
+            double arError = ar1(y, ar);
+            if (Double.isNaN(holtError) && Double.isNaN(arError)) {
+                models[i] = Model.NONE;
+                predictions[i] = new double[0];
+            } else if (Double.isNaN(arError) || holtError <= arError) {
+                models[i] = Model.HOLT;
+                predictions[i] = holt;
+            } else {
+                models[i] = Model.AR1;
+                predictions[i] = ar;
+            }
+        });
+        return new Result(series.items(), series.firstYear(), models, predictions,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Fits Holt's linear smoothing with the grid weights that give the
+     * smallest one-step-ahead error. Missing years are filled with the
+     * forecast, so the level and trend carry over them.
+     * @param y the year-aligned values, NaN when missing
+     * @param out receives the predictions of the best weights
+     * @return the mean squared one-step error, or NaN with fewer than three years
+     */
+    private static double holt(double[] y, double[] out) {
+        int first = firstObserved(y);
+        if (first < 0 || observedCount(y) < 3) return Double.NaN;
+
+        double bestError = Double.POSITIVE_INFINITY;
+        double bestAlpha = 0;
+        double bestBeta = 0;
+        for (double alpha : SMOOTHING_GRID) {
+            for (double beta : SMOOTHING_GRID) {
+                double error = holtPass(y, first, alpha, beta, null);
+                if (error < bestError) {
+                    bestError = error;
+                    bestAlpha = alpha;
+                    bestBeta = beta;
+                }
+            }
+        }
+        holtPass(y, first, bestAlpha, bestBeta, out);
+        return bestError;
+    }
+
+    private static double holtPass(double[] y, int first, double alpha, double beta, double[] out) {
+        if (out != null) Arrays.fill(out, Double.NaN);
+        double level = y[first];
+        double trend = 0;
+        double sumSquared = 0;
+        int scored = 0;
+        int seen = 1;
+        for (int t = first + 1; t < y.length; t++) {
+            double forecast = level + trend;
+            if (out != null) out[t] = forecast;
+            if (Double.isNaN(y[t])) {
+                level = forecast;
+                continue;
+            }
+            if (seen == 1) {
+                // The second observation sets the first trend
+                trend = y[t] - level;
+                level = y[t];
+            } else {
+                double error = y[t] - forecast;
+                sumSquared += error * error;
+                scored++;
+                double previousLevel = level;
+                level = forecast + alpha * error;
+                trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            }
+            seen++;
+        }
+        if (out != null) {
+            for (int h = 1; h <= HORIZON; h++) out[y.length - 1 + h] = level + h * trend;
+        }
+        return scored == 0 ? Double.NaN : sumSquared / scored;
+    }
+
+    /**
+     * Fits y(t) = c + phi * y(t - 1) by least squares over every pair of
+     * consecutive observed years.
+     * @param y the year-aligned values, NaN when missing
+     * @param out receives the one-step predictions and the forecasts
+     * @return the mean squared one-step error, or NaN with fewer than three pairs
+     */
+    private static double ar1(double[] y, double[] out) {
+        Arrays.fill(out, Double.NaN);
+        int pairs = 0;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int t = 1; t < y.length; t++) {
+            if (Double.isNaN(y[t]) || Double.isNaN(y[t - 1])) continue;
+            pairs++;
+            sumX += y[t - 1];
+            sumY += y[t];
+            sumXX += y[t - 1] * y[t - 1];
+            sumXY += y[t - 1] * y[t];
+        }
+        if (pairs < 3) return Double.NaN;
+        double variance = sumXX - sumX * sumX / pairs;
+        double phi = variance == 0 ? 0 : (sumXY - sumX * sumY / pairs) / variance;
+        double c = (sumY - phi * sumX) / pairs;
+
+        // Missing years use the previous prediction in place of the value,
+        // and the forecasts chain the same way past the end
+        int first = firstObserved(y);
+        double previous = y[first];
+        double sumSquared = 0;
+        int scored = 0;
+        for (int t = first + 1; t < out.length; t++) {
+            double forecast = c + phi * previous;
+            out[t] = forecast;
+            double actual = t < y.length ? y[t] : Double.NaN;
+            if (!Double.isNaN(actual)) {
+                // Scored from the third year on, like Holt, so the errors compare
+                if (t > first + 1) {
+                    sumSquared += (actual - forecast) * (actual - forecast);
+                    scored++;
+                }
+                previous = actual;
+            } else {
+                previous = forecast;
+            }
+        }
+        return scored == 0 ? Double.NaN : sumSquared / scored;
+    }
+
+    private static int firstObserved(double[] y) {
+        for (int t = 0; t < y.length; t++) {
+            if (!Double.isNaN(y[t])) return t;
+        }
+        return -1;
+    }
+
+    private static int observedCount(double[] y) {
+        int count = 0;
+        for (double v : y) {
+            if (!Double.isNaN(v)) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * BatchExporter.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.title.TextTitle;
+import org.jfree.svg.SVGGraphics2D;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.TableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * BatchExporter writes one chart (PNG and SVG) and one CSV per item of the
+ * analysis on screen into a single zip archive.
+ *
+ * Charts are built and rendered off screen on a pool with one thread per
+ * core. A single writer takes each item as soon as it is rendered and adds
+ * it to the archive, so writing overlaps rendering. At most two items per
+ * thread are submitted ahead of the writer, and the next item is only
+ * submitted once one has been written, so a slow disk bounds how many
+ * rendered items are held in memory instead of letting them pile up.
+ */
+public final class BatchExporter {
+    /** Size of the exported charts, in pixels. */
+    public static final int WIDTH = 1000;
+    public static final int HEIGHT = 600;
+
+    /**
+     * The analysis on screen, described per item.
+     * @param analysis the analysis name, used as the folder in the archive
+     * @param items the items to export, in order
+     * @param chartFor builds a new chart showing only the given item; called on worker threads
+     * @param tableFor returns the table rows of the given item
+     */
+    public record Source(String analysis, List<String> items,
+                         Function<String, JFreeChart> chartFor,
+                         Function<String, TableModel> tableFor) { }
+
+    private record Rendered(String name, byte[] png, byte[] svg, byte[] csv) { }
+
+    private BatchExporter() { }
+
+    /**
+     * Asks for a zip file and exports every item of the source into it in
+     * the background, with a progress dialog that can cancel the export.
+     * @param parent the component dialogs are centred on
+     * @param source the analysis to export
+     */
+    public static void exportWithDialog(Component parent, Source source) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Zip archives", "zip"));
+        chooser.setSelectedFile(new File(safeName(source.analysis()) + ".zip"));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        if (!file.getName().toLowerCase().endsWith(".zip")) file = new File(file.getPath() + ".zip");
+        Path zip = file.toPath();
+
+        ProgressMonitor monitor = new ProgressMonitor(parent, "Exporting " + source.analysis(),
+                "", 0, source.items().size());
+        monitor.setMillisToDecideToPopup(0);
+
+        SwingWorker<Integer, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return export(source, zip, done -> SwingUtilities.invokeLater(() -> {
+                    monitor.setProgress(done);
+                    monitor.setNote(done + " of " + source.items().size() + " items");
+                }), monitor::isCanceled);
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    int count = get();
+                    if (monitor.isCanceled()) return;
+                    JOptionPane.showMessageDialog(parent, "Exported " + count + " items to " + zip,
+                            "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    PriceDataVisualizer.showError(parent, e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Renders every item in parallel and writes the results into a zip
+     * archive. A cancelled export deletes the partial archive.
+     * @param source the analysis to export
+     * @param zip the archive to create
+     * @param progress receives the number of items written so far
+     * @param cancelled checked between items; true stops the export
+     * @return the number of items written
+     * @throws IOException if the archive cannot be written
+     * @throws ExecutionException if an item fails to render
+     * @throws InterruptedException if interrupted while waiting for an item
+     */
+    public static int export(Source source, Path zip, IntConsumer progress, BooleanSupplier cancelled)
+            throws IOException, ExecutionException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "chart-export");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<Rendered> rendered = new ExecutorCompletionService<>(pool);
+        List<String> items = source.items();
+        int window = threads * 2;
+        int submitted = 0;
+        while (submitted < Math.min(window, items.size())) {
+            submit(rendered, source, submitted++);
+        }
+
+        String folder = safeName(source.analysis()) + "/";
+        int written = 0;
+        boolean complete = false;
+        try (OutputStream out = Files.newOutputStream(zip);
+             ZipOutputStream archive = new ZipOutputStream(out)) {
+            while (written < items.size()) {
+                if (cancelled.getAsBoolean()) break;
+                Rendered r = rendered.take().get();
+                write(archive, folder + r.name() + ".png", r.png());
+                write(archive, folder + r.name() + ".svg", r.svg());
+                write(archive, folder + r.name() + ".csv", r.csv());
+                progress.accept(++written);
+                // Sliding window: one item out, the next one in
+                if (submitted < items.size()) submit(rendered, source, submitted++);
+            }
+            complete = written == items.size();
+        } finally {
+            pool.shutdownNow();
+            if (!complete) Files.deleteIfExists(zip);
+        }
+        return written;
+    }
+
+    /**
+     * Submits the item at the given position for rendering.
+     */
+    private static void submit(CompletionService<Rendered> rendered, Source source, int i) {
+        String item = source.items().get(i);
+        // Numbered so names stay unique and in order after cleaning
+        String name = String.format("%03d-%s", i + 1, safeName(item));
+        rendered.submit(() -> render(source, item, name));
+    }
+
+    /**
+     * Builds and renders the chart and table of one item.
+     */
+    private static Rendered render(Source source, String item, String name) throws IOException {
+        JFreeChart chart = source.chartFor().apply(item);
+        chart.addSubtitle(new TextTitle(item));
+
+        byte[] png = ChartUtils.encodeAsPNG(chart.createBufferedImage(WIDTH, HEIGHT));
+        SVGGraphics2D svg = new SVGGraphics2D(WIDTH, HEIGHT);
+        chart.draw(svg, new Rectangle(WIDTH, HEIGHT));
+        byte[] svgBytes = svg.getSVGDocument().getBytes(StandardCharsets.UTF_8);
+
+        return new Rendered(name, png, svgBytes, toCsv(source.tableFor().apply(item)));
+    }
+
+    /**
+     * Writes a table model as CSV with a header row.
+     */
+    private static byte[] toCsv(TableModel table) {
+        StringBuilder csv = new StringBuilder();
+        for (int c = 0; c < table.getColumnCount(); c++) {
+            if (c > 0) csv.append(',');
+            csv.append(csvField(table.getColumnName(c)));
+        }
+        csv.append('\n');
+        for (int r = 0; r < table.getRowCount(); r++) {
+            for (int c = 0; c < table.getColumnCount(); c++) {
+                if (c > 0) csv.append(',');
+                Object value = table.getValueAt(r, c);
+                if (value != null) csv.append(csvField(value.toString()));
+            }
+            csv.append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void write(ZipOutputStream archive, String name, byte[] data) throws IOException {
+        archive.putNextEntry(new ZipEntry(name));
+        archive.write(data);
+        archive.closeEntry();
+    }
+
+    /**
+     * Replaces characters that are unsafe in file names.
+     */
+    private static String safeName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._ -]", "_").trim();
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * BoundType.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+/**
+ * BoundType classifies a forecast attribute such as "Lower bound of
+ * prediction interval 2025" or "Upper bound of forecast range" by the part
+ * of the forecast it describes.
+ */
+public enum BoundType {
+    LOWER, MID, UPPER, OTHER;
+
+    /**
+     * Classifies an attribute string.
+     * @param attribute the attribute text from a forecast table
+     * @return the bound type, or OTHER for non-interval attributes
+     */
+    public static BoundType classify(String attribute) {
+        if (attribute == null) return OTHER;
+        String a = attribute.toLowerCase();
+        if (a.startsWith("lower bound")) return LOWER;
+        if (a.startsWith("mid point")) return MID;
+        if (a.startsWith("upper bound")) return UPPER;
+        return OTHER;
+    }
+
+    /**
+     * Classifies every entry of a snapshot's string dictionary once, so rows
+     * can be classified by dictionary id without string comparisons.
+     * @param snapshot the snapshot whose dictionary is classified
+     * @return the bound type for each dictionary id
+     */
+    public static BoundType[] classifyDictionary(DatasetSnapshot snapshot) {
+        BoundType[] types = new BoundType[snapshot.dictionarySize()];
+        for (int id = 0; id < types.length; id++) types[id] = classify(snapshot.dictionaryString(id));
+        return types;
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * CategorySelector.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.*;
+import java.util.List;
+
+/**
+ * CategorySelector is a virtualized replacement for the column of
+ * JCheckBoxes used to filter chart categories. Only one checkbox component
+ * is ever created (the cell renderer), selection is held in a BitSet and
+ * the list can be narrowed with an incremental type-ahead search. Items can
+ * optionally be grouped under hierarchy headers; clicking a header toggles
+ * every visible item in that group.
+ */
+public class CategorySelector extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final RowModel rowModel = new RowModel();
+    private final JList<Integer> list = new JList<>(rowModel);
+    private final JTextField searchField = new JTextField();
+    private final JButton applyButton = new JButton("Apply Filter");
+
+    private String[] items = new String[0];
+    private String[] lowerItems = new String[0];
+    private int[] groupOf = new int[0];
+    private String[] groups = new String[0];
+    private final Map<String, Integer> indexOf = new HashMap<>();
+
+    // An item is selected when allSelected XOR flipped.get(index), which
+    // makes select all / deselect all constant time
+    private boolean allSelected = true;
+    private BitSet flipped = new BitSet();
+
+    // Visible rows, item indexes >= 0 and group headers encoded as -(group + 1)
+    private int[] visibleRows = new int[0];
+    private int[] visibleItems = new int[0];
+    private String lastQuery = "";
+
+    /**
+     * Creates an empty selector with the title, search field, list and the
+     * Select All / Deselect All / Apply Filter buttons.
+     */
+    public CategorySelector() {
+        super(new BorderLayout(0, 5));
+
+        JLabel titleLabel = new JLabel("Select Categories");
+        titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        searchField.setToolTipText("Type to filter categories");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { applySearch(); }
+            public void removeUpdate(DocumentEvent e) { applySearch(); }
+            public void changedUpdate(DocumentEvent e) { applySearch(); }
+        });
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(titleLabel, BorderLayout.NORTH);
+        header.add(searchField, BorderLayout.SOUTH);
+        add(header, BorderLayout.NORTH);
+
+        // A single renderer is shared by every row, so the list stays cheap
+        // regardless of how many categories are loaded
+        list.setCellRenderer(new RowRenderer());
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFixedCellHeight(22);
+        list.setFixedCellWidth(260);
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = list.locationToIndex(e.getPoint());
+                if (row >= 0 && list.getCellBounds(row, row).contains(e.getPoint())) toggleRow(row);
+            }
+        });
+        list.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_SPACE && list.getSelectedIndex() >= 0) {
+                    toggleRow(list.getSelectedIndex());
+                }
+            }
+        });
+        add(new JScrollPane(list), BorderLayout.CENTER);
+
+        // Control buttons
+        JPanel controlPanel = new JPanel(new GridLayout(3, 1, 5, 5));
+        JButton selectAll = new JButton("Select All");
+        JButton deselectAll = new JButton("Deselect All");
+        selectAll.addActionListener(e -> selectAll());
+        deselectAll.addActionListener(e -> deselectAll());
+        controlPanel.add(selectAll);
+        controlPanel.add(deselectAll);
+        controlPanel.add(applyButton);
+        add(controlPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Replaces the items shown in the selector without any grouping. All
+     * items start out selected.
+     * @param newItems the category labels in display order
+     */
+    public void setItems(Collection<String> newItems) {
+        setItems(new ArrayList<>(newItems), null);
+    }
+
+    /**
+     * Replaces the items shown in the selector, grouping each item under the
+     * hierarchy label at the same position in itemGroups. Items are displayed
+     * group by group in the order the groups first appear. All items start
+     * out selected.
+     * @param newItems the category labels
+     * @param itemGroups the group label for each item, or null for no grouping
+     */
+    public void setItems(List<String> newItems, List<String> itemGroups) {
+        int n = newItems.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+
+        // Stable sort by first appearance of the group keeps the caller's
+        // ordering inside each group
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        if (itemGroups != null) {
+            for (String g : itemGroups) groupIndex.putIfAbsent(g == null ? "" : g, groupIndex.size());
+            Arrays.sort(order, Comparator.comparingInt(i -> groupIndex.get(groupKey(itemGroups.get(i)))));
+        }
+
+        items = new String[n];
+        lowerItems = new String[n];
+        groupOf = new int[n];
+        indexOf.clear();
+        for (int i = 0; i < n; i++) {
+            int src = order[i];
+            items[i] = newItems.get(src);
+            lowerItems[i] = items[i].toLowerCase();
+            groupOf[i] = itemGroups == null ? -1 : groupIndex.get(groupKey(itemGroups.get(src)));
+            indexOf.putIfAbsent(items[i], i);
+        }
+        groups = groupIndex.keySet().toArray(new String[0]);
+
+        allSelected = true;
+        flipped = new BitSet();
+        lastQuery = "";
+        searchField.setText("");
+        filterRows(null);
+    }
+
+    /**
+     * Removes every item from the selector.
+     */
+    public void clear() {
+        setItems(Collections.emptyList());
+    }
+
+    /**
+     * Sets the action run when the Apply Filter button is pressed.
+     * @param action the action to run, replacing any previous one
+     */
+    public void setApplyAction(Runnable action) {
+        for (var l : applyButton.getActionListeners()) applyButton.removeActionListener(l);
+        if (action != null) applyButton.addActionListener(e -> action.run());
+    }
+
+    /**
+     * Returns whether the given item is currently selected. Unknown items are
+     * treated as not selected.
+     * @param item the category label
+     * @return true if the item exists and is selected
+     */
+    public boolean isSelected(String item) {
+        Integer idx = indexOf.get(item);
+        return idx != null && isSelected(idx);
+    }
+
+    /**
+     * Returns the selected items in display order.
+     * @return the list of selected category labels
+     */
+    public List<String> getSelectedItems() {
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < items.length; i++) {
+            if (isSelected(i)) selected.add(items[i]);
+        }
+        return selected;
+    }
+
+    /**
+     * Selects every item in constant time.
+     */
+    public void selectAll() {
+        allSelected = true;
+        flipped = new BitSet();
+        list.repaint();
+    }
+
+    /**
+     * Deselects every item in constant time.
+     */
+    public void deselectAll() {
+        allSelected = false;
+        flipped = new BitSet();
+        list.repaint();
+    }
+
+    private boolean isSelected(int itemIndex) {
+        return allSelected ^ flipped.get(itemIndex);
+    }
+
+    private static String groupKey(String group) {
+        return group == null ? "" : group;
+    }
+
+    /**
+     * Toggles the item at the given visible row, or every visible item of a
+     * group when the row is a group header.
+     * @param row the visible row index
+     */
+    private void toggleRow(int row) {
+        int entry = visibleRows[row];
+        if (entry >= 0) {
+            flipped.flip(entry);
+        } else {
+            int group = -entry - 1;
+            boolean anyUnselected = false;
+            for (int i : visibleItems) {
+                if (groupOf[i] == group && !isSelected(i)) { anyUnselected = true; break; }
+            }
+            for (int i : visibleItems) {
+                if (groupOf[i] == group && isSelected(i) != anyUnselected) flipped.flip(i);
+            }
+        }
+        list.repaint();
+    }
+
+    /**
+     * Re-filters the rows after the search text changes. When the new query
+     * extends the previous one only the currently visible items are scanned.
+     */
+    private void applySearch() {
+        String query = searchField.getText().trim().toLowerCase();
+        if (query.equals(lastQuery)) return;
+        int[] candidates = !lastQuery.isEmpty() && query.startsWith(lastQuery) ? visibleItems : null;
+        lastQuery = query;
+        filterRows(candidates);
+    }
+
+    /**
+     * Rebuilds the visible rows from the candidate items, inserting a header
+     * row before each group.
+     * @param candidates the item indexes to consider, or null for all items
+     */
+    private void filterRows(int[] candidates) {
+        int count = candidates == null ? items.length : candidates.length;
+        int[] matched = new int[count];
+        int m = 0;
+        for (int k = 0; k < count; k++) {
+            int i = candidates == null ? k : candidates[k];
+            if (lastQuery.isEmpty() || lowerItems[i].contains(lastQuery)) matched[m++] = i;
+        }
+        visibleItems = Arrays.copyOf(matched, m);
+
+        int[] rows = new int[m * 2];
+        int r = 0;
+        int currentGroup = -1;
+        for (int i : visibleItems) {
+            if (groupOf[i] >= 0 && groupOf[i] != currentGroup) {
+                currentGroup = groupOf[i];
+                rows[r++] = -(currentGroup + 1);
+            }
+            rows[r++] = i;
+        }
+        visibleRows = Arrays.copyOf(rows, r);
+        rowModel.changed();
+    }
+
+    /**
+     * List model exposing the visible rows without allocating per-row objects
+     * beyond the boxed index handed to the renderer.
+     */
+    private class RowModel extends AbstractListModel<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getSize() {
+            return visibleRows.length;
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return visibleRows[index];
+        }
+
+        void changed() {
+            fireContentsChanged(this, 0, Math.max(0, getSize() - 1));
+        }
+    }
+
+    /**
+     * Renders every row with one shared checkbox, bolding group headers.
+     */
+    private class RowRenderer implements ListCellRenderer<Integer> {
+        private final JCheckBox box = new JCheckBox();
+        private final Font itemFont = new Font("SansSerif", Font.PLAIN, 12);
+        private final Font groupFont = new Font("SansSerif", Font.BOLD, 12);
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> l, Integer value,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            int entry = value;
+            if (entry >= 0) {
+                box.setText(items[entry]);
+                box.setSelected(isSelected(entry));
+                box.setFont(itemFont);
+                box.setBorder(BorderFactory.createEmptyBorder(2, groupOf[entry] >= 0 ? 20 : 5, 2, 5));
+            } else {
+                int group = -entry - 1;
+                boolean all = true;
+                for (int i : visibleItems) {
+                    if (groupOf[i] == group && !isSelected(i)) { all = false; break; }
+                }
+                box.setText(groups[group].isEmpty() ? "(Ungrouped)" : groups[group]);
+                box.setSelected(all);
+                box.setFont(groupFont);
+                box.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+            }
+            box.setBorderPainted(false);
+            box.setBackground(isSelected ? l.getSelectionBackground() : l.getBackground());
+            box.setForeground(isSelected ? l.getSelectionForeground() : l.getForeground());
+            return box;
+        }
+    }
+}
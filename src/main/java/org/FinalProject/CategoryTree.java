@@ -0,0 +1,355 @@
+/**
+ * CategoryTree.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * CategoryTree is the CPIForecast category hierarchy (Top-level, Aggregate,
+ * Mid-level, Low-level, Disaggregate) with the forecast of every category
+ * and rollups over each subtree.
+ *
+ * The mid point rollup averages only the leaf categories of a subtree,
+ * weighted by their relative importance in the CPI, since every parent's
+ * own forecast already covers the categories below it. Without weights it
+ * falls back to the plain mean of the leaves.
+ *
+ * The tree is built once from the rows of PriceDataStore.categoryTree, and
+ * the rollups are computed in one bottom-up pass right after, so selecting
+ * or expanding a category never touches the database. It is its own
+ * TreeModel: a JTree only asks for the children of the categories the user
+ * expands, and those are plain array lookups, so even a very large
+ * hierarchy opens instantly.
+ */
+public final class CategoryTree implements TreeModel {
+    /** boundType of the rows that carry a category's relative importance. */
+    public static final String WEIGHT = "WEIGHT";
+
+    private static final String[] LEVEL_COLUMNS = {"topLevel", "aggregate", "midLevel", "lowLevel", "disaggregate"};
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * One category of the tree.
+     */
+    public static final class Node {
+        private final String name;
+        private final Node parent;
+        private final int depth;
+        private Node[] children = NO_CHILDREN;
+        private Map<String, Node> childIndex; // Only used while building
+        private int index;
+
+        // Forecast of this category itself, NaN when missing
+        private double lower = Double.NaN;
+        private double mid = Double.NaN;
+        private double upper = Double.NaN;
+        // Relative importance in the CPI, in percent; NaN when missing
+        private double weight = Double.NaN;
+
+        // Rollups over this category and every category below it; the mid
+        // point sums only cover the leaves
+        private int categoryCount;
+        private int midCount;
+        private double midSum;
+        private double midWeight;
+        private double weightedMidSum;
+        private double lowestLower = Double.NaN;
+        private double highestUpper = Double.NaN;
+
+        private Node(String name, Node parent) {
+            this.name = name;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        /**
+         * Returns the category name.
+         * @return the name
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the parent category.
+         * @return the parent, or null for the root
+         */
+        public Node parent() {
+            return parent;
+        }
+
+        /**
+         * Returns the depth of the category; the root is 0 and top-level categories are 1.
+         * @return the depth
+         */
+        public int depth() {
+            return depth;
+        }
+
+        /**
+         * Returns the categories directly below this one, in alphabetical order.
+         * @return an unmodifiable view of the children
+         */
+        public List<Node> children() {
+            return Collections.unmodifiableList(Arrays.asList(children));
+        }
+
+        /**
+         * Returns the lower bound forecast of the category itself.
+         * @return the lower bound, or NaN if there is none
+         */
+        public double lower() {
+            return lower;
+        }
+
+        /**
+         * Returns the mid point forecast of the category itself.
+         * @return the mid point, or NaN if there is none
+         */
+        public double mid() {
+            return mid;
+        }
+
+        /**
+         * Returns the upper bound forecast of the category itself.
+         * @return the upper bound, or NaN if there is none
+         */
+        public double upper() {
+            return upper;
+        }
+
+        /**
+         * Returns the relative importance of the category in the CPI.
+         * @return the weight in percent, or NaN if there is none
+         */
+        public double weight() {
+            return weight;
+        }
+
+        /**
+         * Returns the number of categories in the subtree, this one included.
+         * @return the category count
+         */
+        public int categoryCount() {
+            return categoryCount;
+        }
+
+        /**
+         * Returns the mid point forecast of the subtree: the mean over its
+         * leaf categories weighted by relative importance, or the plain mean
+         * of the leaves when none of them has a weight.
+         * @return the mean, or NaN if no leaf of the subtree has a mid point
+         */
+        public double meanMid() {
+            if (midWeight > 0) return weightedMidSum / midWeight;
+            return midCount == 0 ? Double.NaN : midSum / midCount;
+        }
+
+        /**
+         * Returns the lowest lower bound in the subtree.
+         * @return the lowest lower bound, or NaN if there is none
+         */
+        public double lowestLower() {
+            return lowestLower;
+        }
+
+        /**
+         * Returns the highest upper bound in the subtree.
+         * @return the highest upper bound, or NaN if there is none
+         */
+        public double highestUpper() {
+            return highestUpper;
+        }
+
+        /**
+         * Returns the label shown in the tree.
+         * @return the name and the size of the subtree
+         */
+        @Override
+        public String toString() {
+            if (children.length == 0) return name;
+            int below = parent == null ? categoryCount : categoryCount - 1;
+            return name + " (" + below + ")";
+        }
+
+        private Node child(String childName) {
+            if (childIndex == null) childIndex = new HashMap<>();
+            return childIndex.computeIfAbsent(childName, n -> new Node(n, this));
+        }
+    }
+
+    private final Node root = new Node("All food categories", null);
+
+    private CategoryTree() {
+    }
+
+    /**
+     * Builds the tree from the rows of PriceDataStore.categoryTree and
+     * computes the rollups of every category.
+     * @param rs rows of (topLevel, aggregate, midLevel, lowLevel, disaggregate, boundType, value),
+     *           where boundType is LOWER, MID, UPPER or WEIGHT
+     * @return the tree
+     * @throws SQLException if reading fails
+     */
+    public static CategoryTree build(ResultSet rs) throws SQLException {
+        CategoryTree tree = new CategoryTree();
+        int[] levelCols = new int[LEVEL_COLUMNS.length];
+        for (int i = 0; i < levelCols.length; i++) levelCols[i] = rs.findColumn(LEVEL_COLUMNS[i]);
+        int boundTypeCol = rs.findColumn("boundType");
+        int valueCol = rs.findColumn("value");
+
+        while (rs.next()) {
+            // Walk down the filled-in levels; blank levels are skipped
+            Node node = tree.root;
+            for (int col : levelCols) {
+                String level = rs.getString(col);
+                if (level != null && !level.isBlank()) node = node.child(level);
+            }
+            if (node == tree.root) continue;
+
+            double value = rs.getDouble(valueCol);
+            if (rs.wasNull()) continue;
+            String kind = rs.getString(boundTypeCol);
+            if (WEIGHT.equals(kind)) {
+                node.weight = value;
+                continue;
+            }
+            switch (BoundType.valueOf(kind)) {
+                case LOWER -> node.lower = value;
+                case MID -> node.mid = value;
+                case UPPER -> node.upper = value;
+                default -> { }
+            }
+        }
+        freeze(tree.root);
+        return tree;
+    }
+
+    /**
+     * Turns the child maps into sorted arrays and computes the rollups,
+     * children before their parent.
+     */
+    private static void freeze(Node node) {
+        if (node.childIndex != null) {
+            node.children = node.childIndex.values().toArray(NO_CHILDREN);
+            Arrays.sort(node.children, Comparator.comparing(Node::name));
+            node.childIndex = null;
+        }
+
+        node.categoryCount = node.parent == null ? 0 : 1; // The root is not a category
+        if (node.children.length == 0 && !Double.isNaN(node.mid)) {
+            node.midSum = node.mid;
+            node.midCount = 1;
+            if (node.weight > 0) {
+                node.weightedMidSum = node.weight * node.mid;
+                node.midWeight = node.weight;
+            }
+        }
+        node.lowestLower = node.lower;
+        node.highestUpper = node.upper;
+        for (int i = 0; i < node.children.length; i++) {
+            Node child = node.children[i];
+            child.index = i;
+            freeze(child);
+            node.categoryCount += child.categoryCount;
+            node.midSum += child.midSum;
+            node.midCount += child.midCount;
+            node.weightedMidSum += child.weightedMidSum;
+            node.midWeight += child.midWeight;
+            node.lowestLower = minIgnoringNaN(node.lowestLower, child.lowestLower);
+            node.highestUpper = maxIgnoringNaN(node.highestUpper, child.highestUpper);
+        }
+    }
+
+    private static double minIgnoringNaN(double a, double b) {
+        if (Double.isNaN(a)) return b;
+        if (Double.isNaN(b)) return a;
+        return Math.min(a, b);
+    }
+
+    private static double maxIgnoringNaN(double a, double b) {
+        if (Double.isNaN(a)) return b;
+        if (Double.isNaN(b)) return a;
+        return Math.max(a, b);
+    }
+
+    /**
+     * Builds the chart dataset of a category: its own forecast, followed by
+     * the rollup of each category directly below it. Only the children are
+     * read, since their rollups already cover the rest of the subtree.
+     * @param node the selected category
+     * @return a dataset with lower bound, mid point and upper bound series
+     */
+    public DefaultCategoryDataset dataset(Node node) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        if (node != root) {
+            addValue(dataset, node.lower, "Lower Bound", node.name);
+            addValue(dataset, node.mid, "Mid Point", node.name);
+            addValue(dataset, node.upper, "Upper Bound", node.name);
+        }
+        for (Node child : node.children) {
+            addValue(dataset, child.lowestLower, "Lower Bound", child.name);
+            addValue(dataset, child.meanMid(), "Mid Point", child.name);
+            addValue(dataset, child.highestUpper, "Upper Bound", child.name);
+        }
+        return dataset;
+    }
+
+    private static void addValue(DefaultCategoryDataset dataset, double value, String series, String category) {
+        if (!Double.isNaN(value)) dataset.addValue(value, series, category);
+    }
+
+    @Override
+    public Node getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        return ((Node) parent).children[index];
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return ((Node) parent).children.length;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return ((Node) node).children.length == 0;
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // The tree is read-only
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(child instanceof Node node) || node.parent != parent) return -1;
+        return node.index;
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        // The tree never changes, so there is nothing to listen to
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        // The tree never changes, so there is nothing to listen to
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * CategoryTreeWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeSelectionModel;
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * CategoryTreeWindow lets the user drill down the CPIForecast category tree.
+ * Selecting a category charts its own forecast next to the rollup of each
+ * category below it: the lowest lower bound, the mean mid point and the
+ * highest upper bound of that subtree.
+ *
+ * The tree is read once, off the EDT, when the window opens. Expanding and
+ * selecting categories afterwards only reads the tree in memory.
+ */
+public class CategoryTreeWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private final JTree tree = new JTree(new DefaultTreeModel(null));
+    private final JPanel chartPanel = new JPanel(new BorderLayout());
+    private final JLabel detailsLabel = new JLabel(" ");
+    private final JLabel statusLabel = new JLabel("Loading categories...");
+    private CategoryTree categories;
+
+    /**
+     * Opens the window and starts loading the tree.
+     * @param dataStore the backend the tree is read from
+     */
+    public CategoryTreeWindow(PriceDataStore dataStore) {
+        super("CPI Category Tree");
+        setSize(1100, 650);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        tree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+        tree.addTreeSelectionListener(e -> {
+            if (e.getNewLeadSelectionPath() != null) {
+                show((CategoryTree.Node) e.getNewLeadSelectionPath().getLastPathComponent());
+            }
+        });
+
+        JScrollPane treeScroll = new JScrollPane(tree);
+        treeScroll.setPreferredSize(new Dimension(300, 600));
+        detailsLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JPanel right = new JPanel(new BorderLayout());
+        right.add(chartPanel, BorderLayout.CENTER);
+        right.add(detailsLabel, BorderLayout.SOUTH);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        add(new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, treeScroll, right), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        setVisible(true);
+        load(dataStore);
+    }
+
+    /**
+     * Reads the tree in the background and shows it with the top-level
+     * categories expanded.
+     */
+    private void load(PriceDataStore dataStore) {
+        long start = System.nanoTime();
+        new SwingWorker<CategoryTree, Void>() {
+            @Override
+            protected CategoryTree doInBackground() throws Exception {
+                return dataStore.categoryTree(CategoryTree::build);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    categories = get();
+                    tree.setModel(categories);
+                    tree.expandRow(0);
+                    tree.setSelectionRow(0);
+                    statusLabel.setText(String.format("%d categories loaded in %.0f ms",
+                            categories.getRoot().categoryCount(), (System.nanoTime() - start) / 1e6));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Failed");
+                    PriceDataVisualizer.showError(CategoryTreeWindow.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Charts a category and the rollups of the categories below it.
+     */
+    private void show(CategoryTree.Node node) {
+        DefaultCategoryDataset dataset = categories.dataset(node);
+        JFreeChart chart = PriceDataVisualizer.createBarChart("CPIForecast", dataset);
+        chart.setTitle(node.name() + " 2025 Prediction Intervals");
+
+        // A series is missing when no category has that bound, so colour them by name
+        BarRenderer renderer = (BarRenderer) chart.getCategoryPlot().getRenderer();
+        setSeriesPaint(renderer, dataset, "Lower Bound", new Color(30, 144, 255));   // Blue
+        setSeriesPaint(renderer, dataset, "Mid Point", new Color(60, 179, 113));     // Green
+        setSeriesPaint(renderer, dataset, "Upper Bound", new Color(220, 20, 60));    // Red
+
+        chartPanel.removeAll();
+        chartPanel.add(PriceDataVisualizer.createChartPanel(chart), BorderLayout.CENTER);
+        chartPanel.revalidate();
+        chartPanel.repaint();
+
+        detailsLabel.setText(String.format(
+                "<html><b>%s</b>: %d categories below &nbsp; Own forecast: %s / %s / %s &nbsp; "
+                        + "Subtree: lowest %s, weighted mid %s, highest %s</html>",
+                node.name(), Math.max(0, node.categoryCount() - (node.parent() == null ? 0 : 1)),
+                format(node.lower()), format(node.mid()), format(node.upper()),
+                format(node.lowestLower()), format(node.meanMid()), format(node.highestUpper())));
+    }
+
+    private static void setSeriesPaint(BarRenderer renderer, DefaultCategoryDataset dataset, String series, Color color) {
+        int index = dataset.getRowIndex(series);
+        if (index >= 0) renderer.setSeriesPaint(index, color);
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.1f%%", value);
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * ChartDensity.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.event.ChartProgressEvent;
+import org.jfree.chart.event.ChartProgressListener;
+import org.jfree.chart.panel.AbstractOverlay;
+import org.jfree.chart.panel.Overlay;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.Plot;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.AbstractRenderer;
+import org.jfree.chart.renderer.xy.SamplingXYLineRenderer;
+import org.jfree.chart.renderer.xy.XYItemRenderer;
+import org.jfree.chart.title.LegendTitle;
+import org.jfree.chart.ui.RectangleEdge;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * ChartDensity switches a chart into a high-density mode once it has more
+ * series than the line renderers can redraw quickly (100 by default, or
+ * the priceVisualizer.highDensitySeries system property).
+ *
+ * In high-density mode:
+ * <ul>
+ *   <li>time series charts draw with a SamplingXYLineRenderer, which draws
+ *   at most one vertical line per pixel column for each series instead of
+ *   one segment per data point;</li>
+ *   <li>anti-aliasing is turned off for lines (text stays smooth);</li>
+ *   <li>no tooltip entity is created per data point;</li>
+ *   <li>the legend is only built when "Show Legend" is chosen from the
+ *   chart's right-click menu;</li>
+ *   <li>the time taken by the last redraw is shown in the corner of the
+ *   plot.</li>
+ * </ul>
+ * The chart panel keeps its off-screen buffer, so tooltips, zoom
+ * rectangles and the timing overlay are painted over the cached image
+ * without redrawing the series.
+ */
+public final class ChartDensity {
+    /** Series count above which charts switch to high-density mode. */
+    public static final int HIGH_DENSITY_SERIES = Integer.getInteger("priceVisualizer.highDensitySeries", 100);
+
+    private static final String DENSE_KEY = "priceVisualizer.highDensity";
+
+    private ChartDensity() { }
+
+    /**
+     * Returns true if a chart with this many series should use high-density mode.
+     * @param seriesCount the number of series in the chart
+     * @return true above the high-density threshold
+     */
+    public static boolean isHighDensity(int seriesCount) {
+        return seriesCount > HIGH_DENSITY_SERIES;
+    }
+
+    /**
+     * Switches the chart shown by a panel to high-density mode if it has
+     * more series than the threshold. Calling it again after series are
+     * added (for example when a streamed chart is complete) is safe.
+     * @param panel the panel showing the chart
+     */
+    public static void configure(ChartPanel panel) {
+        JFreeChart chart = panel.getChart();
+        if (!isHighDensity(seriesCount(chart.getPlot()))) return;
+        if (panel.getClientProperty(DENSE_KEY) != null) return;
+        panel.putClientProperty(DENSE_KEY, Boolean.TRUE);
+
+        chart.setAntiAlias(false);
+        chart.setTextAntiAlias(true);
+
+        Plot plot = chart.getPlot();
+        if (plot instanceof XYPlot xyPlot) {
+            xyPlot.setRenderer(samplingCopy(xyPlot.getRenderer(), xyPlot.getSeriesCount()));
+        } else if (plot instanceof CategoryPlot categoryPlot
+                && categoryPlot.getRenderer() instanceof AbstractRenderer renderer) {
+            renderer.setDefaultCreateEntities(false);
+        }
+
+        installLazyLegend(panel, chart);
+        RenderTimeOverlay overlay = new RenderTimeOverlay();
+        chart.addProgressListener(overlay);
+        panel.addOverlay(overlay);
+    }
+
+    /**
+     * Counts the series of an XY or category plot.
+     */
+    private static int seriesCount(Plot plot) {
+        if (plot instanceof XYPlot xyPlot) {
+            return xyPlot.getSeriesCount();
+        }
+        if (plot instanceof CategoryPlot categoryPlot && categoryPlot.getDataset() != null) {
+            return categoryPlot.getDataset().getRowCount();
+        }
+        return 0;
+    }
+
+    /**
+     * Creates a sampling renderer with the same series colors and strokes.
+     */
+    private static SamplingXYLineRenderer samplingCopy(XYItemRenderer source, int seriesCount) {
+        SamplingXYLineRenderer renderer = new SamplingXYLineRenderer();
+        renderer.setDefaultCreateEntities(false);
+        for (int i = 0; i < seriesCount; i++) {
+            renderer.setSeriesPaint(i, source.getItemPaint(i, 0), false);
+            renderer.setSeriesStroke(i, source.getItemStroke(i, 0), false);
+        }
+        return renderer;
+    }
+
+    /**
+     * Removes the legend and adds a right-click menu item that builds it on
+     * demand.
+     */
+    private static void installLazyLegend(ChartPanel panel, JFreeChart chart) {
+        chart.removeLegend();
+        JPopupMenu menu = panel.getPopupMenu();
+        if (menu == null) return;
+        JCheckBoxMenuItem showLegend = new JCheckBoxMenuItem("Show Legend");
+        showLegend.addActionListener(e -> {
+            if (showLegend.isSelected()) {
+                LegendTitle legend = new LegendTitle(chart.getPlot());
+                legend.setFrame(BlockBorder.NONE);
+                legend.setPosition(RectangleEdge.RIGHT);
+                chart.addLegend(legend);
+            } else {
+                chart.removeLegend();
+            }
+        });
+        menu.addSeparator();
+        menu.add(showLegend);
+    }
+
+    /**
+     * Times each redraw of the chart and paints the last time over the
+     * buffered image.
+     */
+    private static class RenderTimeOverlay extends AbstractOverlay implements Overlay, ChartProgressListener {
+        private long drawStart;
+        private double lastDrawMillis = -1;
+
+        @Override
+        public void chartProgress(ChartProgressEvent event) {
+            if (event.getType() == ChartProgressEvent.DRAWING_STARTED) {
+                drawStart = System.nanoTime();
+            } else if (event.getType() == ChartProgressEvent.DRAWING_FINISHED && drawStart != 0) {
+                lastDrawMillis = (System.nanoTime() - drawStart) / 1e6;
+                drawStart = 0;
+                // Repaints from the buffer; the chart itself is not redrawn
+                fireOverlayChanged();
+            }
+        }
+
+        @Override
+        public void paintOverlay(Graphics2D g2, ChartPanel chartPanel) {
+            if (lastDrawMillis < 0) return;
+            Rectangle2D area = chartPanel.getScreenDataArea();
+            if (area == null) return;
+            String text = String.format("%d series, drawn in %.0f ms",
+                    seriesCount(chartPanel.getChart().getPlot()), lastDrawMillis);
+            g2.setFont(g2.getFont().deriveFont(11f));
+            g2.setPaint(Color.DARK_GRAY);
+            g2.drawString(text, (float) area.getX() + 6, (float) area.getY() + 14);
+        }
+    }
+}
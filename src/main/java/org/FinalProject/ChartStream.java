@@ -0,0 +1,277 @@
+/**
+ * ChartStream.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.swing.Timer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ChartStream fills a chart dataset while a chart_data_* query is still
+ * being read, so the first series appear as soon as the first rows arrive
+ * instead of after the whole result has been loaded.
+ *
+ * A reader thread streams the result set and publishes the rows in small
+ * primitive batches through a SubmissionPublisher. The subscriber queues
+ * them and a Swing timer drains the queue into the dataset at a fixed frame
+ * rate, with change events switched off while a frame is applied, so the
+ * chart is redrawn at most once per frame no matter how fast rows arrive.
+ * New batches are only requested once earlier ones have been drawn, so a
+ * busy UI slows the reader down instead of letting batches pile up.
+ */
+public final class ChartStream {
+    /** Rate at which received rows are drawn. */
+    public static final int FRAMES_PER_SECOND = 30;
+
+    // Small first batch so the first series show up right away; later
+    // batches grow to cut the per-batch overhead
+    private static final int FIRST_BATCH_ROWS = 64;
+    private static final int MAX_BATCH_ROWS = 2048;
+    private static final int BUFFERED_BATCHES = 16;
+
+    /**
+     * A batch of chart rows in column form.
+     * @param items the item of each row
+     * @param years the year of each row
+     * @param months the month of each row (1-12)
+     * @param values the value of each row
+     * @param size the number of rows in use
+     */
+    public record Batch(String[] items, int[] years, int[] months, double[] values, int size) { }
+
+    private final String sql;
+    private final TimeSeriesCollection dataset;
+    private final Consumer<Map<String, TimeSeries>> onComplete;
+    private final Consumer<Throwable> onError;
+
+    private final SubmissionPublisher<Batch> publisher =
+            new SubmissionPublisher<>(ForkJoinPool.commonPool(), BUFFERED_BATCHES);
+    private final Queue<Batch> pending = new ConcurrentLinkedQueue<>();
+    private final Map<String, TimeSeries> series = new HashMap<>();
+    private final Timer frameTimer;
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean finished;
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+    private volatile Statement statement;
+
+    /**
+     * Creates a stream that fills the given dataset from a chart_data_* query.
+     * @param sql the query, returning the columns item, year, month and value
+     * @param dataset the dataset series are added to as they appear
+     * @param onComplete called on the EDT with every series once all rows are drawn
+     * @param onError called on the EDT if the query fails
+     */
+    public ChartStream(String sql, TimeSeriesCollection dataset,
+                       Consumer<Map<String, TimeSeries>> onComplete, Consumer<Throwable> onError) {
+        this.sql = sql;
+        this.dataset = dataset;
+        this.onComplete = onComplete;
+        this.onError = onError;
+        this.frameTimer = new Timer(1000 / FRAMES_PER_SECOND, e -> drawFrame());
+        this.frameTimer.setInitialDelay(0);
+    }
+
+    /**
+     * Starts reading the query on a background thread and drawing on the EDT.
+     * Must be called on the EDT.
+     */
+    public void start() {
+        publisher.subscribe(new BatchSubscriber());
+        frameTimer.start();
+        Thread reader = new Thread(() -> {
+            try (Connection conn = PriceDataVisualizer.getConnection();
+                 Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement = stmt;
+                // Row-by-row streaming: the first rows are sent before the
+                // server has produced the whole result
+                stmt.setFetchSize(PriceDataVisualizer.STREAM_ROWS);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    publishRows(rs, this::offer);
+                }
+            } catch (Throwable t) {
+                // Any failure, not only SQL errors, must still close the
+                // publisher so the frame timer stops and onError is called
+                if (!cancelled) {
+                    publisher.closeExceptionally(t);
+                    return;
+                }
+            } finally {
+                statement = null;
+            }
+            publisher.close();
+        }, "chart-stream");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Stops reading and drawing. Rows already drawn stay in the dataset and
+     * the completion callback is not called.
+     */
+    public void cancel() {
+        cancelled = true;
+        frameTimer.stop();
+        Flow.Subscription s = subscription;
+        if (s != null) s.cancel();
+        Statement stmt = statement;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        // The reader closes the publisher once it notices the cancel
+    }
+
+    /**
+     * Reads the result set into batches and hands each one to the sink,
+     * until the rows run out or the stream is cancelled.
+     * @param rs a result set with the columns item, year, month and value
+     * @param sink receives each batch; the reader thread passes offer
+     * @throws SQLException if reading fails
+     */
+    void publishRows(ResultSet rs, Consumer<Batch> sink) throws SQLException {
+        int itemCol = rs.findColumn("item");
+        int yearCol = rs.findColumn("year");
+        int monthCol = rs.findColumn("month");
+        int valueCol = rs.findColumn("value");
+        Map<String, String> itemNames = new HashMap<>();
+
+        int capacity = FIRST_BATCH_ROWS;
+        while (!cancelled) {
+            String[] items = new String[capacity];
+            int[] years = new int[capacity];
+            int[] months = new int[capacity];
+            double[] values = new double[capacity];
+            int size = 0;
+            boolean more = true;
+            while (size < capacity && (more = rs.next())) {
+                String item = rs.getString(itemCol);
+                if (item == null) continue;
+                String shared = itemNames.putIfAbsent(item, item);
+                items[size] = shared != null ? shared : item;
+                years[size] = rs.getInt(yearCol);
+                months[size] = rs.getInt(monthCol);
+                values[size] = rs.getDouble(valueCol);
+                size++;
+            }
+            if (size > 0) sink.accept(new Batch(items, years, months, values, size));
+            if (!more) return;
+            capacity = Math.min(capacity * 2, MAX_BATCH_ROWS);
+        }
+    }
+
+    /**
+     * Publishes a batch, waiting while the subscriber's buffer is full.
+     */
+    private void offer(Batch batch) {
+        while (!cancelled && publisher.offer(batch, 100, TimeUnit.MILLISECONDS, null) < 0) {
+            // Dropped after the timeout; offer it again unless cancelled
+        }
+    }
+
+    /**
+     * Applies every queued batch to the dataset and fires one change event.
+     */
+    private void drawFrame() {
+        if (cancelled) return;
+        // Read the flag before draining so rows queued before completion are never missed
+        boolean complete = finished;
+        if (!pending.isEmpty()) applyPending();
+        if (complete && pending.isEmpty()) {
+            frameTimer.stop();
+            if (failure != null) onError.accept(failure);
+            else onComplete.accept(series);
+        }
+    }
+
+    /**
+     * Applies the queued batches and asks the publisher for as many more.
+     */
+    private void applyPending() {
+        subscription.request(applyBatches(pending, dataset, series));
+    }
+
+    /**
+     * Adds queued rows to a dataset with change events suspended, then
+     * notifies the chart once. The rows are grouped by series first, so each
+     * series is merged in one sorted pass. Series are created the first time
+     * their item appears.
+     * @param batches the batches to apply; emptied by this call
+     * @param dataset the dataset the series are shown in
+     * @param series the series already in the dataset, by item
+     * @return the number of batches applied
+     */
+    static int applyBatches(Queue<Batch> batches, TimeSeriesCollection dataset, Map<String, TimeSeries> series) {
+        TimeSeriesBuilder frame = new TimeSeriesBuilder();
+        int drained = 0;
+        Batch batch;
+        while ((batch = batches.poll()) != null) {
+            for (int i = 0; i < batch.size(); i++) {
+                frame.add(batch.items()[i], batch.years()[i], batch.months()[i], batch.values()[i]);
+            }
+            drained++;
+        }
+
+        dataset.setNotify(false);
+        for (String item : frame.keys()) {
+            TimeSeries s = series.get(item);
+            if (s == null) {
+                s = new TimeSeries(item);
+                series.put(item, s);
+                dataset.addSeries(s);
+            }
+            frame.addTo(item, s);
+        }
+        dataset.setNotify(true);
+        return drained;
+    }
+
+    /**
+     * Queues the received batches for the next frame.
+     */
+    private class BatchSubscriber implements Flow.Subscriber<Batch> {
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            s.request(BUFFERED_BATCHES);
+        }
+
+        @Override
+        public void onNext(Batch batch) {
+            pending.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failure = t;
+            finished = true;
+        }
+
+        @Override
+        public void onComplete() {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * CrossCorrelation.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * CrossCorrelation measures how producer-level moves (historicalppi) feed
+ * into consumer categories (historicalcpi). For every PPI x CPI item pair it
+ * computes the Pearson correlation between the PPI change in year t and the
+ * CPI change in year t + lag over a configurable lag range. A positive lag
+ * means the producer item leads the consumer item.
+ *
+ * Pairs are independent, so they are computed in parallel on the primitive
+ * year-aligned arrays from AnnualSeries.
+ */
+public final class CrossCorrelation {
+    /** Minimum number of overlapping years needed for a correlation. */
+    public static final int MIN_OBSERVATIONS = 5;
+
+    /**
+     * Correlation result for one producer / consumer pair.
+     * @param ppiItem the producer price index item
+     * @param cpiItem the consumer price index item
+     * @param bestLag the lag in years with the strongest absolute correlation
+     * @param bestCorrelation the correlation at the best lag
+     * @param observations the number of year pairs used at the best lag
+     * @param byLag the correlation for each lag from -maxLag to maxLag (NaN if too few years)
+     */
+    public record PairResult(String ppiItem, String cpiItem, int bestLag, double bestCorrelation,
+                             int observations, double[] byLag) { }
+
+    private CrossCorrelation() { }
+
+    /**
+     * Computes the lead/lag correlations for every PPI x CPI item pair.
+     * Only years inside [yearFrom, yearTo] are used on both sides.
+     * @param ppi the producer series
+     * @param cpi the consumer series
+     * @param yearFrom first year of the window
+     * @param yearTo last year of the window
+     * @param maxLag the largest lead or lag in years to test
+     * @return the results ranked by absolute correlation, strongest first
+     */
+    public static List<PairResult> compute(AnnualSeries ppi, AnnualSeries cpi, int yearFrom, int yearTo, int maxLag) {
+        int cpiCount = cpi.itemCount();
+        return IntStream.range(0, ppi.itemCount() * cpiCount)
+                .parallel()
+                .mapToObj(pair -> computePair(ppi, pair / cpiCount, cpi, pair % cpiCount, yearFrom, yearTo, maxLag))
+                .filter(r -> !Double.isNaN(r.bestCorrelation()))
+                .sorted(Comparator.comparingDouble((PairResult r) -> -Math.abs(r.bestCorrelation())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the correlation at every lag for a single pair.
+     */
+    private static PairResult computePair(AnnualSeries ppi, int p, AnnualSeries cpi, int c,
+                                          int yearFrom, int yearTo, int maxLag) {
+        double[] byLag = new double[2 * maxLag + 1];
+        int bestLag = 0;
+        double best = Double.NaN;
+        int bestN = 0;
+        for (int lag = -maxLag; lag <= maxLag; lag++) {
+            // Accumulate sums in one pass over the overlapping years
+            double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+            int n = 0;
+            int start = Math.max(yearFrom, yearFrom - lag);
+            int end = Math.min(yearTo, yearTo - lag);
+            for (int year = start; year <= end; year++) {
+                double x = ppi.value(p, year);
+                double y = cpi.value(c, year + lag);
+                if (Double.isNaN(x) || Double.isNaN(y)) continue;
+                sx += x;
+                sy += y;
+                sxx += x * x;
+                syy += y * y;
+                sxy += x * y;
+                n++;
+            }
+            double r = Double.NaN;
+            if (n >= MIN_OBSERVATIONS) {
+                double cov = sxy - sx * sy / n;
+                double vx = sxx - sx * sx / n;
+                double vy = syy - sy * sy / n;
+                if (vx > 0 && vy > 0) r = cov / Math.sqrt(vx * vy);
+            }
+            byLag[lag + maxLag] = r;
+            if (!Double.isNaN(r) && (Double.isNaN(best) || Math.abs(r) > Math.abs(best))) {
+                best = r;
+                bestLag = lag;
+                bestN = n;
+            }
+        }
+        return new PairResult(ppi.item(p), cpi.item(c), bestLag, best, bestN, byLag);
+    }
+}
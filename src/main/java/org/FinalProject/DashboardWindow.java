@@ -0,0 +1,271 @@
+/**
+ * DashboardWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.title.TextTitle;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.swing.*;
+import java.awt.*;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * DashboardWindow shows volatility, forecast accuracy, methodology
+ * comparison and the 2025 forecast bounds for both CPI and PPI in one grid
+ * of small charts.
+ *
+ * All eight analyses start at once on their own threads. A semaphore sized
+ * to the read pool keeps no more of them querying than there are
+ * connections, so the rest wait for a permit instead of timing out on the
+ * pool. Each chart is drawn as soon as its analysis finishes, so the whole
+ * dashboard takes about as long as its slowest analysis. Base data shared
+ * by several panels (the dataset snapshots and the annual series built
+ * from them) is loaded once and reused, and the query history is reloaded
+ * once at the end instead of after every panel.
+ */
+public class DashboardWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] INDEX_TYPES = {"Consumer Price Index", "Producer Price Index"};
+
+    /**
+     * One cell of the dashboard.
+     * @param title the cell title
+     * @param chart builds the chart of the cell; called on a worker thread
+     */
+    private record Analysis(String title, Callable<JFreeChart> chart) { }
+
+    private final Map<String, String> queryMap;
+    private final PriceDataStore dataStore;
+    private final int yearFrom;
+    private final int yearTo;
+    private final JLabel statusLabel = new JLabel(" ");
+    private final ExecutorService executor;
+
+    /**
+     * Opens the dashboard and starts loading every panel.
+     * @param queryMap the named queries from tableQueries.sql
+     * @param dataStore the backend the analyses run on
+     * @param yearFrom first year of the volatility window
+     * @param yearTo last year of the volatility window
+     */
+    public DashboardWindow(Map<String, String> queryMap, PriceDataStore dataStore, int yearFrom, int yearTo) {
+        super("Dashboard");
+        this.queryMap = queryMap;
+        this.dataStore = dataStore;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        setSize(1400, 750);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        // One row per index, one column per analysis
+        List<Analysis> panels = new ArrayList<>();
+        for (String indexType : INDEX_TYPES) {
+            boolean isCpi = indexType.equals("Consumer Price Index");
+            String prefix = isCpi ? "CPI" : "PPI";
+            panels.add(new Analysis(prefix + " Volatility (" + yearFrom + "-" + yearTo + ")", () -> volatilityChart(isCpi)));
+            panels.add(new Analysis(prefix + " Forecast Accuracy", () -> accuracyChart(isCpi)));
+            panels.add(new Analysis(prefix + " Methodology Comparison", () -> methodologyChart(isCpi)));
+            panels.add(new Analysis(prefix + " 2025 Bounds", () -> boundsChart(isCpi ? "CPIForecast" : "PPIForecast")));
+        }
+
+        JPanel grid = new JPanel(new GridLayout(INDEX_TYPES.length, 0, 4, 4));
+        List<JPanel> cells = new ArrayList<>();
+        for (Analysis analysis : panels) {
+            JPanel cell = new JPanel(new BorderLayout());
+            cell.setBorder(BorderFactory.createTitledBorder(analysis.title()));
+            cell.add(new JLabel("Loading...", SwingConstants.CENTER), BorderLayout.CENTER);
+            cells.add(cell);
+            grid.add(cell);
+        }
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        add(grid, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        executor = Executors.newFixedThreadPool(panels.size(), r -> {
+            Thread t = new Thread(r, "dashboard");
+            t.setDaemon(true);
+            return t;
+        });
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                executor.shutdownNow();
+            }
+        });
+
+        setVisible(true);
+        load(panels, cells);
+    }
+
+    /**
+     * Starts every panel and fills its cell as soon as it finishes.
+     */
+    private void load(List<Analysis> panels, List<JPanel> cells) {
+        Semaphore connections = new Semaphore(Math.max(1, PriceDataVisualizer.readPoolSize()));
+        long start = System.nanoTime();
+        long[] panelNanos = new long[panels.size()];
+        int[] finished = {0};
+        statusLabel.setText("Loading " + panels.size() + " panels...");
+
+        for (int i = 0; i < panels.size(); i++) {
+            int index = i;
+            Analysis analysis = panels.get(i);
+            executor.execute(() -> {
+                long panelStart = 0;
+                JFreeChart chart = null;
+                Exception failure = null;
+                try {
+                    connections.acquire();
+                    try {
+                        // Time the analysis itself, not the wait for a connection
+                        panelStart = System.nanoTime();
+                        chart = analysis.chart().call();
+                    } finally {
+                        connections.release();
+                    }
+                } catch (InterruptedException e) {
+                    return; // Window closed
+                } catch (Exception e) {
+                    failure = e;
+                }
+                long nanos = System.nanoTime() - panelStart;
+                JFreeChart result = chart;
+                Exception error = failure;
+
+                SwingUtilities.invokeLater(() -> {
+                    if (!isDisplayable()) return;
+                    JPanel cell = cells.get(index);
+                    cell.removeAll();
+                    if (error != null) {
+                        error.printStackTrace();
+                        cell.add(new JLabel("Database error: " + error.getMessage(), SwingConstants.CENTER),
+                                BorderLayout.CENTER);
+                    } else {
+                        result.addSubtitle(new TextTitle(String.format("%.0f ms", nanos / 1e6)));
+                        cell.add(createSmallChartPanel(result), BorderLayout.CENTER);
+                    }
+                    cell.revalidate();
+                    cell.repaint();
+
+                    panelNanos[index] = nanos;
+                    if (++finished[0] == panels.size()) done(start, panelNanos);
+                    else statusLabel.setText(finished[0] + " of " + panels.size() + " panels loaded...");
+                });
+            });
+        }
+    }
+
+    /**
+     * Reports the dashboard time next to the slowest panel and the sum of all
+     * panels.
+     */
+    private void done(long start, long[] panelNanos) {
+        double total = (System.nanoTime() - start) / 1e6;
+        double slowest = Arrays.stream(panelNanos).max().orElse(0) / 1e6;
+        double sum = Arrays.stream(panelNanos).sum() / 1e6;
+        statusLabel.setText(String.format("%d panels loaded in %.0f ms (slowest panel %.0f ms, all panels one after another %.0f ms)",
+                panelNanos.length, total, slowest, sum));
+    }
+
+    private static ChartPanel createSmallChartPanel(JFreeChart chart) {
+        // The cells are small, so item names are left to the tooltips
+        chart.removeLegend();
+        chart.getTitle().setFont(new Font("SansSerif", Font.BOLD, 12));
+        ChartPanel cp = PriceDataVisualizer.createChartPanel(chart);
+        cp.setPreferredSize(new Dimension(320, 300));
+        return cp;
+    }
+
+    private JFreeChart volatilityChart(boolean isCpi) throws SQLException {
+        Set<Integer> years = new TreeSet<>();
+        Map<String, Map<Integer, Double>> dataMap = dataStore.volatility(isCpi, yearFrom, yearTo,
+                rs -> readYearlyValues(rs, "avgChange", years));
+        JFreeChart chart = PriceDataVisualizer.createChart(PriceDataVisualizer.createDataset(dataMap, years),
+                isCpi ? "CPI" : "PPI", yearFrom, yearTo);
+        chart.setTitle((isCpi ? "CPI" : "PPI") + " Volatility");
+        return chart;
+    }
+
+    private JFreeChart accuracyChart(boolean isCpi) throws SQLException {
+        Set<Integer> years = new TreeSet<>();
+        Map<String, Map<Integer, Double>> dataMap = dataStore.forecastAccuracy(isCpi,
+                rs -> readYearlyValues(rs, "mean_absolute_error", years));
+        int minYear = years.isEmpty() ? 0 : Collections.min(years);
+        int maxYear = years.isEmpty() ? 0 : Collections.max(years);
+        JFreeChart chart = PriceDataVisualizer.createChart(PriceDataVisualizer.createDataset(dataMap, years),
+                isCpi ? "CPI" : "PPI", minYear, maxYear);
+        chart.setTitle((isCpi ? "CPI" : "PPI") + " Mean Absolute Error");
+        return chart;
+    }
+
+    private JFreeChart methodologyChart(boolean isCpi) throws SQLException {
+        TimeSeriesBuilder oldBuilder = new TimeSeriesBuilder();
+        TimeSeriesBuilder newBuilder = new TimeSeriesBuilder();
+        dataStore.methodologyComparison(isCpi, rs -> {
+            int itemCol = rs.findColumn("item");
+            int yearCol = rs.findColumn("year");
+            int monthCol = rs.findColumn("month");
+            int oldCol = rs.findColumn("old_forecast");
+            int newCol = rs.findColumn("new_forecast");
+            while (rs.next()) {
+                String item = rs.getString(itemCol);
+                int year = rs.getInt(yearCol);
+                int month = rs.getInt(monthCol);
+                oldBuilder.add(item, year, month, rs.getDouble(oldCol));
+                newBuilder.add(item, year, month, rs.getDouble(newCol));
+            }
+            return null;
+        });
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        for (String item : new TreeSet<>(oldBuilder.keys())) {
+            dataset.addSeries(oldBuilder.build(item, item + " (Old)"));
+            dataset.addSeries(newBuilder.build(item, item + " (New)"));
+        }
+        JFreeChart chart = PriceDataVisualizer.createTimeSeriesChart(isCpi ? "CPI" : "PPI", dataset);
+        chart.setTitle((isCpi ? "CPI" : "PPI") + " Old vs. New Methodology");
+        return chart;
+    }
+
+    private JFreeChart boundsChart(String tableName) throws SQLException {
+        String sql = queryMap.get("full_data_" + tableName + "_for_2025_bounds");
+        if (sql == null) throw new SQLException("No query found for the " + tableName + " bounds");
+        try (Connection conn = PriceDataVisualizer.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            ForecastBounds bounds = ForecastBounds.read(rs);
+            return PriceDataVisualizer.createBarChart(tableName, bounds.dataset(bounds.items()));
+        }
+    }
+
+    /**
+     * Reads item / year / value rows into a map of values per item and year.
+     */
+    private static Map<String, Map<Integer, Double>> readYearlyValues(ResultSet rs, String valueColumn,
+                                                                      Set<Integer> years) throws SQLException {
+        int itemCol = rs.findColumn("item");
+        int yearCol = rs.findColumn("year");
+        int valueCol = rs.findColumn(valueColumn);
+        Map<String, Map<Integer, Double>> dataMap = new LinkedHashMap<>();
+        while (rs.next()) {
+            int year = rs.getInt(yearCol);
+            years.add(year);
+            dataMap.computeIfAbsent(rs.getString(itemCol), k -> new HashMap<>()).put(year, rs.getDouble(valueCol));
+        }
+        return dataMap;
+    }
+}
@@ -0,0 +1,546 @@
+/**
+ * DatasetSnapshot.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.FinalProject.DatasetTable.Column;
+import org.FinalProject.DatasetTable.ColumnType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * DatasetSnapshot is a compact, read-only binary copy of one dataset table
+ * that is opened with FileChannel.map instead of being parsed. The datasets
+ * only change monthly, so a snapshot is generated once from the CSV files
+ * (or the database) and every later launch maps it in near-zero time.
+ *
+ * File layout (little endian):
+ * <pre>
+ *   header   magic "PVSNAP02", version, row count, column count,
+ *            dictionary size, source stamp, CRC32 of the column data,
+ *            CRC32 of the metadata, end of the metadata
+ *   metadata column descriptors (type, name, data offset)
+ *            string dictionary (offset table + UTF-8 bytes)
+ *   data     fixed-width columns, int32 for INT and STRING (dictionary id)
+ *            and float64 for DOUBLE, each aligned to 8 bytes
+ * </pre>
+ * Missing numbers are stored as NaN (DOUBLE) or NULL_INT (INT) and missing
+ * strings as dictionary id -1.
+ *
+ * Opening a snapshot only reads and checksums the header and metadata;
+ * each column is mapped separately and its pages are read when first
+ * used. The column data checksum is computed when the file is written and
+ * checked on demand with verify().
+ */
+public class DatasetSnapshot {
+    public static final String FILE_EXTENSION = ".pvs";
+    public static final int NULL_INT = Integer.MIN_VALUE;
+
+    private static final byte[] MAGIC = "PVSNAP02".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 56;
+    // Columns are written through a buffer of this size
+    private static final int WRITE_CHUNK = 1 << 20;
+
+    private final DatasetTable table;
+    private final Path file;
+    private final MappedByteBuffer metadata;
+    private final MappedByteBuffer[] columnData;
+    private final int rowCount;
+    private final long sourceStamp;
+    private final long dataCrc;
+    private final String[] columnNames;
+    private final ColumnType[] columnTypes;
+    private final int dictionarySize;
+    private final int dictionaryOffsets;
+    private final int dictionaryBytes;
+    private final String[] dictionaryCache;
+
+    private DatasetSnapshot(DatasetTable table, Path file, FileChannel channel) throws IOException {
+        this.table = table;
+        this.file = file;
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE) throw new IOException("Not a snapshot file for " + table.tableName());
+
+        // Validate the header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a snapshot file for " + table.tableName());
+        if (header.getInt(8) != VERSION) throw new IOException("Unsupported snapshot version " + header.getInt(8));
+        rowCount = header.getInt(12);
+        int columnCount = header.getInt(16);
+        dictionarySize = header.getInt(20);
+        sourceStamp = header.getLong(24);
+        dataCrc = header.getLong(32);
+        long metadataCrc = header.getLong(40);
+        long metadataEnd = header.getLong(48);
+        if (metadataEnd < HEADER_SIZE || metadataEnd > Math.min(fileSize, Integer.MAX_VALUE)) {
+            throw new IOException("Corrupt header in snapshot for " + table.tableName());
+        }
+
+        // Only the descriptors and dictionary are checksummed here; the
+        // column data is left unread until it is used
+        metadata = channel.map(FileChannel.MapMode.READ_ONLY, 0, metadataEnd);
+        metadata.order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        crc.update(metadata.slice(HEADER_SIZE, (int) metadataEnd - HEADER_SIZE));
+        if (crc.getValue() != metadataCrc) throw new IOException("Checksum mismatch in snapshot for " + table.tableName());
+
+        // Column descriptors, each column mapped on its own
+        int pos = HEADER_SIZE;
+        columnNames = new String[columnCount];
+        columnTypes = new ColumnType[columnCount];
+        columnData = new MappedByteBuffer[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columnTypes[c] = ColumnType.values()[metadata.get(pos)];
+            int nameLength = metadata.getShort(pos + 1);
+            byte[] name = new byte[nameLength];
+            metadata.get(pos + 3, name);
+            columnNames[c] = new String(name, StandardCharsets.UTF_8);
+            long offset = metadata.getLong(pos + 3 + nameLength);
+            long length = (long) rowCount * width(columnTypes[c]);
+            if (offset + length > fileSize) throw new IOException("Truncated snapshot for " + table.tableName());
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Column " + columnNames[c] + " of " + table.tableName() + " is too large to map");
+            }
+            columnData[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            columnData[c].order(ByteOrder.LITTLE_ENDIAN);
+            pos += 11 + nameLength;
+        }
+
+        // Dictionary offset table followed by the string bytes
+        dictionaryOffsets = pos;
+        dictionaryBytes = pos + (dictionarySize + 1) * 4;
+        dictionaryCache = new String[dictionarySize];
+    }
+
+    /**
+     * Maps an existing snapshot file and validates its header and metadata.
+     * The column data is checked by verify().
+     * @param table the table the snapshot was written for
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static DatasetSnapshot open(DatasetTable table, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mappings stay valid after the channel is closed
+            return new DatasetSnapshot(table, file, channel);
+        }
+    }
+
+    /**
+     * Checksums the column data against the checksum written with the
+     * file. This reads every page of the snapshot, so it is not done on open.
+     * @throws IOException if the column data does not match its checksum
+     */
+    public void verify() throws IOException {
+        CRC32 crc = new CRC32();
+        for (MappedByteBuffer column : columnData) crc.update(column.duplicate());
+        if (crc.getValue() != dataCrc) throw new IOException("Checksum mismatch in snapshot for " + table.tableName());
+    }
+
+    /**
+     * Returns the file this snapshot is mapped from.
+     * @return the snapshot file
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Returns the table this snapshot holds.
+     * @return the dataset table
+     */
+    public DatasetTable table() {
+        return table;
+    }
+
+    /**
+     * Returns the number of rows in the snapshot.
+     * @return the row count
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the stamp of the source the snapshot was generated from
+     * (the CSV modification time, or 0 when built from the database).
+     * @return the source stamp
+     */
+    public long sourceStamp() {
+        return sourceStamp;
+    }
+
+    /**
+     * Returns the number of columns in the snapshot.
+     * @return the column count
+     */
+    public int columnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * Returns the name of the given column.
+     * @param col the column index
+     * @return the column name
+     */
+    public String columnName(int col) {
+        return columnNames[col];
+    }
+
+    /**
+     * Returns the storage type of the given column.
+     * @param col the column index
+     * @return the column type
+     */
+    public ColumnType columnType(int col) {
+        return columnTypes[col];
+    }
+
+    /**
+     * Resolves a column name to its index, ignoring case.
+     * @param name the column name
+     * @return the column index
+     * @throws IllegalArgumentException if no column has that name
+     */
+    public int columnIndex(String name) {
+        for (int c = 0; c < columnNames.length; c++) {
+            if (columnNames[c].equalsIgnoreCase(name)) return c;
+        }
+        throw new IllegalArgumentException("No column " + name + " in " + table.tableName());
+    }
+
+    /**
+     * Reads an INT column value.
+     * @param row the row index
+     * @param col the column index
+     * @return the value, or NULL_INT when missing
+     */
+    public int getInt(int row, int col) {
+        return columnData[col].getInt(row * 4);
+    }
+
+    /**
+     * Reads a DOUBLE column value.
+     * @param row the row index
+     * @param col the column index
+     * @return the value, or NaN when missing or not numeric
+     */
+    public double getDouble(int row, int col) {
+        return columnData[col].getDouble(row * 8);
+    }
+
+    /**
+     * Reads the dictionary id of a STRING column value. Equal strings share
+     * an id, so ids can be compared instead of strings.
+     * @param row the row index
+     * @param col the column index
+     * @return the dictionary id, or -1 when missing
+     */
+    public int getStringId(int row, int col) {
+        return columnData[col].getInt(row * 4);
+    }
+
+    /**
+     * Reads a STRING column value.
+     * @param row the row index
+     * @param col the column index
+     * @return the string, or null when missing
+     */
+    public String getString(int row, int col) {
+        int id = getStringId(row, col);
+        return id < 0 ? null : dictionaryString(id);
+    }
+
+    /**
+     * Returns the number of distinct strings in the dictionary.
+     * @return the dictionary size
+     */
+    public int dictionarySize() {
+        return dictionarySize;
+    }
+
+    /**
+     * Decodes a dictionary entry. Entries are decoded once and cached.
+     * @param id the dictionary id
+     * @return the string for that id
+     */
+    public String dictionaryString(int id) {
+        String s = dictionaryCache[id];
+        if (s == null) {
+            int start = metadata.getInt(dictionaryOffsets + id * 4);
+            int end = metadata.getInt(dictionaryOffsets + (id + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            metadata.get(dictionaryBytes + start, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8).intern();
+            dictionaryCache[id] = s;
+        }
+        return s;
+    }
+
+    private static int width(ColumnType type) {
+        return type == ColumnType.DOUBLE ? 8 : 4;
+    }
+
+    /**
+     * Generates a snapshot from one of the CSV files in the dataset folder.
+     * @param table the table to convert
+     * @param csv the CSV file
+     * @param out the snapshot file to write
+     * @throws IOException if reading or writing fails
+     */
+    public static void writeFromCsv(DatasetTable table, Path csv, Path out) throws IOException {
+        Column[] columns = table.columns();
+        Builder builder = new Builder(columns);
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // Skip the header row
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                String[] fields = parseCsvLine(line, columns.length);
+                builder.startRow();
+                for (int c = 0; c < columns.length; c++) builder.add(c, fields[c]);
+            }
+        }
+        builder.write(out, Files.getLastModifiedTime(csv).toMillis());
+    }
+
+    /**
+     * Generates a snapshot from the database copy of a table.
+     * @param table the table to convert
+     * @param conn an open database connection
+     * @param out the snapshot file to write
+     * @throws SQLException if the table cannot be read
+     * @throws IOException if writing fails
+     */
+    public static void writeFromDatabase(DatasetTable table, Connection conn, Path out) throws SQLException, IOException {
+        Column[] columns = table.columns();
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM " + table.tableName());
+        for (Column column : columns) select.add(column.name());
+
+        Builder builder = new Builder(columns);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(select.toString())) {
+            while (rs.next()) {
+                builder.startRow();
+                for (int c = 0; c < columns.length; c++) builder.add(c, rs.getString(c + 1));
+            }
+        }
+        builder.write(out, 0L);
+    }
+
+    /**
+     * Splits one CSV line into fields, handling quoted fields, doubled
+     * quotes and a leading byte order mark.
+     * @param line the CSV line
+     * @param expected the expected number of fields
+     * @return the fields, padded with empty strings to the expected size
+     */
+    static String[] parseCsvLine(String line, int expected) {
+        String[] fields = new String[Math.max(expected, 1)];
+        Arrays.fill(fields, "");
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int f = 0;
+        int start = !line.isEmpty() && line.charAt(0) == '\uFEFF' ? 1 : 0;
+        for (int i = start; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                if (f < fields.length) fields[f] = field.toString();
+                f++;
+                field.setLength(0);
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (f < fields.length) fields[f] = field.toString();
+        return fields;
+    }
+
+    /**
+     * Accumulates rows column by column and writes the snapshot file.
+     */
+    private static class Builder {
+        private final Column[] columns;
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private final int[][] intColumns;
+        private final double[][] doubleColumns;
+        private int rows = -1;
+        private int capacity = 1024;
+
+        Builder(Column[] columns) {
+            this.columns = columns;
+            intColumns = new int[columns.length][];
+            doubleColumns = new double[columns.length][];
+            for (int c = 0; c < columns.length; c++) {
+                if (columns[c].type() == ColumnType.DOUBLE) doubleColumns[c] = new double[capacity];
+                else intColumns[c] = new int[capacity];
+            }
+        }
+
+        void startRow() {
+            rows++;
+            if (rows == capacity) {
+                capacity *= 2;
+                for (int c = 0; c < columns.length; c++) {
+                    if (doubleColumns[c] != null) doubleColumns[c] = Arrays.copyOf(doubleColumns[c], capacity);
+                    else intColumns[c] = Arrays.copyOf(intColumns[c], capacity);
+                }
+            }
+        }
+
+        void add(int c, String raw) {
+            String value = raw == null ? null : raw.trim();
+            switch (columns[c].type()) {
+                case STRING -> intColumns[c][rows] = value == null ? -1
+                        : dictionary.computeIfAbsent(value, k -> dictionary.size());
+                case INT -> intColumns[c][rows] = parseInt(value);
+                case DOUBLE -> doubleColumns[c][rows] = parseDouble(value);
+            }
+        }
+
+        void write(Path out, long sourceStamp) throws IOException {
+            int rowCount = rows + 1;
+            List<byte[]> strings = new ArrayList<>(dictionary.size());
+            long stringBytes = 0;
+            for (String s : dictionary.keySet()) {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                strings.add(b);
+                stringBytes += b.length;
+            }
+            List<byte[]> names = new ArrayList<>();
+            int descriptorBytes = 0;
+            for (Column column : columns) {
+                byte[] b = column.name().getBytes(StandardCharsets.UTF_8);
+                names.add(b);
+                descriptorBytes += 11 + b.length;
+            }
+
+            // Work out where every section starts
+            long metadataEnd = HEADER_SIZE + descriptorBytes + (strings.size() + 1) * 4L + stringBytes;
+            if (metadataEnd > Integer.MAX_VALUE) throw new IOException("Dictionary too large for a snapshot");
+            long[] offsets = new long[columns.length];
+            long pos = align(metadataEnd);
+            for (int c = 0; c < columns.length; c++) {
+                offsets[c] = pos;
+                pos = align(pos + (long) rowCount * width(columns[c].type()));
+            }
+
+            // Header and metadata are small enough to build in memory
+            ByteBuffer meta = ByteBuffer.allocate((int) metadataEnd).order(ByteOrder.LITTLE_ENDIAN);
+            meta.position(HEADER_SIZE);
+            for (int c = 0; c < columns.length; c++) {
+                meta.put((byte) columns[c].type().ordinal()).putShort((short) names.get(c).length)
+                        .put(names.get(c)).putLong(offsets[c]);
+            }
+            int offset = 0;
+            for (byte[] s : strings) {
+                meta.putInt(offset);
+                offset += s.length;
+            }
+            meta.putInt(offset);
+            for (byte[] s : strings) meta.put(s);
+            CRC32 metadataCrc = new CRC32();
+            metadataCrc.update(meta.array(), HEADER_SIZE, (int) metadataEnd - HEADER_SIZE);
+
+            // Write to a temporary file first so readers never see a partial
+            // snapshot. Datasets gives every rebuild a new file name, so the
+            // move never replaces a file that is still mapped. Columns go
+            // through a fixed-size buffer, so a table is never staged on the
+            // heap as a whole
+            Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+            Files.createDirectories(out.toAbsolutePath().getParent());
+            CRC32 dataCrc = new CRC32();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+                for (int c = 0; c < columns.length; c++) {
+                    long at = offsets[c];
+                    for (int r = 0; r < rowCount; r++) {
+                        if (chunk.remaining() < 8) at = flush(channel, chunk, at, dataCrc);
+                        if (doubleColumns[c] != null) chunk.putDouble(doubleColumns[c][r]);
+                        else chunk.putInt(intColumns[c][r]);
+                    }
+                    flush(channel, chunk, at, dataCrc);
+                }
+                // Pad the last column so the file ends on its aligned size
+                if (channel.size() < pos) channel.write(ByteBuffer.allocate(1), pos - 1);
+
+                // The header goes in last, once the data checksum is known
+                meta.clear();
+                meta.put(MAGIC).putInt(VERSION).putInt(rowCount).putInt(columns.length)
+                        .putInt(strings.size()).putLong(sourceStamp).putLong(dataCrc.getValue())
+                        .putLong(metadataCrc.getValue()).putLong(metadataEnd);
+                meta.clear();
+                long at = 0;
+                while (meta.hasRemaining()) at += channel.write(meta, at);
+            }
+            Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Writes the buffered bytes at the given position, adds them to the
+         * checksum and empties the buffer.
+         * @return the position after the written bytes
+         */
+        private static long flush(FileChannel channel, ByteBuffer chunk, long at, CRC32 crc) throws IOException {
+            chunk.flip();
+            crc.update(chunk.duplicate());
+            while (chunk.hasRemaining()) at += channel.write(chunk, at);
+            chunk.clear();
+            return at;
+        }
+
+        private static long align(long pos) {
+            return (pos + 7) & ~7L;
+        }
+
+        private static int parseInt(String value) {
+            if (value == null || value.isEmpty()) return NULL_INT;
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException ex) {
+                return NULL_INT;
+            }
+        }
+
+        private static double parseDouble(String value) {
+            if (value == null || value.isEmpty()) return Double.NaN;
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException ex) {
+                // Archived tables contain a few text ranges such as "to 3.5"
+                return Double.NaN;
+            }
+        }
+    }
+}
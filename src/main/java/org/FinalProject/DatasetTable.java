@@ -0,0 +1,114 @@
+/**
+ * DatasetTable.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+/**
+ * DatasetTable describes the eight USDA tables used by the application:
+ * the table name used in the database, the CSV file it is loaded from in
+ * the dataset folder, and its columns using the names from
+ * columnFormatting.sql.
+ */
+public enum DatasetTable {
+    CPI_FORECAST("CPIForecast", "CPIForecast.csv",
+            col("topLevel", ColumnType.STRING), col("aggregate", ColumnType.STRING),
+            col("midLevel", ColumnType.STRING), col("lowLevel", ColumnType.STRING),
+            col("disaggregate", ColumnType.STRING), col("attribute", ColumnType.STRING),
+            col("unit", ColumnType.STRING), col("value", ColumnType.DOUBLE)),
+    PPI_FORECAST("PPIForecast", "PPIForecast.csv",
+            col("producerPriceIndexItem", ColumnType.STRING), col("attribute", ColumnType.STRING),
+            col("unit", ColumnType.STRING), col("value", ColumnType.DOUBLE)),
+    HISTORICAL_CPI("historicalcpi", "historicalcpi.csv",
+            col("consumerPriceIndexItem", ColumnType.STRING), col("year", ColumnType.INT),
+            col("percentChange", ColumnType.DOUBLE)),
+    HISTORICAL_PPI("historicalppi", "historicalppi.csv",
+            col("producerPriceIndexItem", ColumnType.STRING), col("year", ColumnType.INT),
+            col("percentChange", ColumnType.DOUBLE)),
+    CPI_FORECAST_ARCHIVED("cpiforecastarchived", "CPIForecast_Archived.csv", forecastColumns("consumerPriceIndexItem")),
+    PPI_FORECAST_ARCHIVED("ppiforecastarchived", "PPIForecast_Archived.csv", forecastColumns("producerPriceIndexItem")),
+    CPI_HISTORICAL_FORECAST("CPIHistoricalForecast", "CPIHistoricalForecast.csv", forecastColumns("consumerPriceIndexItem")),
+    PPI_HISTORICAL_FORECAST("PPIHistoricalForecast", "PPIHistoricalForecast.csv", forecastColumns("producerPriceIndexItem"));
+
+    /**
+     * Storage type of a column.
+     */
+    public enum ColumnType { STRING, INT, DOUBLE }
+
+    /**
+     * A named, typed column of a dataset table.
+     * @param name the column name used in the database
+     * @param type the storage type of the column
+     */
+    public record Column(String name, ColumnType type) { }
+
+    private final String tableName;
+    private final String csvFile;
+    private final Column[] columns;
+
+    DatasetTable(String tableName, String csvFile, Column... columns) {
+        this.tableName = tableName;
+        this.csvFile = csvFile;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the table name as used in the database and the table selector.
+     * @return the table name
+     */
+    public String tableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the CSV file name inside the dataset folder.
+     * @return the CSV file name
+     */
+    public String csvFile() {
+        return csvFile;
+    }
+
+    /**
+     * Returns a copy of the column definitions in CSV order.
+     * @return the columns of the table
+     */
+    public Column[] columns() {
+        return columns.clone();
+    }
+
+    /**
+     * Returns whether the table holds Consumer Price Index data.
+     * @return true for CPI tables, false for PPI tables
+     */
+    public boolean isCpi() {
+        return tableName.toLowerCase().contains("cpi");
+    }
+
+    /**
+     * Looks up a table by its database name, ignoring case.
+     * @param tableName the table name
+     * @return the matching table, or null if none matches
+     */
+    public static DatasetTable fromTableName(String tableName) {
+        for (DatasetTable t : values()) {
+            if (t.tableName.equalsIgnoreCase(tableName)) return t;
+        }
+        return null;
+    }
+
+    private static Column col(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+
+    private static Column[] forecastColumns(String itemColumn) {
+        return new Column[]{
+                col(itemColumn, ColumnType.STRING), col("monthOfForecast", ColumnType.INT),
+                col("yearOfForecast", ColumnType.INT), col("yearBeingForecast", ColumnType.INT),
+                col("attribute", ColumnType.STRING), col("forecastPercentChange", ColumnType.DOUBLE)
+        };
+    }
+}
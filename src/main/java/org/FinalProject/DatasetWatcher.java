@@ -0,0 +1,168 @@
+/**
+ * DatasetWatcher.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * DatasetWatcher watches the dataset folder for new or changed CSV files
+ * and reloads only the tables whose CSV changed, on a background thread.
+ *
+ * Copying a large file produces many modify events, so a table is only
+ * reloaded once its CSV has been quiet for a short while. Datasets.reload
+ * builds the new snapshot into a new generation file and swaps it in, then
+ * the listener is told which table changed so caches and open views can be
+ * refreshed. A reload that fails, for example on a CSV that is still being
+ * written or has a bad row, is retried with a growing delay.
+ */
+public final class DatasetWatcher implements AutoCloseable {
+    /** Time a CSV must go without changes before it is reloaded. */
+    public static final long QUIET_MILLIS = 1000;
+    /** Reload attempts for one change before waiting for the next event. */
+    public static final int MAX_ATTEMPTS = 5;
+
+    private final Path directory;
+    private final Consumer<DatasetTable> onReload;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Creates a watcher on a dataset folder.
+     * @param directory the folder holding the dataset CSVs
+     * @param onReload called on the watcher thread after a table is reloaded
+     * @throws IOException if the folder cannot be watched
+     */
+    public DatasetWatcher(Path directory, Consumer<DatasetTable> onReload) throws IOException {
+        this.directory = directory;
+        this.onReload = onReload;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "dataset-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching in the background.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void run() {
+        // Tables with pending changes, and when each may be reloaded
+        Map<DatasetTable, Long> pending = new EnumMap<>(DatasetTable.class);
+        // Failed reloads of each pending table since its last change
+        Map<DatasetTable, Integer> failures = new EnumMap<>(DatasetTable.class);
+        try {
+            while (true) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long wait = pending.values().stream().mapToLong(Long::longValue).min().getAsLong() - System.nanoTime();
+                    key = watchService.poll(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+                }
+
+                if (key != null) {
+                    long readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Events were lost, so check every table
+                            for (DatasetTable table : DatasetTable.values()) pending.put(table, readyAt);
+                            failures.clear();
+                        } else if (event.context() instanceof Path file) {
+                            DatasetTable table = tableFor(file);
+                            if (table != null) {
+                                pending.put(table, readyAt);
+                                failures.remove(table);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        System.err.println("Stopped watching " + directory + ": folder is no longer accessible");
+                        return;
+                    }
+                }
+
+                Iterator<Map.Entry<DatasetTable, Long>> it = pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<DatasetTable, Long> entry = it.next();
+                    if (entry.getValue() - System.nanoTime() > 0) continue;
+                    DatasetTable table = entry.getKey();
+                    if (reload(table)) {
+                        it.remove();
+                        failures.remove(table);
+                        continue;
+                    }
+                    int attempts = failures.merge(table, 1, Integer::sum);
+                    if (attempts >= MAX_ATTEMPTS) {
+                        System.err.println("Giving up on " + table.tableName() + " until its CSV changes again");
+                        it.remove();
+                        failures.remove(table);
+                    } else {
+                        // Stays pending, backing off 2, 4, 8 and 16 quiet periods
+                        entry.setValue(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS << attempts));
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed or interrupted: stop watching
+        }
+    }
+
+    /**
+     * Reloads one table and notifies the listener if its data changed.
+     * @return false if the reload failed and should be retried
+     */
+    private boolean reload(DatasetTable table) {
+        try {
+            if (!Datasets.reload(table)) return true;
+        } catch (IOException | RuntimeException e) {
+            // A CSV that is still being copied, or one with a row that cannot be parsed
+            System.err.println("Failed to reload " + table.tableName() + ": " + e);
+            return false;
+        }
+        try {
+            onReload.accept(table);
+        } catch (RuntimeException e) {
+            // The new snapshot is in place; a failing listener must not stop the watcher
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the table a dataset file belongs to, or null for other files.
+     */
+    private static DatasetTable tableFor(Path file) {
+        String name = file.getFileName().toString();
+        for (DatasetTable table : DatasetTable.values()) {
+            if (table.csvFile().equalsIgnoreCase(name)) return table;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Datasets.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Datasets keeps the memory-mapped snapshot of every dataset table. A
+ * snapshot is generated from its CSV the first time it is needed (or when
+ * the CSV is newer than the snapshot) and reused on every later launch.
+ *
+ * The CSVs are read from the dataset folder, or from the folder named by
+ * the priceVisualizer.datasetDir system property, such as one written by
+ * SyntheticDataGenerator. Each folder keeps its own snapshots.
+ *
+ * Every rebuild is written to a new generation file (Table.N.pvs) rather
+ * than over the mapped one, because a file cannot be replaced or deleted
+ * on Windows while it is still mapped. Older generations are deleted once
+ * the snapshot mapping them is no longer referenced, and any left behind
+ * are removed the next time the table is opened.
+ *
+ * Snapshots can also be generated ahead of time from the command line:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.Datasets [--from-db]
+ * </pre>
+ */
+public final class Datasets {
+    private static final Path DATASET_DIR = Paths.get(System.getProperty("priceVisualizer.datasetDir", "dataset"));
+    private static final Path SNAPSHOT_DIR = DATASET_DIR.resolve("snapshot");
+    private static final Map<DatasetTable, DatasetSnapshot> snapshots = new ConcurrentHashMap<>();
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private Datasets() { }
+
+    /**
+     * Returns the snapshot for a table, mapping or generating it on first use.
+     * @param table the dataset table
+     * @return the mapped snapshot
+     * @throws UncheckedIOException if the snapshot cannot be generated or read
+     */
+    public static DatasetSnapshot get(DatasetTable table) {
+        return snapshots.computeIfAbsent(table, t -> {
+            try {
+                return openOrBuild(t);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Regenerates a table's snapshot if its CSV has changed and swaps it in.
+     * Code still holding the previous snapshot keeps reading the old
+     * mapping, so a reload never changes data under a running analysis; its
+     * file is deleted once that snapshot has been garbage collected.
+     * @param table the dataset table
+     * @return true if a new snapshot was swapped in
+     * @throws IOException if the CSV or snapshot cannot be read
+     */
+    public static boolean reload(DatasetTable table) throws IOException {
+        DatasetSnapshot current = snapshots.get(table);
+        Path csv = csvPath(table);
+        // Snapshots built from the database (stamp 0) are kept, as in openOrBuild
+        if (current != null && (current.sourceStamp() == 0L || !Files.exists(csv)
+                || current.sourceStamp() >= Files.getLastModifiedTime(csv).toMillis())) {
+            return false;
+        }
+        DatasetSnapshot next = openOrBuild(table);
+        snapshots.put(table, next);
+        if (current != null && !current.file().equals(next.file())) {
+            Path retired = current.file();
+            cleaner.register(current, () -> deleteQuietly(retired));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the folder the dataset CSVs are read from.
+     * @return the dataset folder
+     */
+    public static Path directory() {
+        return DATASET_DIR;
+    }
+
+    /**
+     * Maps every snapshot, generating any that are missing or stale.
+     */
+    public static void preloadAll() {
+        for (DatasetTable table : DatasetTable.values()) get(table);
+    }
+
+    /**
+     * Returns the CSV file a table is generated from.
+     * @param table the dataset table
+     * @return the path of the CSV file
+     */
+    public static Path csvPath(DatasetTable table) {
+        return DATASET_DIR.resolve(table.csvFile());
+    }
+
+    /**
+     * Returns one generation of the snapshot file for a table.
+     * @param table the dataset table
+     * @param generation the generation number
+     * @return the path of the snapshot file
+     */
+    public static Path snapshotPath(DatasetTable table, long generation) {
+        return SNAPSHOT_DIR.resolve(table.tableName() + "." + generation + DatasetSnapshot.FILE_EXTENSION);
+    }
+
+    /**
+     * Opens the newest snapshot for a table if it is current, otherwise
+     * regenerates it from the CSV into the next generation first. A corrupt
+     * snapshot is regenerated as well. Synchronized so a reload and a first
+     * use of the same table never write the same generation.
+     * @param table the dataset table
+     * @return the mapped snapshot
+     * @throws IOException if the CSV or snapshot cannot be read
+     */
+    private static synchronized DatasetSnapshot openOrBuild(DatasetTable table) throws IOException {
+        Path csv = csvPath(table);
+        long csvStamp = Files.exists(csv) ? Files.getLastModifiedTime(csv).toMillis() : 0L;
+        long generation = latestGeneration(table);
+
+        if (generation >= 0) {
+            Path snapshot = snapshotPath(table, generation);
+            try {
+                DatasetSnapshot existing = DatasetSnapshot.open(table, snapshot);
+                // Snapshots built from the database (stamp 0) are kept as is
+                if (existing.sourceStamp() == 0L || existing.sourceStamp() >= csvStamp) {
+                    deleteOtherGenerations(table, generation);
+                    return existing;
+                }
+            } catch (IOException e) {
+                System.err.println("Regenerating unreadable snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+        Path snapshot = snapshotPath(table, generation + 1);
+        DatasetSnapshot.writeFromCsv(table, csv, snapshot);
+        DatasetSnapshot built = DatasetSnapshot.open(table, snapshot);
+        deleteOtherGenerations(table, generation + 1);
+        return built;
+    }
+
+    /**
+     * Returns the newest generation of a table's snapshot on disk.
+     * @return the generation number, or -1 if there is none
+     */
+    private static long latestGeneration(DatasetTable table) throws IOException {
+        long latest = -1;
+        if (!Files.isDirectory(SNAPSHOT_DIR)) return latest;
+        Pattern name = generationPattern(table);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(SNAPSHOT_DIR)) {
+            for (Path file : files) {
+                Matcher m = name.matcher(file.getFileName().toString());
+                if (m.matches()) latest = Math.max(latest, Long.parseLong(m.group(1)));
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes every snapshot file of a table except one generation, along
+     * with the single file used before snapshots had generations. Files
+     * that are still mapped cannot be deleted on Windows and are skipped.
+     */
+    private static void deleteOtherGenerations(DatasetTable table, long keep) throws IOException {
+        Pattern name = generationPattern(table);
+        String unversioned = table.tableName() + DatasetSnapshot.FILE_EXTENSION;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(SNAPSHOT_DIR)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                Matcher m = name.matcher(fileName);
+                if ((m.matches() && Long.parseLong(m.group(1)) != keep) || fileName.equals(unversioned)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private static Pattern generationPattern(DatasetTable table) {
+        return Pattern.compile(Pattern.quote(table.tableName()) + "\\.(\\d+)"
+                + Pattern.quote(DatasetSnapshot.FILE_EXTENSION));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Still mapped somewhere; removed on a later open instead
+        }
+    }
+
+    /**
+     * Generates the snapshots for every table from the CSVs, or from the
+     * database when --from-db is given.
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) throws Exception {
+        boolean fromDb = args.length > 0 && args[0].equals("--from-db");
+        if (fromDb) PriceDataVisualizer.setupConnectionPool();
+        for (DatasetTable table : DatasetTable.values()) {
+            long start = System.nanoTime();
+            long generation = latestGeneration(table) + 1;
+            Path out = snapshotPath(table, generation);
+            if (fromDb) {
+                try (Connection conn = PriceDataVisualizer.getConnection()) {
+                    DatasetSnapshot.writeFromDatabase(table, conn, out);
+                } catch (SQLException e) {
+                    System.err.println("Failed to read " + table.tableName() + " from the database");
+                    throw e;
+                }
+            } else {
+                DatasetSnapshot.writeFromCsv(table, csvPath(table), out);
+            }
+            // Written snapshots are checked in full once here rather than on every open
+            DatasetSnapshot snap = DatasetSnapshot.open(table, out);
+            snap.verify();
+            deleteOtherGenerations(table, generation);
+            System.out.printf("%-22s %7d rows %5d strings %8d bytes  %.1f ms%n", table.tableName(),
+                    snap.rowCount(), snap.dictionarySize(), Files.size(out),
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * ForecastBacktest.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * ForecastBacktest scores every monthly forecast vintage in a forecast table
+ * (CPIHistoricalForecast, PPIHistoricalForecast or the archived tables)
+ * against the actual annual percent change in historicalcpi/historicalppi.
+ *
+ * A vintage is the set of lower / mid / upper values published for one item
+ * in one month for one target year. Each vintage contributes its mid point
+ * error and whether the actual fell inside its bounds, bucketed by forecast
+ * horizon: the number of months between the forecast month and the end of
+ * the target year. Archived "forecast range" vintages have no mid point, so
+ * the middle of the range is scored instead. Vintages are read from
+ * ForecastVintages, so they match the revision trajectories and alerts.
+ *
+ * Items are scored in parallel and results are cached per pair of
+ * snapshots, so redrawing the view never recomputes them.
+ */
+public final class ForecastBacktest {
+    /** Horizons beyond this many months are folded into the last bucket. */
+    public static final int MAX_HORIZON = 36;
+
+    private static final Map<List<DatasetSnapshot>, Result> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Accumulated error statistics for a group of vintages.
+     */
+    public static final class Stats {
+        private long count;
+        private double sumAbsError;
+        private double sumError;
+        private double sumSquaredError;
+        private long intervals;
+        private long covered;
+
+        void add(double error, int coveredFlag) {
+            count++;
+            sumAbsError += Math.abs(error);
+            sumError += error;
+            sumSquaredError += error * error;
+            if (coveredFlag >= 0) {
+                intervals++;
+                covered += coveredFlag;
+            }
+        }
+
+        void merge(Stats other) {
+            count += other.count;
+            sumAbsError += other.sumAbsError;
+            sumError += other.sumError;
+            sumSquaredError += other.sumSquaredError;
+            intervals += other.intervals;
+            covered += other.covered;
+        }
+
+        /**
+         * Returns the number of vintages scored.
+         * @return the vintage count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the mean absolute error of the mid points.
+         * @return the mean absolute error, or NaN when empty
+         */
+        public double meanAbsoluteError() {
+            return count == 0 ? Double.NaN : sumAbsError / count;
+        }
+
+        /**
+         * Returns the mean signed error, forecast minus actual.
+         * @return the bias, or NaN when empty
+         */
+        public double bias() {
+            return count == 0 ? Double.NaN : sumError / count;
+        }
+
+        /**
+         * Returns the root mean squared error of the mid points.
+         * @return the root mean squared error, or NaN when empty
+         */
+        public double rootMeanSquaredError() {
+            return count == 0 ? Double.NaN : Math.sqrt(sumSquaredError / count);
+        }
+
+        /**
+         * Returns the share of vintages whose bounds contained the actual.
+         * @return the coverage, or NaN when no vintage had bounds
+         */
+        public double coverage() {
+            return intervals == 0 ? Double.NaN : (double) covered / intervals;
+        }
+    }
+
+    /**
+     * Backtest result for one forecast table.
+     * @param items the item names in alphabetical order
+     * @param byItemAndHorizon statistics per item and horizon bucket
+     * @param byItem statistics per item over all horizons
+     */
+    public record Result(String[] items, Stats[][] byItemAndHorizon, Stats[] byItem) {
+        /**
+         * Combines the horizon statistics of the given items.
+         * @param selected the item names to include
+         * @return one Stats per horizon bucket
+         */
+        public Stats[] byHorizon(Collection<String> selected) {
+            Set<String> wanted = new HashSet<>(selected);
+            Stats[] totals = new Stats[MAX_HORIZON + 1];
+            for (int h = 0; h <= MAX_HORIZON; h++) totals[h] = new Stats();
+            for (int i = 0; i < items.length; i++) {
+                if (!wanted.contains(items[i])) continue;
+                for (int h = 0; h <= MAX_HORIZON; h++) totals[h].merge(byItemAndHorizon[i][h]);
+            }
+            return totals;
+        }
+
+        /**
+         * Combines the overall statistics of the given items.
+         * @param selected the item names to include
+         * @return the combined statistics
+         */
+        public Stats overall(Collection<String> selected) {
+            Set<String> wanted = new HashSet<>(selected);
+            Stats total = new Stats();
+            for (int i = 0; i < items.length; i++) {
+                if (wanted.contains(items[i])) total.merge(byItem[i]);
+            }
+            return total;
+        }
+    }
+
+    private ForecastBacktest() { }
+
+    /**
+     * Returns the backtest of a forecast table against the actuals, computing
+     * it on first use and serving it from the cache afterwards.
+     * @param forecasts a historical forecast or archived forecast snapshot
+     * @param actuals the matching historicalcpi/historicalppi snapshot
+     * @return the backtest result
+     */
+    public static Result run(DatasetSnapshot forecasts, DatasetSnapshot actuals) {
+        return cache.computeIfAbsent(List.of(forecasts, actuals), k -> compute(forecasts, actuals));
+    }
+
+    /**
+     * Drops every cached result, for example after the datasets are reloaded.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    private static Result compute(DatasetSnapshot forecasts, DatasetSnapshot actualsSnapshot) {
+        AnnualSeries actuals = AnnualSeries.from(actualsSnapshot);
+        // The same vintages the revision trajectories and alerts are built from
+        ForecastVintages vintages = ForecastVintages.from(forecasts);
+        String[] items = vintages.items().toArray(new String[0]);
+
+        Stats[][] byItemAndHorizon = new Stats[items.length][];
+        Stats[] byItem = new Stats[items.length];
+
+        // Score each item on its own core
+        IntStream.range(0, items.length).parallel().forEach(i -> {
+            Stats[] horizons = new Stats[MAX_HORIZON + 1];
+            for (int h = 0; h <= MAX_HORIZON; h++) horizons[h] = new Stats();
+            Stats total = new Stats();
+            int actualItem = actuals.indexOf(items[i]);
+
+            for (int target : vintages.targetYears(items[i])) {
+                double actual = actualItem < 0 ? Double.NaN : actuals.value(actualItem, target);
+                if (Double.isNaN(actual)) continue;
+                ForecastVintages.Trajectory trajectory = vintages.trajectory(items[i], target);
+                for (int v = 0; v < trajectory.size(); v++) {
+                    double lower = trajectory.lower()[v];
+                    double upper = trajectory.upper()[v];
+                    boolean hasBounds = !Double.isNaN(lower) && !Double.isNaN(upper);
+                    // Falls back to the middle of the range when there is no mid point
+                    if (Double.isNaN(trajectory.mid()[v]) && !hasBounds) continue;
+                    double mid = trajectory.point(v);
+                    int coveredFlag = hasBounds ? (actual >= lower && actual <= upper ? 1 : 0) : -1;
+                    int horizon = Math.max(0, Math.min(MAX_HORIZON,
+                            (target - trajectory.year(v)) * 12 + (12 - trajectory.month(v))));
+                    horizons[horizon].add(mid - actual, coveredFlag);
+                    total.add(mid - actual, coveredFlag);
+                }
+            }
+            byItemAndHorizon[i] = horizons;
+            byItem[i] = total;
+        });
+        return new Result(items, byItemAndHorizon, byItem);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * ForecastBounds.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * ForecastBounds holds the 2025 lower and upper prediction bounds of every
+ * item, read from a full_data_*_for_2025_bounds query, together with the
+ * table rows they came from.
+ */
+public final class ForecastBounds {
+    private final ResultTableModel tableModel;
+    private final Map<String, Double> lowerMap = new HashMap<>();
+    private final Map<String, Double> upperMap = new HashMap<>();
+    private final Map<String, String> groupMap = new HashMap<>();
+    private final List<String> rowLabels = new ArrayList<>(); // Chart label of each table row, for the export
+
+    private ForecastBounds(ResultTableModel tableModel) {
+        this.tableModel = tableModel;
+    }
+
+    /**
+     * Reads every row of a bounds query.
+     * @param rs the result of a full_data_*_for_2025_bounds query
+     * @return the bounds and table rows
+     * @throws SQLException if reading fails
+     */
+    public static ForecastBounds read(ResultSet rs) throws SQLException {
+        ForecastBounds bounds = new ForecastBounds(new ResultTableModel(rs.getMetaData()));
+        ResultTableModel tableModel = bounds.tableModel;
+
+        // Resolve the columns once. 'disaggregate' and 'aggregate' only exist in CPI,
+        // 'producerPriceIndexItem' only in PPI, so missing columns come back as -1.
+        int unitCol = tableModel.findColumn("unit");
+        int attributeCol = tableModel.findColumn("attribute");
+        int boundTypeCol = tableModel.findColumn("boundType");
+        int valueCol = rs.findColumn("value");
+        int disaggCol = tableModel.findColumn("disaggregate");
+        int aggregateCol = tableModel.findColumn("aggregate");
+        int midLevelCol = tableModel.findColumn("midLevel");
+        int ppiItemCol = tableModel.findColumn("producerPriceIndexItem");
+
+        // Iterates through the result set to extract and store data for table display and charting.
+        // Adds each row to the table model, then checks for "Percent change" values only.
+        // Extracts a display label using 'disaggregate' or the fallback hierarchy depending on index type (CPI or PPI).
+        // Categorizes and maps forecast values into `lowerMap` and `upperMap` by bound type. The bounds queries
+        // return the type classified at load time (dim_attribute.boundType); other results are classified here.
+        while (tableModel.readRow(rs)) {
+            int row = tableModel.getRowCount() - 1;
+            bounds.rowLabels.add(null);
+            String unit = tableModel.getText(row, unitCol);
+            if (!"Percent change".equalsIgnoreCase(unit)) continue;
+
+            BoundType boundType = boundTypeCol >= 0
+                    ? BoundType.valueOf(tableModel.getText(row, boundTypeCol))
+                    : BoundType.classify(tableModel.getText(row, attributeCol));
+            double value = rs.getDouble(valueCol);
+            String label;
+            if (disaggCol >= 0) {
+                String disagg = tableModel.getText(row, disaggCol);
+                label = (disagg != null && !disagg.isBlank()) ? disagg : tableModel.getText(row, midLevelCol);
+                // Group CPI categories under their aggregate in the selector
+                if (aggregateCol >= 0) bounds.groupMap.put(label, tableModel.getText(row, aggregateCol));
+            } else {
+                // disaggregate doesn't exist in PPI, so fallback to midLevel or producerPriceIndexItem
+                String mid = midLevelCol >= 0 ? tableModel.getText(row, midLevelCol) : null;
+                label = (mid != null && !mid.isBlank()) ? mid : tableModel.getText(row, ppiItemCol);
+            }
+
+            bounds.rowLabels.set(row, label);
+            if (boundType == BoundType.LOWER) bounds.lowerMap.put(label, value);
+            else if (boundType == BoundType.UPPER) bounds.upperMap.put(label, value);
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the table rows the bounds were read from.
+     * @return the table model
+     */
+    public ResultTableModel tableModel() {
+        return tableModel;
+    }
+
+    /**
+     * Returns the items that have a lower or upper bound, in alphabetical order.
+     * @return the item labels
+     */
+    public List<String> items() {
+        Set<String> labels = new TreeSet<>(lowerMap.keySet());
+        labels.addAll(upperMap.keySet());
+        return new ArrayList<>(labels);
+    }
+
+    /**
+     * Returns the aggregate of each item, for grouping in the selector.
+     * @param items the item labels
+     * @return the group of each item, or null if the table has no aggregates (PPI)
+     */
+    public List<String> groups(List<String> items) {
+        if (groupMap.isEmpty()) return null;
+        List<String> groups = new ArrayList<>();
+        for (String item : items) groups.add(groupMap.get(item));
+        return groups;
+    }
+
+    /**
+     * Returns the rows of the table that belong to an item.
+     * @param item the item label
+     * @return the matching rows
+     */
+    public ResultTableModel rowsOf(String item) {
+        return tableModel.filter(r -> item.equals(rowLabels.get(r)));
+    }
+
+    /**
+     * Builds the bar chart dataset of the given items.
+     * @param items the item labels to include
+     * @return a dataset with a "Lower Bound" and an "Upper Bound" series
+     */
+    public DefaultCategoryDataset dataset(Collection<String> items) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (String item : items) {
+            if (lowerMap.containsKey(item)) dataset.addValue(lowerMap.get(item), "Lower Bound", item);
+            if (upperMap.containsKey(item)) dataset.addValue(upperMap.get(item), "Upper Bound", item);
+        }
+        return dataset;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * ForecastInterval.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The percent change prediction interval of one item in CPIForecast or
+ * PPIForecast, with the item's 20-year historical average next to it.
+ * @param item the item name
+ * @param year the year the interval forecasts, or 0 if no attribute names it
+ * @param lower the lower bound, or NaN
+ * @param mid the mid point, or NaN
+ * @param upper the upper bound, or NaN
+ * @param average the 20-year historical average, or NaN
+ */
+public record ForecastInterval(String item, int year, double lower, double mid, double upper, double average) {
+    /** z-score of the 97.5th percentile: USDA bounds are 95% prediction intervals. */
+    public static final double Z_95 = 1.959964;
+
+    /**
+     * Returns the standard deviation on one side of a split normal whose
+     * 95% limits are the interval bounds. Each side of the mid point has its
+     * own spread, so a skewed interval stays skewed.
+     * @param mid the mid point
+     * @param bound the lower or upper bound
+     * @return the standard deviation on the bound's side of the mid point
+     */
+    public static double spread(double mid, double bound) {
+        return Math.abs(bound - mid) / Z_95;
+    }
+
+    /**
+     * Returns whether the interval has a year and a lower bound, mid point
+     * and upper bound.
+     * @return true if the interval is complete
+     */
+    public boolean isComplete() {
+        return year > 0 && !Double.isNaN(lower) && !Double.isNaN(mid) && !Double.isNaN(upper);
+    }
+
+    /**
+     * Reads the interval of every item of a current forecast table in one
+     * pass. An item is named by its deepest filled-in level, as in
+     * CategoryTree.
+     * @param isCpi true for CPIForecast, false for PPIForecast
+     * @return the intervals by item name, in alphabetical order
+     */
+    public static Map<String, ForecastInterval> read(boolean isCpi) {
+        DatasetSnapshot table = Datasets.get(isCpi ? DatasetTable.CPI_FORECAST : DatasetTable.PPI_FORECAST);
+        int[] levelCols = isCpi
+                ? new int[]{table.columnIndex("topLevel"), table.columnIndex("aggregate"), table.columnIndex("midLevel"),
+                        table.columnIndex("lowLevel"), table.columnIndex("disaggregate")}
+                : new int[]{table.columnIndex("producerPriceIndexItem")};
+        int attributeCol = table.columnIndex("attribute");
+        int unitCol = table.columnIndex("unit");
+        int valueCol = table.columnIndex("value");
+
+        // lower, mid, upper, year and average per item
+        Map<String, double[]> values = new TreeMap<>();
+        for (int r = 0; r < table.rowCount(); r++) {
+            if (!"Percent change".equalsIgnoreCase(table.getString(r, unitCol))) continue;
+            double value = table.getDouble(r, valueCol);
+            String attribute = table.getString(r, attributeCol);
+            if (Double.isNaN(value) || attribute == null) continue;
+            String item = null;
+            for (int col : levelCols) {
+                String level = table.getString(r, col);
+                if (level != null && !level.isBlank()) item = level;
+            }
+            if (item == null) continue;
+
+            double[] v = values.computeIfAbsent(item, k -> new double[]{Double.NaN, Double.NaN, Double.NaN, 0, Double.NaN});
+            BoundType bound = BoundType.classify(attribute);
+            if (bound != BoundType.OTHER) {
+                v[bound.ordinal()] = value;
+                // Attributes end in the year, e.g. "Mid point of prediction interval 2025"
+                String a = attribute.trim();
+                if (a.matches(".*\\d{4}")) v[3] = Integer.parseInt(a.substring(a.length() - 4));
+            } else if (attribute.toLowerCase().contains("historical average")) {
+                v[4] = value;
+            }
+        }
+
+        Map<String, ForecastInterval> intervals = new TreeMap<>();
+        values.forEach((item, v) -> intervals.put(item, new ForecastInterval(item, (int) v[3], v[0], v[1], v[2], v[4])));
+        return intervals;
+    }
+}
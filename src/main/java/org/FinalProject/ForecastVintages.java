@@ -0,0 +1,309 @@
+/**
+ * ForecastVintages.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ForecastVintages indexes every forecast vintage of a historical or
+ * archived forecast table by item and target year. A vintage is the lower,
+ * mid and upper value published for one item and target year in one month,
+ * so the vintages of a target year show how its forecast was revised until
+ * the year was over.
+ *
+ * The rows are sorted once by (item, target year, year and month of the
+ * forecast) and walked once. Each vintage is stored in primitive arrays in
+ * that order, so the vintages of an (item, target year) pair are one
+ * contiguous range, found by binary search. Switching items or target
+ * years never rereads the table. Indexes are cached per snapshot.
+ */
+public final class ForecastVintages {
+    // Years are packed into 10 bits of the sort keys as offsets from this
+    // year; early enough for synthetic data generated with --history
+    private static final int BASE_YEAR = 1800;
+    private static final int YEAR_RANGE = 1 << 10;
+    private static final Map<DatasetSnapshot, ForecastVintages> cache = new ConcurrentHashMap<>();
+
+    private final String[] items;      // Alphabetical
+    private final int[] itemStarts;    // Per item, its first entry in targets; one extra entry at the end
+    private final int[] targets;       // Target year of each (item, target year) pair, ascending per item
+    private final int[] targetStarts;  // Per pair, its first vintage; one extra entry at the end
+    private final int[] dates;         // Per vintage, year * 12 + month - 1 of the forecast
+    private final double[] lower;
+    private final double[] mid;
+    private final double[] upper;
+
+    /**
+     * The vintages of one item and target year, oldest first.
+     * @param item the item name
+     * @param targetYear the year being forecast
+     * @param dates per vintage, year * 12 + month - 1 of the month the forecast was made
+     * @param lower per vintage, the lower bound, or NaN
+     * @param mid per vintage, the mid point, or NaN (archived ranges have none)
+     * @param upper per vintage, the upper bound, or NaN
+     */
+    public record Trajectory(String item, int targetYear, int[] dates, double[] lower, double[] mid, double[] upper) {
+        /**
+         * Returns the number of vintages.
+         * @return the vintage count
+         */
+        public int size() {
+            return dates.length;
+        }
+
+        /**
+         * Returns the year a vintage was made.
+         * @param vintage the vintage index
+         * @return the year of the forecast
+         */
+        public int year(int vintage) {
+            return dates[vintage] / 12;
+        }
+
+        /**
+         * Returns the month a vintage was made.
+         * @param vintage the vintage index
+         * @return the month of the forecast (1-12)
+         */
+        public int month(int vintage) {
+            return dates[vintage] % 12 + 1;
+        }
+
+        /**
+         * Returns the mid point of a vintage, or the middle of its range when
+         * it has no mid point.
+         * @param vintage the vintage index
+         * @return the point forecast, or NaN if there is none
+         */
+        public double point(int vintage) {
+            if (!Double.isNaN(mid[vintage])) return mid[vintage];
+            return (lower[vintage] + upper[vintage]) / 2;
+        }
+    }
+
+    private ForecastVintages(String[] items, int[] itemStarts, int[] targets, int[] targetStarts,
+                             int[] dates, double[] lower, double[] mid, double[] upper) {
+        this.items = items;
+        this.itemStarts = itemStarts;
+        this.targets = targets;
+        this.targetStarts = targetStarts;
+        this.dates = dates;
+        this.lower = lower;
+        this.mid = mid;
+        this.upper = upper;
+    }
+
+    /**
+     * Returns the index of a forecast table, building it on first use and
+     * serving it from the cache afterwards.
+     * @param forecasts a historical or archived forecast snapshot
+     * @return the vintage index
+     */
+    public static ForecastVintages from(DatasetSnapshot forecasts) {
+        return cache.computeIfAbsent(forecasts, ForecastVintages::build);
+    }
+
+    /**
+     * Drops every cached index, for example after the datasets are reloaded.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    private static ForecastVintages build(DatasetSnapshot forecasts) {
+        int itemCol = 0;
+        int monthCol = forecasts.columnIndex("monthOfForecast");
+        int yearOfCol = forecasts.columnIndex("yearOfForecast");
+        int targetCol = forecasts.columnIndex("yearBeingForecast");
+        int attributeCol = forecasts.columnIndex("attribute");
+        int valueCol = forecasts.columnIndex("forecastPercentChange");
+        BoundType[] boundOf = BoundType.classifyDictionary(forecasts);
+
+        // Group row indexes by item dictionary id with a counting sort
+        int rows = forecasts.rowCount();
+        int dictionarySize = forecasts.dictionarySize();
+        int[] starts = new int[dictionarySize + 1];
+        for (int r = 0; r < rows; r++) {
+            int id = forecasts.getStringId(r, itemCol);
+            if (id >= 0 && hasDate(forecasts, r, targetCol, yearOfCol, monthCol)) starts[id + 1]++;
+        }
+        for (int id = 0; id < dictionarySize; id++) starts[id + 1] += starts[id];
+        long[] keys = new long[starts[dictionarySize]];
+        int[] fill = Arrays.copyOf(starts, dictionarySize);
+
+        // Key each row by (target year, year of forecast, month) with the row
+        // index in the low bits, so the sort stays on primitives
+        for (int r = 0; r < rows; r++) {
+            int id = forecasts.getStringId(r, itemCol);
+            if (id < 0 || !hasDate(forecasts, r, targetCol, yearOfCol, monthCol)) continue;
+            long date = ((long) ((forecasts.getInt(r, targetCol) - BASE_YEAR) & 0x3FF) << 14)
+                    | ((long) ((forecasts.getInt(r, yearOfCol) - BASE_YEAR) & 0x3FF) << 4)
+                    | (forecasts.getInt(r, monthCol) & 0xF);
+            keys[fill[id]++] = (date << 32) | r;
+        }
+
+        // Items in alphabetical order
+        TreeMap<String, Integer> itemIds = new TreeMap<>();
+        for (int id = 0; id < dictionarySize; id++) {
+            if (starts[id + 1] > starts[id]) itemIds.put(forecasts.dictionaryString(id), id);
+        }
+
+        String[] items = new String[itemIds.size()];
+        int[] itemStarts = new int[items.length + 1];
+        IntBuffer targets = new IntBuffer();
+        IntBuffer targetStarts = new IntBuffer();
+        IntBuffer dates = new IntBuffer();
+        DoubleBuffer lower = new DoubleBuffer();
+        DoubleBuffer mid = new DoubleBuffer();
+        DoubleBuffer upper = new DoubleBuffer();
+
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : itemIds.entrySet()) {
+            int id = entry.getValue();
+            items[i] = entry.getKey();
+            itemStarts[i] = targets.size;
+            Arrays.sort(keys, starts[id], starts[id + 1]);
+
+            // One walk: consecutive keys with the same date form a vintage
+            int k = starts[id];
+            while (k < starts[id + 1]) {
+                long date = keys[k] >>> 32;
+                double l = Double.NaN, m = Double.NaN, u = Double.NaN;
+                while (k < starts[id + 1] && keys[k] >>> 32 == date) {
+                    int r = (int) keys[k++];
+                    double value = forecasts.getDouble(r, valueCol);
+                    int attributeId = forecasts.getStringId(r, attributeCol);
+                    if (Double.isNaN(value) || attributeId < 0) continue;
+                    switch (boundOf[attributeId]) {
+                        case LOWER -> l = value;
+                        case MID -> m = value;
+                        case UPPER -> u = value;
+                        default -> { }
+                    }
+                }
+                if (Double.isNaN(l) && Double.isNaN(m) && Double.isNaN(u)) continue;
+
+                int target = (int) (date >>> 14) + BASE_YEAR;
+                if (targets.size == itemStarts[i] || targets.last() != target) {
+                    targets.add(target);
+                    targetStarts.add(dates.size);
+                }
+                dates.add((int) ((date >>> 4) & 0x3FF) * 12 + BASE_YEAR * 12 + (int) (date & 0xF) - 1);
+                lower.add(l);
+                mid.add(m);
+                upper.add(u);
+            }
+            i++;
+        }
+        itemStarts[items.length] = targets.size;
+        targetStarts.add(dates.size);
+        return new ForecastVintages(items, itemStarts, targets.toArray(), targetStarts.toArray(),
+                dates.toArray(), lower.toArray(), mid.toArray(), upper.toArray());
+    }
+
+    /**
+     * Returns whether a row has a target year, year of forecast and month
+     * that fit the sort key. Rows with a missing or out-of-range date would
+     * otherwise be packed into the wrong vintage.
+     */
+    private static boolean hasDate(DatasetSnapshot forecasts, int r, int targetCol, int yearOfCol, int monthCol) {
+        int target = forecasts.getInt(r, targetCol);
+        int yearOf = forecasts.getInt(r, yearOfCol);
+        int month = forecasts.getInt(r, monthCol);
+        return target >= BASE_YEAR && target < BASE_YEAR + YEAR_RANGE
+                && yearOf >= BASE_YEAR && yearOf < BASE_YEAR + YEAR_RANGE
+                && month >= 1 && month <= 12;
+    }
+
+    /**
+     * Returns the items that have at least one vintage, in alphabetical order.
+     * @return the item names
+     */
+    public List<String> items() {
+        return List.of(items);
+    }
+
+    /**
+     * Returns the target years forecast for an item.
+     * @param item the item name
+     * @return the target years in ascending order, empty if the item is unknown
+     */
+    public int[] targetYears(String item) {
+        int i = Arrays.binarySearch(items, item);
+        if (i < 0) return new int[0];
+        return Arrays.copyOfRange(targets, itemStarts[i], itemStarts[i + 1]);
+    }
+
+    /**
+     * Returns the vintages of an item and target year.
+     * @param item the item name
+     * @param targetYear the year being forecast
+     * @return the vintages, oldest first; empty if there are none
+     */
+    public Trajectory trajectory(String item, int targetYear) {
+        int i = Arrays.binarySearch(items, item);
+        int t = i < 0 ? -1 : Arrays.binarySearch(targets, itemStarts[i], itemStarts[i + 1], targetYear);
+        if (t < 0) return new Trajectory(item, targetYear, new int[0], new double[0], new double[0], new double[0]);
+        int from = targetStarts[t];
+        int to = targetStarts[t + 1];
+        return new Trajectory(item, targetYear, Arrays.copyOfRange(dates, from, to),
+                Arrays.copyOfRange(lower, from, to), Arrays.copyOfRange(mid, from, to),
+                Arrays.copyOfRange(upper, from, to));
+    }
+
+    /**
+     * Returns the short English name of a month, as vintages are labelled.
+     * @param month the month (1-12)
+     * @return the name, e.g. "Jan", or "?" for a month out of range
+     */
+    public static String monthName(int month) {
+        return month >= 1 && month <= 12 ? Month.of(month).getDisplayName(TextStyle.SHORT, Locale.US) : "?";
+    }
+
+    /**
+     * Growable int array used while building.
+     */
+    private static final class IntBuffer {
+        int[] values = new int[256];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Growable double array used while building.
+     */
+    private static final class DoubleBuffer {
+        double[] values = new double[256];
+        int size;
+
+        void add(double value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * IngestBenchmark.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.time.Month;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import javax.swing.table.DefaultTableModel;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * IngestBenchmark compares the old "Show Full Data" ingestion loop (a Vector
+ * per row, boxed cells, and addOrUpdate per point over the full table) with
+ * the path the view uses now: ChartStream reading the server-filtered
+ * chart_data_* projection into batches and merging them into the dataset.
+ * It measures the time and the bytes allocated to go from a ResultSet to a
+ * chart dataset, and the rows and bytes each query transfers. The stream is
+ * measured on one thread as a single frame, without the frame timer.
+ *
+ * The result set is an in-memory copy of the table's snapshot with every
+ * column typed VARCHAR, like the database after columnFormatting.sql, so no
+ * database is needed:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.IngestBenchmark [tableName] [iterations]
+ * </pre>
+ */
+public final class IngestBenchmark {
+
+    private IngestBenchmark() { }
+
+    /**
+     * Runs the benchmark.
+     * @param args optional table name (default CPIHistoricalForecast) and iteration count (default 20)
+     */
+    public static void main(String[] args) throws SQLException {
+        DatasetTable table = DatasetTable.fromTableName(args.length > 0 ? args[0] : "CPIHistoricalForecast");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        DatasetSnapshot snap = Datasets.get(table);
+        CachedRowSet rows = toRowSet(snap);
+        CachedRowSet projection = toChartProjection(table, snap);
+        System.out.printf("%s: %d iterations%n", table.tableName(), iterations);
+        System.out.printf("  full_data  transfers %6d rows, ~%8d bytes%n", rows.size(), textBytes(rows));
+        System.out.printf("  chart_data transfers %6d rows, ~%8d bytes%n", projection.size(), textBytes(projection));
+
+        // Warm up every path before measuring
+        for (int i = 0; i < 5; i++) {
+            legacyIngest(table.tableName(), rewind(rows));
+            streamIngest(rewind(projection));
+        }
+
+        measure("legacy (Vector + addOrUpdate)", iterations, () -> legacyIngest(table.tableName(), rewind(rows)));
+        measure("ChartStream (chart_data batches)", iterations, () -> streamIngest(rewind(projection)));
+    }
+
+    /**
+     * Reads a chart_data_* projection the way ChartStream does, through
+     * publishRows and applyBatches, and returns the number of series.
+     */
+    private static int streamIngest(ResultSet rs) throws SQLException {
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        ChartStream stream = new ChartStream(null, dataset, series -> { }, failure -> { });
+        Queue<ChartStream.Batch> batches = new ArrayDeque<>();
+        stream.publishRows(rs, batches::add);
+        ChartStream.applyBatches(batches, dataset, new HashMap<>());
+        return dataset.getSeriesCount();
+    }
+
+    private interface Run {
+        int run() throws SQLException;
+    }
+
+    private static void measure(String label, int iterations, Run run) throws SQLException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int series = 0;
+        for (int i = 0; i < iterations; i++) series = run.run();
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        System.out.printf("%-32s %8.2f ms/op %9.2f MB/op  (%d series)%n", label,
+                elapsed / 1e6 / iterations, bytes / 1048576.0 / iterations, series);
+    }
+
+    private static ResultSet rewind(CachedRowSet rows) throws SQLException {
+        rows.beforeFirst();
+        return rows;
+    }
+
+    /**
+     * The ingestion loop "Show Full Data" used before ChartStream, kept for comparison.
+     */
+    private static int legacyIngest(String tableName, ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        Vector<String> columnNames = new Vector<>();
+        for (int i = 1; i <= columnCount; i++) columnNames.add(meta.getColumnName(i));
+
+        Vector<Vector<Object>> data = new Vector<>();
+        Map<String, TimeSeries> seriesMap = new HashMap<>();
+        boolean ppi = tableName.toLowerCase().contains("ppi");
+        boolean historical = tableName.toLowerCase().startsWith("historical");
+        while (rs.next()) {
+            Vector<Object> row = new Vector<>();
+            for (int i = 1; i <= columnCount; i++) row.add(rs.getObject(i));
+            data.add(row);
+
+            int year, month = 1;
+            double value;
+            if (historical) {
+                year = rs.getInt("year");
+                value = rs.getDouble("percentChange");
+            } else {
+                String attribute = rs.getString("attribute");
+                if (!attribute.toLowerCase().contains("mid")) continue;
+                year = rs.getInt("yearBeingForecast");
+                month = rs.getInt("monthOfForecast");
+                try {
+                    value = Double.parseDouble(rs.getString("forecastPercentChange"));
+                } catch (NumberFormatException | NullPointerException ex) {
+                    continue;
+                }
+            }
+            String item = rs.getString(ppi ? "producerPriceIndexItem" : "consumerPriceIndexItem");
+            if (item != null) {
+                seriesMap.putIfAbsent(item, new TimeSeries(item));
+                seriesMap.get(item).addOrUpdate(new Month(month, year), value);
+            }
+        }
+        new DefaultTableModel(data, columnNames);
+
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        List<String> labels = new ArrayList<>(seriesMap.keySet());
+        Collections.sort(labels);
+        for (String label : labels) dataset.addSeries(seriesMap.get(label));
+        return dataset.getSeriesCount();
+    }
+
+    /**
+     * Builds the rows a chart_data_* query returns: numeric midpoint rows
+     * reduced to item, year, month and value.
+     */
+    private static CachedRowSet toChartProjection(DatasetTable table, DatasetSnapshot snap) throws SQLException {
+        String[] names = {"item", "year", "month", "value"};
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(names.length);
+        for (int c = 0; c < names.length; c++) {
+            meta.setColumnName(c + 1, names[c]);
+            meta.setColumnLabel(c + 1, names[c]);
+            meta.setColumnType(c + 1, Types.VARCHAR);
+        }
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(meta);
+
+        boolean historical = table.tableName().startsWith("historical");
+        int yearCol = snap.columnIndex(historical ? "year" : "yearBeingForecast");
+        int monthCol = historical ? -1 : snap.columnIndex("monthOfForecast");
+        int valueCol = snap.columnIndex(historical ? "percentChange" : "forecastPercentChange");
+        int attributeCol = historical ? -1 : snap.columnIndex("attribute");
+        for (int r = 0; r < snap.rowCount(); r++) {
+            if (!historical) {
+                String attribute = snap.getString(r, attributeCol);
+                if (attribute == null || !attribute.toLowerCase().contains("mid")) continue;
+            }
+            double value = snap.getDouble(r, valueCol);
+            if (Double.isNaN(value)) continue;
+            rows.moveToInsertRow();
+            rows.updateString(1, snap.getString(r, 0));
+            rows.updateString(2, Integer.toString(snap.getInt(r, yearCol)));
+            rows.updateString(3, monthCol < 0 ? "1" : Integer.toString(snap.getInt(r, monthCol)));
+            rows.updateString(4, Double.toString(value));
+            rows.insertRow();
+        }
+        rows.moveToCurrentRow();
+        return rows;
+    }
+
+    /**
+     * Approximates the bytes a result set puts on the wire by the length of its text values.
+     */
+    private static long textBytes(CachedRowSet rows) throws SQLException {
+        long bytes = 0;
+        int columns = rows.getMetaData().getColumnCount();
+        rows.beforeFirst();
+        while (rows.next()) {
+            for (int c = 1; c <= columns; c++) {
+                String text = rows.getString(c);
+                bytes += text == null ? 1 : text.length() + 1;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Copies a snapshot into a CachedRowSet with every column typed VARCHAR.
+     */
+    private static CachedRowSet toRowSet(DatasetSnapshot snap) throws SQLException {
+        int columns = snap.columnCount();
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(columns);
+        for (int c = 0; c < columns; c++) {
+            meta.setColumnName(c + 1, snap.columnName(c));
+            meta.setColumnLabel(c + 1, snap.columnName(c));
+            meta.setColumnType(c + 1, Types.VARCHAR);
+        }
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(meta);
+        for (int r = 0; r < snap.rowCount(); r++) {
+            rows.moveToInsertRow();
+            for (int c = 0; c < columns; c++) {
+                String text = switch (snap.columnType(c)) {
+                    case STRING -> snap.getString(r, c);
+                    case INT -> snap.getInt(r, c) == DatasetSnapshot.NULL_INT ? null : Integer.toString(snap.getInt(r, c));
+                    case DOUBLE -> Double.isNaN(snap.getDouble(r, c)) ? null : Double.toString(snap.getDouble(r, c));
+                };
+                if (text == null) rows.updateNull(c + 1);
+                else rows.updateString(c + 1, text);
+            }
+            rows.insertRow();
+        }
+        rows.moveToCurrentRow();
+        return rows;
+    }
+}
@@ -0,0 +1,400 @@
+/**
+ * LoadTest.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * LoadTest replays a mix of analyst queries from many concurrent clients to
+ * see how the read pool and the queries hold up when several people use the
+ * application at once. Each client picks an operation at random, weighted
+ * by how often analysts run it (see MIX), runs it, and picks the next one
+ * until the time is up.
+ *
+ * Against MySQL every operation borrows a connection from the read pool, and
+ * the time spent waiting for it is measured apart from the query itself.
+ * The snapshot backend is the embedded stand-in: the same analyses computed
+ * in process, for a baseline without a database.
+ *
+ * For every operation it reports throughput, latency percentiles, pool wait
+ * and errors, and appends them to a CSV so runs can be compared:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.LoadTest [--clients 50] [--seconds 30]
+ *        [--backend mysql|snapshot] [--think 0] [--out loadtest.csv]
+ * </pre>
+ * Clients run on virtual threads when the JVM has them (Java 21 and later)
+ * and on platform threads otherwise.
+ */
+public final class LoadTest {
+
+    /**
+     * One kind of request a client can make.
+     * @param name the name shown in the report
+     * @param weight how often it is picked relative to the others
+     * @param sql builds the query run on MySQL
+     * @param analysis runs the operation on the snapshot backend; null when it only exists as a query
+     */
+    private record Operation(String name, int weight, SqlFactory sql, Analysis analysis) { }
+
+    private interface SqlFactory {
+        String build(Map<String, String> queryMap, SplittableRandom random);
+    }
+
+    private interface Analysis {
+        int run(PriceDataStore store, SplittableRandom random) throws SQLException;
+    }
+
+    // Roughly what analysts open: the dashboard analyses most, the full chart loads least
+    private static final List<Operation> MIX = List.of(
+            new Operation("volatility", 30,
+                    (q, r) -> volatilitySql(r), (s, r) -> s.volatility(r.nextBoolean(), startYear(r), 2023, LoadTest::readRows)),
+            new Operation("forecast accuracy", 20,
+                    (q, r) -> q.get(r.nextBoolean() ? "forecast_accuracy_cpi" : "forecast_accuracy_ppi"),
+                    (s, r) -> s.forecastAccuracy(r.nextBoolean(), LoadTest::readRows)),
+            new Operation("methodology", 20,
+                    (q, r) -> q.get(r.nextBoolean() ? "old_vs_new_methodology_cpi" : "old_vs_new_methodology_ppi"),
+                    (s, r) -> s.methodologyComparison(r.nextBoolean(), LoadTest::readRows)),
+            new Operation("2025 bounds", 15,
+                    (q, r) -> q.get(r.nextBoolean() ? "full_data_CPIForecast_for_2025_bounds" : "full_data_PPIForecast_for_2025_bounds"),
+                    null),
+            new Operation("category tree", 5,
+                    (q, r) -> q.get("category_tree_cpi"), (s, r) -> s.categoryTree(LoadTest::readRows)),
+            new Operation("full data chart", 10,
+                    (q, r) -> q.get(r.nextBoolean() ? "chart_data_CPIHistoricalForecast" : "chart_data_PPIHistoricalForecast"),
+                    null));
+
+    /**
+     * Latencies and errors recorded by one client for every operation, so
+     * clients never contend on shared counters.
+     */
+    private static final class ClientStats {
+        final long[][] latency = new long[MIX.size()][];
+        final long[][] poolWait = new long[MIX.size()][];
+        final int[] count = new int[MIX.size()];
+        final int[] errors = new int[MIX.size()];
+        final Map<String, Integer> errorTypes = new HashMap<>();
+
+        ClientStats() {
+            for (int i = 0; i < MIX.size(); i++) {
+                latency[i] = new long[64];
+                poolWait[i] = new long[64];
+            }
+        }
+
+        void record(int op, long latencyNanos, long waitNanos) {
+            if (count[op] == latency[op].length) {
+                latency[op] = Arrays.copyOf(latency[op], count[op] * 2);
+                poolWait[op] = Arrays.copyOf(poolWait[op], count[op] * 2);
+            }
+            latency[op][count[op]] = latencyNanos;
+            poolWait[op][count[op]] = waitNanos;
+            count[op]++;
+        }
+    }
+
+    private final Map<String, String> queryMap;
+    private final PriceDataStore store; // null for MySQL
+    private final int clients;
+    private final long durationNanos;
+    private final long thinkMillis;
+    private final List<Operation> operations;
+
+    private LoadTest(Map<String, String> queryMap, PriceDataStore store, int clients, int seconds, long thinkMillis) {
+        this.queryMap = queryMap;
+        this.store = store;
+        this.clients = clients;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        this.thinkMillis = thinkMillis;
+        // The snapshot backend only runs the analyses it implements
+        List<Operation> ops = new ArrayList<>();
+        for (Operation op : MIX) {
+            if (store == null || op.analysis() != null) ops.add(op);
+        }
+        this.operations = ops;
+    }
+
+    /**
+     * Runs the load test.
+     * @param args the options described in the class comment
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = 50;
+        int seconds = 30;
+        long think = 0;
+        String backend = "mysql";
+        Path out = Paths.get("loadtest.csv");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--think" -> think = Long.parseLong(args[++i]);
+                case "--backend" -> backend = args[++i].toLowerCase();
+                case "--out" -> out = Paths.get(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Map<String, String> queryMap = PriceDataVisualizer.loadQueriesFromFile("sql/tableQueries.sql");
+        boolean mysql = backend.equals("mysql");
+        if (!mysql && !backend.equals("snapshot")) throw new IllegalArgumentException("Unknown backend: " + backend);
+        if (mysql) PriceDataVisualizer.setupConnectionPool();
+        try {
+            LoadTest test = new LoadTest(queryMap, mysql ? null : new SnapshotDataStore(), clients, seconds, think);
+            test.run(backend, out);
+        } finally {
+            if (mysql) PriceDataVisualizer.closeConnectionPool();
+        }
+    }
+
+    private void run(String backend, Path out) throws Exception {
+        if (store != null) Datasets.preloadAll(); // Keep snapshot generation out of the timings
+        System.out.printf("%s backend, %d clients, %d s, read pool of %d connections, %s threads%n",
+                backend, clients, TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                PriceDataVisualizer.readPoolSize(), virtualThreadsAvailable() ? "virtual" : "platform");
+
+        List<ClientStats> results = new ArrayList<>();
+        int[] peakWaiting = {0};
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        HikariPoolMXBean pool = store == null ? PriceDataVisualizer.readPoolMXBean() : null;
+        if (pool != null) {
+            sampler.scheduleAtFixedRate(() -> peakWaiting[0] = Math.max(peakWaiting[0], pool.getThreadsAwaitingConnection()),
+                    0, 50, TimeUnit.MILLISECONDS);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        SplittableRandom seeds = new SplittableRandom(42);
+        try (AutoCloseableExecutor executor = new AutoCloseableExecutor(newClientExecutor())) {
+            List<Future<ClientStats>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = seeds.split();
+                futures.add(executor.service().submit(() -> runClient(random, deadline)));
+            }
+            for (Future<ClientStats> future : futures) results.add(future.get());
+        } finally {
+            sampler.shutdownNow();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        report(backend, results, elapsed, peakWaiting[0], out);
+    }
+
+    /**
+     * Runs one client until the deadline.
+     */
+    private ClientStats runClient(SplittableRandom random, long deadline) throws InterruptedException {
+        ClientStats stats = new ClientStats();
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            int op = 0;
+            while (pick >= operations.get(op).weight()) pick -= operations.get(op++).weight();
+            Operation operation = operations.get(op);
+
+            long begin = System.nanoTime();
+            long wait = 0;
+            try {
+                if (store == null) {
+                    String sql = operation.sql().build(queryMap, random);
+                    if (sql == null) throw new SQLException("No query found for " + operation.name());
+                    try (Connection conn = PriceDataVisualizer.getConnection()) {
+                        wait = System.nanoTime() - begin;
+                        try (Statement stmt = conn.createStatement();
+                             ResultSet rs = stmt.executeQuery(sql)) {
+                            readRows(rs);
+                        }
+                    }
+                } else {
+                    operation.analysis().run(store, random);
+                }
+                stats.record(MIX.indexOf(operation), System.nanoTime() - begin, wait);
+            } catch (Exception e) {
+                stats.errors[MIX.indexOf(operation)]++;
+                stats.errorTypes.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            }
+            if (thinkMillis > 0) Thread.sleep(thinkMillis);
+        }
+        return stats;
+    }
+
+    /**
+     * Prints the results and appends them to the CSV.
+     */
+    private void report(String backend, List<ClientStats> results, double elapsed, int peakWaiting, Path out)
+            throws IOException {
+        String runId = LocalDateTime.now().withNano(0).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        List<String> lines = new ArrayList<>();
+        System.out.printf("%-18s %8s %7s %9s %9s %9s %9s %9s %10s %10s%n", "operation", "requests", "errors",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "wait avg", "wait p99");
+
+        int totalCount = 0;
+        int totalErrors = 0;
+        List<long[]> allLatency = new ArrayList<>();
+        List<long[]> allWait = new ArrayList<>();
+        for (int op = 0; op < MIX.size(); op++) {
+            if (!operations.contains(MIX.get(op))) continue;
+            int index = op;
+            long[] latency = merge(results, op, true);
+            long[] wait = merge(results, op, false);
+            int errors = results.stream().mapToInt(s -> s.errors[index]).sum();
+            allLatency.add(latency);
+            allWait.add(wait);
+            totalCount += latency.length;
+            totalErrors += errors;
+            lines.add(printRow(runId, backend, MIX.get(op).name(), latency, wait, errors, elapsed));
+        }
+        long[] latency = concat(allLatency);
+        long[] wait = concat(allWait);
+        lines.add(printRow(runId, backend, "all", latency, wait, totalErrors, elapsed));
+
+        System.out.printf("Error rate %.2f%%", totalCount + totalErrors == 0 ? 0 : 100.0 * totalErrors / (totalCount + totalErrors));
+        Map<String, Integer> errorTypes = new TreeMap<>();
+        for (ClientStats s : results) s.errorTypes.forEach((k, v) -> errorTypes.merge(k, v, Integer::sum));
+        if (!errorTypes.isEmpty()) System.out.print(" " + errorTypes);
+        if (store == null) System.out.printf(", peak %d clients waiting for a connection", peakWaiting);
+        System.out.println();
+
+        boolean header = !Files.exists(out);
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                writer.write("run,backend,clients,seconds,pool_size,operation,requests,errors,requests_per_second,"
+                        + "p50_ms,p90_ms,p99_ms,max_ms,pool_wait_avg_ms,pool_wait_p99_ms\n");
+            }
+            for (String line : lines) writer.write(line + "\n");
+        }
+        System.out.println("Appended results to " + out);
+    }
+
+    private String printRow(String runId, String backend, String name, long[] latency, long[] wait, int errors,
+                            double elapsed) {
+        Arrays.sort(latency);
+        Arrays.sort(wait);
+        double rate = latency.length / elapsed;
+        double waitAvg = wait.length == 0 ? 0 : Arrays.stream(wait).average().orElse(0) / 1e6;
+        System.out.printf("%-18s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %10.2f %10.2f%n", name, latency.length, errors,
+                rate, percentile(latency, 50), percentile(latency, 90), percentile(latency, 99),
+                percentile(latency, 100), waitAvg, percentile(wait, 99));
+        return String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d,%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.3f,%.3f",
+                runId, backend, clients, elapsed, PriceDataVisualizer.readPoolSize(), name, latency.length, errors,
+                rate, percentile(latency, 50), percentile(latency, 90), percentile(latency, 99),
+                percentile(latency, 100), waitAvg, percentile(wait, 99));
+    }
+
+    /**
+     * Returns a percentile of sorted nanosecond values, in milliseconds,
+     * using the nearest-rank method.
+     */
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static long[] merge(List<ClientStats> results, int op, boolean latency) {
+        List<long[]> parts = new ArrayList<>();
+        for (ClientStats s : results) {
+            parts.add(Arrays.copyOf(latency ? s.latency[op] : s.poolWait[op], s.count[op]));
+        }
+        return concat(parts);
+    }
+
+    private static long[] concat(List<long[]> parts) {
+        long[] all = new long[parts.stream().mapToInt(a -> a.length).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+
+    private static String volatilitySql(SplittableRandom random) {
+        return MySqlDataStore.volatilitySql(random.nextBoolean(), startYear(random), 2023);
+    }
+
+    /**
+     * Reads every row of a result, like the views do.
+     * @return the number of rows read
+     */
+    private static int readRows(ResultSet rs) throws SQLException {
+        int rows = 0;
+        while (rs.next()) rows++;
+        return rows;
+    }
+
+    /**
+     * Picks the first year of a volatility range, from the last few years to the whole history.
+     */
+    private static int startYear(SplittableRandom random) {
+        return 2023 - 5 * (1 + random.nextInt(10));
+    }
+
+    /**
+     * Returns whether the JVM can create virtual threads.
+     */
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates one thread per client: virtual threads on Java 21 and later,
+     * looked up by reflection since the project is built for Java 17, or
+     * daemon platform threads otherwise.
+     */
+    private static ExecutorService newClientExecutor() {
+        if (virtualThreadsAvailable()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads unavailable, using platform threads: " + e.getMessage());
+            }
+        }
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "load-client");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Shuts an executor down when the try block ends.
+     */
+    private record AutoCloseableExecutor(ExecutorService service) implements AutoCloseable {
+        @Override
+        public void close() {
+            service.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * MonteCarloForecast.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * MonteCarloForecast simulates annual price paths of one item to estimate
+ * how much its price could rise in total over several years.
+ *
+ * Each path draws the first forecast year from the item's USDA prediction
+ * interval in CPIForecast/PPIForecast: a split normal centred on the mid
+ * point, with the lower and upper bounds as its 2.5th and 97.5th
+ * percentiles, so lopsided intervals stay lopsided. Every later year
+ * reverts towards the item's average change over the last
+ * {@link #HISTORY_YEARS} years in historicalcpi/historicalppi, at the
+ * speed of its lag-one autocorrelation, plus a residual resampled from
+ * that history. The annual changes are compounded into a price level, and
+ * the compound increase since the last actual year is recorded per year.
+ *
+ * Paths run in parallel chunks. Each chunk has its own SplittableRandom
+ * split from the seed, so a seed always gives the same result, and counts
+ * its outcomes in its own primitive histogram, so millions of paths need
+ * no per-path storage and no locking.
+ */
+public final class MonteCarloForecast {
+    /** Percentiles reported for every year. */
+    public static final double[] PERCENTILES = {5, 25, 50, 75, 95};
+    /** Number of years of history the later years are drawn from. */
+    public static final int HISTORY_YEARS = 20;
+
+    private static final double HISTOGRAM_MIN = -100;
+    private static final double HISTOGRAM_MAX = 400;
+    private static final double BIN_WIDTH = 0.1;
+    private static final int BINS = (int) Math.round((HISTOGRAM_MAX - HISTOGRAM_MIN) / BIN_WIDTH);
+    private static final int PATHS_PER_BLOCK = 16_384;
+
+    /**
+     * What the paths of an item are drawn from.
+     * @param item the item name
+     * @param baseYear the year before the forecast interval; paths start at its price level
+     * @param lower the lower bound of the first forecast year
+     * @param mid the mid point of the first forecast year
+     * @param upper the upper bound of the first forecast year
+     * @param longRunMean the average annual change later years revert to
+     * @param persistence the share of last year's deviation from the mean carried into the next year
+     * @param residuals the historical residuals later years resample, or null to
+     *                  draw every year from the first year's interval
+     */
+    public record Inputs(String item, int baseYear, double lower, double mid, double upper,
+                         double longRunMean, double persistence, double[] residuals) { }
+
+    /**
+     * Outcome of a simulation.
+     * @param inputs what the paths were drawn from
+     * @param paths the number of paths simulated
+     * @param complete false if the simulation was cancelled before every path ran
+     * @param percentiles per year ahead, the compound increase in percent at each of PERCENTILES
+     * @param means per year ahead, the mean compound increase in percent
+     * @param elapsedMillis how long the simulation took
+     */
+    public record Result(Inputs inputs, long paths, boolean complete, double[][] percentiles, double[] means,
+                         double elapsedMillis) {
+        /**
+         * Returns the number of years simulated.
+         * @return the horizon in years
+         */
+        public int years() {
+            return means.length;
+        }
+    }
+
+    private MonteCarloForecast() { }
+
+    /**
+     * Returns the items of the current forecast table that have a lower, mid
+     * and upper percent change forecast.
+     * @param isCpi true for CPIForecast, false for PPIForecast
+     * @return the item names in alphabetical order
+     */
+    public static List<String> items(boolean isCpi) {
+        List<String> items = new ArrayList<>();
+        ForecastInterval.read(isCpi).forEach((item, interval) -> {
+            if (interval.isComplete()) items.add(item);
+        });
+        return items;
+    }
+
+    /**
+     * Collects what the paths of an item are drawn from. Items without enough
+     * history keep the first year's interval for every later year.
+     * @param isCpi true for a CPI item, false for a PPI item
+     * @param item the item name
+     * @return the simulation inputs
+     * @throws IllegalArgumentException if the item has no complete forecast interval
+     */
+    public static Inputs inputs(boolean isCpi, String item) {
+        ForecastInterval interval = ForecastInterval.read(isCpi).get(item);
+        if (interval == null || !interval.isComplete()) throw new IllegalArgumentException("No forecast interval for " + item);
+        double lower = interval.lower();
+        double mid = interval.mid();
+        double upper = interval.upper();
+
+        int baseYear = interval.year() - 1;
+
+        AnnualSeries history = AnnualSeries.from(Datasets.get(isCpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI));
+        int index = history.indexOf(item);
+
+        // Recent history, oldest first, skipping missing years
+        double[] recent = new double[HISTORY_YEARS];
+        int n = 0;
+        if (index >= 0) {
+            int lastYear = history.lastYear();
+            for (int year = lastYear - HISTORY_YEARS + 1; year <= lastYear; year++) {
+                double v = history.value(index, year);
+                if (!Double.isNaN(v)) recent[n++] = v;
+            }
+        }
+        if (n < 5) {
+            // Too little history: every year is drawn like the first
+            return new Inputs(item, baseYear, lower, mid, upper, mid, 0, null);
+        }
+
+        double mean = 0;
+        for (int i = 0; i < n; i++) mean += recent[i];
+        mean /= n;
+        double lagged = 0;
+        double variance = 0;
+        for (int i = 0; i < n; i++) {
+            variance += (recent[i] - mean) * (recent[i] - mean);
+            if (i > 0) lagged += (recent[i] - mean) * (recent[i - 1] - mean);
+        }
+        double persistence = variance == 0 ? 0 : Math.max(0, Math.min(0.95, lagged / variance));
+        double[] residuals = new double[n - 1];
+        for (int i = 1; i < n; i++) {
+            residuals[i - 1] = (recent[i] - mean) - persistence * (recent[i - 1] - mean);
+        }
+        return new Inputs(item, baseYear, lower, mid, upper, mean, persistence, residuals);
+    }
+
+    /**
+     * Simulates price paths on all cores.
+     * @param inputs what the paths are drawn from
+     * @param paths the number of paths
+     * @param years the number of years each path runs
+     * @param seed the seed of the random streams
+     * @param cancelled polled between blocks of paths; the simulation stops early once it returns true
+     * @param progress receives the number of paths completed so far, from worker threads
+     * @return the percentiles of the paths that ran
+     */
+    public static Result simulate(Inputs inputs, long paths, int years, long seed,
+                                  BooleanSupplier cancelled, LongConsumer progress) {
+        long start = System.nanoTime();
+        int chunks = Math.max(1, (int) Math.min(paths / PATHS_PER_BLOCK + 1, 2L * Runtime.getRuntime().availableProcessors()));
+
+        // Split the streams up front so each chunk's draws depend only on the seed
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) streams[c] = root.split();
+
+        AtomicLong done = new AtomicLong();
+        Chunk[] results = new Chunk[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            long chunkPaths = paths / chunks + (c < paths % chunks ? 1 : 0);
+            results[c] = runChunk(inputs, chunkPaths, years, streams[c], cancelled, done, progress);
+        });
+
+        // Merge the chunk histograms into the first one
+        Chunk total = results[0];
+        for (int c = 1; c < chunks; c++) total.merge(results[c]);
+        double[][] percentiles = new double[years][PERCENTILES.length];
+        double[] means = new double[years];
+        for (int y = 0; y < years; y++) {
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                percentiles[y][p] = total.paths == 0 ? Double.NaN : percentile(total.counts[y], total.paths, PERCENTILES[p]);
+            }
+            means[y] = total.paths == 0 ? Double.NaN : total.sums[y] / total.paths;
+        }
+        return new Result(inputs, total.paths, total.paths == paths, percentiles, means,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Outcome counts of one chunk of paths.
+     */
+    private static final class Chunk {
+        final int[][] counts;
+        final double[] sums;
+        long paths;
+
+        Chunk(int years) {
+            counts = new int[years][BINS];
+            sums = new double[years];
+        }
+
+        void merge(Chunk other) {
+            paths += other.paths;
+            for (int y = 0; y < sums.length; y++) {
+                sums[y] += other.sums[y];
+                int[] mine = counts[y];
+                int[] theirs = other.counts[y];
+                for (int b = 0; b < BINS; b++) mine[b] += theirs[b];
+            }
+        }
+    }
+
+    private static Chunk runChunk(Inputs in, long paths, int years, SplittableRandom random,
+                                  BooleanSupplier cancelled, AtomicLong done, LongConsumer progress) {
+        Chunk chunk = new Chunk(years);
+        double lowerSpread = ForecastInterval.spread(in.mid, in.lower);
+        double upperSpread = ForecastInterval.spread(in.mid, in.upper);
+        double[] residuals = in.residuals;
+
+        long remaining = paths;
+        while (remaining > 0 && !cancelled.getAsBoolean()) {
+            int block = (int) Math.min(remaining, PATHS_PER_BLOCK);
+            for (int i = 0; i < block; i++) {
+                double z = random.nextGaussian();
+                double change = in.mid + z * (z < 0 ? lowerSpread : upperSpread);
+                double level = 1;
+                for (int y = 0; y < years; y++) {
+                    if (y > 0 && residuals == null) {
+                        z = random.nextGaussian();
+                        change = in.mid + z * (z < 0 ? lowerSpread : upperSpread);
+                    } else if (y > 0) {
+                        change = in.longRunMean + in.persistence * (change - in.longRunMean)
+                                + residuals[random.nextInt(residuals.length)];
+                    }
+                    // A price can fall at most all the way to zero
+                    level *= 1 + Math.max(change, -100) / 100;
+                    double increase = (level - 1) * 100;
+                    chunk.sums[y] += increase;
+                    int bin = (int) ((increase - HISTOGRAM_MIN) / BIN_WIDTH);
+                    chunk.counts[y][Math.max(0, Math.min(BINS - 1, bin))]++;
+                }
+            }
+            chunk.paths += block;
+            remaining -= block;
+            progress.accept(done.addAndGet(block));
+        }
+        return chunk;
+    }
+
+    /**
+     * Reads a percentile off a histogram, interpolating within the bin.
+     */
+    private static double percentile(int[] counts, long total, double percentile) {
+        double target = total * percentile / 100;
+        long cumulative = 0;
+        for (int b = 0; b < counts.length; b++) {
+            if (counts[b] == 0) continue;
+            if (cumulative + counts[b] >= target) {
+                double within = (target - cumulative) / counts[b];
+                return HISTOGRAM_MIN + (b + within) * BIN_WIDTH;
+            }
+            cumulative += counts[b];
+        }
+        return HISTOGRAM_MAX;
+    }
+}
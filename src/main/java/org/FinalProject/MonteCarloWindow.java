@@ -0,0 +1,260 @@
+/**
+ * MonteCarloWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.DeviationRenderer;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.xy.YIntervalSeries;
+import org.jfree.data.xy.YIntervalSeriesCollection;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MonteCarloWindow runs MonteCarloForecast for one item and shows the
+ * compound price increase as a fan chart: the median path with the
+ * 25th-75th and 5th-95th percentile bands around it, and the same
+ * percentiles per year in a table.
+ *
+ * The simulation runs off the EDT with a progress bar. Cancel stops it
+ * between blocks of paths and shows what the completed paths give.
+ */
+public class MonteCarloWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private static final String CPI = "Consumer Price Index";
+    private static final String PPI = "Producer Price Index";
+
+    private final JComboBox<String> typeSelector = new JComboBox<>(new String[]{CPI, PPI});
+    private final JComboBox<String> itemSelector = new JComboBox<>();
+    private final JSpinner pathsSpinner = new JSpinner(new SpinnerNumberModel(1_000_000, 10_000, 100_000_000, 100_000));
+    private final JSpinner yearsSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 10, 1));
+    private final JButton runButton = new JButton("Run");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JPanel chartPanel = new JPanel(new BorderLayout());
+    private final JTable percentileTable = new JTable();
+    private final JLabel statusLabel = new JLabel("Choose an item and click Run");
+    private AtomicBoolean cancelRequested = new AtomicBoolean();
+
+    /**
+     * Opens the window with the CPI items loaded.
+     */
+    public MonteCarloWindow() {
+        super("Monte Carlo Price Paths");
+        setSize(1000, 700);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        ((JSpinner.DefaultEditor) pathsSpinner.getEditor()).getTextField().setColumns(9);
+        progressBar.setStringPainted(true);
+        cancelButton.setEnabled(false);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(typeSelector);
+        controls.add(itemSelector);
+        controls.add(new JLabel("Paths:"));
+        controls.add(pathsSpinner);
+        controls.add(new JLabel("Years:"));
+        controls.add(yearsSpinner);
+        controls.add(runButton);
+        controls.add(cancelButton);
+        controls.add(progressBar);
+
+        JScrollPane tableScroll = new JScrollPane(percentileTable);
+        tableScroll.setPreferredSize(new Dimension(1000, 160));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(tableScroll, BorderLayout.CENTER);
+        bottom.add(statusLabel, BorderLayout.SOUTH);
+
+        add(controls, BorderLayout.NORTH);
+        add(chartPanel, BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+
+        typeSelector.addActionListener(e -> loadItems());
+        runButton.addActionListener(e -> run());
+        cancelButton.addActionListener(e -> cancelRequested.set(true));
+        // Stop a running simulation when the window is closed
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelRequested.set(true);
+            }
+        });
+
+        setVisible(true);
+        loadItems();
+    }
+
+    private boolean isCpi() {
+        return CPI.equals(typeSelector.getSelectedItem());
+    }
+
+    /**
+     * Fills the item selector with the items of the chosen forecast table.
+     */
+    private void loadItems() {
+        boolean isCpi = isCpi();
+        runButton.setEnabled(false);
+        new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() {
+                return MonteCarloForecast.items(isCpi);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    itemSelector.setModel(new DefaultComboBoxModel<>(get().toArray(new String[0])));
+                    runButton.setEnabled(itemSelector.getItemCount() > 0);
+                } catch (InterruptedException | ExecutionException e) {
+                    PriceDataVisualizer.showError(MonteCarloWindow.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Simulates the selected item in the background, updating the progress
+     * bar as blocks of paths complete.
+     */
+    private void run() {
+        boolean isCpi = isCpi();
+        String item = (String) itemSelector.getSelectedItem();
+        if (item == null) return;
+        long paths = ((Number) pathsSpinner.getValue()).longValue();
+        int years = (Integer) yearsSpinner.getValue();
+
+        // Each run gets its own flag, so a late cancel can't stop the next run
+        AtomicBoolean cancelled = new AtomicBoolean();
+        cancelRequested = cancelled;
+        runButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        statusLabel.setText("Simulating " + item + "...");
+
+        SwingWorker<MonteCarloForecast.Result, Void> worker = new SwingWorker<>() {
+            @Override
+            protected MonteCarloForecast.Result doInBackground() {
+                MonteCarloForecast.Inputs inputs = MonteCarloForecast.inputs(isCpi, item);
+                return MonteCarloForecast.simulate(inputs, paths, years, System.nanoTime(), cancelled::get,
+                        done -> setProgress((int) (done * 100 / paths)));
+            }
+
+            @Override
+            protected void done() {
+                runButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                try {
+                    MonteCarloForecast.Result result = get();
+                    if (result.paths() == 0) {
+                        statusLabel.setText("Cancelled before any path completed");
+                        return;
+                    }
+                    showResult(result);
+                    statusLabel.setText(String.format("%s%,d paths of %d years in %.0f ms",
+                            result.complete() ? "" : "Cancelled after ", result.paths(), result.years(),
+                            result.elapsedMillis()));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Failed");
+                    PriceDataVisualizer.showError(MonteCarloWindow.this, e);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) progressBar.setValue((Integer) e.getNewValue());
+        });
+        worker.execute();
+    }
+
+    /**
+     * Shows the fan chart and the percentile table of a result.
+     */
+    private void showResult(MonteCarloForecast.Result result) {
+        MonteCarloForecast.Inputs inputs = result.inputs();
+        YIntervalSeries outer = new YIntervalSeries("5th-95th percentile");
+        YIntervalSeries inner = new YIntervalSeries("25th-75th percentile");
+        YIntervalSeries median = new YIntervalSeries("Median");
+
+        // Every path starts at the base year's price level
+        outer.add(inputs.baseYear(), 0, 0, 0);
+        inner.add(inputs.baseYear(), 0, 0, 0);
+        median.add(inputs.baseYear(), 0, 0, 0);
+
+        DefaultTableModel table = new DefaultTableModel(
+                new String[]{"Year", "5th", "25th", "Median", "75th", "95th", "Mean"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        DecimalFormat percent = new DecimalFormat("0.0'%'");
+        for (int y = 0; y < result.years(); y++) {
+            double[] p = result.percentiles()[y]; // 5th, 25th, median, 75th, 95th
+            int year = inputs.baseYear() + y + 1;
+            outer.add(year, p[2], p[0], p[4]);
+            inner.add(year, p[2], p[1], p[3]);
+            median.add(year, p[2], p[2], p[2]);
+            table.addRow(new Object[]{year, percent.format(p[0]), percent.format(p[1]),
+                    percent.format(p[2]), percent.format(p[3]), percent.format(p[4]),
+                    percent.format(result.means()[y])});
+        }
+
+        YIntervalSeriesCollection dataset = new YIntervalSeriesCollection();
+        dataset.addSeries(outer);
+        dataset.addSeries(inner);
+        dataset.addSeries(median);
+        JFreeChart chart = ChartFactory.createXYLineChart(inputs.item() + " Compound Price Increase since "
+                + inputs.baseYear(), "Year", "% Increase", dataset, PlotOrientation.VERTICAL, true, true, false);
+
+        // Nested bands in one hue, darker towards the median
+        XYPlot plot = chart.getXYPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setDomainGridlinePaint(Color.GRAY);
+        plot.setRangeGridlinePaint(Color.GRAY);
+        DeviationRenderer renderer = new DeviationRenderer(true, false);
+        Color blue = new Color(30, 144, 255);
+        renderer.setSeriesPaint(0, blue);
+        renderer.setSeriesFillPaint(0, new Color(30, 144, 255, 60));
+        renderer.setSeriesPaint(1, blue);
+        renderer.setSeriesFillPaint(1, new Color(30, 144, 255, 110));
+        renderer.setSeriesPaint(2, new Color(0, 70, 140));
+        renderer.setSeriesStroke(0, new BasicStroke(0.5f));
+        renderer.setSeriesStroke(1, new BasicStroke(0.5f));
+        renderer.setSeriesStroke(2, new BasicStroke(2.0f));
+        renderer.setAlpha(1.0f);
+        plot.setRenderer(renderer);
+
+        NumberAxis xAxis = (NumberAxis) plot.getDomainAxis();
+        xAxis.setStandardTickUnits(NumberAxis.createIntegerTickUnits());
+        xAxis.setAutoRangeIncludesZero(false);
+        ((NumberAxis) plot.getRangeAxis()).setNumberFormatOverride(new DecimalFormat("0'%'"));
+        chart.getLegend().setFrame(BlockBorder.NONE);
+        chart.getLegend().setPosition(RectangleEdge.RIGHT);
+
+        chartPanel.removeAll();
+        chartPanel.add(PriceDataVisualizer.createChartPanel(chart), BorderLayout.CENTER);
+        chartPanel.revalidate();
+        chartPanel.repaint();
+        percentileTable.setModel(table);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * MySqlDataStore.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * MySqlDataStore runs the analyses as SQL on the read pool, using the
+ * named queries from tableQueries.sql. The reader consumes the live result
+ * set, so rows are read once, straight into the view's typed structures,
+ * and the connection goes back to the pool as soon as the reader returns,
+ * before the view starts building its chart.
+ */
+public class MySqlDataStore implements PriceDataStore {
+    private final Map<String, String> queryMap;
+
+    /**
+     * Creates the MySQL backend.
+     * @param queryMap the named queries loaded from tableQueries.sql
+     */
+    public MySqlDataStore(Map<String, String> queryMap) {
+        this.queryMap = queryMap;
+    }
+
+    @Override
+    public String name() {
+        return "mysql";
+    }
+
+    @Override
+    public <T> T forecastAccuracy(boolean cpi, ResultSetReader<T> reader) throws SQLException {
+        return run(sql(cpi ? "forecast_accuracy_cpi" : "forecast_accuracy_ppi"), reader);
+    }
+
+    @Override
+    public <T> T methodologyComparison(boolean cpi, ResultSetReader<T> reader) throws SQLException {
+        return run(sql(cpi ? "old_vs_new_methodology_cpi" : "old_vs_new_methodology_ppi"), reader);
+    }
+
+    @Override
+    public <T> T volatility(boolean cpi, int yearFrom, int yearTo, ResultSetReader<T> reader) throws SQLException {
+        return run(volatilitySql(cpi, yearFrom, yearTo), reader);
+    }
+
+    @Override
+    public Object actualsVersion(boolean cpi) throws SQLException {
+        // Row count, highest key and total change: loading rows moves the
+        // first two, and rebuilding or editing the facts moves the total
+        String sql = String.format("""
+    SELECT COUNT(*), MAX(h.actual_id), SUM(h.percentChange)
+    FROM fact_actual h
+    JOIN dim_item i ON i.item_id = h.item_id
+    WHERE i.indexType = '%s'
+    """, cpi ? "CPI" : "PPI");
+        return run(sql, rs -> rs.next() ? rs.getLong(1) + "/" + rs.getLong(2) + "/" + rs.getBigDecimal(3) : "");
+    }
+
+    @Override
+    public <T> T categoryTree(ResultSetReader<T> reader) throws SQLException {
+        return run(sql("category_tree_cpi"), reader);
+    }
+
+    /**
+     * Builds the volatility query for a year range.
+     * @param cpi true for CPI, false for PPI
+     * @param yearFrom first year of the range
+     * @param yearTo last year of the range
+     * @return the SQL
+     */
+    static String volatilitySql(boolean cpi, int yearFrom, int yearTo) {
+        // Embedded SQL query to calculate average percent change based on
+        // dynamic year range. Actuals are joined to their item on the integer
+        // key of the star schema (starSchema.sql).
+        return String.format("""
+    SELECT i.itemName AS item, h.year, AVG(h.percentChange) AS avgChange
+    FROM fact_actual h
+    JOIN dim_item i ON i.item_id = h.item_id
+    WHERE i.indexType = '%s' AND h.year BETWEEN %d AND %d
+    GROUP BY i.item_id, i.itemName, h.year
+    ORDER BY item, h.year
+    """, cpi ? "CPI" : "PPI", yearFrom, yearTo);
+    }
+
+    /**
+     * Returns a query from tableQueries.sql by name.
+     */
+    private String sql(String sqlKey) throws SQLException {
+        String sql = queryMap.get(sqlKey);
+        if (sql == null) throw new SQLException("No query found for " + sqlKey);
+        return sql;
+    }
+
+    /**
+     * Runs a query and hands its open result set to the reader.
+     */
+    private static <T> T run(String sql, ResultSetReader<T> reader) throws SQLException {
+        try (Connection conn = PriceDataVisualizer.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return reader.read(rs);
+        }
+    }
+}
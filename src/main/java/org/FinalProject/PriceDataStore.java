@@ -0,0 +1,103 @@
+/**
+ * PriceDataStore.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * PriceDataStore is the storage backend behind the analysis views. Each
+ * method hands its result to a ResultSetReader as a ResultSet with the
+ * columns the views expect, so a view does not know whether the result came
+ * from MySQL or was computed in process.
+ *
+ * The reader runs while the result is open and reads it straight into the
+ * view's own typed structures; the backend closes the result, and gives
+ * back any connection, as soon as the reader returns. Backends do not
+ * record the query history, since they also serve internal reads.
+ */
+public interface PriceDataStore {
+
+    /**
+     * Returns a short name for the backend, used in logs and benchmarks.
+     * @return the backend name
+     */
+    String name();
+
+    /**
+     * Mean absolute error of the midpoint forecasts (new methodology) per
+     * item and target year.
+     * @param cpi true for CPI, false for PPI
+     * @param reader reads rows of (item, year, mean_absolute_error) ordered by item and year
+     * @param <T> what the reader returns
+     * @return what the reader returned
+     * @throws SQLException if the backend or the reader fails
+     */
+    <T> T forecastAccuracy(boolean cpi, ResultSetReader<T> reader) throws SQLException;
+
+    /**
+     * Pairs the archived (old) and historical (new) midpoint forecasts made
+     * for the same item, target year and month.
+     * @param cpi true for CPI, false for PPI
+     * @param reader reads rows of (item, year, month, old_forecast, new_forecast) ordered by item, year and month
+     * @param <T> what the reader returns
+     * @return what the reader returned
+     * @throws SQLException if the backend or the reader fails
+     */
+    <T> T methodologyComparison(boolean cpi, ResultSetReader<T> reader) throws SQLException;
+
+    /**
+     * Average actual percent change per item and year inside a year range.
+     * @param cpi true for CPI, false for PPI
+     * @param yearFrom first year of the range
+     * @param yearTo last year of the range
+     * @param reader reads rows of (item, year, avgChange) ordered by item and year
+     * @param <T> what the reader returns
+     * @return what the reader returned
+     * @throws SQLException if the backend or the reader fails
+     */
+    <T> T volatility(boolean cpi, int yearFrom, int yearTo, ResultSetReader<T> reader) throws SQLException;
+
+    /**
+     * Returns a cheap signature of the actuals that volatility reads. It
+     * changes whenever those rows are loaded, reloaded or edited, so results
+     * built from the actuals can be cached until it does.
+     * @param cpi true for CPI, false for PPI
+     * @return the signature, compared with equals
+     * @throws SQLException if the backend fails
+     */
+    Object actualsVersion(boolean cpi) throws SQLException;
+
+    /**
+     * The current lower, mid point and upper percent change forecast and the
+     * relative importance of every CPIForecast category, with its place in
+     * the five-level category tree.
+     * @param reader reads rows of (topLevel, aggregate, midLevel, lowLevel, disaggregate, boundType, value),
+     *               where boundType is LOWER, MID, UPPER or CategoryTree.WEIGHT
+     * @param <T> what the reader returns
+     * @return what the reader returned
+     * @throws SQLException if the backend or the reader fails
+     */
+    <T> T categoryTree(ResultSetReader<T> reader) throws SQLException;
+
+    /**
+     * Creates the backend named by the priceVisualizer.backend system
+     * property: "mysql" (the default) or "snapshot".
+     * @param queryMap the named queries used by the MySQL backend
+     * @return the configured backend
+     */
+    static PriceDataStore fromSystemProperty(Map<String, String> queryMap) {
+        String backend = System.getProperty("priceVisualizer.backend", "mysql");
+        return switch (backend.toLowerCase()) {
+            case "mysql" -> new MySqlDataStore(queryMap);
+            case "snapshot" -> new SnapshotDataStore();
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+}
@@ -10,6 +10,7 @@ package org.FinalProject;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.jfree.chart.*;
 import org.jfree.chart.axis.*;
 import org.jfree.chart.block.BlockBorder;
@@ -17,16 +18,24 @@ import org.jfree.chart.labels.ItemLabelAnchor;
 import org.jfree.chart.labels.ItemLabelPosition;
 import org.jfree.chart.labels.StandardCategoryItemLabelGenerator;
 import org.jfree.chart.plot.*;
+import org.jfree.chart.renderer.LookupPaintScale;
 import org.jfree.chart.renderer.category.*;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.chart.renderer.xy.XYItemRenderer;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.PaintScaleLegend;
+import org.jfree.chart.title.TextTitle;
 import org.jfree.chart.ui.RectangleEdge;
 import org.jfree.chart.ui.TextAnchor;
 import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.time.Month;
 import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.data.xy.DefaultXYZDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 
 import javax.swing.*;
+import javax.swing.event.ChangeListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -35,25 +44,31 @@ import java.sql.*;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * PriceDataVisualizer is a Java application that connects to a MySQL database
  * to visualize food price data. It allows users to run various SQL queries
  * and display the results in charts and tables. The application uses
  * HikariCP for database connection pooling and JFreeChart for charting.
- * It also provides a GUI for user interaction, including
- * checkboxes for selecting categories and a history of executed queries.
+ * It also provides a GUI for user interaction, including a searchable
+ * category selector and a history of executed queries.
  */
 public class PriceDataVisualizer {
-    private static HikariDataSource dataSource;
-    private static Map<String, String> queryMap = new HashMap<>();
-    private static JPanel chartPanel;
-    private static JPanel checkboxPanel;
-    private static final Map<String, JCheckBox> categoryCheckboxes =
-            new LinkedHashMap<>();
-    private static JTable displayDataTable;
+    /** Fetch size that makes MySQL Connector/J stream a result row by row. */
+    static final int STREAM_ROWS = Integer.MIN_VALUE;
+
+    private static HikariDataSource readDataSource;
+    private static HikariDataSource writeDataSource;
+    private static Map<String, String> queryMap = Map.of();
+    private static PriceDataStore dataStore;
     private static DefaultListModel<String> historyModel = new DefaultListModel<>();
     private static JList<String> historyList = new JList<>(historyModel);
+    private static final String BASELINE_SUFFIX = " (Baseline)";
+    private static final BasicStroke BASELINE_STROKE = new BasicStroke(2.0f, BasicStroke.CAP_BUTT,
+            BasicStroke.JOIN_MITER, 10.0f, new float[]{6.0f, 4.0f}, 0.0f);
 
     /**
      * Starts the application by setting up the database connection, loading
@@ -63,37 +78,122 @@ public class PriceDataVisualizer {
     public static void main(String[] args) {
         setupConnectionPool();
         try {
-            queryMap = loadQueriesFromFile("sql/tableQueries.sql");
+            // Read-only from here on, so every analysis tab can share it
+            queryMap = Collections.unmodifiableMap(loadQueriesFromFile("sql/tableQueries.sql"));
         } catch (IOException e) {
             System.err.println("Failed to load queries from file: tableQueries.sql");
             e.printStackTrace();
         }
+        // Analyses run on MySQL unless -DpriceVisualizer.backend=snapshot
+        dataStore = PriceDataStore.fromSystemProperty(queryMap);
         Runtime.getRuntime().addShutdownHook(new Thread(PriceDataVisualizer::closeConnectionPool));
+
+        // Map the binary dataset snapshots in the background so in-memory
+        // analyses never wait on CSV parsing
+        Thread preload = new Thread(() -> {
+            try {
+                Datasets.preloadAll();
+            } catch (UncheckedIOException e) {
+                System.err.println("Failed to load dataset snapshots: " + e.getMessage());
+            }
+        }, "snapshot-preload");
+        preload.setDaemon(true);
+        preload.start();
+
         SwingUtilities.invokeLater(PriceDataVisualizer::createAndShowGUI);
     }
 
     /**
-     * Sets up the HikariCP connection pool for MySQL database access.
+     * Sets up the HikariCP connection pools for MySQL database access.
+     * Read-only analyses use the read pool, which can point at a replica,
+     * while writes such as the query history stay on the primary. Both can be
+     * configured with system properties:
+     * <ul>
+     *   <li>{@code priceVisualizer.primaryUrl} - JDBC URL of the primary (writes)</li>
+     *   <li>{@code priceVisualizer.replicaUrl} - JDBC URL for reads, defaults to the primary</li>
+     *   <li>{@code priceVisualizer.readPoolSize} / {@code priceVisualizer.writePoolSize} - pool sizes</li>
+     * </ul>
+     * Queries whose results can be large (the full data chart, exports and
+     * re-run history queries) stream them row by row with a fetch size of
+     * {@link #STREAM_ROWS}, so the driver never buffers a whole result and
+     * the first rows arrive before the server has produced the last. A
+     * streaming result ties up its connection until it is read or the
+     * statement is cancelled, so each stream uses its own pooled connection.
      */
-    private static void setupConnectionPool() {
-        HikariConfig config = new HikariConfig();
+    static void setupConnectionPool() {
         // Make sure the table name reflects the actual database name. If you
-        // followed the documentation exactly, this shouldn't need changed
-        config.setJdbcUrl("jdbc:mysql://localhost:3306/foodprices");
+        // followed the documentation exactly, this shouldn't need changed.
+        String primaryUrl = System.getProperty("priceVisualizer.primaryUrl",
+                "jdbc:mysql://localhost:3306/foodprices");
+        String replicaUrl = System.getProperty("priceVisualizer.replicaUrl", primaryUrl);
+
+        // Analyses can run several queries at once, so the read pool is larger
+        HikariConfig readConfig = createPoolConfig("read-pool", replicaUrl,
+                Integer.getInteger("priceVisualizer.readPoolSize", 8));
+        readConfig.setReadOnly(true);
+        readDataSource = new HikariDataSource(readConfig);
+
+        // History inserts and deletes are small and infrequent
+        HikariConfig writeConfig = createPoolConfig("write-pool", primaryUrl,
+                Integer.getInteger("priceVisualizer.writePoolSize", 2));
+        writeDataSource = new HikariDataSource(writeConfig);
+    }
+
+    /**
+     * Creates the configuration shared by the read and write pools.
+     * @param poolName the name of the pool, shown in logs
+     * @param jdbcUrl the JDBC URL the pool connects to
+     * @param poolSize the maximum number of connections
+     * @return the pool configuration
+     */
+    private static HikariConfig createPoolConfig(String poolName, String jdbcUrl, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
         // Username and password should be replaced with actual credentials
-        config.setUsername("root");
-        config.setPassword("pass");
-        config.setMaximumPoolSize(5);
-        dataSource = new HikariDataSource(config);
+        config.setUsername(System.getProperty("priceVisualizer.user", "root"));
+        config.setPassword(System.getProperty("priceVisualizer.password", "pass"));
+        config.setMaximumPoolSize(poolSize);
+        return config;
+    }
+
+    /**
+     * Returns the largest number of connections the read pool hands out,
+     * which is how many analyses can query the database at once.
+     * @return the read pool size
+     */
+    public static int readPoolSize() {
+        if (readDataSource != null) return readDataSource.getMaximumPoolSize();
+        return Integer.getInteger("priceVisualizer.readPoolSize", 8);
+    }
+
+    /**
+     * Returns the live statistics of the read pool, such as how many threads
+     * are waiting for a connection.
+     * @return the pool statistics, or null before the pool is set up
+     */
+    static HikariPoolMXBean readPoolMXBean() {
+        return readDataSource == null ? null : readDataSource.getHikariPoolMXBean();
     }
 
     /**
-     * Establishes a connection to the database using the HikariCP connection pool.
+     * Establishes a read-only connection to the database using the read pool,
+     * which may be served by a replica.
      * @return a Connection object to interact with the database
      * @throws SQLException if a database access error occurs
      */
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        return readDataSource.getConnection();
+    }
+
+    /**
+     * Establishes a connection to the primary database for writes, such as
+     * logging and clearing the query history.
+     * @return a Connection object to the primary database
+     * @throws SQLException if a database access error occurs
+     */
+    public static Connection getWriteConnection() throws SQLException {
+        return writeDataSource.getConnection();
     }
 
     /**
@@ -131,6 +231,29 @@ public class PriceDataVisualizer {
         return queries;
     }
 
+    /**
+     * Counts the ? placeholders of a query, ignoring any inside quoted
+     * strings such as REGEXP patterns.
+     * @param sql the query
+     * @return the number of parameters the query takes
+     */
+    public static int countPlaceholders(String sql) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (quote != 0) {
+                if (ch == '\\') i++;
+                else if (ch == quote) quote = 0;
+            } else if (ch == '\'' || ch == '"' || ch == '`') {
+                quote = ch;
+            } else if (ch == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Logs a given SQL query to the query_history table in the database.
      * @param sql the SQL query string to log
@@ -138,7 +261,7 @@ public class PriceDataVisualizer {
     public static void logQueryToHistory(String sql) {
         // Log the query to the history table
         String insert = "INSERT INTO query_history (query_text) VALUES (?)";
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection();
              PreparedStatement ps = conn.prepareStatement(insert)) {
             ps.setString(1, sql);
             ps.executeUpdate();
@@ -147,25 +270,49 @@ public class PriceDataVisualizer {
         }
     }
 
+    /**
+     * Logs a query and reloads the history list on a background thread, for
+     * views that are set up on the EDT rather than in a session load.
+     * @param sql the SQL query string to log
+     */
+    static void logQueryInBackground(String sql) {
+        Thread logger = new Thread(() -> {
+            logQueryToHistory(sql);
+            loadQueryHistory();
+        }, "query-history");
+        logger.setDaemon(true);
+        logger.start();
+    }
+
     /**
      * Loads the query history from the database and populates the history
-     * list model.
+     * list model. Can be called from any thread; the list model is only
+     * updated on the EDT.
      */
     public static void loadQueryHistory() {
-        historyModel.clear();
-        // Load the query history from the database
+        List<String> queries = new ArrayList<>();
+        // Load the query history from the primary, since a replica may not
+        // have the entry that was just logged yet
         String select = "SELECT query_text FROM query_history ORDER BY run_timestamp DESC";
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(select)) {
-            // Populate the history model with the results
             while (rs.next()) {
                 String query = rs.getString("query_text").trim();
-                if (!query.isEmpty()) historyModel.addElement(query);
+                if (!query.isEmpty()) queries.add(query);
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return;
         }
+
+        // Populate the history model with the results
+        Runnable update = () -> {
+            historyModel.clear();
+            historyModel.addAll(queries);
+        };
+        if (SwingUtilities.isEventDispatchThread()) update.run();
+        else SwingUtilities.invokeLater(update);
     }
 
     /**
@@ -181,13 +328,16 @@ public class PriceDataVisualizer {
 
         // Set up the menu bar
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JComboBox<String> querySelector = new JComboBox<>(new String[]{"", "Show Full Data", "Volatility", "Forecast Accuracy", "Methodology Comparison"});
+        JComboBox<String> querySelector = new JComboBox<>(new String[]{"", "Show Full Data", "Volatility", "Forecast Accuracy", "Methodology Comparison", "Lead/Lag Correlation", "Forecast Backtest"});
         JComboBox<String> typeSelector = new JComboBox<>(new String[]{"Consumer Price Index", "Producer Price Index"});
         JComboBox<String> tableSelector = new JComboBox<>();
         tableSelector.setVisible(false);
 
-        // Initialize the data table
-        displayDataTable = new JTable();
+        // Each analysis gets its own tab with its own chart, table and filter
+        JTabbedPane sessionTabs = new JTabbedPane();
+        addSessionTab(sessionTabs);
+        JButton newTabButton = new JButton("New Tab");
+        newTabButton.addActionListener(e -> addSessionTab(sessionTabs));
 
         // Set up year range query components
         JLabel yearRangeLabel = new JLabel("Year Range: ");
@@ -199,9 +349,55 @@ public class PriceDataVisualizer {
         yearFromSpinner.setVisible(false);
         yearToSpinner.setVisible(false);
 
+        // Set up lag range component for the lead/lag correlation analysis
+        JLabel maxLagLabel = new JLabel("Max Lag: ");
+        JSpinner maxLagSpinner = new JSpinner(new SpinnerNumberModel(3, 0, 10, 1));
+        maxLagLabel.setVisible(false);
+        maxLagSpinner.setVisible(false);
+
         JButton runQueryButton = new JButton("Run Query");
         runQueryButton.setVisible(false);
 
+        // Exports a chart and CSV per item of the analysis on screen
+        JButton exportButton = new JButton("Export All Items");
+        exportButton.addActionListener(e -> {
+            BatchExporter.Source exportSource = ((AnalysisSession) sessionTabs.getSelectedComponent()).exportSource();
+            if (exportSource == null) {
+                JOptionPane.showMessageDialog(frame, "Run Volatility, Forecast Accuracy, Methodology Comparison "
+                        + "or open a 2025 forecast table first.", "Nothing to Export", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            BatchExporter.exportWithDialog(frame, exportSource);
+        });
+
+        // Streams the query behind the view, or any named query, to a file
+        JButton exportDataButton = new JButton("Export Data");
+        exportDataButton.addActionListener(e ->
+                showExportDataDialog(frame, (AnalysisSession) sessionTabs.getSelectedComponent()));
+
+        // Shows how MySQL runs each named query and checks plans against baselines
+        JButton queryPlansButton = new JButton("Query Plans");
+        queryPlansButton.addActionListener(e -> new QueryPlanWindow(queryMap));
+
+        // Loads every analysis for CPI and PPI at once into a grid of charts
+        JButton dashboardButton = new JButton("Dashboard");
+
+        // Drill-down over the CPIForecast category tree
+        JButton categoryTreeButton = new JButton("Category Tree");
+        categoryTreeButton.addActionListener(e -> new CategoryTreeWindow(dataStore));
+
+        // Fan charts of simulated compound price increases
+        JButton monteCarloButton = new JButton("Monte Carlo");
+        monteCarloButton.addActionListener(e -> new MonteCarloWindow());
+
+        // Scans every table for spikes, regime changes and forecast misses
+        JButton alertsButton = new JButton("Alerts");
+        alertsButton.addActionListener(e -> new AlertsWindow());
+
+        // How each target year's forecast was revised month by month
+        JButton revisionsButton = new JButton("Revisions");
+        revisionsButton.addActionListener(e -> new RevisionTrajectoryWindow());
+
         // Table selection
         String[] cpiTables = {"CPIForecast", "CPIHistoricalForecast", "historicalcpi", "cpiforecastarchived"};
         String[] ppiTables = {"PPIForecast", "PPIHistoricalForecast", "historicalppi", "ppiforecastarchived"};
@@ -234,14 +430,19 @@ public class PriceDataVisualizer {
             boolean isFullData = "Show Full Data".equals(selectedQuery);
             boolean isAccuracy = "Forecast Accuracy".equals(selectedQuery);
             boolean isMethodology = "Methodology Comparison".equals(selectedQuery);
+            boolean isLeadLag = "Lead/Lag Correlation".equals(selectedQuery);
+            boolean isBacktest = "Forecast Backtest".equals(selectedQuery);
 
             // Enable/disable components based on query selection
             tableSelector.setVisible(isFullData);
-            yearRangeLabel.setVisible(isVolatility);
-            yearFromSpinner.setVisible(isVolatility);
-            yearToLabel.setVisible(isVolatility);
-            yearToSpinner.setVisible(isVolatility);
-            runQueryButton.setVisible(isVolatility || isAccuracy || isMethodology);
+            yearRangeLabel.setVisible(isVolatility || isLeadLag);
+            yearFromSpinner.setVisible(isVolatility || isLeadLag);
+            yearToLabel.setVisible(isVolatility || isLeadLag);
+            yearToSpinner.setVisible(isVolatility || isLeadLag);
+            maxLagLabel.setVisible(isLeadLag);
+            maxLagSpinner.setVisible(isLeadLag);
+            typeSelector.setEnabled(!isLeadLag);
+            runQueryButton.setVisible(isVolatility || isAccuracy || isMethodology || isLeadLag || isBacktest);
 
             // If the query is "Show Full Data", show the table selector with
             // CPI and PPI tables
@@ -270,6 +471,18 @@ public class PriceDataVisualizer {
                                 + "Each category is plotted with two lines: one from the archived (old) method and one from the updated (new) model, "
                                 + "highlighting any shifts in forecasting behavior or assumptions.";
 
+                case "Lead/Lag Correlation" ->
+                        "Correlates every producer (PPI) item with every consumer (CPI) item across a range of lags. "
+                                + "A positive lag means the producer item leads the consumer item by that many years. "
+                                + "The heatmap shows the strongest correlation per pair and the table ranks the pairs; "
+                                + "results update as soon as the year window or lag changes.";
+
+                case "Forecast Backtest" ->
+                        "Scores every monthly forecast vintage against the actual annual change. "
+                                + "The chart shows mean absolute error and interval coverage (how often the actual "
+                                + "fell inside the forecast bounds) by forecast horizon, for the new and the archived "
+                                + "methodology. The table compares both methodologies per item.";
+
                 default -> welcomeSplashText;
             };
             descriptionArea.setText(description);
@@ -285,31 +498,54 @@ public class PriceDataVisualizer {
             String tableName = (String) tableSelector.getSelectedItem();
             if (tableName == null || tableName.isEmpty()) return;
 
-            if (tableName.equals("CPIForecast") || tableName.equals("PPIForecast")) {
-                showForecastChart(tableName, displayDataTable);
-            } else {
-                showTableData(tableName, displayDataTable);
-            }
+            AnalysisSession session = (AnalysisSession) sessionTabs.getSelectedComponent();
+            Runnable analysis = tableName.equals("CPIForecast") || tableName.equals("PPIForecast")
+                    ? () -> showForecastChart(session, tableName)
+                    : () -> showTableData(session, tableName);
+            session.setLastAnalysis(analysis, false);
+            analysis.run();
         });
 
         // Run query button action
         runQueryButton.addActionListener(e -> {
             String selectedQuery = (String) querySelector.getSelectedItem();
             String indexType = (String) typeSelector.getSelectedItem();
-            JPanel currentCenterPanel = (JPanel) chartPanel.getParent(); // Get centerPanel reference
+            int yearFrom = (int) yearFromSpinner.getValue();
+            int yearTo = (int) yearToSpinner.getValue();
+            int maxLag = (int) maxLagSpinner.getValue();
+            AnalysisSession session = (AnalysisSession) sessionTabs.getSelectedComponent();
 
-            // Run the appropriate query based on selection
+            // Run the appropriate query based on selection, into the tab on screen
+            Runnable analysis;
             if ("Volatility".equals(selectedQuery)) {
-                int yearFrom = (int) yearFromSpinner.getValue();
-                int yearTo = (int) yearToSpinner.getValue();
-                runVolatilityQuery(indexType, yearFrom, yearTo, currentCenterPanel);
+                analysis = () -> runVolatilityQuery(session, indexType, yearFrom, yearTo);
             } else if ("Forecast Accuracy".equals(selectedQuery)) {
-                runForecastAccuracyQuery(indexType, currentCenterPanel);
+                analysis = () -> runForecastAccuracyQuery(session, indexType);
             } else if ("Methodology Comparison".equals(selectedQuery)) {
-                runMethodologyComparisonQuery(indexType, currentCenterPanel);
+                analysis = () -> runMethodologyComparisonQuery(session, indexType);
+            } else if ("Lead/Lag Correlation".equals(selectedQuery)) {
+                analysis = () -> runLeadLagAnalysis(session, yearFrom, yearTo, maxLag);
+            } else if ("Forecast Backtest".equals(selectedQuery)) {
+                analysis = () -> runBacktestAnalysis(session, indexType);
+            } else {
+                return;
             }
+            session.setLastAnalysis(analysis, readsSnapshots(selectedQuery));
+            analysis.run();
         });
 
+        // The correlation analysis runs in memory, so recompute it as soon as
+        // the year window or lag range changes
+        ChangeListener leadLagRefresh = e -> {
+            if ("Lead/Lag Correlation".equals(querySelector.getSelectedItem())) runQueryButton.doClick(0);
+        };
+        dashboardButton.addActionListener(e -> new DashboardWindow(queryMap, dataStore,
+                (int) yearFromSpinner.getValue(), (int) yearToSpinner.getValue()));
+
+        yearFromSpinner.addChangeListener(leadLagRefresh);
+        yearToSpinner.addChangeListener(leadLagRefresh);
+        maxLagSpinner.addChangeListener(leadLagRefresh);
+
         // Top panel layout
         topPanel.add(new JLabel("Select Query: "));
         topPanel.add(querySelector);
@@ -321,30 +557,22 @@ public class PriceDataVisualizer {
         topPanel.add(yearFromSpinner);
         topPanel.add(yearToLabel);
         topPanel.add(yearToSpinner);
+        topPanel.add(maxLagLabel);
+        topPanel.add(maxLagSpinner);
         topPanel.add(runQueryButton);
+        topPanel.add(exportButton);
+        topPanel.add(exportDataButton);
+        topPanel.add(queryPlansButton);
+        topPanel.add(dashboardButton);
+        topPanel.add(categoryTreeButton);
+        topPanel.add(monteCarloButton);
+        topPanel.add(alertsButton);
+        topPanel.add(revisionsButton);
+        topPanel.add(newTabButton);
         mainPanel.add(topPanel, BorderLayout.NORTH);
 
-        // Center panel layout
-        JPanel centerPanel = new JPanel(new BorderLayout());
-        chartPanel = new JPanel();
-        chartPanel.setLayout(new BorderLayout());
-        chartPanel.setPreferredSize(new Dimension(700, 400));
-        centerPanel.add(chartPanel, BorderLayout.CENTER);
-
-        // Set up the display data table
-        JScrollPane dataScrollPane = new JScrollPane(displayDataTable);
-        dataScrollPane.setPreferredSize(new Dimension(700, 200));
-        centerPanel.add(dataScrollPane, BorderLayout.SOUTH);
-        mainPanel.add(centerPanel, BorderLayout.CENTER);
-
-        // Filtering checkbox setup
-        checkboxPanel = new JPanel();
-        checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS));
-        checkboxPanel.setBorder(BorderFactory.createTitledBorder("Select Categories"));
-        JScrollPane checkboxScrollPane = new JScrollPane(checkboxPanel);
-        checkboxScrollPane.setPreferredSize(new Dimension(200, 400));
-        checkboxScrollPane.setMinimumSize(new Dimension(200, 400));
-        centerPanel.add(checkboxScrollPane, BorderLayout.WEST);
+        // Center panel layout: one tab per analysis session
+        mainPanel.add(sessionTabs, BorderLayout.CENTER);
 
         // History panel setup
         JPanel historyPanel = new JPanel(new BorderLayout());
@@ -357,12 +585,28 @@ public class PriceDataVisualizer {
         clearHistoryButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
         clearHistoryButton.setBackground(Color.PINK);
         clearHistoryButton.addActionListener(ev -> {
-            try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-                stmt.executeUpdate("DELETE FROM query_history");
-                historyModel.clear();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+            // The delete runs on the write pool, so it is kept off the EDT
+            clearHistoryButton.setEnabled(false);
+            new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() throws SQLException {
+                    try (Connection conn = getWriteConnection(); Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate("DELETE FROM query_history");
+                    }
+                    return null;
+                }
+
+                @Override
+                protected void done() {
+                    clearHistoryButton.setEnabled(true);
+                    try {
+                        get();
+                        historyModel.clear();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        showError(clearHistoryButton, ex);
+                    }
+                }
+            }.execute();
         });
 
         // History list setup and logic. If the user selects a query
@@ -372,34 +616,10 @@ public class PriceDataVisualizer {
             if (!e.getValueIsAdjusting()) {
                 String selectedSQL = historyList.getSelectedValue();
                 if (selectedSQL != null && !selectedSQL.isBlank()) {
-                    try (Connection conn = getConnection();
-                         Statement stmt = conn.createStatement();
-                         ResultSet rs = stmt.executeQuery(selectedSQL)) {
-                        logQueryToHistory(selectedSQL);
-
-                        ResultSetMetaData meta = rs.getMetaData();
-                        int columnCount = meta.getColumnCount();
-                        Vector<String> columnNames = new Vector<>();
-                        for (int i = 1; i <= columnCount; i++) columnNames.add(meta.getColumnName(i));
-
-                        Vector<Vector<Object>> data = new Vector<>();
-                        while (rs.next()) {
-                            Vector<Object> row = new Vector<>();
-                            for (int i = 1; i <= columnCount; i++) row.add(rs.getObject(i));
-                            data.add(row);
-                        }
-
-                        JTable table = new JTable();
-                        table.setModel(new DefaultTableModel(data, columnNames));
-
-                        JScrollPane scrollPane = new JScrollPane(table);
-                        JFrame resultFrame = new JFrame("Query Result");
-                        resultFrame.setSize(800, 400);
-                        resultFrame.add(scrollPane);
-                        resultFrame.setVisible(true);
-                    } catch (SQLException ex) {
-                        ex.printStackTrace();
-                    }
+                    logQueryInBackground(selectedSQL);
+                    // Streams the rows into a new window off the EDT, with a
+                    // row cap, a timeout and a Cancel button
+                    new QueryResultWindow(selectedSQL);
                 }
             }
         });
@@ -415,498 +635,650 @@ public class PriceDataVisualizer {
 
         frame.getContentPane().add(mainPanel);
         frame.setVisible(true);
+
+        // Reload any table whose CSV changes in the dataset folder, then
+        // re-run every tab whose analysis is computed from the snapshots
+        try {
+            DatasetWatcher watcher = new DatasetWatcher(Datasets.directory(), table -> {
+                ForecastBacktest.clearCache();
+                BaselineForecast.clearCache();
+                AnnualSeries.clearCache();
+                ForecastVintages.clearCache();
+                SwingUtilities.invokeLater(() -> {
+                    for (int i = 0; i < sessionTabs.getTabCount(); i++) {
+                        ((AnalysisSession) sessionTabs.getComponentAt(i)).rerunIfReadsSnapshots();
+                    }
+                });
+            });
+            watcher.start();
+        } catch (IOException e) {
+            System.err.println("Not watching the dataset folder: " + e.getMessage());
+        }
     }
 
     /**
-     * Compares the old and new methodologies for forecasting.
-     * @param indexType the type of index (CPI or PPI)
-     * @param centerPanel the center panel of the GUI
+     * Adds an empty analysis tab with a close button and selects it.
+     * Closing the last tab opens a new empty one.
+     * @param tabs the tabbed pane holding the analysis sessions
      */
-    private static void runMethodologyComparisonQuery(String indexType, JPanel centerPanel) {
-        // Get the SQL query based on the index type
-        String sqlKey = indexType.equals("Consumer Price Index") ? "old_vs_new_methodology_cpi" : "old_vs_new_methodology_ppi";
-        String sql = queryMap.get(sqlKey);
-        if (sql == null) {
-            JOptionPane.showMessageDialog(null, "No query found for " + sqlKey, "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        logQueryToHistory(sql);
-        loadQueryHistory();
+    private static void addSessionTab(JTabbedPane tabs) {
+        AnalysisSession session = new AnalysisSession();
+        tabs.addTab(null, session);
+
+        JLabel titleLabel = new JLabel();
+        JButton closeButton = new JButton("\u00d7");
+        closeButton.setBorder(BorderFactory.createEmptyBorder(0, 6, 0, 0));
+        closeButton.setContentAreaFilled(false);
+        closeButton.setFocusable(false);
+        closeButton.setToolTipText("Close tab");
+        closeButton.addActionListener(e -> {
+            session.close();
+            tabs.remove(session);
+            if (tabs.getTabCount() == 0) addSessionTab(tabs);
+        });
+        JPanel tab = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        tab.setOpaque(false);
+        tab.add(titleLabel);
+        tab.add(closeButton);
+        tabs.setTabComponentAt(tabs.indexOfComponent(session), tab);
+
+        session.setTitleListener(titleLabel::setText);
+        tabs.setSelectedComponent(session);
+    }
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            ResultSetMetaData meta = rs.getMetaData();
-            int columnCount = meta.getColumnCount();
-            Vector<String> columnNames = new Vector<>();
-            // Get column names for the table
-            for (int i = 1; i <= columnCount; i++) {
-                columnNames.add(meta.getColumnName(i));
-            }
+    /**
+     * Returns true if a query's view is computed from the dataset snapshots
+     * rather than read from MySQL.
+     * @param selectedQuery the query selected in the Query dropdown
+     * @return true if the view reads the snapshots
+     */
+    private static boolean readsSnapshots(String selectedQuery) {
+        if ("Lead/Lag Correlation".equals(selectedQuery) || "Forecast Backtest".equals(selectedQuery)) return true;
+        boolean analysis = "Volatility".equals(selectedQuery) || "Forecast Accuracy".equals(selectedQuery)
+                || "Methodology Comparison".equals(selectedQuery);
+        return analysis && dataStore instanceof SnapshotDataStore;
+    }
 
-            // Prepare data for the table and chart
-            Vector<Vector<Object>> tableData = new Vector<>();
-            Map<String, TimeSeries> seriesMap = new LinkedHashMap<>();
+    /**
+     * Records an analysis the user ran in the query history and reloads the
+     * history list. Only the MySQL backend runs the SQL, so analyses on the
+     * snapshot backend are not recorded. Called from session loads, off the
+     * EDT.
+     * @param sql the SQL of the analysis
+     */
+    private static void logAnalysis(String sql) {
+        if (dataStore instanceof MySqlDataStore) {
+            logQueryToHistory(sql);
+            loadQueryHistory();
+        }
+    }
 
-            while (rs.next()) {
-                // Populate table data
-                Vector<Object> row = new Vector<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.add(rs.getObject(i));
+    /**
+     * Compares the old and new methodologies for forecasting.
+     * @param session the analysis tab to show the results in
+     * @param indexType the type of index (CPI or PPI)
+     */
+    private static void runMethodologyComparisonQuery(AnalysisSession session, String indexType) {
+        boolean isCpi = indexType.equals("Consumer Price Index");
+        String title = indexType + " Methodology Comparison";
+        String sql = queryMap.get(isCpi ? "old_vs_new_methodology_cpi" : "old_vs_new_methodology_ppi");
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable displayDataTable = session.dataTable();
+
+        session.load(title, () -> {
+            logAnalysis(sql);
+            return dataStore.methodologyComparison(isCpi, rs -> {
+
+                // Resolve the columns once and read the numbers as primitives
+                ResultTableModel tableModel = new ResultTableModel(rs.getMetaData());
+                int itemCol = tableModel.findColumn("item");
+                int yearCol = rs.findColumn("year");
+                int monthCol = rs.findColumn("month");
+                int oldCol = rs.findColumn("old_forecast");
+                int newCol = rs.findColumn("new_forecast");
+
+                // Old and new points go to separate builders keyed by item, so
+                // no "(Old)"/"(New)" label is built per row
+                TimeSeriesBuilder oldBuilder = new TimeSeriesBuilder();
+                TimeSeriesBuilder newBuilder = new TimeSeriesBuilder();
+
+                while (tableModel.readRow(rs)) {
+                    String item = tableModel.getText(tableModel.getRowCount() - 1, itemCol);
+                    int year = rs.getInt(yearCol);
+                    int month = rs.getInt(monthCol);
+                    oldBuilder.add(item, year, month, rs.getDouble(oldCol));
+                    newBuilder.add(item, year, month, rs.getDouble(newCol));
                 }
-                tableData.add(row);
-
-                String item = rs.getString("item");
-                int year = rs.getInt("year");
-                int month = rs.getInt("month");
-
-                double oldVal = rs.getDouble("old_forecast");
-                double newVal = rs.getDouble("new_forecast");
-
-                String oldLabel = item + " (Old)";
-                String newLabel = item + " (New)";
 
-                seriesMap.putIfAbsent(oldLabel, new TimeSeries(oldLabel));
-                seriesMap.putIfAbsent(newLabel, new TimeSeries(newLabel));
-
-                seriesMap.get(oldLabel).addOrUpdate(new Month(month, year), oldVal);
-                seriesMap.get(newLabel).addOrUpdate(new Month(month, year), newVal);
-            }
-
-            // Create the dataset for the chart
-            final Vector<Vector<Object>> originalTableData = new Vector<>(tableData);
-            final Vector<String> originalColumnNames = new Vector<>(columnNames);
-
-            // Reset the table model
-            displayDataTable.setModel(new DefaultTableModel(tableData, columnNames));
-            chartPanel.removeAll();
-            checkboxPanel.removeAll();
-            categoryCheckboxes.clear();
-
-            // Set up the checkbox panel
-            checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS));
-            JLabel titleLabel = new JLabel("Select Categories");
-            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
-            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 10, 5));
-            checkboxPanel.add(titleLabel);
-
-            // Group checkboxes by base item (not old/new)
-            Set<String> baseItems = new TreeSet<>();
-            for (String label : seriesMap.keySet()) {
-                baseItems.add(label.replace(" (Old)", "").replace(" (New)", ""));
-            }
-
-            // Create checkboxes for each base item
-            // Documentation at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/data/time/TimeSeriesCollection.html
-            TimeSeriesCollection dataset = new TimeSeriesCollection();
-            for (String baseItem : baseItems) {
-                JCheckBox cb = new JCheckBox(baseItem, true);
-                cb.setFont(new Font("SansSerif", Font.PLAIN, 12));
-                cb.setAlignmentX(Component.LEFT_ALIGNMENT);
-                cb.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                categoryCheckboxes.put(baseItem, cb);
-                checkboxPanel.add(cb);
-                dataset.addSeries(seriesMap.get(baseItem + " (Old)"));
-                dataset.addSeries(seriesMap.get(baseItem + " (New)"));
-            }
-
-            // Control buttons
-            JPanel controlPanel = new JPanel();
-            controlPanel.setLayout(new GridLayout(3, 1, 5, 5));
-            controlPanel.setMaximumSize(new Dimension(150, 100));
-            controlPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-            // Filter buttons
-            JButton selectAll = new JButton("Select All");
-            JButton deselectAll = new JButton("Deselect All");
-            JButton applyFilter = new JButton("Apply Filter");
-
-            // Add action listeners to filter buttons
-            selectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(true)));
-            deselectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(false)));
-
-            // Apply filter based on selected checkboxes
-            applyFilter.addActionListener(e -> {
-                TimeSeriesCollection filteredDataset = new TimeSeriesCollection();
-                Vector<Vector<Object>> filteredTableContent = new Vector<>();
-
-                // Add selected items to the filtered dataset
-                for (String item : categoryCheckboxes.keySet()) {
-                    if (categoryCheckboxes.get(item).isSelected()) {
-                        filteredDataset.addSeries(seriesMap.get(item + " (Old)"));
-                        filteredDataset.addSeries(seriesMap.get(item + " (New)"));
-                    }
+                // Group selector entries by base item (not old/new)
+                Set<String> baseItems = new TreeSet<>(oldBuilder.keys());
+                Map<String, TimeSeries> seriesMap = new LinkedHashMap<>();
+                for (String baseItem : baseItems) {
+                    seriesMap.put(baseItem + " (Old)", oldBuilder.build(baseItem, baseItem + " (Old)"));
+                    seriesMap.put(baseItem + " (New)", newBuilder.build(baseItem, baseItem + " (New)"));
                 }
+                Map<String, TimeSeries> baselines = baselineSeries(fitBaselines(isCpi), baseItems);
 
-                // Filter table data based on selected items
-                for (Vector<Object> row : originalTableData) {
-                    String rowItem = row.get(0).toString();
-                    if (categoryCheckboxes.containsKey(rowItem) && categoryCheckboxes.get(rowItem).isSelected()) {
-                        filteredTableContent.add(row);
-                    }
+                // Add both series for each base item, and our baseline when there is one
+                // Documentation at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/data/time/TimeSeriesCollection.html
+                TimeSeriesCollection dataset = new TimeSeriesCollection();
+                for (String baseItem : baseItems) {
+                    dataset.addSeries(seriesMap.get(baseItem + " (Old)"));
+                    dataset.addSeries(seriesMap.get(baseItem + " (New)"));
+                    addBaseline(dataset, baselines, baseItem);
                 }
 
-                // Create a new chart with the filtered dataset
-                JFreeChart filteredChart = createTimeSeriesChart(indexType + " Methodology Comparison", filteredDataset);
-                chartPanel.removeAll();
-                ChartPanel cp = new ChartPanel(filteredChart);
-                cp.setPreferredSize(new Dimension(700, 400));
-                cp.setMouseWheelEnabled(true);
-                cp.setDomainZoomable(true);
-                cp.setRangeZoomable(true);
-                chartPanel.add(cp, BorderLayout.CENTER);
-                chartPanel.validate();
-                chartPanel.repaint();
+                return () -> {
+                    session.setExportView(title, sql);
 
-                displayDataTable.setModel(new DefaultTableModel(filteredTableContent, originalColumnNames));
-            });
+                    // Reset the table model
+                    displayDataTable.setModel(tableModel);
+                    chartPanel.removeAll();
 
-            // Add buttons to the control panel
-            controlPanel.add(selectAll);
-            controlPanel.add(deselectAll);
-            controlPanel.add(applyFilter);
-            checkboxPanel.add(Box.createVerticalStrut(10));
-            checkboxPanel.add(controlPanel);
-
-            // Create the default chart when query is loaded
-            JFreeChart chart = createTimeSeriesChart(indexType + " Methodology Comparison", dataset);
-            ChartPanel cp = new ChartPanel(chart);
-            cp.setPreferredSize(new Dimension(700, 400));
-            cp.setMouseWheelEnabled(true);
-            cp.setDomainZoomable(true);
-            cp.setRangeZoomable(true);
-            chartPanel.setLayout(new BorderLayout());
-            chartPanel.add(cp, BorderLayout.CENTER);
+                    categorySelector.setItems(baseItems);
+                    session.setExportSource(new BatchExporter.Source(title, new ArrayList<>(baseItems),
+                            item -> {
+                                TimeSeriesCollection itemDataset = new TimeSeriesCollection();
+                                itemDataset.addSeries(copySeries(seriesMap.get(item + " (Old)")));
+                                itemDataset.addSeries(copySeries(seriesMap.get(item + " (New)")));
+                                TimeSeries baseline = baselines.get(item);
+                                if (baseline != null) itemDataset.addSeries(copySeries(baseline));
+                                return createTimeSeriesChart(title, itemDataset);
+                            },
+                            item -> tableModel.filter(r -> item.equals(tableModel.getText(r, itemCol)))));
+
+                    // Apply filter based on selected categories
+                    categorySelector.setApplyAction(() -> {
+                        TimeSeriesCollection filteredDataset = new TimeSeriesCollection();
+
+                        // Add selected items to the filtered dataset
+                        for (String item : categorySelector.getSelectedItems()) {
+                            filteredDataset.addSeries(seriesMap.get(item + " (Old)"));
+                            filteredDataset.addSeries(seriesMap.get(item + " (New)"));
+                            addBaseline(filteredDataset, baselines, item);
+                        }
 
-            chartPanel.revalidate();
-            chartPanel.repaint();
-            checkboxPanel.revalidate();
-            checkboxPanel.repaint();
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+                        // Create a new chart with the filtered dataset
+                        JFreeChart filteredChart = createTimeSeriesChart(title, filteredDataset);
+                        chartPanel.removeAll();
+                        ChartPanel cp = createChartPanel(filteredChart);
+                        chartPanel.add(cp, BorderLayout.CENTER);
+                        chartPanel.validate();
+                        chartPanel.repaint();
+
+                        // Filter table rows based on selected items
+                        displayDataTable.setModel(tableModel.filter(r -> categorySelector.isSelected(tableModel.getText(r, itemCol))));
+                    });
+
+                    // Create the default chart when query is loaded
+                    JFreeChart chart = createTimeSeriesChart(title, dataset);
+                    ChartPanel cp = createChartPanel(chart);
+                    chartPanel.setLayout(new BorderLayout());
+                    chartPanel.add(cp, BorderLayout.CENTER);
+                };
+            });
+        });
     }
 
     /**
      * Runs the forecast accuracy query and updates the chart and table.
+     * @param session the analysis tab to show the results in
      * @param indexType the type of index (CPI or PPI)
-     * @param centerPanel the center panel of the GUI
      */
-    private static void runForecastAccuracyQuery(String indexType, JPanel centerPanel) {
-        String sqlKey = indexType.equals("Consumer Price Index") ? "forecast_accuracy_cpi" : "forecast_accuracy_ppi";
-        String sql = queryMap.get(sqlKey);
-        if (sql == null) {
-            JOptionPane.showMessageDialog(null, "No query found for " + sqlKey, "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+    private static void runForecastAccuracyQuery(AnalysisSession session, String indexType) {
+        boolean isCpi = indexType.equals("Consumer Price Index");
+        String title = indexType + " Forecast Accuracy";
+        String sql = queryMap.get(isCpi ? "forecast_accuracy_cpi" : "forecast_accuracy_ppi");
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable displayDataTable = session.dataTable();
+
+        session.load(title, () -> {
+            logAnalysis(sql);
+            return dataStore.forecastAccuracy(isCpi, rs -> {
+
+                // Read the table rows column by column, resolving chart columns once
+                ResultTableModel tableModel = new ResultTableModel(rs.getMetaData());
+                int itemCol = tableModel.findColumn("item");
+                int yearCol = rs.findColumn("year");
+                int errorCol = rs.findColumn("mean_absolute_error");
+
+                Map<String, Map<Integer, Double>> dataMap = new LinkedHashMap<>(); // For the chart
+                Set<Integer> years = new TreeSet<>(); // To store unique years for the chart axis
+
+                while (tableModel.readRow(rs)) {
+                    String item = tableModel.getText(tableModel.getRowCount() - 1, itemCol); // For chart
+                    int year = rs.getInt(yearCol);
+                    double error = rs.getDouble(errorCol);
+
+                    years.add(year);
+                    dataMap.computeIfAbsent(item, k -> new HashMap<>()).put(year, error);
+                }
 
-        // Log the query to history
-        logQueryToHistory(sql);
-        loadQueryHistory();
+                // Determine min and max year for the chart title dynamically
+                int minYear = years.isEmpty() ? 0 : Collections.min(years);
+                int maxYear = years.isEmpty() ? 0 : Collections.max(years);
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            // Get metadata for the result set and add column names to the table
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            Vector<String> columnNames = new Vector<>();
-            for (int i = 1; i <= columnCount; i++) {
-                columnNames.add(metaData.getColumnName(i));
-            }
-            Vector<Vector<Object>> tableData = new Vector<>(); // For the table model
+                DefaultCategoryDataset dataset = createDataset(dataMap, years);
+                JFreeChart chart = createChart(dataset, title, minYear, maxYear);
 
-            Map<String, Map<Integer, Double>> dataMap = new LinkedHashMap<>(); // For the chart
-            Set<Integer> years = new TreeSet<>(); // To store unique years for the chart axis
+                return () -> {
+                    session.setExportView(title, sql);
 
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>(); // For table
-                for (int i = 1; i <= columnCount; i++) {
-                    row.add(rs.getObject(i));
-                }
-                tableData.add(row);
+                    chartPanel.removeAll(); // Clear previous chart
+                    ChartPanel cp = createChartPanel(chart);
+                    chartPanel.setLayout(new BorderLayout()); // Ensure chartPanel has a layout
+                    chartPanel.add(cp, BorderLayout.CENTER);
 
-                String item = rs.getString("item"); // For chart
-                int year = rs.getInt("year");
-                double error = rs.getDouble("mean_absolute_error");
+                    // Set the table model with the data
+                    displayDataTable.setModel(tableModel);
 
-                years.add(year);
-                dataMap.computeIfAbsent(item, k -> new HashMap<>()).put(year, error);
-            }
+                    final Map<String, Map<Integer, Double>> originalDataMap = new LinkedHashMap<>(dataMap);
 
-            // Determine min and max year for the chart title dynamically
-            int minYear = years.isEmpty() ? 0 : Collections.min(years);
-            int maxYear = years.isEmpty() ? 0 : Collections.max(years);
-
-            DefaultCategoryDataset dataset = createDataset(dataMap, years);
-            JFreeChart chart = createChart(dataset, indexType + " Forecast Accuracy", minYear, maxYear);
-
-            chartPanel.removeAll(); // Clear previous chart
-            ChartPanel cp = new ChartPanel(chart);
-            cp.setPreferredSize(new Dimension(700, 400));
-            cp.setMouseWheelEnabled(true);
-            cp.setDomainZoomable(true);
-            cp.setRangeZoomable(true);
-            chartPanel.setLayout(new BorderLayout()); // Ensure chartPanel has a layout
-            chartPanel.add(cp, BorderLayout.CENTER);
-
-            // Set the table model with the data
-            displayDataTable.setModel(new DefaultTableModel(tableData, columnNames));
-
-            final Map<String, Map<Integer, Double>> originalDataMap = new LinkedHashMap<>(dataMap);
-            final Vector<Vector<Object>> originalTableData = new Vector<>(tableData); // Store original table data
-
-            checkboxPanel.removeAll();
-            checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS)); // Ensure layout
-            categoryCheckboxes.clear();
-
-            // Set up the checkbox panel
-            JLabel titleLabel = new JLabel("Select Categories");
-            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
-            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 10, 5));
-            checkboxPanel.add(titleLabel);
-
-            // Create checkboxes for each item in the data map
-            for (String item : dataMap.keySet()) { // Use dataMap keys for checkboxes
-                JCheckBox box = new JCheckBox(item, true);
-                box.setFont(new Font("SansSerif", Font.PLAIN, 12));
-                box.setAlignmentX(Component.LEFT_ALIGNMENT);
-                box.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                categoryCheckboxes.put(item, box);
-                checkboxPanel.add(box);
-            }
+                    // Populate the category selector with each item in the data map
+                    categorySelector.setItems(dataMap.keySet());
+                    session.setExportSource(new BatchExporter.Source(title, new ArrayList<>(dataMap.keySet()),
+                            item -> createChart(createDataset(Map.of(item, originalDataMap.get(item)), years),
+                                    title, minYear, maxYear),
+                            item -> tableModel.filter(r -> item.equals(tableModel.getText(r, itemCol)))));
 
-            // Control buttons
-            JPanel controlPanel = new JPanel();
-            controlPanel.setLayout(new GridLayout(3, 1, 5, 5));
-            controlPanel.setMaximumSize(new Dimension(150, 100));
-            controlPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-            JButton selectAll = new JButton("Select All");
-            JButton deselectAll = new JButton("Deselect All");
-            JButton applyFilter = new JButton("Apply Filter");
-
-            selectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(true)));
-            deselectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(false)));
-
-            // Apply filter based on selected checkboxes
-            applyFilter.addActionListener(e -> {
-                Map<String, Map<Integer, Double>> filteredChartData = new LinkedHashMap<>();
-                Vector<Vector<Object>> filteredTableContent = new Vector<>(); // For the table
-
-                for (Map.Entry<String, JCheckBox> entry : categoryCheckboxes.entrySet()) {
-                    if (entry.getValue().isSelected()) {
-                        String key = entry.getKey();
-                        if (originalDataMap.containsKey(key)) {
-                            filteredChartData.put(key, originalDataMap.get(key));
-                        }
-                    }
-                }
+                    // Apply filter based on selected categories
+                    categorySelector.setApplyAction(() -> {
+                        Map<String, Map<Integer, Double>> filteredChartData = new LinkedHashMap<>();
 
-                // Filter table data based on selected items
-                for (Vector<Object> row : originalTableData) {
-                    String rowItem = row.get(0).toString(); // Assuming item is the first column
-                    if (categoryCheckboxes.containsKey(rowItem) && categoryCheckboxes.get(rowItem).isSelected()) {
-                        filteredTableContent.add(row);
-                    }
-                }
+                        for (String key : categorySelector.getSelectedItems()) {
+                            if (originalDataMap.containsKey(key)) {
+                                filteredChartData.put(key, originalDataMap.get(key));
+                            }
+                        }
 
-                DefaultCategoryDataset filteredDataset = createDataset(filteredChartData, years); // Use original 'years'
-                JFreeChart filteredChart = createChart(filteredDataset, indexType + " Forecast Accuracy", minYear, maxYear);
+                        DefaultCategoryDataset filteredDataset = createDataset(filteredChartData, years); // Use original 'years'
+                        JFreeChart filteredChart = createChart(filteredDataset, title, minYear, maxYear);
 
-                // Update the chart panel with the filtered chart
-                chartPanel.removeAll();
-                ChartPanel newChartPanel = new ChartPanel(filteredChart);
-                newChartPanel.setPreferredSize(new Dimension(700, 400));
-                newChartPanel.setMouseWheelEnabled(true);
-                newChartPanel.setDomainZoomable(true);
-                newChartPanel.setRangeZoomable(true);
-                chartPanel.add(newChartPanel, BorderLayout.CENTER);
-                chartPanel.revalidate();
-                chartPanel.repaint();
+                        // Update the chart panel with the filtered chart
+                        chartPanel.removeAll();
+                        ChartPanel newChartPanel = createChartPanel(filteredChart);
+                        chartPanel.add(newChartPanel, BorderLayout.CENTER);
+                        chartPanel.revalidate();
+                        chartPanel.repaint();
 
-                displayDataTable.setModel(new DefaultTableModel(filteredTableContent, columnNames));
+                        // Filter table rows based on selected items
+                        displayDataTable.setModel(tableModel.filter(r -> categorySelector.isSelected(tableModel.getText(r, itemCol))));
+                    });
+                };
             });
-
-            controlPanel.add(selectAll);
-            controlPanel.add(deselectAll);
-            controlPanel.add(applyFilter);
-            checkboxPanel.add(Box.createVerticalStrut(10));
-            checkboxPanel.add(controlPanel);
-
-            centerPanel.revalidate();
-            centerPanel.repaint();
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     /**
      * Runs the volatility query and updates the chart and table.
+     * @param session the analysis tab to show the results in
      * @param indexType the type of index (CPI or PPI)
      * @param yearFrom starting year for the query
      * @param yearTo ending year for the query
-     * @param centerPanel the center panel of the GUI
      */
-    private static void runVolatilityQuery(String indexType, int yearFrom, int yearTo, JPanel centerPanel) {
-        String table = indexType.equals("Consumer Price Index") ? "historicalcpi" : "historicalppi";
-        String itemColumn = indexType.equals("Consumer Price Index") ? "consumerPriceIndexItem" : "producerPriceIndexItem";
-
-        // Embedded SQL query to calculate average percent change based on
-        // dynamic year range
-        String sql = String.format("""
-    SELECT %s AS item, year, AVG(percentChange) AS avgChange
-    FROM %s
-    WHERE year BETWEEN %d AND %d
-    GROUP BY %s, year
-    ORDER BY %s, year
-    """, itemColumn, table, yearFrom, yearTo, itemColumn, itemColumn);
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    private static void runVolatilityQuery(AnalysisSession session, String indexType, int yearFrom, int yearTo) {
+        boolean isCpi = indexType.equals("Consumer Price Index");
+        String title = indexType + " Item Volatility";
+        String sql = MySqlDataStore.volatilitySql(isCpi, yearFrom, yearTo);
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable displayDataTable = session.dataTable();
+
+        session.load(title, () -> {
+            logAnalysis(sql);
+            return dataStore.volatility(isCpi, yearFrom, yearTo, rs -> {
+
+                // Read the table rows column by column, resolving chart columns once
+                ResultTableModel tableModel = new ResultTableModel(rs.getMetaData());
+                int itemCol = tableModel.findColumn("item");
+                int yearCol = rs.findColumn("year");
+                int changeCol = rs.findColumn("avgChange");
+
+                Map<String, Map<Integer, Double>> dataMap = new LinkedHashMap<>(); // For the chart
+                Set<Integer> years = new TreeSet<>();
+
+                // Populate table data and chart data based on the query result
+                while (tableModel.readRow(rs)) {
+                    String item = tableModel.getText(tableModel.getRowCount() - 1, itemCol); // For chart
+                    int year = rs.getInt(yearCol);
+                    double change = rs.getDouble(changeCol);
+
+                    years.add(year);
+                    dataMap.computeIfAbsent(item, k -> new HashMap<>()).put(year, change);
+                }
 
-            logQueryToHistory(sql);
-            loadQueryHistory();
+                DefaultCategoryDataset dataset = createDataset(dataMap, years);
+                JFreeChart chart = createChart(dataset, title, yearFrom, yearTo); // Updated title for clarity
 
-            // Get metadata for the result set and add column names to the table
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            Vector<String> columnNames = new Vector<>();
-            for (int i = 1; i <= columnCount; i++) {
-                columnNames.add(metaData.getColumnName(i));
-            }
-            Vector<Vector<Object>> tableData = new Vector<>(); // For the table model
+                return () -> {
+                    session.setExportView(title, sql);
 
-            Map<String, Map<Integer, Double>> dataMap = new LinkedHashMap<>(); // For the chart
-            Set<Integer> years = new TreeSet<>();
+                    chartPanel.removeAll(); // Clear previous chart
+                    ChartPanel cp = createChartPanel(chart);
+                    chartPanel.setLayout(new BorderLayout()); // Ensure chartPanel has a layout
+                    chartPanel.add(cp, BorderLayout.CENTER);
 
-            // Populate table data and chart data based on the query result
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>(); // For table
-                for (int i = 1; i <= columnCount; i++) {
-                    row.add(rs.getObject(i));
-                }
-                tableData.add(row);
+                    displayDataTable.setModel(tableModel);
 
-                String item = rs.getString("item"); // For chart
-                int year = rs.getInt("year");
-                double change = rs.getDouble("avgChange");
+                    final Map<String, Map<Integer, Double>> originalDataMap = new LinkedHashMap<>(dataMap);
 
-                years.add(year);
-                dataMap.computeIfAbsent(item, k -> new HashMap<>()).put(year, change);
-            }
+                    // Populate the category selector with each item in the data map
+                    categorySelector.setItems(dataMap.keySet());
+                    session.setExportSource(new BatchExporter.Source(title, new ArrayList<>(dataMap.keySet()),
+                            item -> createChart(createDataset(Map.of(item, originalDataMap.get(item)), years),
+                                    title, yearFrom, yearTo),
+                            item -> tableModel.filter(r -> item.equals(tableModel.getText(r, itemCol)))));
 
-            DefaultCategoryDataset dataset = createDataset(dataMap, years);
-            JFreeChart chart = createChart(dataset, indexType + " Item Volatility", yearFrom, yearTo); // Updated title for clarity
-
-            chartPanel.removeAll(); // Clear previous chart
-            ChartPanel cp = new ChartPanel(chart);
-            cp.setPreferredSize(new Dimension(700, 400));
-            cp.setMouseWheelEnabled(true);
-            cp.setDomainZoomable(true);
-            cp.setRangeZoomable(true);
-            chartPanel.setLayout(new BorderLayout()); // Ensure chartPanel has a layout
-            chartPanel.add(cp, BorderLayout.CENTER);
-
-            displayDataTable.setModel(new DefaultTableModel(tableData, columnNames));
-
-            final Map<String, Map<Integer, Double>> originalDataMap = new LinkedHashMap<>(dataMap);
-            final Vector<Vector<Object>> originalTableData = new Vector<>(tableData); // Store original table data for filtering
-
-            checkboxPanel.removeAll();
-            checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS)); // Ensure layout
-            categoryCheckboxes.clear();
-
-            JLabel titleLabel = new JLabel("Select Categories");
-            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
-            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 10, 5));
-            checkboxPanel.add(titleLabel);
-
-            // Create checkboxes for each item in the data map
-            for (String item : dataMap.keySet()) { // Use dataMap keys for checkboxes
-                JCheckBox box = new JCheckBox(item, true);
-                box.setFont(new Font("SansSerif", Font.PLAIN, 12));
-                box.setAlignmentX(Component.LEFT_ALIGNMENT);
-                box.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                categoryCheckboxes.put(item, box);
-                checkboxPanel.add(box);
-            }
+                    categorySelector.setApplyAction(() -> {
+                        Map<String, Map<Integer, Double>> filteredChartData = new LinkedHashMap<>();
 
-            JPanel controlPanel = new JPanel();
-            controlPanel.setLayout(new GridLayout(3, 1, 5, 5));
-            controlPanel.setMaximumSize(new Dimension(150, 100));
-            controlPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+                        for (String key : categorySelector.getSelectedItems()) {
+                            if (originalDataMap.containsKey(key)) {
+                                filteredChartData.put(key, originalDataMap.get(key));
+                            }
+                        }
 
-            JButton selectAll = new JButton("Select All");
-            JButton deselectAll = new JButton("Deselect All");
-            JButton applyFilter = new JButton("Apply Filter");
+                        DefaultCategoryDataset filteredDataset = createDataset(filteredChartData, years);
+                        JFreeChart filteredChart = createChart(filteredDataset, title, yearFrom, yearTo);
 
-            // Add action listeners to filter buttons
-            selectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(true)));
-            deselectAll.addActionListener(e -> categoryCheckboxes.values().forEach(cb -> cb.setSelected(false)));
+                        chartPanel.removeAll();
+                        ChartPanel newChartPanel = createChartPanel(filteredChart);
+                        chartPanel.add(newChartPanel, BorderLayout.CENTER);
+                        chartPanel.revalidate();
+                        chartPanel.repaint();
 
-            applyFilter.addActionListener(e -> {
-                Map<String, Map<Integer, Double>> filteredChartData = new LinkedHashMap<>();
-                Vector<Vector<Object>> filteredTableContent = new Vector<>();
+                        // Filter table rows based on selected items
+                        displayDataTable.setModel(tableModel.filter(r -> categorySelector.isSelected(tableModel.getText(r, itemCol))));
+                    });
+                };
+            });
+        });
+    }
 
-                for (Map.Entry<String, JCheckBox> entry : categoryCheckboxes.entrySet()) {
-                    if (entry.getValue().isSelected()) {
-                        String key = entry.getKey();
-                        if (originalDataMap.containsKey(key)) {
-                            filteredChartData.put(key, originalDataMap.get(key));
-                        }
-                    }
+    /**
+     * Runs the lead/lag cross-correlation analysis between every PPI and CPI
+     * item and updates the heatmap and ranked table.
+     * @param session the analysis tab to show the results in
+     * @param yearFrom starting year of the window
+     * @param yearTo ending year of the window
+     * @param maxLag the largest lead or lag in years to test
+     */
+    private static void runLeadLagAnalysis(AnalysisSession session, int yearFrom, int yearTo, int maxLag) {
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable displayDataTable = session.dataTable();
+
+        session.load("Lead/Lag Correlation", () -> {
+            AnnualSeries ppi = AnnualSeries.from(Datasets.get(DatasetTable.HISTORICAL_PPI));
+            AnnualSeries cpi = AnnualSeries.from(Datasets.get(DatasetTable.HISTORICAL_CPI));
+
+            long start = System.nanoTime();
+            List<CrossCorrelation.PairResult> results = CrossCorrelation.compute(ppi, cpi, yearFrom, yearTo, maxLag);
+            double elapsedMs = (System.nanoTime() - start) / 1e6;
+
+            List<String> ppiItems = Arrays.asList(ppi.items());
+            List<String> cpiItems = Arrays.asList(cpi.items());
+            String title = "PPI to CPI Lead/Lag Correlation (" + yearFrom + "-" + yearTo + ", lags \u00b1" + maxLag + ")";
+
+            // Shows the heatmap and ranked table for the selected producer items
+            Consumer<List<String>> render = selectedPpi -> {
+                Set<String> selected = new HashSet<>(selectedPpi);
+                List<CrossCorrelation.PairResult> shown = new ArrayList<>();
+                for (CrossCorrelation.PairResult r : results) {
+                    if (selected.contains(r.ppiItem())) shown.add(r);
                 }
 
-                // Filter table data based on selected items
-                for (Vector<Object> row : originalTableData) {
-                    String rowItem = row.get(0).toString(); // Assuming item is the first column
-                    if (categoryCheckboxes.containsKey(rowItem) && categoryCheckboxes.get(rowItem).isSelected()) {
-                        filteredTableContent.add(row);
-                    }
+                Vector<String> columnNames = new Vector<>(List.of("ppi_item", "cpi_item", "best_lag", "correlation", "observations"));
+                Vector<Vector<Object>> tableData = new Vector<>();
+                for (CrossCorrelation.PairResult r : shown) {
+                    Vector<Object> row = new Vector<>();
+                    row.add(r.ppiItem());
+                    row.add(r.cpiItem());
+                    row.add(r.bestLag());
+                    row.add(Math.round(r.bestCorrelation() * 1000) / 1000.0);
+                    row.add(r.observations());
+                    tableData.add(row);
                 }
+                displayDataTable.setModel(new DefaultTableModel(tableData, columnNames));
 
-                DefaultCategoryDataset filteredDataset = createDataset(filteredChartData, years);
-                JFreeChart filteredChart = createChart(filteredDataset, indexType + " Item Volatility", yearFrom, yearTo);
-
+                JFreeChart chart = createHeatmapChart(title, shown, selectedPpi, cpiItems);
+                chart.addSubtitle(new TextTitle(String.format(
+                        "%d pairs x %d lags computed in %.1f ms", ppiItems.size() * cpiItems.size(), 2 * maxLag + 1, elapsedMs)));
                 chartPanel.removeAll();
-                ChartPanel newChartPanel = new ChartPanel(filteredChart);
-                newChartPanel.setPreferredSize(new Dimension(700, 400));
-                newChartPanel.setMouseWheelEnabled(true);
-                newChartPanel.setDomainZoomable(true);
-                newChartPanel.setRangeZoomable(true);
-                chartPanel.add(newChartPanel, BorderLayout.CENTER);
+                ChartPanel cp = createChartPanel(chart);
+                chartPanel.setLayout(new BorderLayout());
+                chartPanel.add(cp, BorderLayout.CENTER);
                 chartPanel.revalidate();
                 chartPanel.repaint();
+            };
 
-                displayDataTable.setModel(new DefaultTableModel(filteredTableContent, columnNames));
-            });
+            return () -> {
+                // Filter the heatmap rows by producer item
+                categorySelector.setItems(ppiItems);
+                categorySelector.setApplyAction(() -> render.accept(categorySelector.getSelectedItems()));
+                render.accept(ppiItems);
+            };
+        });
+    }
+
+    /**
+     * Creates a heatmap of the strongest correlation for each producer /
+     * consumer pair.
+     * @param title the title of the chart
+     * @param results the pair results to plot
+     * @param ppiItems the producer items shown on the vertical axis
+     * @param cpiItems the consumer items shown on the horizontal axis
+     * @return a JFreeChart object
+     */
+    private static JFreeChart createHeatmapChart(String title, List<CrossCorrelation.PairResult> results,
+                                                 List<String> ppiItems, List<String> cpiItems) {
+        Map<String, Integer> ppiIndex = new HashMap<>();
+        Map<String, Integer> cpiIndex = new HashMap<>();
+        for (int i = 0; i < ppiItems.size(); i++) ppiIndex.put(ppiItems.get(i), i);
+        for (int i = 0; i < cpiItems.size(); i++) cpiIndex.put(cpiItems.get(i), i);
+
+        // One XYZ item per pair: x = CPI item, y = PPI item, z = correlation
+        double[][] xyz = new double[3][results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            CrossCorrelation.PairResult r = results.get(i);
+            xyz[0][i] = cpiIndex.get(r.cpiItem());
+            xyz[1][i] = ppiIndex.get(r.ppiItem());
+            xyz[2][i] = r.bestCorrelation();
+        }
+        DefaultXYZDataset dataset = new DefaultXYZDataset();
+        dataset.addSeries("Correlation", xyz);
+
+        // Documentation found at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/chart/renderer/xy/XYBlockRenderer.html
+        SymbolAxis xAxis = new SymbolAxis("Consumer item", cpiItems.toArray(new String[0]));
+        xAxis.setVerticalTickLabels(true);
+        xAxis.setTickLabelFont(new Font("SansSerif", Font.PLAIN, 10));
+        SymbolAxis yAxis = new SymbolAxis("Producer item", ppiItems.toArray(new String[0]));
+        yAxis.setTickLabelFont(new Font("SansSerif", Font.PLAIN, 10));
+
+        // Blue for negative, white for none and red for positive correlation
+        LookupPaintScale scale = new LookupPaintScale(-1.0, 1.0001, Color.WHITE);
+        for (int step = -10; step <= 10; step++) {
+            double v = step / 10.0;
+            float t = (float) Math.abs(v);
+            Color c = v < 0 ? new Color(1 - t, 1 - t * 0.6f, 1f) : new Color(1f, 1 - t * 0.8f, 1 - t);
+            scale.add(v, c);
+        }
+        XYBlockRenderer renderer = new XYBlockRenderer();
+        renderer.setPaintScale(scale);
+        renderer.setDefaultToolTipGenerator((data, series, item) -> {
+            CrossCorrelation.PairResult r = results.get(item);
+            return String.format("%s -> %s: r = %.2f at lag %d", r.ppiItem(), r.cpiItem(), r.bestCorrelation(), r.bestLag());
+        });
+
+        XYPlot plot = new XYPlot(dataset, xAxis, yAxis, renderer);
+        plot.setBackgroundPaint(Color.LIGHT_GRAY);
+        plot.setDomainGridlinesVisible(false);
+        plot.setRangeGridlinesVisible(false);
+
+        JFreeChart chart = new JFreeChart(title, JFreeChart.DEFAULT_TITLE_FONT, plot, false);
+        NumberAxis scaleAxis = new NumberAxis("Correlation");
+        scaleAxis.setRange(-1.0, 1.0);
+        PaintScaleLegend legend = new PaintScaleLegend(scale, scaleAxis);
+        legend.setPosition(RectangleEdge.RIGHT);
+        legend.setMargin(4, 4, 4, 4);
+        chart.addSubtitle(legend);
+        chart.setBackgroundPaint(Color.WHITE);
+        return chart;
+    }
 
-            controlPanel.add(selectAll);
-            controlPanel.add(deselectAll);
-            controlPanel.add(applyFilter);
+    /**
+     * Backtests every forecast vintage of the new and archived methodology
+     * against actuals and updates the chart and table.
+     * @param session the analysis tab to show the results in
+     * @param indexType the type of index (CPI or PPI)
+     */
+    private static void runBacktestAnalysis(AnalysisSession session, String indexType) {
+        boolean isCpi = indexType.equals("Consumer Price Index");
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable displayDataTable = session.dataTable();
+
+        session.load(indexType + " Forecast Backtest", () -> {
+            DatasetSnapshot actuals = Datasets.get(isCpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI);
+            ForecastBacktest.Result newMethod = ForecastBacktest.run(Datasets.get(isCpi
+                    ? DatasetTable.CPI_HISTORICAL_FORECAST : DatasetTable.PPI_HISTORICAL_FORECAST), actuals);
+            ForecastBacktest.Result oldMethod = ForecastBacktest.run(Datasets.get(isCpi
+                    ? DatasetTable.CPI_FORECAST_ARCHIVED : DatasetTable.PPI_FORECAST_ARCHIVED), actuals);
+
+            Set<String> allItems = new TreeSet<>(Arrays.asList(newMethod.items()));
+            allItems.addAll(Arrays.asList(oldMethod.items()));
+
+            // Per-item comparison rows for both methodologies
+            Vector<String> columnNames = new Vector<>(List.of("item", "methodology", "vintages", "mean_absolute_error",
+                    "bias", "rmse", "coverage_pct"));
+            Vector<Vector<Object>> tableData = new Vector<>();
+            for (String item : allItems) {
+                addBacktestRow(tableData, item, "New", newMethod);
+                addBacktestRow(tableData, item, "Old", oldMethod);
+            }
+            final Vector<Vector<Object>> originalTableData = new Vector<>(tableData);
 
-            checkboxPanel.add(Box.createVerticalStrut(10));
-            checkboxPanel.add(controlPanel);
+            // Redraws from the cached per-item statistics without rescoring
+            Consumer<List<String>> render = selected -> {
+                JFreeChart chart = createBacktestChart(indexType + " Forecast Backtest",
+                        newMethod.byHorizon(selected), oldMethod.byHorizon(selected));
+                ForecastBacktest.Stats newAll = newMethod.overall(selected);
+                ForecastBacktest.Stats oldAll = oldMethod.overall(selected);
+                chart.addSubtitle(new TextTitle(String.format(
+                        "New: MAE %.2f, coverage %.0f%% (%d vintages)   Old: MAE %.2f, coverage %.0f%% (%d vintages)",
+                        newAll.meanAbsoluteError(), newAll.coverage() * 100, newAll.count(),
+                        oldAll.meanAbsoluteError(), oldAll.coverage() * 100, oldAll.count())));
 
-            centerPanel.revalidate();
-            centerPanel.repaint();
+                chartPanel.removeAll();
+                ChartPanel cp = createChartPanel(chart);
+                chartPanel.setLayout(new BorderLayout());
+                chartPanel.add(cp, BorderLayout.CENTER);
+                chartPanel.revalidate();
+                chartPanel.repaint();
+            };
 
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            return () -> {
+                displayDataTable.setModel(new DefaultTableModel(tableData, columnNames));
+                categorySelector.setItems(allItems);
+                categorySelector.setApplyAction(() -> {
+                    List<String> selected = categorySelector.getSelectedItems();
+                    render.accept(selected);
+
+                    // Filter table data based on selected items
+                    Vector<Vector<Object>> filteredTableContent = new Vector<>();
+                    for (Vector<Object> row : originalTableData) {
+                        if (categorySelector.isSelected(row.get(0).toString())) filteredTableContent.add(row);
+                    }
+                    displayDataTable.setModel(new DefaultTableModel(filteredTableContent, columnNames));
+                });
+                render.accept(new ArrayList<>(allItems));
+            };
+        });
+    }
+
+    /**
+     * Adds one item / methodology row of backtest statistics to the table data.
+     * @param tableData the table rows to add to
+     * @param item the item name
+     * @param methodology the methodology label
+     * @param result the backtest result of that methodology
+     */
+    private static void addBacktestRow(Vector<Vector<Object>> tableData, String item, String methodology,
+                                       ForecastBacktest.Result result) {
+        ForecastBacktest.Stats stats = result.overall(List.of(item));
+        if (stats.count() == 0) return;
+        Vector<Object> row = new Vector<>();
+        row.add(item);
+        row.add(methodology);
+        row.add(stats.count());
+        row.add(Math.round(stats.meanAbsoluteError() * 100) / 100.0);
+        row.add(Math.round(stats.bias() * 100) / 100.0);
+        row.add(Math.round(stats.rootMeanSquaredError() * 100) / 100.0);
+        row.add(Double.isNaN(stats.coverage()) ? null : Math.round(stats.coverage() * 1000) / 10.0);
+        tableData.add(row);
+    }
+
+    /**
+     * Creates the backtest chart: mean absolute error by horizon on the left
+     * axis and interval coverage by horizon on the right axis.
+     * @param title the title of the chart
+     * @param newByHorizon statistics of the new methodology per horizon
+     * @param oldByHorizon statistics of the archived methodology per horizon
+     * @return a JFreeChart object
+     */
+    private static JFreeChart createBacktestChart(String title, ForecastBacktest.Stats[] newByHorizon,
+                                                  ForecastBacktest.Stats[] oldByHorizon) {
+        XYSeriesCollection errors = new XYSeriesCollection();
+        XYSeriesCollection coverage = new XYSeriesCollection();
+        XYSeries newMae = new XYSeries("New methodology MAE");
+        XYSeries oldMae = new XYSeries("Old methodology MAE");
+        XYSeries newCoverage = new XYSeries("New methodology coverage");
+        XYSeries oldCoverage = new XYSeries("Old methodology coverage");
+        for (int h = 0; h < newByHorizon.length; h++) {
+            if (newByHorizon[h].count() > 0) newMae.add(h, newByHorizon[h].meanAbsoluteError());
+            if (oldByHorizon[h].count() > 0) oldMae.add(h, oldByHorizon[h].meanAbsoluteError());
+            if (!Double.isNaN(newByHorizon[h].coverage())) newCoverage.add(h, newByHorizon[h].coverage() * 100);
+            if (!Double.isNaN(oldByHorizon[h].coverage())) oldCoverage.add(h, oldByHorizon[h].coverage() * 100);
         }
+        errors.addSeries(newMae);
+        errors.addSeries(oldMae);
+        coverage.addSeries(newCoverage);
+        coverage.addSeries(oldCoverage);
+
+        // Documentation found at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/chart/ChartFactory.html
+        JFreeChart chart = ChartFactory.createXYLineChart(title, "Forecast horizon (months before end of target year)",
+                "Mean absolute error (pct. points)", errors);
+        XYPlot plot = chart.getXYPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setDomainGridlinePaint(Color.GRAY);
+        plot.setRangeGridlinePaint(Color.GRAY);
+
+        XYLineAndShapeRenderer errorRenderer = new XYLineAndShapeRenderer(true, true);
+        errorRenderer.setSeriesPaint(0, getDistinctColor(0, 4));
+        errorRenderer.setSeriesPaint(1, getDistinctColor(1, 4));
+        errorRenderer.setDefaultStroke(new BasicStroke(2.0f));
+        plot.setRenderer(0, errorRenderer);
+
+        // Coverage on a secondary axis with dashed lines
+        NumberAxis coverageAxis = new NumberAxis("Interval coverage");
+        coverageAxis.setRange(0, 100);
+        coverageAxis.setNumberFormatOverride(new DecimalFormat("0'%'"));
+        plot.setRangeAxis(1, coverageAxis);
+        plot.setDataset(1, coverage);
+        plot.mapDatasetToRangeAxis(1, 1);
+        XYLineAndShapeRenderer coverageRenderer = new XYLineAndShapeRenderer(true, false);
+        Stroke dashed = new BasicStroke(2.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[]{6f, 4f}, 0f);
+        coverageRenderer.setSeriesPaint(0, getDistinctColor(0, 4));
+        coverageRenderer.setSeriesPaint(1, getDistinctColor(1, 4));
+        coverageRenderer.setSeriesStroke(0, dashed);
+        coverageRenderer.setSeriesStroke(1, dashed);
+        plot.setRenderer(1, coverageRenderer);
+
+        chart.getLegend().setFrame(BlockBorder.NONE);
+        chart.getLegend().setPosition(RectangleEdge.BOTTOM);
+        return chart;
     }
 
     /**
@@ -915,7 +1287,7 @@ public class PriceDataVisualizer {
      * @param years the set of years to include in the dataset
      * @return a DefaultCategoryDataset object
      */
-    private static DefaultCategoryDataset createDataset(Map<String, Map<Integer, Double>> dataMap, Set<Integer> years) {
+    static DefaultCategoryDataset createDataset(Map<String, Map<Integer, Double>> dataMap, Set<Integer> years) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         // Iterate through the data map and add values to the dataset
         for (Map.Entry<String, Map<Integer, Double>> entry : dataMap.entrySet()) {
@@ -937,7 +1309,7 @@ public class PriceDataVisualizer {
      * @param yearTo the ending year for the chart
      * @return a JFreeChart object
      */
-    private static JFreeChart createChart(DefaultCategoryDataset dataset, String indexType, int yearFrom, int yearTo) {
+    static JFreeChart createChart(DefaultCategoryDataset dataset, String indexType, int yearFrom, int yearTo) {
         // Create a line chart with the dataset
         // The chart title, axis labels, and dataset are specified here
         // Documentation found at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/chart/ChartFactory.html
@@ -1008,201 +1380,151 @@ public class PriceDataVisualizer {
 
     /**
      * Displays the full data for the selected table.
+     * @param session the analysis tab to show the table in
      * @param tableName the name of the table to display
-     * @param dataTable the JTable to display the data
      */
-    private static void showTableData(String tableName, JTable dataTable) {
-        // Get the SQL query for the selected table
-        String sqlKey = "full_data_" + tableName;
-        String sql = queryMap.get(sqlKey);
-        if (sql == null) return;
+    private static void showTableData(AnalysisSession session, String tableName) {
+        // The chart reads a server-filtered projection of the midpoint rows,
+        // while the table pages through the raw rows separately
+        String sql = queryMap.get("chart_data_" + tableName);
+        String pageSql = queryMap.get("page_data_" + tableName);
+        if (sql == null || pageSql == null) return;
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        int view = session.begin(tableName);
+        // Exports write every raw row, not just the page on screen
+        session.setExportView(tableName, queryMap.get("full_data_" + tableName));
+
+        // This view is set up on the EDT, so the history is written elsewhere
+        logQueryInBackground(sql);
+
+        session.tablePager().showTable(tableName, pageSql);
+        chartPanel.removeAll();
+        categorySelector.clear();
+
+        // Show the chart right away and let the stream add the series to it
+        // as the rows arrive
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        JFreeChart chart = createTimeSeriesChart(tableName, dataset);
 
-        logQueryToHistory(sql);
-        loadQueryHistory();
-
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            ResultSetMetaData meta = rs.getMetaData();
-            int columnCount = meta.getColumnCount();
-            Vector<String> columnNames = new Vector<>();
-            for (int i = 1; i <= columnCount; i++) columnNames.add(meta.getColumnName(i));
-
-            Vector<Vector<Object>> data = new Vector<>();
-            Map<String, TimeSeries> seriesMap = new HashMap<>();
-
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                for (int i = 1; i <= columnCount; i++) row.add(rs.getObject(i));
-                data.add(row);
-
-                int year, month = 1;
-                double value;
-                String item;
-
-                // Determine the item and value based on the table name
-                if (tableName.equalsIgnoreCase("historicalcpi")) {
-                    year = rs.getInt("year");
-                    value = rs.getDouble("percentChange");
-                    item = rs.getString("consumerPriceIndexItem");
-                } else if (tableName.equalsIgnoreCase("historicalppi")) {
-                    year = rs.getInt("year");
-                    value = rs.getDouble("percentChange");
-                    item = rs.getString("producerPriceIndexItem");
-                } else if (tableName.equalsIgnoreCase("CPIHistoricalForecast")) {
-                    String attribute = rs.getString("attribute");
-                    if (!attribute.toLowerCase().contains("mid")) continue;
-                    year = rs.getInt("yearBeingForecast");
-                    month = rs.getInt("monthOfForecast");
-                    value = rs.getDouble("forecastPercentChange");
-                    item = rs.getString("consumerPriceIndexItem");
-                } else if (tableName.equalsIgnoreCase("cpiforecastarchived")) {
-                    String attribute = rs.getString("attribute");
-                    if (!attribute.toLowerCase().contains("mid")) continue;
-                    year = rs.getInt("yearBeingForecast");
-                    month = rs.getInt("monthOfForecast");
-                    String valStr = rs.getString("forecastPercentChange");
-                    try {
-                        value = Double.parseDouble(valStr);
-                    } catch (NumberFormatException ex) {
-                        continue;
-                    }
-                    item = rs.getString("consumerPriceIndexItem");
-                } else if (tableName.equalsIgnoreCase("ppiforecastarchived")) {
-                    String attribute = rs.getString("attribute");
-                    if (!attribute.toLowerCase().contains("mid")) continue;
-                    year = rs.getInt("yearBeingForecast");
-                    month = rs.getInt("monthOfForecast");
-                    String valStr = rs.getString("forecastPercentChange");
-                    try {
-                        value = Double.parseDouble(valStr);
-                    } catch (NumberFormatException ex) {
-                        continue;
-                    }
-                    item = rs.getString("producerPriceIndexItem");
-                } else {
-                    String attribute = rs.getString("attribute");
-                    if (!attribute.toLowerCase().contains("mid")) continue;
-                    year = rs.getInt("yearBeingForecast");
-                    month = rs.getInt("monthOfForecast");
-                    value = rs.getDouble("forecastPercentChange");
-
-                    if (tableName.toLowerCase().contains("ppi")) {
-                        item = rs.getString("producerPriceIndexItem");
-                    } else {
-                        item = rs.getString("consumerPriceIndexItem");
-                    }
-                }
-
-                if (item != null) {
-                    seriesMap.putIfAbsent(item, new TimeSeries(item));
-                    seriesMap.get(item).addOrUpdate(new Month(month, year), value);
-                }
+        chartPanel.setLayout(new BorderLayout());
+        ChartPanel cp = createChartPanel(chart);
+        chartPanel.add(cp, BorderLayout.CENTER);
+        chartPanel.revalidate();
+        chartPanel.repaint();
+
+        // The baselines are fitted on a pool thread while the rows stream in
+        boolean isCpi = tableName.toLowerCase().contains("cpi");
+        CompletableFuture<BaselineForecast.Result> baselineFit = CompletableFuture.supplyAsync(() -> fitBaselines(isCpi));
+
+        session.startChartStream(new ChartStream(sql, dataset, seriesMap -> {
+            session.chartStreamFinished();
+            if (seriesMap.isEmpty()) {
+                chartPanel.removeAll();
+                chartPanel.revalidate();
+                chartPanel.repaint();
+                return;
             }
-
-            dataTable.setModel(new DefaultTableModel(data, columnNames));
-            chartPanel.removeAll();
-            checkboxPanel.removeAll();
-            categoryCheckboxes.clear();
-
-            if (!seriesMap.isEmpty()) {
-                // Set up the checkbox panel with proper layout
-                checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS));
-
-                // Add a title to the checkbox panel
-                JLabel titleLabel = new JLabel("Select Categories");
-                titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
-                titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 10, 5));
-                checkboxPanel.add(titleLabel);
-
-                // Create initial dataset with all series
-                TimeSeriesCollection dataset = new TimeSeriesCollection();
-                List<String> itemLabels = new ArrayList<>(seriesMap.keySet());
-                Collections.sort(itemLabels); // Sort for consistent order
-
-                // Create checkboxes for each series
-                for (String label : itemLabels) {
-                    JCheckBox box = new JCheckBox(label, true);
-                    box.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                    box.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                    box.setAlignmentX(Component.LEFT_ALIGNMENT);
-                    categoryCheckboxes.put(label, box);
-                    checkboxPanel.add(box);
-                    dataset.addSeries(seriesMap.get(label));
-                }
-
-                // Add control buttons in a vertical layout
-                JPanel controlPanel = new JPanel();
-                controlPanel.setLayout(new GridLayout(3, 1, 5, 5));
-                controlPanel.setMaximumSize(new Dimension(150, 100));
-                controlPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-                JButton toggleAllButton = new JButton("Select All");
-                JButton deselectAllButton = new JButton("Deselect All");
-                JButton applyButton = new JButton("Apply Filter");
-
-                // Add action listeners to select/deselect buttons
-                toggleAllButton.addActionListener(e -> {
-                    categoryCheckboxes.values().forEach(cb -> cb.setSelected(true));
+            // Finish the chart once the fit is done too, unless the tab has moved on;
+            // a failed fit finishes it without the baselines
+            baselineFit.handle((fit, failure) -> {
+                if (failure != null) System.err.println("No baseline forecasts: " + failure);
+                BaselineForecast.Result baselines = failure == null ? fit : null;
+                SwingUtilities.invokeLater(() -> {
+                    if (session.isShowing(view)) finishTableChart(session, tableName, chart, cp, dataset, seriesMap, baselines);
                 });
+                return null;
+            });
+        }, error -> {
+            session.chartStreamFinished();
+            showError(chartPanel, error);
+        }));
+    }
 
-                deselectAllButton.addActionListener(e -> {
-                    categoryCheckboxes.values().forEach(cb -> cb.setSelected(false));
-                });
-
-                // Apply filter based on selected checkboxes
-                applyButton.addActionListener(e -> {
-                    TimeSeriesCollection filtered = new TimeSeriesCollection();
-                    for (String label : categoryCheckboxes.keySet()) {
-                        if (categoryCheckboxes.get(label).isSelected()) {
-                            filtered.addSeries(seriesMap.get(label));
-                        }
-                    }
-
-                    // Create chart with filtered dataset
-                    JFreeChart filteredChart = createTimeSeriesChart(tableName, filtered);
-
-                    // Refresh and update the chart panel with the new chart
-                    chartPanel.removeAll();
-                    ChartPanel cp = new ChartPanel(filteredChart);
-                    cp.setPreferredSize(new Dimension(700, 400));
-                    cp.setMouseWheelEnabled(true);
-                    cp.setDomainZoomable(true);
-                    cp.setRangeZoomable(true);
-                    chartPanel.setLayout(new BorderLayout());
-                    chartPanel.add(cp, BorderLayout.CENTER);
-                    chartPanel.validate();
-                    chartPanel.repaint();
-                });
+    /**
+     * Finishes the streamed chart of the full data view once every row is in:
+     * orders the series by item, adds the baselines and fills the category
+     * selector.
+     * @param session the analysis tab the chart is shown in
+     * @param tableName the name of the table on the chart
+     * @param chart the streamed chart
+     * @param cp the panel showing the chart
+     * @param dataset the dataset of the chart
+     * @param seriesMap every streamed series by item
+     * @param fit the fitted baselines, or null if there are none
+     */
+    private static void finishTableChart(AnalysisSession session, String tableName, JFreeChart chart, ChartPanel cp,
+                                         TimeSeriesCollection dataset, Map<String, TimeSeries> seriesMap,
+                                         BaselineForecast.Result fit) {
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        // Once every row is in, order the series by item and give them
+        // the same distinct colors as a fully loaded chart
+        List<String> itemLabels = new ArrayList<>(seriesMap.keySet());
+        Collections.sort(itemLabels);
+        Map<String, TimeSeries> baselines = baselineSeries(fit, itemLabels);
+        dataset.removeAllSeries();
+        for (String label : itemLabels) {
+            dataset.addSeries(seriesMap.get(label));
+            addBaseline(dataset, baselines, label);
+        }
+        applySeriesColors(chart.getXYPlot().getRenderer(), dataset.getSeriesCount());
+        styleBaselines(chart.getXYPlot());
+        ChartDensity.configure(cp);
+        categorySelector.setItems(itemLabels);
+
+        // Apply filter based on selected categories
+        categorySelector.setApplyAction(() -> {
+            TimeSeriesCollection filtered = new TimeSeriesCollection();
+            for (String label : categorySelector.getSelectedItems()) {
+                filtered.addSeries(seriesMap.get(label));
+                addBaseline(filtered, baselines, label);
+            }
 
-                // Add some spacing before control panel
-                checkboxPanel.add(Box.createVerticalStrut(10));
-                controlPanel.add(toggleAllButton);
-                controlPanel.add(deselectAllButton);
-                controlPanel.add(applyButton);
-                checkboxPanel.add(controlPanel);
+            // Create chart with filtered dataset
+            JFreeChart filteredChart = createTimeSeriesChart(tableName, filtered);
 
-                // Create and show the initial chart
-                JFreeChart chart = createTimeSeriesChart(tableName, dataset);
+            // Refresh and update the chart panel with the new chart
+            chartPanel.removeAll();
+            ChartPanel filteredPanel = createChartPanel(filteredChart);
+            chartPanel.setLayout(new BorderLayout());
+            chartPanel.add(filteredPanel, BorderLayout.CENTER);
+            chartPanel.validate();
+            chartPanel.repaint();
+        });
+    }
 
-                chartPanel.setLayout(new BorderLayout());
-                ChartPanel cp = new ChartPanel(chart);
-                cp.setPreferredSize(new Dimension(700, 400));
-                cp.setMouseWheelEnabled(true);
-                cp.setDomainZoomable(true);
-                cp.setRangeZoomable(true);
-                chartPanel.add(cp, BorderLayout.CENTER);
-            }
+    /**
+     * Reports a failed background task of a window: prints the cause and
+     * shows it in an error dialog, as a dataset error when a snapshot could
+     * not be read.
+     * @param parent the component the dialog is centred on
+     * @param e the failure, or the ExecutionException wrapping it
+     */
+    static void showError(Component parent, Throwable e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        cause.printStackTrace();
+        String kind = cause instanceof UncheckedIOException ? "Dataset error: " : "Error: ";
+        JOptionPane.showMessageDialog(parent, kind + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
 
-            // Refresh the chart and checkbox panels
-            chartPanel.revalidate();
-            chartPanel.repaint();
-            checkboxPanel.revalidate();
-            checkboxPanel.repaint();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    /**
+     * Creates the panel every chart is shown in: 700x400, zoomable with the
+     * mouse wheel, and switched to high-density mode when the chart has
+     * many series.
+     * @param chart the chart to show
+     * @return the chart panel
+     */
+    static ChartPanel createChartPanel(JFreeChart chart) {
+        // The off-screen buffer lets tooltips and zoom rectangles repaint
+        // without redrawing every series
+        ChartPanel cp = new ChartPanel(chart, true);
+        cp.setPreferredSize(new Dimension(700, 400));
+        cp.setMouseWheelEnabled(true);
+        cp.setDomainZoomable(true);
+        cp.setRangeZoomable(true);
+        ChartDensity.configure(cp);
+        return cp;
     }
 
     /**
@@ -1211,7 +1533,7 @@ public class PriceDataVisualizer {
      * @param dataset the dataset to be used for the chart
      * @return a JFreeChart object
      */
-    private static JFreeChart createTimeSeriesChart(String title, TimeSeriesCollection dataset) {
+    static JFreeChart createTimeSeriesChart(String title, TimeSeriesCollection dataset) {
         // Create a time series chart with the dataset
         // Documentation found at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/chart/ChartFactory.html
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
@@ -1232,14 +1554,10 @@ public class PriceDataVisualizer {
         renderer.setDefaultStroke(new BasicStroke(2.0f));
 
         // Assign distinct colors to each series
-        int seriesCount = dataset.getSeriesCount();
-        for (int i = 0; i < seriesCount; i++) {
-            Color color = getDistinctColor(i, seriesCount);
-            renderer.setSeriesPaint(i, color);
-            renderer.setSeriesStroke(i, new BasicStroke(2.0f));
-        }
+        applySeriesColors(renderer, dataset.getSeriesCount());
 
         plot.setRenderer(renderer);
+        styleBaselines(plot);
 
         // Improve the legend
         chart.getLegend().setFrame(BlockBorder.NONE);
@@ -1249,164 +1567,189 @@ public class PriceDataVisualizer {
     }
 
     /**
-     * Displays the forecast chart for the selected table.
-     * @param tableName the name of the table to display
-     * @param dataTable the JTable to display the data
+     * Assigns a distinct color and a 2px line to each series of a renderer.
+     * @param renderer the renderer of a time series chart
+     * @param seriesCount the number of series in the chart
      */
-    private static void showForecastChart(String tableName, JTable dataTable) {
-        // Get the SQL query for the selected table
-        String sqlKey = "full_data_" + tableName + "_for_2025_bounds";
-        String sql = queryMap.get(sqlKey);
-        if (sql == null) return;
+    private static void applySeriesColors(XYItemRenderer renderer, int seriesCount) {
+        for (int i = 0; i < seriesCount; i++) {
+            Color color = getDistinctColor(i, seriesCount);
+            renderer.setSeriesPaint(i, color);
+            renderer.setSeriesStroke(i, new BasicStroke(2.0f));
+        }
+    }
 
-        logQueryToHistory(sql);
-        loadQueryHistory();
+    /**
+     * Fits our baseline forecasts on the CPI or PPI actuals of the active
+     * backend, so the overlay matches the data on the chart. The models are
+     * cached, so this only fits them the first time after the table is
+     * loaded. Must not be called on the EDT.
+     * @param isCpi true for the CPI items, false for the PPI items
+     * @return the fitted baselines, or null if they cannot be read
+     */
+    private static BaselineForecast.Result fitBaselines(boolean isCpi) {
+        try {
+            return BaselineForecast.fit(dataStore, isCpi);
+        } catch (SQLException | UncheckedIOException e) {
+            // The chart is still useful without the overlay
+            System.err.println("No baseline forecasts: " + e.getMessage());
+            return null;
+        }
+    }
 
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            ResultSetMetaData meta = rs.getMetaData();
-            int columnCount = meta.getColumnCount();
-            Vector<String> columnNames = new Vector<>();
-            for (int i = 1; i <= columnCount; i++) columnNames.add(meta.getColumnName(i));
+    /**
+     * Returns our baseline forecast of each item that has one.
+     * @param baselines the fitted baselines, or null for none
+     * @param items the items on the chart
+     * @return the baseline series by item, named "item (Baseline)"
+     */
+    private static Map<String, TimeSeries> baselineSeries(BaselineForecast.Result baselines, Collection<String> items) {
+        if (baselines == null) return Map.of();
+        Map<String, TimeSeries> result = new HashMap<>();
+        for (String item : items) {
+            TimeSeries series = baselines.series(item, item + BASELINE_SUFFIX);
+            if (series != null) result.put(item, series);
+        }
+        return result;
+    }
 
-            Vector<Vector<Object>> data = new Vector<>();
-            Map<String, Double> lowerMap = new HashMap<>();
-            Map<String, Double> upperMap = new HashMap<>();
+    /**
+     * Adds the baseline of an item to a dataset if it has one.
+     * @param dataset the chart dataset
+     * @param baselines the baseline series by item
+     * @param item the item
+     */
+    private static void addBaseline(TimeSeriesCollection dataset, Map<String, TimeSeries> baselines, String item) {
+        TimeSeries baseline = baselines.get(item);
+        if (baseline != null) dataset.addSeries(baseline);
+    }
 
-            // Iterates through the result set to extract and store data for table display and charting.
-            // Adds each row to a table model, then checks for "Percent change" values only.
-            // Attempts to extract a display label using 'disaggregate' or fallback hierarchy depending on index type (CPI or PPI).
-            // Categorizes and maps forecast values into `lowerMap` and `upperMap` based on whether the attribute is a lower or upper bound.
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                for (int i = 1; i <= columnCount; i++) row.add(rs.getObject(i));
-                data.add(row);
-
-                String unit = rs.getString("unit");
-                if (!"Percent change".equalsIgnoreCase(unit)) continue;
-
-                String attribute = rs.getString("attribute");
-                double value = rs.getDouble("value");
-                String label;
-                try {
-                    String disagg = rs.getString("disaggregate");
-                    label = (disagg != null && !disagg.isBlank()) ? disagg : rs.getString("midLevel");
-                } catch (SQLException ex) {
-                    // disaggregate doesn't exist in PPI, so fallback to midLevel or producerPriceIndexItem
-                    try {
-                        String mid = rs.getString("midLevel");
-                        label = (mid != null && !mid.isBlank()) ? mid : rs.getString("producerPriceIndexItem");
-                    } catch (SQLException e2) {
-                        label = rs.getString("producerPriceIndexItem");
-                    }
+    /**
+     * Draws every baseline series dashed, in the color of the item it belongs to.
+     * @param plot the plot of a time series chart
+     */
+    private static void styleBaselines(XYPlot plot) {
+        TimeSeriesCollection dataset = (TimeSeriesCollection) plot.getDataset();
+        XYItemRenderer renderer = plot.getRenderer();
+        for (int i = 0; i < dataset.getSeriesCount(); i++) {
+            String key = dataset.getSeriesKey(i).toString();
+            if (!key.endsWith(BASELINE_SUFFIX)) continue;
+            String item = key.substring(0, key.length() - BASELINE_SUFFIX.length());
+            for (int j = 0; j < dataset.getSeriesCount(); j++) {
+                String other = dataset.getSeriesKey(j).toString();
+                if (j != i && (other.equals(item) || other.startsWith(item + " (")) && !other.endsWith(BASELINE_SUFFIX)) {
+                    renderer.setSeriesPaint(i, renderer.getSeriesPaint(j));
+                    break;
                 }
-
-                if (attribute.toLowerCase().contains("lower")) lowerMap.put(label, value);
-                else if (attribute.toLowerCase().contains("upper")) upperMap.put(label, value);
             }
+            renderer.setSeriesStroke(i, BASELINE_STROKE);
+        }
+    }
 
-            dataTable.setModel(new DefaultTableModel(data, columnNames));
+    /**
+     * Asks which query and format to export, then streams it to a file.
+     * @param parent the component dialogs are centred on
+     * @param session the analysis tab on screen
+     */
+    private static void showExportDataDialog(Component parent, AnalysisSession session) {
+        // The current view first, then every named query without parameters
+        String exportViewName = session.exportViewName();
+        Map<String, String> sources = new LinkedHashMap<>();
+        if (session.exportViewSql() != null) sources.put("Current view: " + exportViewName, session.exportViewSql());
+        new TreeMap<>(queryMap).forEach((name, sql) -> {
+            if (countPlaceholders(sql) == 0) sources.put(name, sql);
+        });
+        if (sources.isEmpty()) {
+            JOptionPane.showMessageDialog(parent, "No queries are loaded.", "Nothing to Export", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-            chartPanel.removeAll();
-            checkboxPanel.removeAll();
-            categoryCheckboxes.clear();
-
-            Set<String> labels = new TreeSet<>();
-            labels.addAll(lowerMap.keySet());
-            labels.addAll(upperMap.keySet());
-
-            // Set up the checkbox panel with proper layout
-            checkboxPanel.setLayout(new BoxLayout(checkboxPanel, BoxLayout.Y_AXIS));
-
-            // Add a title to the checkbox panel
-            JLabel titleLabel = new JLabel("Select Categories");
-            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 14));
-            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-            titleLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 10, 5));
-            checkboxPanel.add(titleLabel);
-
-            // Create checkboxes for each item in the data map
-            DefaultCategoryDataset initialDataset = new DefaultCategoryDataset();
-            for (String item : labels) {
-                JCheckBox cb = new JCheckBox(item, true);
-                cb.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                cb.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
-                cb.setAlignmentX(Component.LEFT_ALIGNMENT);
-                categoryCheckboxes.put(item, cb);
-                checkboxPanel.add(cb);
-
-                if (lowerMap.containsKey(item)) initialDataset.addValue(lowerMap.get(item), "Lower Bound", item);
-                if (upperMap.containsKey(item)) initialDataset.addValue(upperMap.get(item), "Upper Bound", item);
-            }
+        JComboBox<String> sourceSelector = new JComboBox<>(sources.keySet().toArray(new String[0]));
+        JComboBox<StreamingExporter.Format> formatSelector = new JComboBox<>(StreamingExporter.Format.values());
+        JPanel panel = new JPanel(new GridLayout(0, 1, 5, 5));
+        panel.add(new JLabel("Data:"));
+        panel.add(sourceSelector);
+        panel.add(new JLabel("Format:"));
+        panel.add(formatSelector);
+        if (JOptionPane.showConfirmDialog(parent, panel, "Export Data", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) return;
+
+        String source = (String) sourceSelector.getSelectedItem();
+        String name = source.startsWith("Current view: ") ? exportViewName : source;
+        StreamingExporter.exportWithDialog(parent, name, sources.get(source),
+                (StreamingExporter.Format) formatSelector.getSelectedItem());
+    }
 
-            // Add control buttons in a vertical layout
-            JPanel controlPanel = new JPanel();
-            controlPanel.setLayout(new GridLayout(3, 1, 5, 5));
-            controlPanel.setMaximumSize(new Dimension(150, 100));
-            controlPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+    /**
+     * Copies a time series so it can be charted on another thread without
+     * sharing listeners with the chart on screen.
+     * @param series the series to copy
+     * @return an independent copy of the series
+     */
+    private static TimeSeries copySeries(TimeSeries series) {
+        try {
+            return (TimeSeries) series.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            JButton toggleAllButton = new JButton("Select All");
-            JButton deselectAllButton = new JButton("Deselect All");
-            JButton applyButton = new JButton("Apply Filter");
+    /**
+     * Displays the forecast chart for the selected table.
+     * @param session the analysis tab to show the chart in
+     * @param tableName the name of the table to display
+     */
+    private static void showForecastChart(AnalysisSession session, String tableName) {
+        // Get the SQL query for the selected table
+        String sqlKey = "full_data_" + tableName + "_for_2025_bounds";
+        String sql = queryMap.get(sqlKey);
+        if (sql == null) return;
+        JPanel chartPanel = session.chartPanel();
+        CategorySelector categorySelector = session.categorySelector();
+        JTable dataTable = session.dataTable();
 
-            toggleAllButton.addActionListener(e -> {
-                categoryCheckboxes.values().forEach(cb -> cb.setSelected(true));
-            });
+        session.load(tableName + " 2025 Bounds", () -> {
+            logQueryToHistory(sql);
+            loadQueryHistory();
 
-            deselectAllButton.addActionListener(e -> {
-                categoryCheckboxes.values().forEach(cb -> cb.setSelected(false));
-            });
+            try (Connection conn = getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                ForecastBounds bounds = ForecastBounds.read(rs);
+                List<String> itemLabels = bounds.items();
+                DefaultCategoryDataset initialDataset = bounds.dataset(itemLabels);
 
-            // Apply filter based on selected checkboxes
-            applyButton.addActionListener(e -> {
-                DefaultCategoryDataset filteredDataset = new DefaultCategoryDataset();
-                for (String item : categoryCheckboxes.keySet()) {
-                    if (categoryCheckboxes.get(item).isSelected()) {
-                        if (lowerMap.containsKey(item)) filteredDataset.addValue(lowerMap.get(item), "Lower Bound", item);
-                        if (upperMap.containsKey(item)) filteredDataset.addValue(upperMap.get(item), "Upper Bound", item);
-                    }
-                }
+                return () -> {
+                    session.setExportView(tableName + " 2025 Bounds", sql);
+                    dataTable.setModel(bounds.tableModel());
 
-                JFreeChart filteredChart = createBarChart(tableName, filteredDataset);
+                    chartPanel.removeAll();
 
-                // Refresh and update the chart panel with the new chart
-                chartPanel.removeAll();
-                ChartPanel cp = new ChartPanel(filteredChart);
-                cp.setPreferredSize(new Dimension(700, 400));
-                cp.setMouseWheelEnabled(true);
-                cp.setDomainZoomable(true);
-                cp.setRangeZoomable(true);
-                chartPanel.setLayout(new BorderLayout());
-                chartPanel.add(cp, BorderLayout.CENTER);
-                chartPanel.validate();
-                chartPanel.repaint();
-            });
+                    categorySelector.setItems(itemLabels, bounds.groups(itemLabels));
+                    session.setExportSource(new BatchExporter.Source(tableName + " 2025 Bounds", itemLabels,
+                            item -> createBarChart(tableName, bounds.dataset(List.of(item))),
+                            bounds::rowsOf));
 
-            // Add some spacing before control panel
-            checkboxPanel.add(Box.createVerticalStrut(10));
-            controlPanel.add(toggleAllButton);
-            controlPanel.add(deselectAllButton);
-            controlPanel.add(applyButton);
-            checkboxPanel.add(controlPanel);
+                    // Apply filter based on selected categories
+                    categorySelector.setApplyAction(() -> {
+                        JFreeChart filteredChart = createBarChart(tableName, bounds.dataset(categorySelector.getSelectedItems()));
 
-            // Create and display the initial chart
-            JFreeChart chart = createBarChart(tableName, initialDataset);
+                        // Refresh and update the chart panel with the new chart
+                        chartPanel.removeAll();
+                        ChartPanel cp = createChartPanel(filteredChart);
+                        chartPanel.setLayout(new BorderLayout());
+                        chartPanel.add(cp, BorderLayout.CENTER);
+                        chartPanel.validate();
+                        chartPanel.repaint();
+                    });
 
-            chartPanel.setLayout(new BorderLayout());
-            ChartPanel cp = new ChartPanel(chart);
-            cp.setPreferredSize(new Dimension(700, 400));
-            cp.setMouseWheelEnabled(true);
-            cp.setDomainZoomable(true);
-            cp.setRangeZoomable(true);
-            chartPanel.add(cp, BorderLayout.CENTER);
+                    // Create and display the initial chart
+                    JFreeChart chart = createBarChart(tableName, initialDataset);
 
-            chartPanel.validate();
-            checkboxPanel.revalidate();
-            checkboxPanel.repaint();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+                    chartPanel.setLayout(new BorderLayout());
+                    ChartPanel cp = createChartPanel(chart);
+                    chartPanel.add(cp, BorderLayout.CENTER);
+                };
+            }
+        });
     }
 
     /**
@@ -1415,7 +1758,7 @@ public class PriceDataVisualizer {
      * @param dataset the dataset to be used for the chart
      * @return a JFreeChart object
      */
-    private static JFreeChart createBarChart(String tableName, DefaultCategoryDataset dataset) {
+    static JFreeChart createBarChart(String tableName, DefaultCategoryDataset dataset) {
         // Create a bar chart with the dataset
         // Documentation found at https://www.jfree.org/jfreechart/api/javadoc/org/jfree/chart/ChartFactory.html
         JFreeChart chart = ChartFactory.createBarChart(
@@ -1464,9 +1807,10 @@ public class PriceDataVisualizer {
     }
 
     /**
-     * Closes the connection pool to the database.
+     * Closes the connection pools to the database.
      */
-    private static void closeConnectionPool() {
-        if (dataSource != null) dataSource.close();
+    static void closeConnectionPool() {
+        if (readDataSource != null) readDataSource.close();
+        if (writeDataSource != null) writeDataSource.close();
     }
 }
\ No newline at end of file
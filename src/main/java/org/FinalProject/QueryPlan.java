@@ -0,0 +1,354 @@
+/**
+ * QueryPlan.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * QueryPlan runs EXPLAIN ANALYZE (MySQL 8.0.18 or later) for the named
+ * queries in tableQueries.sql and parses the plan tree, with the estimated
+ * and actual rows and the time spent in every step.
+ *
+ * It can also record the table accesses of every plan as a baseline in
+ * sql/queryPlanBaselines.txt and check later plans against it. A table or
+ * index that is now fully scanned but was not before, or a row estimate that grew more
+ * than tenfold, is reported as a regression:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.QueryPlan --record
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.QueryPlan --check
+ * </pre>
+ * The check exits with status 1 when a regression is found.
+ */
+public final class QueryPlan {
+    /** File the baseline plans are stored in. */
+    public static final Path BASELINE_FILE = Paths.get("sql", "queryPlanBaselines.txt");
+    /** Growth in estimated rows reported as a regression. */
+    public static final double ROW_BLOWUP_FACTOR = 10.0;
+    /** Smallest growth in estimated rows worth reporting. */
+    public static final double ROW_BLOWUP_MIN_ROWS = 1000;
+    /** Baseline line of a plan without table accesses. */
+    private static final String NO_ACCESSES = "none";
+
+    private static final Pattern COST = Pattern.compile("\\(cost=([0-9.e+]+) rows=([0-9.e+]+)\\)");
+    private static final Pattern ACTUAL = Pattern.compile(
+            "\\(actual time=([0-9.e+]+)\\.\\.([0-9.e+]+) rows=([0-9.e+]+) loops=([0-9]+)\\)");
+    private static final Pattern ACCESS = Pattern.compile(
+            "^([A-Za-z -]*(?:scan|lookup|search)) on (\\S+)(?: using (\\S+))?");
+
+    /**
+     * One step of a plan.
+     * @param operation the step, e.g. "Table scan on f" or "Nested loop inner join"
+     * @param estimatedRows rows the optimizer expected, or NaN if not shown
+     * @param firstRowMillis time to the first row, or NaN if not executed
+     * @param allRowsMillis time to the last row, or NaN if not executed
+     * @param actualRows rows produced per loop, or NaN if not executed
+     * @param loops how many times the step ran
+     * @param children the steps feeding this one
+     */
+    public record Node(String operation, double estimatedRows, double firstRowMillis, double allRowsMillis,
+                       double actualRows, long loops, List<Node> children) {
+        @Override
+        public String toString() {
+            StringBuilder label = new StringBuilder(operation);
+            if (!Double.isNaN(estimatedRows)) label.append(String.format("   est. %,.0f rows", estimatedRows));
+            if (Double.isNaN(actualRows)) {
+                label.append("   (never executed)");
+            } else {
+                label.append(String.format("   actual %,.0f rows x %d loops, %.2f ms", actualRows, loops, allRowsMillis));
+            }
+            return label.toString();
+        }
+    }
+
+    /**
+     * A table access in a plan, the part of a plan kept in the baseline.
+     * @param method how the table is read, e.g. "Table scan" or "Index lookup"
+     * @param table the table alias
+     * @param index the index used, or null
+     * @param estimatedRows rows the optimizer expected, or NaN if not shown
+     */
+    public record Access(String method, String table, String index, double estimatedRows) {
+        /**
+         * Returns true for a full table scan or a full index scan. Range
+         * scans read only part of the index and are not counted.
+         * @return true if every row of the table or index is read
+         */
+        public boolean isFullScan() {
+            return method.equals("Table scan") || method.equals("Index scan")
+                    || method.equals("Covering index scan");
+        }
+
+        @Override
+        public String toString() {
+            return method + " on " + table + (index != null ? " using " + index : "");
+        }
+    }
+
+    private QueryPlan() { }
+
+    /**
+     * Records or checks the baselines, or prints the plan of one query.
+     * @param args --record, --check, or a query name
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 1) {
+            System.err.println("Usage: QueryPlan --record | --check | <queryName>");
+            return;
+        }
+        Map<String, String> queryMap = PriceDataVisualizer.loadQueriesFromFile("sql/tableQueries.sql");
+        PriceDataVisualizer.setupConnectionPool();
+        int status = 0;
+        try {
+            switch (args[0]) {
+                case "--record" -> {
+                    recordBaselines(queryMap);
+                    System.out.println("Recorded baselines in " + BASELINE_FILE);
+                }
+                case "--check" -> {
+                    List<String> problems = checkBaselines(queryMap);
+                    problems.forEach(System.out::println);
+                    System.out.println(problems.isEmpty() ? "No plan regressions" : problems.size() + " plan regressions");
+                    if (!problems.isEmpty()) status = 1;
+                }
+                default -> {
+                    String sql = queryMap.get(args[0]);
+                    if (sql == null) {
+                        System.err.println("No query found for " + args[0]);
+                        return;
+                    }
+                    print(explain(sql), "");
+                }
+            }
+        } finally {
+            PriceDataVisualizer.closeConnectionPool();
+        }
+        System.exit(status);
+    }
+
+    private static void print(Node node, String indent) {
+        System.out.println(indent + "-> " + node);
+        for (Node child : node.children()) print(child, indent + "    ");
+    }
+
+    /**
+     * Runs EXPLAIN ANALYZE for a query on the read pool. Placeholders are
+     * bound to sample values: 0, or one page of rows for a trailing LIMIT.
+     * The query is executed, so it takes as long as the query itself.
+     * @param sql the query, with or without a trailing semicolon
+     * @return the root of the plan
+     * @throws SQLException if the query fails or the server cannot explain it
+     */
+    public static Node explain(String sql) throws SQLException {
+        String query = sql.trim();
+        if (query.endsWith(";")) query = query.substring(0, query.length() - 1);
+        boolean limitLast = query.matches("(?is).*\\bLIMIT\\s+\\?\\s*$");
+
+        try (Connection conn = PriceDataVisualizer.getConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN ANALYZE " + query)) {
+            int parameters = PriceDataVisualizer.countPlaceholders(query);
+            for (int i = 1; i <= parameters; i++) {
+                ps.setLong(i, limitLast && i == parameters ? TablePager.PAGE_SIZE + 1 : 0);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                StringBuilder tree = new StringBuilder();
+                while (rs.next()) tree.append(rs.getString(1)).append('\n');
+                return parse(tree.toString());
+            }
+        }
+    }
+
+    /**
+     * Parses the TREE output of EXPLAIN ANALYZE. Every step is a line
+     * starting with "-> ", indented four spaces per level.
+     * @param tree the plan text
+     * @return the root of the plan
+     * @throws IllegalArgumentException if the text holds no plan
+     */
+    public static Node parse(String tree) {
+        List<String> texts = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        for (String line : tree.split("\n")) {
+            int arrow = line.indexOf("-> ");
+            if (arrow >= 0 && line.substring(0, arrow).isBlank()) {
+                texts.add(line.substring(arrow + 3).trim());
+                depths.add(arrow / 4);
+            } else if (!texts.isEmpty() && !line.isBlank()) {
+                // A long condition wrapped onto the next line
+                int last = texts.size() - 1;
+                texts.set(last, texts.get(last) + " " + line.trim());
+            }
+        }
+        if (texts.isEmpty()) throw new IllegalArgumentException("No plan found in EXPLAIN output");
+        int[] next = {0};
+        return parseNode(texts, depths, next);
+    }
+
+    private static Node parseNode(List<String> texts, List<Integer> depths, int[] next) {
+        int index = next[0]++;
+        String text = texts.get(index);
+        List<Node> children = new ArrayList<>();
+        while (next[0] < texts.size() && depths.get(next[0]) > depths.get(index)) {
+            children.add(parseNode(texts, depths, next));
+        }
+
+        double estimatedRows = Double.NaN;
+        double first = Double.NaN, last = Double.NaN, actualRows = Double.NaN;
+        long loops = 0;
+        int end = text.length();
+        Matcher cost = COST.matcher(text);
+        if (cost.find()) {
+            estimatedRows = Double.parseDouble(cost.group(2));
+            end = Math.min(end, cost.start());
+        }
+        Matcher actual = ACTUAL.matcher(text);
+        if (actual.find()) {
+            first = Double.parseDouble(actual.group(1));
+            last = Double.parseDouble(actual.group(2));
+            actualRows = Double.parseDouble(actual.group(3));
+            loops = Long.parseLong(actual.group(4));
+            end = Math.min(end, actual.start());
+        }
+        int never = text.indexOf("(never executed)");
+        if (never >= 0) end = Math.min(end, never);
+        return new Node(text.substring(0, end).trim(), estimatedRows, first, last, actualRows, loops, children);
+    }
+
+    /**
+     * Lists the table accesses of a plan in plan order. Internal temporary
+     * tables are skipped.
+     * @param root the root of the plan
+     * @return the table accesses
+     */
+    public static List<Access> accesses(Node root) {
+        List<Access> out = new ArrayList<>();
+        collectAccesses(root, out);
+        return out;
+    }
+
+    private static void collectAccesses(Node node, List<Access> out) {
+        Matcher m = ACCESS.matcher(node.operation());
+        if (m.find() && !m.group(2).startsWith("<")) {
+            out.add(new Access(m.group(1).trim(), m.group(2), m.group(3), node.estimatedRows()));
+        }
+        for (Node child : node.children()) collectAccesses(child, out);
+    }
+
+    /**
+     * Compares the table accesses of a plan with its baseline.
+     * @param name the query name, used in the messages
+     * @param baseline the accesses recorded in the baseline
+     * @param current the accesses of the current plan
+     * @return one message per regression, empty if there are none
+     */
+    public static List<String> compare(String name, List<Access> baseline, List<Access> current) {
+        List<String> problems = new ArrayList<>();
+        Map<String, List<Access>> before = new HashMap<>();
+        for (Access a : baseline) before.computeIfAbsent(a.table(), t -> new ArrayList<>()).add(a);
+
+        for (Access now : current) {
+            List<Access> was = before.getOrDefault(now.table(), List.of());
+            if (now.isFullScan() && was.stream().noneMatch(Access::isFullScan)) {
+                problems.add(name + ": new full scan on " + now.table()
+                        + (was.isEmpty() ? "" : " (was " + was.get(0) + ")"));
+            }
+            double estimatedBefore = was.stream().mapToDouble(Access::estimatedRows)
+                    .filter(r -> !Double.isNaN(r)).max().orElse(Double.NaN);
+            double estimatedNow = now.estimatedRows();
+            if (!Double.isNaN(estimatedBefore) && !Double.isNaN(estimatedNow)
+                    && estimatedNow > estimatedBefore * ROW_BLOWUP_FACTOR
+                    && estimatedNow - estimatedBefore >= ROW_BLOWUP_MIN_ROWS) {
+                problems.add(String.format("%s: estimated rows for %s grew from %,.0f to %,.0f",
+                        name, now, estimatedBefore, estimatedNow));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Explains every named query and writes its table accesses to the
+     * baseline file.
+     * @param queryMap the named queries
+     * @throws SQLException if a query cannot be explained
+     * @throws IOException if the baseline file cannot be written
+     */
+    public static void recordBaselines(Map<String, String> queryMap) throws SQLException, IOException {
+        StringBuilder out = new StringBuilder();
+        out.append("# Baseline query plans for tableQueries.sql, recorded by QueryPlan --record.\n");
+        out.append("# Each line is one table access: method on table [using index] | estimated rows;\n");
+        out.append("# A plan that reads no table is recorded as " + NO_ACCESSES + ";\n\n");
+        for (String name : new TreeSet<>(queryMap.keySet())) {
+            List<Access> accesses = accesses(explain(queryMap.get(name)));
+            out.append("-- ").append(name).append('\n');
+            // Sections without a body are dropped when the file is read back
+            if (accesses.isEmpty()) out.append(NO_ACCESSES).append(";\n");
+            for (Access a : accesses) {
+                out.append(a).append(" | ")
+                        .append(Double.isNaN(a.estimatedRows()) ? "-" : String.format("%.0f", a.estimatedRows()))
+                        .append(";\n");
+            }
+            out.append('\n');
+        }
+        Files.writeString(BASELINE_FILE, out.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Explains every named query that has a baseline and reports the
+     * regressions.
+     * @param queryMap the named queries
+     * @return one message per regression, empty if there are none
+     * @throws SQLException if a query cannot be explained
+     * @throws IOException if the baseline file cannot be read
+     */
+    public static List<String> checkBaselines(Map<String, String> queryMap) throws SQLException, IOException {
+        Map<String, List<Access>> baselines = loadBaselines();
+        List<String> problems = new ArrayList<>();
+        for (String name : new TreeSet<>(queryMap.keySet())) {
+            List<Access> baseline = baselines.get(name);
+            if (baseline == null) {
+                problems.add(name + ": no baseline recorded");
+                continue;
+            }
+            problems.addAll(compare(name, baseline, accesses(explain(queryMap.get(name)))));
+        }
+        return problems;
+    }
+
+    /**
+     * Reads the baseline file, which uses the same "-- name" sections as
+     * tableQueries.sql with one access per ';'-terminated line.
+     * @return the recorded accesses of each query
+     * @throws IOException if the file cannot be read
+     */
+    public static Map<String, List<Access>> loadBaselines() throws IOException {
+        Map<String, List<Access>> baselines = new HashMap<>();
+        if (!Files.exists(BASELINE_FILE)) return baselines;
+        for (Map.Entry<String, String> entry : PriceDataVisualizer.loadQueriesFromFile(BASELINE_FILE.toString()).entrySet()) {
+            List<Access> accesses = new ArrayList<>();
+            for (String line : entry.getValue().split(";")) {
+                int bar = line.lastIndexOf('|');
+                if (bar < 0) continue;
+                Matcher m = ACCESS.matcher(line.substring(0, bar).trim());
+                if (!m.find()) continue;
+                String rows = line.substring(bar + 1).trim();
+                accesses.add(new Access(m.group(1).trim(), m.group(2), m.group(3),
+                        rows.equals("-") ? Double.NaN : Double.parseDouble(rows)));
+            }
+            baselines.put(entry.getKey(), accesses);
+        }
+        return baselines;
+    }
+}
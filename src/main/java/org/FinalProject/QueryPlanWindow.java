@@ -0,0 +1,154 @@
+/**
+ * QueryPlanWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.awt.*;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * QueryPlanWindow shows how MySQL runs any named query: the EXPLAIN ANALYZE
+ * plan as a tree, with the estimated rows, actual rows, loops and time of
+ * each step. It can also record baseline plans for every query and check
+ * the current plans against them.
+ *
+ * Queries are explained off the EDT, since EXPLAIN ANALYZE executes them.
+ */
+public class QueryPlanWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, String> queryMap;
+    private final JComboBox<String> querySelector;
+    private final JTree planTree = new JTree(new DefaultTreeModel(new DefaultMutableTreeNode("Choose a query and click Explain")));
+    private final JTextArea report = new JTextArea(6, 60);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JButton explainButton = new JButton("Explain");
+    private final JButton recordButton = new JButton("Record Baselines");
+    private final JButton checkButton = new JButton("Check Baselines");
+
+    /**
+     * Opens the inspector.
+     * @param queryMap the named queries from tableQueries.sql
+     */
+    public QueryPlanWindow(Map<String, String> queryMap) {
+        super("Query Plans");
+        this.queryMap = queryMap;
+        setSize(900, 600);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        querySelector = new JComboBox<>(new TreeSet<>(queryMap.keySet()).toArray(new String[0]));
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Query: "));
+        controls.add(querySelector);
+        controls.add(explainButton);
+        controls.add(recordButton);
+        controls.add(checkButton);
+
+        report.setEditable(false);
+        report.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(new JScrollPane(report), BorderLayout.CENTER);
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        bottom.add(statusLabel, BorderLayout.SOUTH);
+
+        add(controls, BorderLayout.NORTH);
+        add(new JScrollPane(planTree), BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+
+        explainButton.addActionListener(e -> explainSelected());
+        recordButton.addActionListener(e -> run("Recording baselines...", () -> {
+            QueryPlan.recordBaselines(queryMap);
+            return "Recorded baselines in " + QueryPlan.BASELINE_FILE;
+        }, text -> report.setText(text)));
+        checkButton.addActionListener(e -> run("Checking plans...", () -> {
+            List<String> problems = QueryPlan.checkBaselines(queryMap);
+            return problems.isEmpty() ? "No plan regressions" : String.join("\n", problems);
+        }, text -> report.setText(text)));
+
+        setVisible(true);
+    }
+
+    /**
+     * Explains the selected query and shows its plan tree.
+     */
+    private void explainSelected() {
+        String name = (String) querySelector.getSelectedItem();
+        if (name == null) return;
+        run("Explaining " + name + "...", () -> QueryPlan.explain(queryMap.get(name)), root -> {
+            DefaultMutableTreeNode treeRoot = toTreeNode(root);
+            planTree.setModel(new DefaultTreeModel(treeRoot));
+            for (int row = 0; row < planTree.getRowCount(); row++) planTree.expandRow(row);
+
+            // Compare with the baseline so a changed plan is noticed right away
+            StringBuilder text = new StringBuilder();
+            for (QueryPlan.Access access : QueryPlan.accesses(root)) {
+                text.append(access.isFullScan() ? "FULL SCAN  " : "           ").append(access).append('\n');
+            }
+            try {
+                List<QueryPlan.Access> baseline = QueryPlan.loadBaselines().get(name);
+                if (baseline == null) {
+                    text.append("\nNo baseline recorded for ").append(name);
+                } else {
+                    List<String> problems = QueryPlan.compare(name, baseline, QueryPlan.accesses(root));
+                    text.append('\n').append(problems.isEmpty() ? "Matches the baseline" : String.join("\n", problems));
+                }
+            } catch (java.io.IOException e) {
+                text.append("\nCould not read baselines: ").append(e.getMessage());
+            }
+            report.setText(text.toString());
+        });
+    }
+
+    private static DefaultMutableTreeNode toTreeNode(QueryPlan.Node node) {
+        DefaultMutableTreeNode treeNode = new DefaultMutableTreeNode(node);
+        for (QueryPlan.Node child : node.children()) treeNode.add(toTreeNode(child));
+        return treeNode;
+    }
+
+    /**
+     * Runs a task off the EDT with the buttons disabled, then hands its
+     * result to the EDT.
+     */
+    private <T> void run(String status, Callable<T> task, Consumer<T> onDone) {
+        setBusy(true);
+        statusLabel.setText(status);
+        long start = System.nanoTime();
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                try {
+                    onDone.accept(get());
+                    statusLabel.setText(String.format("Done in %.1f s", (System.nanoTime() - start) / 1e9));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Failed");
+                    PriceDataVisualizer.showError(QueryPlanWindow.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    private void setBusy(boolean busy) {
+        explainButton.setEnabled(!busy);
+        recordButton.setEnabled(!busy);
+        checkButton.setEnabled(!busy);
+    }
+}
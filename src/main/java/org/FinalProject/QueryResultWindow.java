@@ -0,0 +1,168 @@
+/**
+ * QueryResultWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * QueryResultWindow re-runs a query from the history panel off the EDT and
+ * streams its rows into a table as they arrive.
+ *
+ * The rows are streamed one at a time (PriceDataVisualizer.STREAM_ROWS)
+ * and shown in batches of BATCH_ROWS, so only one batch is held outside
+ * the table at a time. Results are capped at MAX_ROWS and the query is
+ * stopped after TIMEOUT_SECONDS.
+ * The Cancel button, or closing the window, stops the query on the server.
+ */
+public class QueryResultWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    /** Most rows a re-run will show. */
+    public static final int MAX_ROWS = 10_000;
+    /** Rows added to the table at a time. */
+    public static final int BATCH_ROWS = 500;
+    /** Seconds before the server is asked to stop the query. */
+    public static final int TIMEOUT_SECONDS = 30;
+
+    private final JTable table = new JTable();
+    private final JLabel statusLabel = new JLabel("Running query...");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final QueryWorker worker;
+
+    /**
+     * Opens a result window and starts running the query.
+     * @param sql the SQL to run
+     */
+    public QueryResultWindow(String sql) {
+        super("Query Result");
+        setSize(800, 400);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(cancelButton, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+
+        worker = new QueryWorker(sql);
+        cancelButton.addActionListener(e -> worker.stop());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                worker.stop();
+            }
+        });
+
+        setVisible(true);
+        worker.execute();
+    }
+
+    /**
+     * Runs the query on a background thread, publishing the rows in batches
+     * of BATCH_ROWS.
+     */
+    private class QueryWorker extends SwingWorker<Integer, ResultTableModel> {
+        private final String sql;
+        private volatile Statement statement;
+        private ResultTableModel model;
+        private int shown;
+
+        QueryWorker(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        protected Integer doInBackground() throws SQLException {
+            int total = 0;
+            try (Connection conn = PriceDataVisualizer.getConnection();
+                 Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement = stmt;
+                stmt.setFetchSize(PriceDataVisualizer.STREAM_ROWS);
+                stmt.setMaxRows(MAX_ROWS);
+                stmt.setQueryTimeout(TIMEOUT_SECONDS);
+
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    boolean more = true;
+                    while (more && !isCancelled()) {
+                        ResultTableModel batch = new ResultTableModel(rs.getMetaData());
+                        while (batch.getRowCount() < BATCH_ROWS && (more = batch.readRow(rs))) {
+                            // readRow appends the row
+                        }
+                        total += batch.getRowCount();
+                        // Always publish the first batch so the column headers appear
+                        if (batch.getRowCount() > 0 || total == 0) publish(batch);
+                    }
+                }
+            } finally {
+                statement = null;
+            }
+            return total;
+        }
+
+        @Override
+        protected void process(List<ResultTableModel> batches) {
+            for (ResultTableModel batch : batches) {
+                if (model == null) {
+                    model = batch;
+                    table.setModel(model);
+                } else {
+                    model.append(batch);
+                }
+            }
+            shown = model.getRowCount();
+            if (!isDone()) statusLabel.setText("Loading... " + shown + " rows");
+        }
+
+        @Override
+        protected void done() {
+            cancelButton.setEnabled(false);
+            try {
+                int rows = get();
+                statusLabel.setText(rows >= MAX_ROWS
+                        ? "Showing the first " + MAX_ROWS + " rows (row limit reached)"
+                        : rows + " rows");
+            } catch (CancellationException e) {
+                statusLabel.setText("Cancelled after " + shown + " rows");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                statusLabel.setText("Query failed after " + shown + " rows: " + e.getCause().getMessage());
+            }
+        }
+
+        /**
+         * Stops the worker and asks the server to abort the running query.
+         */
+        void stop() {
+            if (isDone()) return;
+            cancel(false);
+            Statement stmt = statement;
+            if (stmt != null) {
+                try {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * ResultSetReader.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the rows of a result set into whatever a view needs, while the
+ * backend still holds the result open.
+ * @param <T> what the rows are read into
+ */
+@FunctionalInterface
+public interface ResultSetReader<T> {
+
+    /**
+     * Reads the result set. The result set is closed by the caller once
+     * this returns, so it must not be kept.
+     * @param rs the result set, positioned before the first row
+     * @return what was read
+     * @throws SQLException if reading fails
+     */
+    T read(ResultSet rs) throws SQLException;
+}
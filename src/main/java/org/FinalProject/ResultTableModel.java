@@ -0,0 +1,267 @@
+/**
+ * ResultTableModel.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * ResultTableModel is a column-oriented table model filled straight from a
+ * ResultSet. Numeric columns are kept in primitive arrays and text columns
+ * are interned per column, so ingesting a result does not allocate a
+ * Vector and a boxed value for every cell the way DefaultTableModel does.
+ * Values are only boxed when the JTable asks for a visible cell.
+ *
+ * Filtering returns a view that shares the column storage and only holds
+ * the indexes of the matching rows.
+ */
+public class ResultTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final int INTERN_LIMIT = 4096;
+
+    private enum Kind { INT, LONG, DOUBLE, TEXT }
+
+    private final String[] names;
+    private final Kind[] kinds;
+    private final Storage storage;
+    private final int[] rowMap;
+
+    /**
+     * Shared column storage. Views created by filter() point at the same
+     * instance.
+     */
+    private static final class Storage {
+        int[][] ints;
+        long[][] longs;
+        double[][] doubles;
+        String[][] texts;
+        BitSet[] nulls;
+        List<Map<String, String>> interners = new ArrayList<>();
+        int rows;
+        int capacity = 256;
+    }
+
+    /**
+     * Creates an empty model with the columns of a result set.
+     * @param meta the metadata of the result set to read
+     * @throws SQLException if the metadata cannot be read
+     */
+    public ResultTableModel(ResultSetMetaData meta) throws SQLException {
+        int columnCount = meta.getColumnCount();
+        names = new String[columnCount];
+        kinds = new Kind[columnCount];
+        storage = new Storage();
+        storage.ints = new int[columnCount][];
+        storage.longs = new long[columnCount][];
+        storage.doubles = new double[columnCount][];
+        storage.texts = new String[columnCount][];
+        storage.nulls = new BitSet[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = meta.getColumnLabel(c + 1);
+            kinds[c] = kindOf(meta.getColumnType(c + 1));
+            switch (kinds[c]) {
+                case INT -> storage.ints[c] = new int[storage.capacity];
+                case LONG -> storage.longs[c] = new long[storage.capacity];
+                case DOUBLE -> storage.doubles[c] = new double[storage.capacity];
+                case TEXT -> storage.texts[c] = new String[storage.capacity];
+            }
+            storage.nulls[c] = new BitSet();
+            storage.interners.add(new HashMap<>());
+        }
+        rowMap = null;
+    }
+
+    private ResultTableModel(ResultTableModel source, int[] rowMap) {
+        this.names = source.names;
+        this.kinds = source.kinds;
+        this.storage = source.storage;
+        this.rowMap = rowMap;
+    }
+
+    /**
+     * Advances the result set and appends the current row. Callers can read
+     * additional typed values from the result set after this returns true.
+     * @param rs the result set to read from
+     * @return true if a row was read, false at the end of the result set
+     * @throws SQLException if reading fails
+     */
+    public boolean readRow(ResultSet rs) throws SQLException {
+        if (rowMap != null) throw new IllegalStateException("Filtered views are read-only");
+        if (!rs.next()) return false;
+        Storage s = storage;
+        if (s.rows == s.capacity) grow();
+        int r = s.rows;
+        for (int c = 0; c < names.length; c++) {
+            switch (kinds[c]) {
+                case INT -> s.ints[c][r] = rs.getInt(c + 1);
+                case LONG -> s.longs[c][r] = rs.getLong(c + 1);
+                case DOUBLE -> s.doubles[c][r] = rs.getDouble(c + 1);
+                case TEXT -> s.texts[c][r] = intern(c, rs.getString(c + 1));
+            }
+            if (rs.wasNull()) s.nulls[c].set(r);
+        }
+        s.rows++;
+        // Avoid creating an event per row while nothing is listening yet
+        if (listenerList.getListenerCount() > 0) fireTableRowsInserted(r, r);
+        return true;
+    }
+
+    /**
+     * Appends every row of another model with the same columns and notifies
+     * the table once. This lets a background thread read a batch into its
+     * own model and hand it to the displayed model on the EDT.
+     * @param batch the rows to append
+     */
+    public void append(ResultTableModel batch) {
+        if (rowMap != null) throw new IllegalStateException("Filtered views are read-only");
+        if (batch.names.length != names.length) throw new IllegalArgumentException("Column count differs");
+        int count = batch.getRowCount();
+        if (count == 0) return;
+        Storage s = storage;
+        int first = s.rows;
+        while (s.capacity < first + count) grow();
+        for (int c = 0; c < names.length; c++) {
+            for (int i = 0; i < count; i++) {
+                int r = batch.physical(i);
+                if (batch.storage.nulls[c].get(r)) s.nulls[c].set(first + i);
+                switch (kinds[c]) {
+                    case INT -> s.ints[c][first + i] = batch.storage.ints[c][r];
+                    case LONG -> s.longs[c][first + i] = batch.storage.longs[c][r];
+                    case DOUBLE -> s.doubles[c][first + i] = batch.storage.doubles[c][r];
+                    case TEXT -> s.texts[c][first + i] = intern(c, batch.storage.texts[c][r]);
+                }
+            }
+        }
+        s.rows += count;
+        fireTableRowsInserted(first, first + count - 1);
+    }
+
+    /**
+     * Returns a read-only view containing only the rows that match.
+     * @param keep predicate over the row indexes of this model
+     * @return the filtered view
+     */
+    public ResultTableModel filter(IntPredicate keep) {
+        int count = getRowCount();
+        int[] matched = new int[count];
+        int m = 0;
+        for (int r = 0; r < count; r++) {
+            if (keep.test(r)) matched[m++] = physical(r);
+        }
+        return new ResultTableModel(this, Arrays.copyOf(matched, m));
+    }
+
+    /**
+     * Returns the value of a text column, or the string form of a numeric one.
+     * @param row the row index
+     * @param col the column index
+     * @return the text value, or null when the cell is null
+     */
+    public String getText(int row, int col) {
+        int r = physical(row);
+        if (storage.nulls[col].get(r)) return null;
+        return switch (kinds[col]) {
+            case TEXT -> storage.texts[col][r];
+            case INT -> Integer.toString(storage.ints[col][r]);
+            case LONG -> Long.toString(storage.longs[col][r]);
+            case DOUBLE -> Double.toString(storage.doubles[col][r]);
+        };
+    }
+
+    /**
+     * Resolves a column label to its index, ignoring case.
+     * @param name the column label
+     * @return the column index, or -1 if there is no such column
+     */
+    @Override
+    public int findColumn(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equalsIgnoreCase(name)) return c;
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowMap == null ? storage.rows : rowMap.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return names[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (kinds[column]) {
+            case INT -> Integer.class;
+            case LONG -> Long.class;
+            case DOUBLE -> Double.class;
+            case TEXT -> String.class;
+        };
+    }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        int r = physical(row);
+        if (storage.nulls[col].get(r)) return null;
+        return switch (kinds[col]) {
+            case INT -> storage.ints[col][r];
+            case LONG -> storage.longs[col][r];
+            case DOUBLE -> storage.doubles[col][r];
+            case TEXT -> storage.texts[col][r];
+        };
+    }
+
+    private int physical(int row) {
+        return rowMap == null ? row : rowMap[row];
+    }
+
+    private String intern(int col, String value) {
+        if (value == null) return null;
+        Map<String, String> interner = storage.interners.get(col);
+        String existing = interner.get(value);
+        if (existing != null) return existing;
+        if (interner.size() < INTERN_LIMIT) interner.put(value, value);
+        return value;
+    }
+
+    private void grow() {
+        Storage s = storage;
+        s.capacity *= 2;
+        for (int c = 0; c < names.length; c++) {
+            switch (kinds[c]) {
+                case INT -> s.ints[c] = Arrays.copyOf(s.ints[c], s.capacity);
+                case LONG -> s.longs[c] = Arrays.copyOf(s.longs[c], s.capacity);
+                case DOUBLE -> s.doubles[c] = Arrays.copyOf(s.doubles[c], s.capacity);
+                case TEXT -> s.texts[c] = Arrays.copyOf(s.texts[c], s.capacity);
+            }
+        }
+    }
+
+    private static Kind kindOf(int sqlType) {
+        return switch (sqlType) {
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> Kind.INT;
+            // COUNT(*) and auto-increment ids
+            case Types.BIGINT -> Kind.LONG;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> Kind.DOUBLE;
+            default -> Kind.TEXT;
+        };
+    }
+}
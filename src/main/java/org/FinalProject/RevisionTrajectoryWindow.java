@@ -0,0 +1,400 @@
+/**
+ * RevisionTrajectoryWindow.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.block.BlockBorder;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.StandardXYBarPainter;
+import org.jfree.chart.renderer.xy.XYBarRenderer;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.ui.RectangleAnchor;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.chart.ui.TextAnchor;
+import org.jfree.data.Range;
+import org.jfree.data.general.DatasetUtils;
+import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.data.xy.XYBarDataset;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * RevisionTrajectoryWindow shows how the forecast of one item and target
+ * year was revised, vintage by vintage, until the actual was known. The
+ * top chart has the lower, mid and upper forecast by the month it was made
+ * with the actual as a horizontal line; the bottom chart has each revision
+ * of the mid point and the distance of the mid point from the actual, so
+ * convergence shows as that line closing in on zero.
+ *
+ * The other time-series views keep one value per item and date, so the
+ * vintages of a target year overwrite each other there. This window reads
+ * the ForecastVintages index instead, which is built once per table off
+ * the EDT; choosing an item or target year afterwards only reads a range
+ * of it.
+ */
+public class RevisionTrajectoryWindow extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private static final DatasetTable[] TABLES = {
+            DatasetTable.CPI_HISTORICAL_FORECAST, DatasetTable.CPI_FORECAST_ARCHIVED,
+            DatasetTable.PPI_HISTORICAL_FORECAST, DatasetTable.PPI_FORECAST_ARCHIVED
+    };
+    private static final String[] BOUND_NAMES = {"Lower Bound", "Mid Point", "Upper Bound"};
+    private static final double BAR_WIDTH_MILLIS = 20 * 24 * 60 * 60 * 1000.0;
+
+    private final JComboBox<String> tableSelector = new JComboBox<>();
+    private final JList<String> itemList = new JList<>();
+    private final JList<Integer> targetList = new JList<>();
+    private final JPanel chartPanel = new JPanel(new BorderLayout());
+    private final JTable vintageTable = new JTable();
+    private final JLabel statusLabel = new JLabel("Loading...");
+    private ForecastVintages vintages;
+    private AnnualSeries actuals;
+
+    /**
+     * Opens the window with CPIHistoricalForecast loaded.
+     */
+    public RevisionTrajectoryWindow() {
+        super("Forecast Revision Trajectories");
+        setSize(1200, 800);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        for (DatasetTable table : TABLES) tableSelector.addItem(table.tableName());
+        itemList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        targetList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Table:"));
+        controls.add(tableSelector);
+
+        JScrollPane itemScroll = new JScrollPane(itemList);
+        itemScroll.setBorder(BorderFactory.createTitledBorder("Item"));
+        JScrollPane targetScroll = new JScrollPane(targetList);
+        targetScroll.setBorder(BorderFactory.createTitledBorder("Target year"));
+        targetScroll.setPreferredSize(new Dimension(120, 0));
+        JPanel lists = new JPanel(new BorderLayout());
+        lists.add(itemScroll, BorderLayout.CENTER);
+        lists.add(targetScroll, BorderLayout.EAST);
+        lists.setPreferredSize(new Dimension(380, 0));
+
+        JScrollPane tableScroll = new JScrollPane(vintageTable);
+        tableScroll.setPreferredSize(new Dimension(800, 180));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JPanel right = new JPanel(new BorderLayout());
+        right.add(chartPanel, BorderLayout.CENTER);
+        right.add(tableScroll, BorderLayout.SOUTH);
+
+        add(controls, BorderLayout.NORTH);
+        add(new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, lists, right), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        tableSelector.addActionListener(e -> loadTable());
+        itemList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showTargets();
+        });
+        targetList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showTrajectory();
+        });
+
+        setVisible(true);
+        loadTable();
+    }
+
+    /**
+     * Builds (or fetches from the cache) the vintage index of the chosen
+     * table and the actuals it is compared against, then lists its items.
+     */
+    private void loadTable() {
+        DatasetTable table = selectedTable();
+        tableSelector.setEnabled(false);
+        statusLabel.setText("Indexing " + table.tableName() + "...");
+        new SwingWorker<ForecastVintages, Void>() {
+            private AnnualSeries loadedActuals;
+            private long elapsedMillis;
+
+            @Override
+            protected ForecastVintages doInBackground() {
+                long start = System.nanoTime();
+                ForecastVintages index = ForecastVintages.from(Datasets.get(table));
+                loadedActuals = actualsFor(table);
+                elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                return index;
+            }
+
+            @Override
+            protected void done() {
+                tableSelector.setEnabled(true);
+                try {
+                    vintages = get();
+                    actuals = loadedActuals;
+                    String previous = itemList.getSelectedValue();
+                    itemList.setListData(vintages.items().toArray(new String[0]));
+                    if (previous != null && vintages.items().contains(previous)) {
+                        itemList.setSelectedValue(previous, true);
+                    } else if (!vintages.items().isEmpty()) {
+                        itemList.setSelectedIndex(0);
+                    }
+                    statusLabel.setText(String.format("%s: %,d items indexed in %d ms",
+                            table.tableName(), vintages.items().size(), elapsedMillis));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Failed");
+                    PriceDataVisualizer.showError(RevisionTrajectoryWindow.this, e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Lists the target years of the selected item, keeping the selected
+     * year when the item has it.
+     */
+    private void showTargets() {
+        String item = itemList.getSelectedValue();
+        if (item == null || vintages == null) return;
+        Integer previous = targetList.getSelectedValue();
+        int[] years = vintages.targetYears(item);
+        Integer[] listed = new Integer[years.length];
+        // Most recent target year first
+        for (int i = 0; i < years.length; i++) listed[i] = years[years.length - 1 - i];
+        targetList.setListData(listed);
+        if (previous != null && Arrays.binarySearch(years, previous) >= 0) {
+            targetList.setSelectedValue(previous, true);
+        } else if (listed.length > 0) {
+            targetList.setSelectedIndex(0);
+        }
+    }
+
+    /**
+     * Charts and tabulates the vintages of the selected item and target year.
+     */
+    private void showTrajectory() {
+        String item = itemList.getSelectedValue();
+        Integer target = targetList.getSelectedValue();
+        if (item == null || target == null || vintages == null) return;
+        ForecastVintages.Trajectory trajectory = vintages.trajectory(item, target);
+        double actual = actualOf(actuals, item, target);
+
+        chartPanel.removeAll();
+        chartPanel.add(PriceDataVisualizer.createChartPanel(createChart(selectedTable(), trajectory, actual)),
+                BorderLayout.CENTER);
+        chartPanel.revalidate();
+        chartPanel.repaint();
+        vintageTable.setModel(vintageModel(trajectory, actual));
+        statusLabel.setText(summary(trajectory, actual));
+    }
+
+    private DatasetTable selectedTable() {
+        return TABLES[tableSelector.getSelectedIndex()];
+    }
+
+    /**
+     * Creates the trajectory chart of one item and target year: the forecast
+     * bounds and mid point by the month they were made, with the actual
+     * marked, above the revisions of the mid point and its distance from
+     * the actual.
+     * @param table the forecast table the trajectory comes from
+     * @param trajectory the vintages to chart
+     * @param actual the actual percent change of the target year, or NaN if not yet known
+     * @return a JFreeChart object
+     */
+    static JFreeChart createChart(DatasetTable table, ForecastVintages.Trajectory trajectory, double actual) {
+        TimeSeriesBuilder bounds = new TimeSeriesBuilder();
+        TimeSeriesBuilder changes = new TimeSeriesBuilder();
+        double previous = Double.NaN;
+        for (int v = 0; v < trajectory.size(); v++) {
+            int year = trajectory.year(v);
+            int month = trajectory.month(v);
+            double[][] values = {trajectory.lower(), trajectory.mid(), trajectory.upper()};
+            for (int b = 0; b < BOUND_NAMES.length; b++) {
+                if (!Double.isNaN(values[b][v])) bounds.add(BOUND_NAMES[b], year, month, values[b][v]);
+            }
+            double point = trajectory.point(v);
+            if (Double.isNaN(point)) continue;
+            if (!Double.isNaN(previous)) changes.add("Revision", year, month, point - previous);
+            if (!Double.isNaN(actual)) changes.add("Distance from actual", year, month, point - actual);
+            previous = point;
+        }
+
+        TimeSeriesCollection boundSet = new TimeSeriesCollection();
+        for (String name : BOUND_NAMES) {
+            if (bounds.keys().contains(name)) boundSet.addSeries(bounds.build(name, name));
+        }
+        XYLineAndShapeRenderer boundRenderer = new XYLineAndShapeRenderer(true, true);
+        boundRenderer.setDefaultStroke(new BasicStroke(2.0f));
+        for (int i = 0; i < boundSet.getSeriesCount(); i++) {
+            boundRenderer.setSeriesPaint(i, boundColor((String) boundSet.getSeriesKey(i)));
+            boundRenderer.setSeriesStroke(i, new BasicStroke(2.0f));
+        }
+        NumberAxis boundAxis = new NumberAxis("% Change");
+        boundAxis.setNumberFormatOverride(new DecimalFormat("0.0'%'"));
+        boundAxis.setAutoRangeIncludesZero(false);
+        XYPlot boundPlot = new XYPlot(boundSet, null, boundAxis, boundRenderer);
+        markActual(boundPlot, boundSet, actual);
+
+        TimeSeriesCollection revisionSet = new TimeSeriesCollection();
+        TimeSeriesCollection distanceSet = new TimeSeriesCollection();
+        if (changes.keys().contains("Revision")) revisionSet.addSeries(changes.build("Revision", "Mid point revision"));
+        if (changes.keys().contains("Distance from actual")) {
+            distanceSet.addSeries(changes.build("Distance from actual", "Distance from actual"));
+        }
+        XYBarRenderer revisionRenderer = new XYBarRenderer();
+        revisionRenderer.setBarPainter(new StandardXYBarPainter());
+        revisionRenderer.setShadowVisible(false);
+        revisionRenderer.setSeriesPaint(0, new Color(255, 140, 0));
+        XYLineAndShapeRenderer distanceRenderer = new XYLineAndShapeRenderer(true, true);
+        distanceRenderer.setSeriesPaint(0, Color.DARK_GRAY);
+        distanceRenderer.setSeriesStroke(0, new BasicStroke(1.5f));
+        NumberAxis changeAxis = new NumberAxis("Pct. points");
+        changeAxis.setNumberFormatOverride(new DecimalFormat("0.0"));
+        // Bars centred on the month the revision was made, in line with the points above
+        XYPlot changePlot = new XYPlot(new XYBarDataset(revisionSet, BAR_WIDTH_MILLIS), null, changeAxis, revisionRenderer);
+        changePlot.setDataset(1, distanceSet);
+        changePlot.setRenderer(1, distanceRenderer);
+        changePlot.addRangeMarker(new ValueMarker(0, Color.GRAY, new BasicStroke(1.0f)));
+
+        CombinedDomainXYPlot plot = new CombinedDomainXYPlot(new DateAxis("Month forecast made"));
+        plot.setGap(10.0);
+        plot.add(boundPlot, 3);
+        plot.add(changePlot, 2);
+        for (XYPlot subplot : new XYPlot[]{boundPlot, changePlot}) {
+            subplot.setBackgroundPaint(Color.WHITE);
+            subplot.setDomainGridlinePaint(Color.GRAY);
+            subplot.setRangeGridlinePaint(Color.GRAY);
+        }
+
+        JFreeChart chart = new JFreeChart(trajectory.item() + ": " + trajectory.targetYear()
+                + " Forecast Revisions (" + table.tableName() + ")", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        chart.getLegend().setFrame(BlockBorder.NONE);
+        chart.getLegend().setPosition(RectangleEdge.BOTTOM);
+        return chart;
+    }
+
+    /**
+     * Returns the actual percent change of an item in a year, read from
+     * historicalcpi or historicalppi depending on the forecast table.
+     * @param table the forecast table
+     * @param item the item name
+     * @param year the target year
+     * @return the actual percent change, or NaN if there is none
+     */
+    static double actual(DatasetTable table, String item, int year) {
+        return actualOf(actualsFor(table), item, year);
+    }
+
+    private static AnnualSeries actualsFor(DatasetTable table) {
+        return AnnualSeries.from(Datasets.get(table.isCpi() ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI));
+    }
+
+    private static double actualOf(AnnualSeries actuals, String item, int year) {
+        int index = actuals.indexOf(item);
+        return index < 0 ? Double.NaN : actuals.value(index, year);
+    }
+
+    /**
+     * Draws the actual as a labelled horizontal line, widening the axis so
+     * the line is in view even when every forecast missed it.
+     */
+    private static void markActual(XYPlot plot, TimeSeriesCollection dataset, double actual) {
+        if (Double.isNaN(actual)) return;
+        ValueMarker marker = new ValueMarker(actual, Color.BLACK, new BasicStroke(2.0f));
+        marker.setLabel(String.format("Actual %.1f%%", actual));
+        marker.setLabelAnchor(RectangleAnchor.TOP_RIGHT);
+        marker.setLabelTextAnchor(TextAnchor.BOTTOM_RIGHT);
+        plot.addRangeMarker(marker);
+
+        // Markers don't widen the axis, so make room for the actual
+        Range range = DatasetUtils.findRangeBounds(dataset);
+        if (range != null) {
+            Range withActual = Range.expandToInclude(range, actual);
+            plot.getRangeAxis().setRange(Range.expand(withActual, 0.05, 0.05));
+        }
+    }
+
+    private static Color boundColor(String name) {
+        return switch (name) {
+            case "Lower Bound" -> new Color(30, 144, 255);   // Blue, as in the forecast range charts
+            case "Upper Bound" -> new Color(220, 20, 60);    // Red
+            default -> new Color(46, 139, 87);               // Green for the mid point
+        };
+    }
+
+    /**
+     * Builds the vintage table: one row per month a forecast was made.
+     */
+    private static DefaultTableModel vintageModel(ForecastVintages.Trajectory trajectory, double actual) {
+        DefaultTableModel model = new DefaultTableModel(
+                new String[]{"Month made", "Lower", "Mid", "Upper", "Revision", "Distance from actual"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        DecimalFormat percent = new DecimalFormat("0.0'%'");
+        DecimalFormat points = new DecimalFormat("+0.0;-0.0");
+        double previous = Double.NaN;
+        for (int v = 0; v < trajectory.size(); v++) {
+            double point = trajectory.point(v);
+            model.addRow(new Object[]{
+                    ForecastVintages.monthName(trajectory.month(v)) + " " + trajectory.year(v),
+                    format(percent, trajectory.lower()[v]),
+                    format(percent, trajectory.mid()[v]),
+                    format(percent, trajectory.upper()[v]),
+                    format(points, point - previous),
+                    format(points, point - actual)
+            });
+            if (!Double.isNaN(point)) previous = point;
+        }
+        return model;
+    }
+
+    /**
+     * Summarises a trajectory: how far the first and last vintages were from
+     * the actual, and the average size of a revision.
+     */
+    private static String summary(ForecastVintages.Trajectory trajectory, double actual) {
+        int first = -1, last = -1, revisions = 0;
+        double revisionSum = 0;
+        for (int v = 0; v < trajectory.size(); v++) {
+            double point = trajectory.point(v);
+            if (Double.isNaN(point)) continue;
+            if (last >= 0) {
+                revisionSum += Math.abs(point - trajectory.point(last));
+                revisions++;
+            }
+            if (first < 0) first = v;
+            last = v;
+        }
+        if (first < 0) return trajectory.size() + " vintages, none with a point forecast";
+
+        StringBuilder text = new StringBuilder(String.format("%d vintages from %s %d to %s %d",
+                trajectory.size(), ForecastVintages.monthName(trajectory.month(first)), trajectory.year(first),
+                ForecastVintages.monthName(trajectory.month(last)), trajectory.year(last)));
+        if (!Double.isNaN(actual)) {
+            text.append(String.format("; distance from the actual %+.1f to %+.1f points",
+                    trajectory.point(first) - actual, trajectory.point(last) - actual));
+        } else {
+            text.append("; actual not yet known");
+        }
+        if (revisions > 0) text.append(String.format("; mean absolute revision %.2f points", revisionSum / revisions));
+        return text.toString();
+    }
+
+    private static String format(DecimalFormat format, double value) {
+        return Double.isNaN(value) ? "" : format.format(value);
+    }
+}
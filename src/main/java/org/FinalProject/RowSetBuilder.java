@@ -0,0 +1,67 @@
+/**
+ * RowSetBuilder.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+
+/**
+ * RowSetBuilder assembles an in-memory CachedRowSet row by row, so results
+ * computed in Java can be handed to code that reads a ResultSet.
+ */
+final class RowSetBuilder {
+    private final CachedRowSet rows;
+    private final int columnCount;
+
+    /**
+     * Creates a builder for the given columns.
+     * @param names the column labels
+     * @param sqlTypes the java.sql.Types of each column
+     * @throws SQLException if the row set cannot be created
+     */
+    RowSetBuilder(String[] names, int[] sqlTypes) throws SQLException {
+        columnCount = names.length;
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            meta.setColumnName(c + 1, names[c]);
+            meta.setColumnLabel(c + 1, names[c]);
+            meta.setColumnType(c + 1, sqlTypes[c]);
+        }
+        rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(meta);
+    }
+
+    /**
+     * Appends a row.
+     * @param values one value per column; null for SQL NULL
+     * @throws SQLException if the row cannot be added
+     */
+    void addRow(Object... values) throws SQLException {
+        rows.moveToInsertRow();
+        for (int c = 0; c < columnCount; c++) {
+            if (values[c] == null) rows.updateNull(c + 1);
+            else rows.updateObject(c + 1, values[c]);
+        }
+        rows.insertRow();
+    }
+
+    /**
+     * Finishes the row set and positions it before the first row.
+     * @return the row set
+     * @throws SQLException if the row set cannot be positioned
+     */
+    CachedRowSet build() throws SQLException {
+        rows.moveToCurrentRow();
+        rows.beforeFirst();
+        return rows;
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * SnapshotDataStore.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * SnapshotDataStore runs the analyses in process on the memory-mapped
+ * column snapshots from Datasets, without a database.
+ *
+ * Each analysis is a tight loop over primitive columns: strings are
+ * compared once per dictionary entry rather than once per row, GROUP BY is
+ * done with arrays indexed by dictionary id and year, and the methodology
+ * JOIN is a sort-merge over packed long keys. Results are built as
+ * CachedRowSets with the same columns as the SQL queries and handed to the
+ * caller's reader.
+ */
+public class SnapshotDataStore implements PriceDataStore {
+
+    @Override
+    public String name() {
+        return "snapshot";
+    }
+
+    @Override
+    public <T> T forecastAccuracy(boolean cpi, ResultSetReader<T> reader) throws SQLException {
+        try (ResultSet rs = forecastAccuracyRows(cpi)) {
+            return reader.read(rs);
+        }
+    }
+
+    private ResultSet forecastAccuracyRows(boolean cpi) throws SQLException {
+        DatasetSnapshot forecasts = Datasets.get(cpi ? DatasetTable.CPI_HISTORICAL_FORECAST : DatasetTable.PPI_HISTORICAL_FORECAST);
+        AnnualSeries actuals = AnnualSeries.from(Datasets.get(cpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI));
+        int yearCol = forecasts.columnIndex("yearBeingForecast");
+        int attributeCol = forecasts.columnIndex("attribute");
+        int valueCol = forecasts.columnIndex("forecastPercentChange");
+        boolean[] mid = midAttributes(forecasts);
+
+        // Map each forecast item to its actual series once, by dictionary id
+        int[] actualOf = new int[forecasts.dictionarySize()];
+        Arrays.fill(actualOf, Integer.MIN_VALUE);
+        double[][] sums = new double[forecasts.dictionarySize()][];
+        int[][] counts = new int[forecasts.dictionarySize()][];
+
+        for (int r = 0; r < forecasts.rowCount(); r++) {
+            int attributeId = forecasts.getStringId(r, attributeCol);
+            if (attributeId < 0 || !mid[attributeId]) continue;
+            double forecast = forecasts.getDouble(r, valueCol);
+            int itemId = forecasts.getStringId(r, 0);
+            if (Double.isNaN(forecast) || itemId < 0) continue;
+
+            if (actualOf[itemId] == Integer.MIN_VALUE) actualOf[itemId] = actuals.indexOf(forecasts.dictionaryString(itemId));
+            int actualItem = actualOf[itemId];
+            if (actualItem < 0) continue;
+            int year = forecasts.getInt(r, yearCol);
+            double actual = actuals.value(actualItem, year);
+            if (Double.isNaN(actual)) continue;
+
+            if (sums[itemId] == null) {
+                sums[itemId] = new double[actuals.yearCount()];
+                counts[itemId] = new int[actuals.yearCount()];
+            }
+            int y = year - actuals.firstYear();
+            sums[itemId][y] += Math.abs(forecast - actual);
+            counts[itemId][y]++;
+        }
+
+        RowSetBuilder rows = new RowSetBuilder(new String[]{"item", "year", "mean_absolute_error"},
+                new int[]{Types.VARCHAR, Types.INTEGER, Types.DOUBLE});
+        for (int itemId : idsByName(forecasts, sums)) {
+            for (int y = 0; y < sums[itemId].length; y++) {
+                if (counts[itemId][y] == 0) continue;
+                rows.addRow(forecasts.dictionaryString(itemId), actuals.firstYear() + y, sums[itemId][y] / counts[itemId][y]);
+            }
+        }
+        return rows.build();
+    }
+
+    @Override
+    public <T> T methodologyComparison(boolean cpi, ResultSetReader<T> reader) throws SQLException {
+        try (ResultSet rs = methodologyComparisonRows(cpi)) {
+            return reader.read(rs);
+        }
+    }
+
+    private ResultSet methodologyComparisonRows(boolean cpi) throws SQLException {
+        DatasetSnapshot archived = Datasets.get(cpi ? DatasetTable.CPI_FORECAST_ARCHIVED : DatasetTable.PPI_FORECAST_ARCHIVED);
+        DatasetSnapshot current = Datasets.get(cpi ? DatasetTable.CPI_HISTORICAL_FORECAST : DatasetTable.PPI_HISTORICAL_FORECAST);
+
+        // Rank the item names of the current table so keys sort by item name
+        Map<String, Integer> rankOf = new HashMap<>();
+        TreeSet<String> names = new TreeSet<>();
+        for (int r = 0; r < current.rowCount(); r++) {
+            String item = current.getString(r, 0);
+            if (item != null) names.add(item);
+        }
+        List<String> rankedNames = new ArrayList<>(names);
+        for (int i = 0; i < rankedNames.size(); i++) rankOf.put(rankedNames.get(i), i);
+
+        // Sort the midpoint rows of both tables by (item rank, year, month)
+        long[] currentKeys = keyedMidRows(current, rankOf);
+        long[] archivedKeys = keyedMidRows(archived, rankOf);
+        Arrays.sort(currentKeys);
+        Arrays.sort(archivedKeys);
+
+        int currentValue = current.columnIndex("forecastPercentChange");
+        int archivedValue = archived.columnIndex("forecastPercentChange");
+        RowSetBuilder rows = new RowSetBuilder(
+                new String[]{"item", "year", "month", "old_forecast", "new_forecast"},
+                new int[]{Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.DOUBLE, Types.DOUBLE});
+
+        // Merge join: every archived row pairs with every current row of the same key
+        int a = 0;
+        int c = 0;
+        while (a < archivedKeys.length && c < currentKeys.length) {
+            long key = archivedKeys[a] >>> 32;
+            long other = currentKeys[c] >>> 32;
+            if (key < other) {
+                a++;
+            } else if (key > other) {
+                c++;
+            } else {
+                int aEnd = a;
+                while (aEnd < archivedKeys.length && archivedKeys[aEnd] >>> 32 == key) aEnd++;
+                int cEnd = c;
+                while (cEnd < currentKeys.length && currentKeys[cEnd] >>> 32 == key) cEnd++;
+                String item = rankedNames.get((int) (key >>> 16));
+                int year = (int) ((key >>> 4) & 0xFFF) + 1900;
+                int month = (int) (key & 0xF);
+                for (int i = a; i < aEnd; i++) {
+                    double oldValue = round2(archived.getDouble((int) archivedKeys[i], archivedValue));
+                    for (int j = c; j < cEnd; j++) {
+                        rows.addRow(item, year, month, oldValue, round2(current.getDouble((int) currentKeys[j], currentValue)));
+                    }
+                }
+                a = aEnd;
+                c = cEnd;
+            }
+        }
+        return rows.build();
+    }
+
+    @Override
+    public <T> T volatility(boolean cpi, int yearFrom, int yearTo, ResultSetReader<T> reader) throws SQLException {
+        try (ResultSet rs = volatilityRows(cpi, yearFrom, yearTo)) {
+            return reader.read(rs);
+        }
+    }
+
+    @Override
+    public Object actualsVersion(boolean cpi) {
+        // A reload swaps in a new snapshot
+        return Datasets.get(cpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI);
+    }
+
+    private ResultSet volatilityRows(boolean cpi, int yearFrom, int yearTo) throws SQLException {
+        DatasetSnapshot historical = Datasets.get(cpi ? DatasetTable.HISTORICAL_CPI : DatasetTable.HISTORICAL_PPI);
+        int yearCol = historical.columnIndex("year");
+        int valueCol = historical.columnIndex("percentChange");
+        int span = Math.max(0, yearTo - yearFrom + 1);
+        double[][] sums = new double[historical.dictionarySize()][];
+        int[][] counts = new int[historical.dictionarySize()][];
+        int[][] rowCounts = new int[historical.dictionarySize()][];
+
+        for (int r = 0; r < historical.rowCount(); r++) {
+            int year = historical.getInt(r, yearCol);
+            int itemId = historical.getStringId(r, 0);
+            if (year < yearFrom || year > yearTo || itemId < 0) continue;
+            if (sums[itemId] == null) {
+                sums[itemId] = new double[span];
+                counts[itemId] = new int[span];
+                rowCounts[itemId] = new int[span];
+            }
+            int y = year - yearFrom;
+            rowCounts[itemId][y]++;
+            double value = historical.getDouble(r, valueCol);
+            if (Double.isNaN(value)) continue;
+            sums[itemId][y] += value;
+            counts[itemId][y]++;
+        }
+
+        RowSetBuilder rows = new RowSetBuilder(new String[]{"item", "year", "avgChange"},
+                new int[]{Types.VARCHAR, Types.INTEGER, Types.DOUBLE});
+        for (int itemId : idsByName(historical, sums)) {
+            for (int y = 0; y < span; y++) {
+                if (rowCounts[itemId][y] == 0) continue;
+                // Like AVG, a group of only NULL values averages to NULL
+                Double avg = counts[itemId][y] == 0 ? null : sums[itemId][y] / counts[itemId][y];
+                rows.addRow(historical.dictionaryString(itemId), yearFrom + y, avg);
+            }
+        }
+        return rows.build();
+    }
+
+    @Override
+    public <T> T categoryTree(ResultSetReader<T> reader) throws SQLException {
+        try (ResultSet rs = categoryTreeRows()) {
+            return reader.read(rs);
+        }
+    }
+
+    private ResultSet categoryTreeRows() throws SQLException {
+        DatasetSnapshot forecast = Datasets.get(DatasetTable.CPI_FORECAST);
+        int unitCol = forecast.columnIndex("unit");
+        int attributeCol = forecast.columnIndex("attribute");
+        int valueCol = forecast.columnIndex("value");
+        BoundType[] boundTypes = BoundType.classifyDictionary(forecast);
+        int percentChange = -1;
+        int relativeImportance = -1;
+        for (int id = 0; id < forecast.dictionarySize(); id++) {
+            if ("Percent change".equals(forecast.dictionaryString(id))) percentChange = id;
+            if ("Relative importance".equals(forecast.dictionaryString(id))) relativeImportance = id;
+        }
+
+        String[] names = {"topLevel", "aggregate", "midLevel", "lowLevel", "disaggregate", "boundType", "value"};
+        RowSetBuilder rows = new RowSetBuilder(names, new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE});
+        for (int r = 0; r < forecast.rowCount(); r++) {
+            int attributeId = forecast.getStringId(r, attributeCol);
+            if (attributeId < 0) continue;
+            String kind;
+            if (attributeId == relativeImportance) {
+                kind = CategoryTree.WEIGHT;
+            } else if (forecast.getStringId(r, unitCol) == percentChange && boundTypes[attributeId] != BoundType.OTHER) {
+                kind = boundTypes[attributeId].name();
+            } else {
+                continue;
+            }
+            double value = forecast.getDouble(r, valueCol);
+            // The five level columns come first, in tree order
+            rows.addRow(forecast.getString(r, 0), forecast.getString(r, 1), forecast.getString(r, 2),
+                    forecast.getString(r, 3), forecast.getString(r, 4), kind,
+                    Double.isNaN(value) ? null : value);
+        }
+        return rows.build();
+    }
+
+    /**
+     * Flags the dictionary entries that are midpoint attributes, matching
+     * LOWER(attribute) LIKE '%mid%'.
+     */
+    private static boolean[] midAttributes(DatasetSnapshot snapshot) {
+        boolean[] mid = new boolean[snapshot.dictionarySize()];
+        for (int id = 0; id < mid.length; id++) {
+            String s = snapshot.dictionaryString(id);
+            mid[id] = s != null && s.toLowerCase().contains("mid");
+        }
+        return mid;
+    }
+
+    /**
+     * Packs every numeric midpoint row as (item rank, year, month) in the
+     * high 32 bits and the row index in the low 32 bits.
+     */
+    private static long[] keyedMidRows(DatasetSnapshot snapshot, Map<String, Integer> rankOf) {
+        int monthCol = snapshot.columnIndex("monthOfForecast");
+        int yearCol = snapshot.columnIndex("yearBeingForecast");
+        int attributeCol = snapshot.columnIndex("attribute");
+        int valueCol = snapshot.columnIndex("forecastPercentChange");
+        boolean[] mid = midAttributes(snapshot);
+
+        // Translate item dictionary ids to ranks once
+        int[] rankOfId = new int[snapshot.dictionarySize()];
+        for (int id = 0; id < rankOfId.length; id++) {
+            rankOfId[id] = rankOf.getOrDefault(snapshot.dictionaryString(id), -1);
+        }
+
+        long[] keys = new long[snapshot.rowCount()];
+        int n = 0;
+        for (int r = 0; r < snapshot.rowCount(); r++) {
+            int attributeId = snapshot.getStringId(r, attributeCol);
+            int itemId = snapshot.getStringId(r, 0);
+            if (attributeId < 0 || !mid[attributeId] || itemId < 0 || rankOfId[itemId] < 0) continue;
+            if (Double.isNaN(snapshot.getDouble(r, valueCol))) continue;
+            int year = snapshot.getInt(r, yearCol);
+            int month = snapshot.getInt(r, monthCol);
+            if (year < 1900 || year > 1900 + 0xFFF || month < 1 || month > 12) continue;
+            long key = ((long) rankOfId[itemId] << 16) | ((long) (year - 1900) << 4) | month;
+            keys[n++] = (key << 32) | r;
+        }
+        return Arrays.copyOf(keys, n);
+    }
+
+    /**
+     * Returns the dictionary ids that have groups, ordered by item name.
+     */
+    private static List<Integer> idsByName(DatasetSnapshot snapshot, double[][] groups) {
+        TreeMap<String, Integer> byName = new TreeMap<>();
+        for (int id = 0; id < groups.length; id++) {
+            if (groups[id] != null) byName.put(snapshot.dictionaryString(id), id);
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    /**
+     * Rounds to two decimals, like CAST(... AS DECIMAL(5,2)).
+     */
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
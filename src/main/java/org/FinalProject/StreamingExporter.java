@@ -0,0 +1,390 @@
+/**
+ * StreamingExporter.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * StreamingExporter writes the result of a query to a CSV or JSON file one
+ * row at a time. The query is read from a forward-only result set that
+ * streams rows from the server, and every row goes straight to a buffered
+ * writer, so memory use stays the same no matter how large the table is.
+ *
+ * A named query can also be exported from the command line:
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.StreamingExporter full_data_cpiforecastarchived out.csv [csv|json]
+ * </pre>
+ */
+public final class StreamingExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_ROWS = 10_000;
+
+    /** Output formats. */
+    public enum Format {
+        CSV("csv"), JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the file extension of the format.
+         * @return the extension without a dot
+         */
+        public String extension() {
+            return extension;
+        }
+    }
+
+    /**
+     * The size and speed of a finished export.
+     * @param rows the number of rows written
+     * @param bytes the number of bytes written
+     * @param nanos the time taken, in nanoseconds
+     */
+    public record Result(long rows, long bytes, long nanos) {
+        /**
+         * Returns the rows written per second.
+         * @return the row throughput
+         */
+        public double rowsPerSecond() {
+            return rows / Math.max(nanos / 1e9, 1e-9);
+        }
+
+        /**
+         * Returns the megabytes written per second.
+         * @return the byte throughput
+         */
+        public double megabytesPerSecond() {
+            return bytes / 1048576.0 / Math.max(nanos / 1e9, 1e-9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d rows (%.1f MB) in %.2f s: %,.0f rows/s, %.1f MB/s",
+                    rows, bytes / 1048576.0, nanos / 1e9, rowsPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    private StreamingExporter() { }
+
+    /**
+     * Exports a named query from tableQueries.sql.
+     * @param args the query name, the output file and optionally the format (csv or json)
+     */
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 2) {
+            System.err.println("Usage: StreamingExporter <queryName> <outputFile> [csv|json]");
+            return;
+        }
+        Map<String, String> queryMap = PriceDataVisualizer.loadQueriesFromFile("sql/tableQueries.sql");
+        String sql = queryMap.get(args[0]);
+        if (sql == null) {
+            System.err.println("No query found for " + args[0]);
+            return;
+        }
+        Format format = args.length > 2 ? Format.valueOf(args[2].toUpperCase()) : Format.CSV;
+        PriceDataVisualizer.setupConnectionPool();
+        try {
+            Result result = exportQuery(sql, Paths.get(args[1]), format, rows -> { }, () -> false);
+            System.out.println("Exported " + result);
+        } finally {
+            PriceDataVisualizer.closeConnectionPool();
+        }
+    }
+
+    /**
+     * Asks for an output file and exports a query into it in the background,
+     * showing the rows written and the throughput while it runs.
+     * @param parent the component dialogs are centred on
+     * @param name the name of the export, used for the default file name
+     * @param sql the query to export
+     * @param format the output format
+     */
+    public static void exportWithDialog(Component parent, String name, String sql, Format format) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(name.replaceAll("[^A-Za-z0-9._-]", "_") + "." + format.extension()));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), "Exporting " + name);
+        JLabel status = new JLabel("Starting export...");
+        JButton cancelButton = new JButton("Cancel");
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        content.add(status, BorderLayout.CENTER);
+        content.add(cancelButton, BorderLayout.EAST);
+        dialog.setContentPane(content);
+        dialog.setSize(420, 90);
+        dialog.setLocationRelativeTo(parent);
+
+        long start = System.nanoTime();
+        SwingWorker<Result, Long> worker = new SwingWorker<>() {
+            @Override
+            protected Result doInBackground() throws Exception {
+                return exportQuery(sql, file, format, this::publish, this::isCancelled);
+            }
+
+            @Override
+            protected void process(List<Long> rows) {
+                long written = rows.get(rows.size() - 1);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                status.setText(String.format("%,d rows, %,.0f rows/s", written, written / Math.max(seconds, 1e-9)));
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                if (isCancelled()) return;
+                try {
+                    JOptionPane.showMessageDialog(parent, "Exported " + get() + "\nto " + file,
+                            "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    PriceDataVisualizer.showError(parent, e);
+                }
+            }
+        };
+        cancelButton.addActionListener(e -> worker.cancel(false));
+        // Closing the dialog cancels the export like the Cancel button
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                worker.cancel(false);
+            }
+        });
+        worker.execute();
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Streams a query on the read pool into a file. A cancelled or failed
+     * export deletes the partial file.
+     * @param sql the query to export
+     * @param file the file to write
+     * @param format the output format
+     * @param progress receives the number of rows written every 10,000 rows
+     * @param cancelled checked between rows; true stops the export
+     * @return the size and speed of the export
+     * @throws SQLException if the query fails or is cancelled
+     * @throws IOException if the file cannot be written
+     */
+    public static Result exportQuery(String sql, Path file, Format format,
+                                     LongConsumer progress, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        boolean complete = false;
+        try (Connection conn = PriceDataVisualizer.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Row-by-row streaming, so the driver never holds the whole result
+            stmt.setFetchSize(PriceDataVisualizer.STREAM_ROWS);
+            try (ResultSet rs = stmt.executeQuery(sql);
+                 OutputStream out = Files.newOutputStream(file)) {
+                try {
+                    Result result = export(rs, out, format, progress, cancelled);
+                    if (cancelled.getAsBoolean()) throw new SQLException("Export cancelled");
+                    complete = true;
+                    return result;
+                } finally {
+                    // Closing a streaming result set reads every row still on
+                    // the wire, so stop the query on the server first
+                    if (!complete) abort(stmt);
+                }
+            }
+        } finally {
+            if (!complete) Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes every remaining row of a result set to a stream.
+     * @param rs the result set, positioned before the first row
+     * @param out the stream to write to; it is flushed but not closed
+     * @param format the output format
+     * @param progress receives the number of rows written every 10,000 rows
+     * @param cancelled checked between rows; true stops the export
+     * @return the size and speed of the export
+     * @throws SQLException if reading fails
+     * @throws IOException if writing fails
+     */
+    public static Result export(ResultSet rs, OutputStream out, Format format,
+                                LongConsumer progress, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(out);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        String[] names = new String[columnCount];
+        String[] jsonKeys = new String[columnCount];
+        boolean[] numeric = new boolean[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = meta.getColumnLabel(c + 1);
+            numeric[c] = isNumeric(meta.getColumnType(c + 1));
+            // Encode each "key": prefix once rather than once per row
+            StringWriter key = new StringWriter();
+            if (c > 0) key.write(',');
+            writeJsonString(key, names[c]);
+            key.write(':');
+            jsonKeys[c] = key.toString();
+        }
+
+        long rows = 0;
+        if (format == Format.CSV) {
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) writer.write(',');
+                writeCsvField(writer, names[c]);
+            }
+            writer.write('\n');
+        } else {
+            writer.write('[');
+        }
+
+        while (!cancelled.getAsBoolean() && rs.next()) {
+            if (format == Format.CSV) {
+                for (int c = 0; c < columnCount; c++) {
+                    if (c > 0) writer.write(',');
+                    String value = rs.getString(c + 1);
+                    if (value != null) writeCsvField(writer, value);
+                }
+                writer.write('\n');
+            } else {
+                writer.write(rows == 0 ? "\n{" : ",\n{");
+                for (int c = 0; c < columnCount; c++) {
+                    writer.write(jsonKeys[c]);
+                    String value = rs.getString(c + 1);
+                    if (value == null) writer.write("null");
+                    else if (numeric[c]) writer.write(value);
+                    else writeJsonString(writer, value);
+                }
+                writer.write('}');
+            }
+            if (++rows % PROGRESS_ROWS == 0) progress.accept(rows);
+        }
+
+        if (format == Format.JSON) writer.write("\n]\n");
+        writer.flush();
+        progress.accept(rows);
+        return new Result(rows, counter.count, System.nanoTime() - start);
+    }
+
+    /**
+     * Asks the server to stop a running statement.
+     */
+    private static void abort(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.FLOAT, Types.REAL, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Writes a CSV field, quoting it only when it contains a comma, quote
+     * or line break.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') writer.write('"');
+            writer.write(ch);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Writes a JSON string literal, escaping quotes, backslashes and control
+     * characters.
+     */
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        boolean escape = false;
+        for (int i = 0; i < value.length() && !escape; i++) {
+            char ch = value.charAt(i);
+            escape = ch == '"' || ch == '\\' || ch < 0x20;
+        }
+        if (!escape) {
+            writer.write(value);
+            writer.write('"');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (ch < 0x20) writer.write(String.format("\\u%04x", (int) ch));
+                    else writer.write(ch);
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Counts the bytes written through it, for the throughput report.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/**
+ * SyntheticDataGenerator.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.FinalProject.DatasetTable.Column;
+import org.FinalProject.DatasetTable.ColumnType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+
+/**
+ * SyntheticDataGenerator scales the eight USDA tables up for stress tests.
+ * At scale N every table holds N copies of the real data: the original and
+ * N - 1 synthetic regions, such as "Beef and veal (Region 7)". A region
+ * keeps the structure of the original item by item (the same category
+ * tree, forecast vintages, attributes and years), so every view, cache and
+ * query sees the shapes it sees in production, only N times as many items.
+ *
+ * Scale only adds items. To make the history and the forecast vintages of
+ * each item longer as well, --history H adds H earlier copies of every
+ * dated row, each shifted back by the year span of the historical tables.
+ * Actuals, archived forecasts and their vintages then cover H + 1 times as
+ * many years; the current forecast tables have no years and are unchanged.
+ *
+ * Values of a region are the original values shifted by a fixed offset per
+ * region and item, so lower bound, mid point and upper bound keep their
+ * order and forecasts stay close to the actuals they are compared with.
+ * Actual values also get a little noise of their own per year. Text that
+ * is not a number (the archived "to 3.5" ranges) is copied as is. The same
+ * seed always produces the same data.
+ *
+ * The tables are written as CSV files with the headers of the originals,
+ * ready for load_all_data.sql or the snapshot backend, or loaded straight
+ * into the database tables (after columnFormatting.sql):
+ * <pre>
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.SyntheticDataGenerator 100 [--out dataset-100x] [--seed 42]
+ *   java -cp PriceDataVisualizer.jar org.FinalProject.SyntheticDataGenerator 100 --load
+ * </pre>
+ */
+public final class SyntheticDataGenerator {
+    private static final int ROWS_PER_INSERT = 500;
+    private static final double REGION_SPREAD = 0.8;   // Standard deviation of the offset of a region and item
+    private static final double ACTUAL_NOISE = 0.3;    // Standard deviation of the yearly noise of actuals
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    /**
+     * Receives the generated rows of one table.
+     */
+    interface RowSink extends AutoCloseable {
+        /**
+         * Writes one row.
+         * @param fields the text of each column, in table order
+         * @throws Exception if writing fails
+         */
+        void accept(String[] fields) throws Exception;
+
+        /**
+         * Finishes the table.
+         * @throws IOException if a file cannot be written
+         * @throws SQLException if the last rows cannot be inserted
+         */
+        @Override
+        void close() throws IOException, SQLException;
+    }
+
+    private final int scale;
+    private final int history;
+    private final long seed;
+    private int historySpan;
+
+    /**
+     * Creates a generator.
+     * @param scale how many copies of the data to produce; 1 copies the originals
+     * @param seed the seed of the region offsets and noise
+     */
+    public SyntheticDataGenerator(int scale, long seed) {
+        this(scale, 0, seed);
+    }
+
+    /**
+     * Creates a generator that also extends the history of every item.
+     * @param scale how many copies of the data to produce; 1 copies the originals
+     * @param history how many earlier copies of the dated rows to add; 0 adds none
+     * @param seed the seed of the region offsets and noise
+     */
+    public SyntheticDataGenerator(int scale, int history, long seed) {
+        if (scale < 1) throw new IllegalArgumentException("Scale must be at least 1: " + scale);
+        if (history < 0) throw new IllegalArgumentException("History must not be negative: " + history);
+        this.scale = scale;
+        this.history = history;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the generator.
+     * @param args the scale, then optionally --out folder, --history n, --seed n and --load
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: SyntheticDataGenerator <scale> [--out folder] [--history n] [--seed n] [--load]");
+            System.exit(2);
+        }
+        int scale = Integer.parseInt(args[0]);
+        Path out = Paths.get("dataset-" + scale + "x");
+        int history = 0;
+        long seed = 42;
+        boolean load = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--history" -> history = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--load" -> load = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(scale, history, seed);
+        if (load) {
+            PriceDataVisualizer.setupConnectionPool();
+            try {
+                for (DatasetTable table : DatasetTable.values()) {
+                    long start = System.nanoTime();
+                    long rows;
+                    try (Connection conn = PriceDataVisualizer.getWriteConnection()) {
+                        rows = generator.generate(table, new DatabaseSink(conn, table));
+                    }
+                    report(table, rows, start);
+                }
+                System.out.println("Run sql/starSchema.sql again to rebuild the star schema from the new rows.");
+            } finally {
+                PriceDataVisualizer.closeConnectionPool();
+            }
+        } else {
+            Files.createDirectories(out);
+            for (DatasetTable table : DatasetTable.values()) {
+                long start = System.nanoTime();
+                Path csv = out.resolve(table.csvFile());
+                long rows;
+                try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                    writer.write(readHeader(Datasets.csvPath(table)));
+                    writer.write('\n');
+                    rows = generator.generate(table, new CsvSink(writer));
+                }
+                report(table, rows, start);
+            }
+            System.out.println("Wrote " + out + ". Run the app with -DpriceVisualizer.datasetDir=" + out
+                    + " to use it with the snapshot backend.");
+        }
+    }
+
+    private static void report(DatasetTable table, long rows, long start) {
+        System.out.printf("%-22s %10d rows  %.1f s%n", table.tableName(), rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Generates every region, and every earlier copy of its history, of a
+     * table from its CSV in the dataset folder.
+     * @param table the table to generate
+     * @param sink receives the rows; it is closed when the table is done
+     * @return the number of rows generated
+     * @throws Exception if reading the original or writing a row fails
+     */
+    long generate(DatasetTable table, RowSink sink) throws Exception {
+        Column[] columns = table.columns();
+        List<String[]> original = readRows(table);
+
+        // Item columns get the region suffix, value columns the region offset
+        // and year columns the shift of each earlier copy
+        List<Integer> itemCols = new ArrayList<>();
+        List<Integer> valueCols = new ArrayList<>();
+        List<Integer> yearCols = new ArrayList<>();
+        for (int c = 0; c < columns.length; c++) {
+            String name = columns[c].name();
+            if (columns[c].type() == ColumnType.DOUBLE) valueCols.add(c);
+            else if (columns[c].type() == ColumnType.STRING && !name.equals("attribute") && !name.equals("unit")) itemCols.add(c);
+            else if (columns[c].type() == ColumnType.INT && name.toLowerCase().startsWith("year")) yearCols.add(c);
+        }
+        int copies = yearCols.isEmpty() ? 1 : history + 1;
+        int span = copies > 1 ? historySpan() : 0;
+        boolean actuals = table == DatasetTable.HISTORICAL_CPI || table == DatasetTable.HISTORICAL_PPI;
+        int unitCol = -1;
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c].name().equals("unit")) unitCol = c;
+        }
+
+        long rows = 0;
+        try (sink) {
+            for (int region = 0; region < scale; region++) {
+                SplittableRandom noise = new SplittableRandom(seed * 31 + region * 7919L + table.ordinal());
+                Map<String, Double> offsets = new HashMap<>();
+                // Oldest copy first, so each region's rows stay in year order
+                for (int copy = copies - 1; copy >= 0; copy--) {
+                    for (String[] row : original) {
+                        String[] fields = row.clone();
+                        for (int c : copy > 0 ? yearCols : List.<Integer>of()) {
+                            int year = parseYear(fields[c]);
+                            if (year != NO_YEAR) fields[c] = Integer.toString(year - copy * span);
+                        }
+                        if (region > 0 || copy > 0) {
+                            // The offset follows the most detailed item column, so all
+                            // tables shift an item of a region the same way
+                            String item = itemOf(row, itemCols);
+                            int r = region;
+                            double offset = offsets.computeIfAbsent(item, k -> regionOffset(r, k));
+                            for (int c : region > 0 ? itemCols : List.<Integer>of()) {
+                                if (!fields[c].isBlank()) fields[c] = fields[c] + " (Region " + region + ")";
+                            }
+                            // Only percent changes move; weights such as "Relative importance" are kept
+                            boolean percentChange = unitCol < 0 || "Percent change".equals(row[unitCol]);
+                            for (int c : percentChange ? valueCols : List.<Integer>of()) {
+                                double jitter = actuals ? noise.nextGaussian() * ACTUAL_NOISE : 0;
+                                fields[c] = shift(fields[c], offset + jitter);
+                            }
+                        }
+                        sink.accept(fields);
+                        rows++;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns how many years each earlier copy is shifted back: the span of
+     * the years in historicalcpi, so every copy of the history lines up with
+     * the copies of the forecasts made for it.
+     */
+    private int historySpan() throws IOException {
+        if (historySpan > 0) return historySpan;
+        Column[] columns = DatasetTable.HISTORICAL_CPI.columns();
+        int yearCol = 0;
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c].name().equals("year")) yearCol = c;
+        }
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (String[] row : readRows(DatasetTable.HISTORICAL_CPI)) {
+            int year = parseYear(row[yearCol]);
+            if (year == NO_YEAR) continue;
+            first = Math.min(first, year);
+            last = Math.max(last, year);
+        }
+        historySpan = first > last ? 1 : last - first + 1;
+        return historySpan;
+    }
+
+    private static int parseYear(String field) {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            return NO_YEAR;
+        }
+    }
+
+    /**
+     * Returns the deepest filled-in item column of a row.
+     */
+    private static String itemOf(String[] row, List<Integer> itemCols) {
+        String item = "";
+        for (int c : itemCols) {
+            if (!row[c].isBlank()) item = row[c];
+        }
+        return item;
+    }
+
+    /**
+     * Returns the fixed offset of an item in a region.
+     */
+    private double regionOffset(int region, String item) {
+        SplittableRandom random = new SplittableRandom(seed ^ (region * 0x9E3779B97F4A7C15L) ^ item.hashCode());
+        return random.nextGaussian() * REGION_SPREAD;
+    }
+
+    /**
+     * Adds an offset to a numeric field, keeping one decimal. Text that is
+     * not a number is returned unchanged.
+     */
+    private static String shift(String field, double offset) {
+        if (field.isBlank()) return field;
+        try {
+            long tenths = Math.round((Double.parseDouble(field.trim()) + offset) * 10);
+            return (tenths < 0 ? "-" : "") + Math.abs(tenths / 10) + "." + Math.abs(tenths % 10);
+        } catch (NumberFormatException e) {
+            return field;
+        }
+    }
+
+    /**
+     * Reads the rows of a table's original CSV.
+     */
+    private static List<String[]> readRows(DatasetTable table) throws IOException {
+        int columnCount = table.columns().length;
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Datasets.csvPath(table), StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // Skip the header row
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) rows.add(DatasetSnapshot.parseCsvLine(line, columnCount));
+            }
+        }
+        return rows;
+    }
+
+    private static String readHeader(Path csv) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            return header == null ? "" : header;
+        }
+    }
+
+    /**
+     * Writes rows as CSV lines: numbers as they are, text in double quotes.
+     */
+    static final class CsvSink implements RowSink {
+        private final BufferedWriter writer;
+        private final StringBuilder line = new StringBuilder();
+
+        CsvSink(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(String[] fields) throws IOException {
+            line.setLength(0);
+            for (int c = 0; c < fields.length; c++) {
+                if (c > 0) line.append(',');
+                String field = fields[c];
+                if (isNumber(field)) {
+                    line.append(field);
+                } else {
+                    line.append('"').append(field.replace("\"", "\"\"")).append('"');
+                }
+            }
+            writer.write(line.append('\n').toString());
+        }
+
+        private static boolean isNumber(String field) {
+            if (field.isEmpty()) return false;
+            try {
+                Double.parseDouble(field);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Replaces the rows of a database table with the generated ones, using
+     * multi-row INSERTs of ROWS_PER_INSERT rows, each committed on its own.
+     */
+    static final class DatabaseSink implements RowSink {
+        private final Connection conn;
+        private final String insertHead;
+        private final PreparedStatement insert;
+        private final List<String[]> pending = new ArrayList<>();
+
+        DatabaseSink(Connection conn, DatasetTable table) throws SQLException {
+            this.conn = conn;
+            StringJoiner names = new StringJoiner(", ", "(", ")");
+            for (Column column : table.columns()) names.add(column.name());
+            insertHead = "INSERT INTO " + table.tableName() + " " + names + " VALUES ";
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("TRUNCATE TABLE " + table.tableName());
+            }
+            conn.setAutoCommit(false);
+            insert = conn.prepareStatement(insertSql(ROWS_PER_INSERT, table.columns().length));
+        }
+
+        private String insertSql(int rows, int columnCount) {
+            StringJoiner row = new StringJoiner(", ", "(", ")");
+            for (int c = 0; c < columnCount; c++) row.add("?");
+            StringJoiner values = new StringJoiner(", ");
+            for (int r = 0; r < rows; r++) values.add(row.toString());
+            return insertHead + values;
+        }
+
+        @Override
+        public void accept(String[] fields) throws SQLException {
+            pending.add(fields);
+            if (pending.size() == ROWS_PER_INSERT) flush(insert);
+        }
+
+        /**
+         * Inserts the pending rows with a statement that has exactly as many rows.
+         */
+        private void flush(PreparedStatement stmt) throws SQLException {
+            int p = 1;
+            for (String[] fields : pending) {
+                for (String field : fields) stmt.setString(p++, field);
+            }
+            stmt.executeUpdate();
+            conn.commit();
+            pending.clear();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (!pending.isEmpty()) {
+                    // The last, shorter group needs its own statement
+                    try (PreparedStatement last = conn.prepareStatement(
+                            insertSql(pending.size(), pending.get(0).length))) {
+                        flush(last);
+                    }
+                }
+            } finally {
+                insert.close();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * TablePager.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import javax.swing.*;
+import java.awt.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * TablePager shows the raw rows of a table one page at a time with Prev /
+ * Next controls. Pages are fetched with a page_data_* query that continues
+ * after the last id of the previous page (keyset paging), so only one page
+ * of rows is ever transferred and every page costs the same on the server.
+ *
+ * Pages are read on a background thread with Prev / Next disabled until
+ * they arrive. A page that arrives after another page or table was asked
+ * for is dropped.
+ */
+public class TablePager extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    /** Number of rows shown per page. */
+    public static final int PAGE_SIZE = 500;
+
+    private final JTable table;
+    private final JButton prevButton = new JButton("< Prev");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+
+    // Last id before each page that was visited, so Prev can step back
+    private final Deque<Long> previousStarts = new ArrayDeque<>();
+    private String sql;
+    private String idColumn;
+    private long pageStart;
+    private long pageEnd;
+    private int pageNumber;
+    private boolean hasNext;
+    private boolean loading;
+    // Bumped for every load and reset, so late pages can be recognised
+    private int request;
+
+    /**
+     * One page read from the database.
+     * @param model the rows of the page
+     * @param lastId the id of the last row, or the id the page started after if it is empty
+     * @param more true if there are rows after the page
+     */
+    private record Page(ResultTableModel model, long lastId, boolean more) { }
+
+    /**
+     * Creates the paging controls for a table.
+     * @param table the table the pages are shown in
+     */
+    public TablePager(JTable table) {
+        super(new FlowLayout(FlowLayout.LEFT));
+        this.table = table;
+        add(prevButton);
+        add(pageLabel);
+        add(nextButton);
+
+        // The page history only moves once the new page has loaded
+        prevButton.addActionListener(e -> {
+            if (previousStarts.isEmpty()) return;
+            loadPage(previousStarts.peek(), pageNumber - 1, previousStarts::pop);
+        });
+        nextButton.addActionListener(e -> {
+            long start = pageStart;
+            loadPage(pageEnd, pageNumber + 1, () -> previousStarts.push(start));
+        });
+        setVisible(false);
+    }
+
+    /**
+     * Shows the first page of a table.
+     * @param tableName the table to page through
+     * @param pageSql the page_data_* query, taking the last id and the row limit
+     */
+    public void showTable(String tableName, String pageSql) {
+        this.sql = pageSql;
+        this.idColumn = tableName.toLowerCase() + "_id";
+        previousStarts.clear();
+        pageNumber = 0;
+        hasNext = false;
+        setVisible(true);
+        loadPage(0, 1, () -> { });
+    }
+
+    /**
+     * Hides the paging controls when another view takes over the table.
+     */
+    public void reset() {
+        sql = null;
+        request++;
+        loading = false;
+        previousStarts.clear();
+        setVisible(false);
+    }
+
+    /**
+     * Loads the page that starts after the given id in the background. The
+     * page number and bounds are only updated when the page loads, so a
+     * failed load leaves the label matching the page on screen.
+     * @param afterId the last id of the previous page, or 0 for the first page
+     * @param number the number of the page being loaded
+     * @param onLoaded run on the EDT once the page is shown
+     */
+    private void loadPage(long afterId, int number, Runnable onLoaded) {
+        if (sql == null) return;
+        String pageSql = sql;
+        String pageIdColumn = idColumn;
+        int thisRequest = ++request;
+        loading = true;
+        updateButtons();
+        pageLabel.setText("Loading page " + number + "...");
+
+        new SwingWorker<Page, Void>() {
+            @Override
+            protected Page doInBackground() throws SQLException {
+                return readPage(pageSql, pageIdColumn, afterId);
+            }
+
+            @Override
+            protected void done() {
+                // Another page or table was asked for while this one was read
+                if (thisRequest != request) return;
+                loading = false;
+                try {
+                    Page page = get();
+                    pageStart = afterId;
+                    pageEnd = page.lastId();
+                    pageNumber = number;
+                    hasNext = page.more();
+                    table.setModel(page.model());
+                    onLoaded.run();
+                    pageLabel.setText(page.model().getRowCount() == 0 ? "No rows"
+                            : "Page " + pageNumber + " (" + page.model().getRowCount() + " rows)");
+                } catch (InterruptedException | ExecutionException e) {
+                    pageLabel.setText(pageNumber == 0 ? "Failed to load"
+                            : "Page " + pageNumber + " (" + table.getRowCount() + " rows)");
+                    PriceDataVisualizer.showError(TablePager.this, e);
+                }
+                updateButtons();
+            }
+        }.execute();
+    }
+
+    /**
+     * Reads the page of rows after the given id.
+     */
+    private static Page readPage(String pageSql, String pageIdColumn, long afterId) throws SQLException {
+        try (Connection conn = PriceDataVisualizer.getConnection();
+             PreparedStatement ps = conn.prepareStatement(pageSql)) {
+            ps.setLong(1, afterId);
+            // One extra row tells whether there is a next page
+            ps.setInt(2, PAGE_SIZE + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultTableModel model = new ResultTableModel(rs.getMetaData());
+                int idCol = rs.findColumn(pageIdColumn);
+                long lastId = afterId;
+                while (model.getRowCount() < PAGE_SIZE && model.readRow(rs)) {
+                    lastId = rs.getLong(idCol);
+                }
+                return new Page(model, lastId, rs.next());
+            }
+        }
+    }
+
+    private void updateButtons() {
+        prevButton.setEnabled(!loading && !previousStarts.isEmpty());
+        nextButton.setEnabled(!loading && hasNext);
+    }
+}
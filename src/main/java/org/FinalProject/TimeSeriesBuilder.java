@@ -0,0 +1,144 @@
+/**
+ * TimeSeriesBuilder.java
+ * @author Keigen Godlaski
+ * @copyright (c) 2025 Keigen Godlaski
+ * @version 1.0
+ * @date 2025-05-06
+ */
+
+package org.FinalProject;
+
+import org.jfree.data.time.Month;
+import org.jfree.data.time.TimeSeries;
+
+import java.util.*;
+
+/**
+ * TimeSeriesBuilder collects monthly points per series in primitive arrays
+ * and turns them into JFreeChart TimeSeries in one bulk step. Unlike calling
+ * addOrUpdate per row it does not search and fire a change event for every
+ * point, and Month periods are shared through a cache instead of being
+ * allocated per row. When a series has several points for the same month
+ * the last one wins, matching addOrUpdate. The points can also be merged
+ * into a series that already exists, as ChartStream does once per frame.
+ */
+public final class TimeSeriesBuilder {
+    private static final int FIRST_CACHED_YEAR = 1900;
+    private static final int LAST_CACHED_YEAR = 2100;
+    private static final Month[] MONTHS = new Month[(LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1) * 12];
+
+    private final Map<String, Points> points = new LinkedHashMap<>();
+
+    /**
+     * Points of one series, stored as (year * 12 + month - 1, value).
+     */
+    private static final class Points {
+        int[] periods = new int[64];
+        double[] values = new double[64];
+        int size;
+        boolean sorted = true;
+
+        void add(int period, double value) {
+            if (size == periods.length) {
+                periods = Arrays.copyOf(periods, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (size > 0 && period < periods[size - 1]) sorted = false;
+            periods[size] = period;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Adds a monthly point to a series.
+     * @param key the series key
+     * @param year the year of the point
+     * @param month the month of the point (1-12)
+     * @param value the value of the point
+     */
+    public void add(String key, int year, int month, double value) {
+        Points p = points.get(key);
+        if (p == null) {
+            p = new Points();
+            points.put(key, p);
+        }
+        p.add(year * 12 + (month - 1), value);
+    }
+
+    /**
+     * Returns the keys of every series in insertion order.
+     * @return the series keys
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(points.keySet());
+    }
+
+    /**
+     * Builds one series.
+     * @param key the series key
+     * @param name the name given to the TimeSeries
+     * @return the series, empty if no points were added for the key
+     */
+    public TimeSeries build(String key, String name) {
+        TimeSeries series = new TimeSeries(name);
+        addTo(key, series);
+        return series;
+    }
+
+    /**
+     * Merges the points of one series into an existing TimeSeries and fires
+     * a single change event for it. Points after the series' last month are
+     * appended without a search; points for months it already has replace
+     * the old value, as addOrUpdate would.
+     * @param key the series key
+     * @param series the series to add the points to
+     */
+    public void addTo(String key, TimeSeries series) {
+        Points p = points.get(key);
+        if (p == null) return;
+
+        // Stable ordering by period: the insertion index breaks ties so the
+        // last point for a month is the one kept
+        long[] order = new long[p.size];
+        for (int i = 0; i < p.size; i++) order[i] = ((long) p.periods[i] << 32) | i;
+        if (!p.sorted) Arrays.sort(order);
+
+        boolean notify = series.getNotify();
+        series.setNotify(false);
+        for (int k = 0; k < order.length; k++) {
+            if (k + 1 < order.length && (order[k + 1] >>> 32) == (order[k] >>> 32)) continue;
+            int i = (int) order[k];
+            int period = p.periods[i];
+            Month m = month(period / 12, period % 12 + 1);
+            int last = series.getItemCount() - 1;
+            if (last < 0 || m.compareTo(series.getTimePeriod(last)) > 0) {
+                series.add(m, p.values[i], false);
+            } else {
+                int index = series.getIndex(m);
+                if (index >= 0) series.update(index, p.values[i]);
+                else series.add(m, p.values[i], false);
+            }
+        }
+        // Turning notification back on fires the one change event
+        series.setNotify(notify);
+    }
+
+    /**
+     * Returns a shared Month instance for the given year and month.
+     * @param year the year
+     * @param month the month (1-12)
+     * @return the Month period
+     */
+    public static Month month(int year, int month) {
+        if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR) return new Month(month, year);
+        int idx = (year - FIRST_CACHED_YEAR) * 12 + (month - 1);
+        Month m = MONTHS[idx];
+        if (m == null) {
+            // Month is immutable, so a racing duplicate is harmless
+            m = new Month(month, year);
+            MONTHS[idx] = m;
+        }
+        return m;
+    }
+}